@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures {@link InventoryServer} latency and throughput over loopback.
+ * <p>
+ * Usage: {@code java InventoryServerLoadTest [clients] [seconds] [cards] [memory|durable]}.
+ * Starts a server on a free port over a model with the given number of cards
+ * (10,000 by default) and one binder per client, then runs that many clients
+ * (64 by default), each on a virtual thread, for the given number of seconds
+ * (10 by default) after a short warmup. Each client sends requests back to back
+ * in a fixed mix of reads and writes. In {@code durable} mode the model is
+ * kept in an {@link InventoryStore}, so every write waits for the journal.
+ * <p>
+ * Reports requests per second and p50, p99 and max latency, overall and for
+ * each kind of request.
+ */
+public class InventoryServerLoadTest {
+    private static final int WARMUP_SECONDS = 3;
+
+    /** The request mix, in the proportions each kind is sent. */
+    private enum Kind {
+        GET_CARD(40),
+        GET_MONEY(10),
+        ADD_CARD(20),
+        BINDER_ADD(15),
+        BINDER_REMOVE(15);
+
+        private final int weight;
+
+        Kind(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        int cardCount = (args.length > 2) ? Integer.parseInt(args[2]) : 10_000;
+        boolean durable = (args.length > 3) && args[3].equals("durable");
+
+        Path directory = durable ? Files.createTempDirectory("inventory") : null;
+        InventoryStore store = durable ? InventoryStore.open(directory) : null;
+        TradingCardInventorySystemModel model = durable ? store.getModel() : new TradingCardInventorySystemModel();
+
+        List<Card> cards = new ArrayList<>(cardCount);
+        for (int i = 0; i < cardCount; i++) {
+            cards.add(new Card("Card " + i, CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.valueOf(100 + i % 5000, 2),
+                    1_000));
+        }
+        model.addCardsToCollection(cards);
+        for (int c = 0; c < clients; c++) {
+            model.createBinder("Binder " + c, BinderType.BASIC);
+        }
+
+        try (InventoryServer server = new InventoryServer(model, 0)) {
+            server.start();
+            URI base = URI.create("http://localhost:" + server.getPort() + "/");
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+            System.out.printf("clients: %d  cards: %,d  mode: %s%n", clients, cardCount, durable ? "durable" : "memory");
+            run(http, base, clients, WARMUP_SECONDS, cardCount);
+            Result result = run(http, base, clients, seconds, cardCount);
+            result.print(seconds);
+        } finally {
+            if (store != null) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Runs every client for the given time and collects their latencies.
+     */
+    private static Result run(HttpClient http, URI base, int clients, int seconds, int cardCount) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<Result>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> runClient(http, base, client, deadline, cardCount)));
+            }
+        }
+
+        Result total = new Result();
+        for (Future<Result> future : futures) {
+            total.addAll(future.get());
+        }
+        return total;
+    }
+
+    private static Result runClient(HttpClient http, URI base, int client, long deadline, int cardCount)
+            throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Result result = new Result();
+        String binder = "binders/" + encode("Binder " + client);
+        int held = 0;
+
+        while (System.nanoTime() < deadline) {
+            Kind kind = pick(random.nextInt(100));
+            String card = "Card " + random.nextInt(cardCount);
+
+            // Only take back cards this client put in, so removals always succeed
+            if (kind == Kind.BINDER_REMOVE && held == 0) {
+                kind = Kind.BINDER_ADD;
+            } else if (kind == Kind.BINDER_ADD && held >= Binder.MAX_CARD_COUNT) {
+                kind = Kind.BINDER_REMOVE;
+            }
+
+            HttpRequest request = switch (kind) {
+                case GET_CARD -> get(base, "cards/" + encode(card));
+                case GET_MONEY -> get(base, "money");
+                case ADD_CARD -> post(base, "cards", "{\"name\":\"" + card + "\",\"rarity\":\"COMMON\","
+                        + "\"value\":" + BigDecimal.valueOf(100 + Integer.parseInt(card.substring(5)) % 5000, 2) + "}");
+                case BINDER_ADD -> post(base, binder + "/cards", "{\"name\":\"Card " + client + "\"}");
+                case BINDER_REMOVE -> HttpRequest.newBuilder(base.resolve(binder + "/cards/" + encode("Card " + client)))
+                        .DELETE().build();
+            };
+
+            long start = System.nanoTime();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long nanos = System.nanoTime() - start;
+
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException(kind + " failed with " + response.statusCode() + ": " + response.body());
+            }
+            held += switch (kind) {
+                case BINDER_ADD -> 1;
+                case BINDER_REMOVE -> -1;
+                default -> 0;
+            };
+            result.add(kind, nanos);
+        }
+
+        // Leave the binder empty for the next run
+        for (; held > 0; held--) {
+            http.send(HttpRequest.newBuilder(base.resolve(binder + "/cards/" + encode("Card " + client))).DELETE().build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        return result;
+    }
+
+    private static Kind pick(int percent) {
+        for (Kind kind : Kind.values()) {
+            percent -= kind.weight;
+            if (percent < 0) {
+                return kind;
+            }
+        }
+        return Kind.GET_CARD;
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET().build();
+    }
+
+    private static HttpRequest post(URI base, String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /**
+     * Latencies in nanoseconds, overall and per kind of request.
+     */
+    private static final class Result {
+        private final LongList all = new LongList();
+        private final LongList[] byKind = new LongList[Kind.values().length];
+
+        Result() {
+            Arrays.setAll(byKind, _ -> new LongList());
+        }
+
+        void add(Kind kind, long nanos) {
+            all.add(nanos);
+            byKind[kind.ordinal()].add(nanos);
+        }
+
+        void addAll(Result other) {
+            all.addAll(other.all);
+            for (int k = 0; k < byKind.length; k++) {
+                byKind[k].addAll(other.byKind[k]);
+            }
+        }
+
+        void print(int seconds) {
+            System.out.printf("requests: %,d  %,.0f req/s%n", all.size, all.size / (double) seconds);
+            print("all", all);
+            for (Kind kind : Kind.values()) {
+                print(kind.name().toLowerCase(), byKind[kind.ordinal()]);
+            }
+        }
+
+        private static void print(String label, LongList latencies) {
+            if (latencies.size == 0) {
+                return;
+            }
+
+            long[] sorted = Arrays.copyOf(latencies.values, latencies.size);
+            Arrays.sort(sorted);
+            System.out.printf("%-14s n=%,9d  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms%n", label, sorted.length,
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static long percentile(long[] sorted, double fraction) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)];
+        }
+    }
+
+    /**
+     * Growable array of longs, so recording a latency does not box it.
+     */
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import benchmarks.InventoryWorkload;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * The operations the JMH benchmarks in {@code benchmarks} measure, run against
+ * a populated model.
+ * <p>
+ * Cards are picked at random, so lookups do not keep hitting the same few in
+ * cache. With {@code -Dtcis.metrics=true} the model records
+ * {@link InventoryMetrics}, to measure what recording costs.
+ */
+public class ModelWorkload implements InventoryWorkload {
+    private static final int PICKS = 1 << 16;
+    private static final int COPIES = 1_000_000;
+
+    private final TradingCardInventorySystemModel model;
+    private final Card[] picks = new Card[PICKS];
+    private final String[] names = new String[PICKS];
+    private final String[] newNames = new String[PICKS];
+    private final BigDecimal value = new BigDecimal("4.99");
+    private final Binder binder;
+    private final Binder trades;
+    private final Card[] incoming;
+    private final Card[] outgoing;
+
+    /**
+     * Builds a model with the given number of distinct cards of every rarity
+     * and variant, each with plenty of copies to put in binders and sell.
+     *
+     * @param cardCount number of distinct cards
+     * @param store     the card store to keep them in, {@code heap} or {@code columnar}
+     */
+    public ModelWorkload(int cardCount, String store) {
+        model = switch (store) {
+            case "heap" -> new TradingCardInventorySystemModel();
+            case "columnar" -> new TradingCardInventorySystemModel(new ColumnarCardStore(cardCount));
+            default -> throw new IllegalArgumentException("Unknown card store '" + store + "'.");
+        };
+
+        CardRarity[] rarities = CardRarity.values();
+        CardVariant[] variants = CardVariant.values();
+        List<Card> cards = new ArrayList<>(cardCount);
+
+        for (int i = 0; i < cardCount; i++) {
+            cards.add(new Card("Card " + i, rarities[i % rarities.length],
+                    variants[(i / rarities.length) % variants.length], BigDecimal.valueOf(100 + i % 5000, 2), COPIES));
+        }
+        model.addCardsToCollection(cards);
+        Main.startMetrics(model, false);
+
+        SplittableRandom random = new SplittableRandom(cardCount);
+        for (int p = 0; p < PICKS; p++) {
+            picks[p] = model.getCardFromCollection(random.nextInt(cardCount));
+            names[p] = picks[p].getName();
+            newNames[p] = "New card " + random.nextInt();
+        }
+
+        model.createBinder("Bench binder", BinderType.BASIC);
+        binder = model.getBinder("Bench binder");
+
+        model.createBinder("Bench trades", BinderType.BASIC);
+        trades = model.getBinder("Bench trades");
+        Card first = model.getCardFromCollection(0);
+        Card second = model.getCardFromCollection(cardCount - 1);
+        incoming = new Card[] {copy(second), copy(first)};
+        outgoing = new Card[] {first, second};
+        model.addCardToBinder(trades, first);
+    }
+
+    @Override
+    public long newCard(long i) {
+        return new Card(names[pick(i)], CardRarity.RARE, CardVariant.FULL_ART, value, 1).getValueCents();
+    }
+
+    @Override
+    public long addNewCard(long i) {
+        Card card = new Card(newNames[pick(i)], CardRarity.COMMON, CardVariant.NORMAL, 250, 1);
+
+        model.addCardToCollection(card);
+        return model.sellCard(card) ? 1 : 0;
+    }
+
+    @Override
+    public long addCopy(long i) {
+        Card card = picks[pick(i)];
+
+        model.addCardToCollection(new Card(card.getName(), card.getRarity(), card.getVariant(), card.getValueCents(), 1));
+        return card.getCount();
+    }
+
+    @Override
+    public long getByName(long i) {
+        return model.getCardFromCollection(names[pick(i)]).getValueCents();
+    }
+
+    @Override
+    public long collectionValue() {
+        return model.getCollectionValueCents();
+    }
+
+    @Override
+    public long binderAddRemove(long i) {
+        Card card = picks[pick(i)];
+
+        check(model.addCardToBinder(binder, card), "add to binder");
+        check(model.removeCardFromBinder(binder, card), "remove from binder");
+        return card.getCount();
+    }
+
+    @Override
+    public long trade(long i) {
+        int side = (int) (i & 1);
+
+        check(model.executeTrade(trades, incoming[side], outgoing[side]), "trade");
+        return trades.getCardsCount();
+    }
+
+    @Override
+    public long sell(long i) {
+        return model.sellCard(picks[pick(i)]) ? 1 : 0;
+    }
+
+    @Override
+    public long cardValue() {
+        return picks[0].calculateValue().signum();
+    }
+
+    @Override
+    public LongSupplier holderValue(String type) {
+        String name = "Bench " + type;
+        CardHolder holder;
+
+        if (type.equals("SELLABLE")) {
+            model.createDeck(name, DeckType.SELLABLE);
+            Deck deck = model.getDeck(name);
+            for (int c = 0; c < model.getCollectionSize() && deck.getCardsCount() < Deck.MAX_CARD_COUNT; c++) {
+                model.addCardToDeck(deck, model.getCardFromCollection(c));
+            }
+            holder = deck;
+        } else {
+            model.createBinder(name, BinderType.valueOf(type));
+            Binder filled = model.getBinder(name);
+            for (int c = 0; c < model.getCollectionSize() && filled.getCardsCount() < Binder.MAX_CARD_COUNT; c++) {
+                model.addCardToBinder(filled, model.getCardFromCollection(c));
+            }
+            holder = filled;
+        }
+
+        Sellable sellable = (Sellable) holder;
+        return () -> sellable.calculateValue().signum();
+    }
+
+    private static int pick(long i) {
+        return (int) (i & (PICKS - 1));
+    }
+
+    private static Card copy(Card card) {
+        return new Card(card.getName(), card.getRarity(), card.getVariant(), card.getValueCents(), 0);
+    }
+
+    private static void check(boolean succeeded, String what) {
+        if (!succeeded) {
+            throw new IllegalStateException("Could not " + what + ".");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures how fast {@link InventorySnapshot} saves and loads a large inventory.
+ * <p>
+ * Usage: {@code java SnapshotBenchmark [cards] [iterations]}. Builds a model with
+ * the given number of distinct cards (1,000,000 by default) plus some binders and
+ * decks, saves it once, then loads it repeatedly and reports the load throughput.
+ */
+public class SnapshotBenchmark {
+    private static final int WARMUP_ITERATIONS = 2;
+
+    public static void main(String[] args) throws IOException {
+        int cardCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        Path file = Files.createTempFile("inventory", ".tcis");
+
+        try {
+            long saveNanos = saveModel(cardCount, file);
+            long bytes = Files.size(file);
+            System.gc(); // Start loading with only the snapshot's own garbage on the heap
+
+            System.out.printf("cards: %,d  snapshot: %,d bytes  save: %.1f ms%n",
+                    cardCount, bytes, saveNanos / 1e6);
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                InventorySnapshot.load(file);
+            }
+
+            long best = Long.MAX_VALUE;
+            long total = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                TradingCardInventorySystemModel loaded = InventorySnapshot.load(file);
+                long nanos = System.nanoTime() - start;
+
+                if (loaded.getCardCollection().size() != cardCount) {
+                    throw new IllegalStateException("Loaded " + loaded.getCardCollection().size() + " cards.");
+                }
+                best = Math.min(best, nanos);
+                total += nanos;
+            }
+
+            double meanSeconds = total / 1e9 / iterations;
+            System.out.printf("load: mean %.1f ms  best %.1f ms  %,.0f cards/s  %.1f MB/s%n",
+                    meanSeconds * 1e3, best / 1e6, cardCount / meanSeconds, bytes / meanSeconds / 1e6);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Builds a model and saves it, so the model is unreachable once this returns.
+     *
+     * @param cardCount number of distinct cards
+     * @param file      the snapshot file to write
+     * @return the time the save took in nanoseconds
+     * @throws IOException if the snapshot cannot be written
+     */
+    private static long saveModel(int cardCount, Path file) throws IOException {
+        TradingCardInventorySystemModel model = buildModel(cardCount);
+
+        long start = System.nanoTime();
+        InventorySnapshot.save(model, file);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Builds a model with the given number of distinct cards, 1,000 binders and 100 decks.
+     *
+     * @param cardCount number of distinct cards
+     * @return the populated model
+     */
+    static TradingCardInventorySystemModel buildModel(int cardCount) {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        CardRarity[] rarities = CardRarity.values();
+        CardVariant[] variants = CardVariant.values();
+
+        for (int i = 0; i < cardCount; i++) {
+            model.addCardToCollection("Card " + i, rarities[i % rarities.length],
+                    variants[(i / rarities.length) % variants.length], BigDecimal.valueOf(100 + i % 5000, 2));
+            model.adjustCardCount(model.getCardFromCollection(i), i % 7);
+        }
+
+        for (int b = 0; b < Math.min(1_000, cardCount); b++) {
+            model.createBinder("Binder " + b, BinderType.BASIC);
+            model.addCardToBinder(model.getBinder(b), model.getCardFromCollection(b));
+        }
+        for (int d = 0; d < Math.min(100, cardCount); d++) {
+            model.createDeck("Deck " + d, DeckType.NORMAL);
+            model.addCardToDeck(model.getDeck(d), model.getCardFromCollection(d));
+        }
+
+        return model;
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the model's hot paths, one operation at a time, at several
+ * inventory sizes and with each card store.
+ * <p>
+ * Every benchmark gets a freshly built model of 1,000, 100,000 and 1,000,000
+ * distinct cards, kept on the heap and in a columnar store. Run e.g.
+ * {@code java -jar benchmarks.jar InventoryBenchmark -p cards=100000 -prof gc}
+ * to pick one size and see the bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 4, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class InventoryBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int cards;
+
+    @Param({"heap", "columnar"})
+    public String store;
+
+    private InventoryWorkload workload;
+    private long call;
+
+    @Setup
+    public void setUp() {
+        workload = InventoryWorkload.create(cards, store);
+    }
+
+    @Benchmark
+    public long cardNew() {
+        return workload.newCard(call++);
+    }
+
+    @Benchmark
+    public long collectionAddNew() {
+        return workload.addNewCard(call++);
+    }
+
+    @Benchmark
+    public long collectionAddCopy() {
+        return workload.addCopy(call++);
+    }
+
+    @Benchmark
+    public long collectionGetByName() {
+        return workload.getByName(call++);
+    }
+
+    @Benchmark
+    public long collectionValue() {
+        return workload.collectionValue();
+    }
+
+    @Benchmark
+    public long binderAddRemove() {
+        return workload.binderAddRemove(call++);
+    }
+
+    @Benchmark
+    public long binderTrade() {
+        return workload.trade(call++);
+    }
+
+    @Benchmark
+    public long sell() {
+        return workload.sell(call++);
+    }
+
+    @Benchmark
+    public long cardValue() {
+        return workload.cardValue();
+    }
+}
@@ -0,0 +1,113 @@
+package benchmarks;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The model operations the benchmarks measure, each returning a value derived
+ * from its result.
+ * <p>
+ * JMH only accepts benchmarks in a named package, and a named package cannot
+ * import the application's classes from the default package, so the
+ * benchmarks call the model through this interface, implemented by
+ * {@code ModelWorkload} in the default package. The interface call adds a
+ * few nanoseconds, so times of about ten nanoseconds or less are upper bounds.
+ */
+public interface InventoryWorkload {
+    /**
+     * Builds a model with the given number of distinct cards of every rarity
+     * and variant, each with plenty of copies to put in binders and sell.
+     *
+     * @param cardCount number of distinct cards
+     * @param store     the card store to keep them in, {@code heap} or {@code columnar}
+     * @return the workload over the populated model
+     */
+    static InventoryWorkload create(int cardCount, String store) {
+        try {
+            return (InventoryWorkload) Class.forName("ModelWorkload")
+                    .getConstructor(int.class, String.class)
+                    .newInstance(cardCount, store);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not build the benchmark model.", e);
+        }
+    }
+
+    /**
+     * Constructs a rare full-art card, taking the variant multiplier path.
+     *
+     * @param i the number of the call, counting from zero
+     * @return the card's value in cents
+     */
+    long newCard(long i);
+
+    /**
+     * Adds a card not yet in the collection, then sells its only copy, which
+     * takes it out of the collection again so the collection keeps its size.
+     *
+     * @param i the number of the call, counting from zero
+     * @return 1 if the card was sold
+     */
+    long addNewCard(long i);
+
+    /**
+     * Adds a copy of a card already in the collection.
+     *
+     * @param i the number of the call, counting from zero
+     * @return the card's new count
+     */
+    long addCopy(long i);
+
+    /**
+     * Looks a card up by name.
+     *
+     * @param i the number of the call, counting from zero
+     * @return the card's value in cents
+     */
+    long getByName(long i);
+
+    /**
+     * Sums the value of every copy in the collection.
+     *
+     * @return the collection's value in cents
+     */
+    long collectionValue();
+
+    /**
+     * Puts a card in a binder and takes it back out.
+     *
+     * @param i the number of the call, counting from zero
+     * @return the card's count
+     */
+    long binderAddRemove(long i);
+
+    /**
+     * Trades a binder's card for another, alternating between two cards.
+     *
+     * @param i the number of the call, counting from zero
+     * @return the number of cards in the binder
+     */
+    long trade(long i);
+
+    /**
+     * Sells one copy of a card.
+     *
+     * @param i the number of the call, counting from zero
+     * @return 1 if the card was sold
+     */
+    long sell(long i);
+
+    /**
+     * Calculates the value of a card.
+     *
+     * @return the sign of the value
+     */
+    long cardValue();
+
+    /**
+     * Fills a new binder or deck with as many cards as it admits and returns
+     * a measurement of its value.
+     *
+     * @param type a sellable binder type, e.g. {@code PAUPER}, or {@code SELLABLE} for a sellable deck
+     * @return calculates the holder's value and returns its sign
+     */
+    LongSupplier holderValue(String type);
+}
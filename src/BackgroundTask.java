@@ -0,0 +1,94 @@
+import javax.swing.SwingWorker;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs a long operation off the event dispatch thread and hands its outcome
+ * back to the event dispatch thread.
+ * <p>
+ * Progress reported by the work becomes the worker's bound {@code progress}
+ * property (0 to 100), which Swing delivers on the event dispatch thread.
+ * {@link #requestCancel()} only asks the work to stop; the outcome is still
+ * delivered once the work returns, so for example a cancelled import reports
+ * the cards it already added.
+ *
+ * @param <T> the type of the result
+ */
+public class BackgroundTask<T> extends SwingWorker<T, Void> implements TaskProgress {
+    /**
+     * Work to run in the background.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        /**
+         * Does the work.
+         *
+         * @param progress where to report progress and check for cancellation
+         * @return the result
+         * @throws Exception if the work fails
+         */
+        T run(TaskProgress progress) throws Exception;
+    }
+
+    private final Work<T> work;
+    private final Consumer<T> onSuccess;
+    private final Consumer<Throwable> onFailure;
+    private volatile boolean cancelRequested;
+
+    /**
+     * Creates a task. Both callbacks run on the event dispatch thread.
+     *
+     * @param work      the work to run in the background
+     * @param onSuccess receives the result
+     * @param onFailure receives whatever the work threw
+     */
+    public BackgroundTask(Work<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        this.work = work;
+        this.onSuccess = onSuccess;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Asks the work to stop at its next safe point.
+     */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    @Override
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    @Override
+    public void update(long done, long total) {
+        if (total > 0) {
+            setProgress((int) Math.min(100, done * 100 / total));
+        }
+    }
+
+    @Override
+    protected T doInBackground() throws Exception {
+        return work.run(this);
+    }
+
+    @Override
+    protected void done() {
+        T result;
+
+        try {
+            result = get();
+        } catch (ExecutionException e) {
+            onFailure.accept(e.getCause());
+            return;
+        } catch (InterruptedException e) {
+            // get() does not block once the work is done
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        onSuccess.accept(result);
+    }
+}
@@ -28,14 +28,6 @@ public abstract class Binder extends CardHolder {
         return super.addCard(card);
     }
 
-    /**
-     * Validates if a card can be added (override in subclasses)
-     * @param card The card to check
-     * @return true if card is allowed
-     */
-    public boolean canAddCard(Card card) {
-        return true; // Default: all cards allowed
-    }
     /*Returns the name of the binder
     * @return name the binder name
     * */
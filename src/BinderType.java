@@ -37,5 +37,21 @@ public enum BinderType {
     /**
      * Special binder for complete collections (all cards of a specific set or theme)
      */
-    COLLECTOR
+    COLLECTOR;
+
+    /**
+     * Returns the type of an existing binder.
+     *
+     * @param binder the binder to classify
+     * @return the binder's type
+     */
+    public static BinderType of(Binder binder) {
+        return switch (binder) {
+            case PauperBinder _ -> PAUPER;
+            case RaresBinder _ -> RARES;
+            case LuxuryBinder _ -> LUXURY;
+            case CollectorBinder _ -> COLLECTOR;
+            default -> BASIC;
+        };
+    }
 }
\ No newline at end of file
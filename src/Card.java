@@ -1,5 +1,4 @@
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Objects;
 /**
  * Represents a trading card with a name, rarity, variant, value, and count.
@@ -9,8 +8,8 @@ public class Card implements Sellable {
     private final String name;
     private final CardRarity rarity;
     private final CardVariant variant;
-    private final BigDecimal value;
-    private int count;
+    private final long valueCents;
+    private volatile int count;
     /**
      * Constructs a new Card with the given attributes.
      * <p>
@@ -44,12 +43,50 @@ public class Card implements Sellable {
 
         // Card value multiplier based on variant
         switch(this.variant) {
-            case EXTENDED_ART -> this.value = (value.add(value.multiply(new BigDecimal("0.50")))).setScale(2, RoundingMode.HALF_UP);
-            case FULL_ART -> this.value = (value.add(value)).setScale(2, RoundingMode.HALF_UP);
-            case ALT_ART -> this.value = (value.add(value.multiply(new BigDecimal("2.00")))).setScale(2, RoundingMode.HALF_UP);
-            default -> this.value = value.setScale(2, RoundingMode.HALF_UP);
+            case EXTENDED_ART -> this.valueCents = Money.multiplyToCents(value, 3, 2); // +50%
+            case FULL_ART -> this.valueCents = Money.multiplyToCents(value, 2, 1);     // +100%
+            case ALT_ART -> this.valueCents = Money.multiplyToCents(value, 3, 1);      // +200%
+            default -> this.valueCents = Money.multiplyToCents(value, 1, 1);
         }
     }
+    /**
+     * Constructs a card whose value has already been adjusted for its variant.
+     *
+     * @param name       the name of the card
+     * @param rarity     the rarity of the card
+     * @param variant    the variant of the card
+     * @param valueCents the final value of the card in cents
+     * @param count      the card count
+     */
+    Card(String name, CardRarity rarity, CardVariant variant, long valueCents, int count) {
+        this.name = name;
+        this.rarity = rarity;
+        this.variant = variant;
+        this.valueCents = valueCents;
+        this.count = count;
+    }
+    /**
+     * Recreates a previously constructed card from its stored attributes,
+     * e.g. when loading a saved inventory. The value is taken as-is, without
+     * applying the variant multiplier again.
+     *
+     * @param name       the name of the card
+     * @param rarity     the rarity of the card
+     * @param variant    the variant of the card
+     * @param valueCents the final value of the card in cents (must be > 0)
+     * @param count      the card count (must be >= 0)
+     * @return the restored card
+     * @throws IllegalArgumentException if value ≤ 0 or count < 0
+     */
+    static Card restore(String name, CardRarity rarity, CardVariant variant, long valueCents, int count) {
+        if(valueCents <= 0) {
+            throw new IllegalArgumentException("Value must be greater than zero.");
+        } else if(count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative.");
+        }
+
+        return new Card(name, rarity, variant, valueCents, count);
+    }
     /**
      * Returns the monetary value of this card including variant adjustments.
      *
@@ -57,7 +94,16 @@ public class Card implements Sellable {
      */
     @Override
     public BigDecimal calculateValue() {
-        return this.value;
+        return getValue();
+    }
+    /**
+     * Returns the value of this card in cents, including variant adjustments.
+     *
+     * @return the value of this card in cents
+     */
+    @Override
+    public long calculateValueCents() {
+        return valueCents;
     }
     /**
      * Checks equality based on name (case-insensitive), rarity, variant, and value.
@@ -72,7 +118,7 @@ public class Card implements Sellable {
         }
 
         return name.equalsIgnoreCase(((Card) o).name) && rarity == ((Card) o).rarity
-                && variant == ((Card) o).variant && value.equals(((Card) o).value);
+                && variant == ((Card) o).variant && valueCents == ((Card) o).valueCents;
     }
     /**
      * Returns a hash code based on name, rarity, variant, and value.
@@ -81,7 +127,7 @@ public class Card implements Sellable {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(name, rarity, variant, value);
+        return Objects.hash(name, rarity, variant, valueCents);
     }
     /**
      * Gets the card's name.
@@ -117,7 +163,15 @@ public class Card implements Sellable {
      * @return card value
      */
     public BigDecimal getValue() {
-        return value;
+        return Money.toBigDecimal(valueCents);
+    }
+    /**
+     * Gets the final computed value of the card in cents.
+     *
+     * @return card value in cents
+     */
+    public long getValueCents() {
+        return valueCents;
     }
     /**
      * Gets the number of copies of this card.
@@ -0,0 +1,87 @@
+import java.util.BitSet;
+
+/**
+ * Per-rarity and per-variant bitmaps over slot numbers, answering
+ * {@link CardFilter}s with word-wide AND, OR and NOT.
+ * <p>
+ * The index does not assign slots itself; {@link CollectionIndex} keeps one
+ * alongside its trees, over the same slots and under the same lock, and turns
+ * the matching slots back into cards. Counting the matches of a filter reads
+ * only the bitmaps, and listing them visits only the set bits, so cards that
+ * do not match are never looked at.
+ */
+class CardBitmapIndex {
+    private final BitSet live = new BitSet();
+    private final BitSet[] byRarity = new BitSet[CardRarity.values().length];
+    private final BitSet[] byVariant = new BitSet[CardVariant.values().length];
+
+    CardBitmapIndex() {
+        for (int r = 0; r < byRarity.length; r++) {
+            byRarity[r] = new BitSet();
+        }
+        for (int v = 0; v < byVariant.length; v++) {
+            byVariant[v] = new BitSet();
+        }
+    }
+
+    /**
+     * Records the card in a slot.
+     */
+    void add(int slot, Card card) {
+        live.set(slot);
+        byRarity[card.getRarity().ordinal()].set(slot);
+        byVariant[card.getVariant().ordinal()].set(slot);
+    }
+
+    /**
+     * Forgets the card in a slot.
+     */
+    void remove(int slot, Card card) {
+        live.clear(slot);
+        byRarity[card.getRarity().ordinal()].clear(slot);
+        byVariant[card.getVariant().ordinal()].clear(slot);
+    }
+
+    /**
+     * Counts the slots matching a filter.
+     */
+    int count(CardFilter filter) {
+        return switch (filter) {
+            case CardFilter.All _ -> live.cardinality();
+            case CardFilter.Rarity(CardRarity rarity) -> byRarity[rarity.ordinal()].cardinality();
+            case CardFilter.Variant(CardVariant variant) -> byVariant[variant.ordinal()].cardinality();
+            default -> evaluate(filter).cardinality();
+        };
+    }
+
+    /**
+     * Returns the slots matching a filter, as a new bitmap the caller may change.
+     */
+    BitSet evaluate(CardFilter filter) {
+        return switch (filter) {
+            case CardFilter.All _ -> (BitSet) live.clone();
+            case CardFilter.Rarity(CardRarity rarity) -> (BitSet) byRarity[rarity.ordinal()].clone();
+            case CardFilter.Variant(CardVariant variant) -> (BitSet) byVariant[variant.ordinal()].clone();
+            case CardFilter.And(CardFilter left, CardFilter.Not(CardFilter negated)) -> {
+                BitSet slots = evaluate(left);
+                slots.andNot(evaluate(negated));
+                yield slots;
+            }
+            case CardFilter.And(CardFilter left, CardFilter right) -> {
+                BitSet slots = evaluate(left);
+                slots.and(evaluate(right));
+                yield slots;
+            }
+            case CardFilter.Or(CardFilter left, CardFilter right) -> {
+                BitSet slots = evaluate(left);
+                slots.or(evaluate(right));
+                yield slots;
+            }
+            case CardFilter.Not(CardFilter negated) -> {
+                BitSet slots = (BitSet) live.clone();
+                slots.andNot(evaluate(negated));
+                yield slots;
+            }
+        };
+    }
+}
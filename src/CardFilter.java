@@ -0,0 +1,152 @@
+/**
+ * A condition on a card's rarity and variant, built from single rarities and
+ * variants with AND, OR and NOT.
+ * <p>
+ * A filter can test one card, as binders do to decide what they accept, or be
+ * answered for the whole collection from the rarity and variant bitmaps of
+ * {@link CardBitmapIndex}, which never look at cards that do not match.
+ */
+public sealed interface CardFilter {
+    /** Matches every card. */
+    CardFilter ALL = new All();
+
+    /**
+     * Matches every card.
+     */
+    record All() implements CardFilter {
+    }
+
+    /**
+     * Matches cards of one rarity.
+     *
+     * @param rarity the rarity
+     */
+    record Rarity(CardRarity rarity) implements CardFilter {
+    }
+
+    /**
+     * Matches cards of one variant.
+     *
+     * @param variant the variant
+     */
+    record Variant(CardVariant variant) implements CardFilter {
+    }
+
+    /**
+     * Matches cards that both filters match.
+     *
+     * @param left  the first filter
+     * @param right the second filter
+     */
+    record And(CardFilter left, CardFilter right) implements CardFilter {
+    }
+
+    /**
+     * Matches cards that either filter matches.
+     *
+     * @param left  the first filter
+     * @param right the second filter
+     */
+    record Or(CardFilter left, CardFilter right) implements CardFilter {
+    }
+
+    /**
+     * Matches cards that a filter does not match.
+     *
+     * @param filter the filter to negate
+     */
+    record Not(CardFilter filter) implements CardFilter {
+    }
+
+    /**
+     * Matches cards of any of the given rarities.
+     *
+     * @param rarities the rarities
+     * @return the filter
+     */
+    static CardFilter rarity(CardRarity... rarities) {
+        CardFilter filter = null;
+
+        for (CardRarity rarity : rarities) {
+            filter = (filter == null) ? new Rarity(rarity) : filter.or(new Rarity(rarity));
+        }
+        return (filter != null) ? filter : ALL.negate();
+    }
+
+    /**
+     * Matches cards of any of the given variants.
+     *
+     * @param variants the variants
+     * @return the filter
+     */
+    static CardFilter variant(CardVariant... variants) {
+        CardFilter filter = null;
+
+        for (CardVariant variant : variants) {
+            filter = (filter == null) ? new Variant(variant) : filter.or(new Variant(variant));
+        }
+        return (filter != null) ? filter : ALL.negate();
+    }
+
+    /**
+     * Returns a filter matching cards that this and another filter both match.
+     *
+     * @param other the other filter
+     * @return the combined filter
+     */
+    default CardFilter and(CardFilter other) {
+        return new And(this, other);
+    }
+
+    /**
+     * Returns a filter matching cards that this or another filter matches.
+     *
+     * @param other the other filter
+     * @return the combined filter
+     */
+    default CardFilter or(CardFilter other) {
+        return new Or(this, other);
+    }
+
+    /**
+     * Returns a filter matching the cards this filter does not.
+     *
+     * @return the negated filter
+     */
+    default CardFilter negate() {
+        return new Not(this);
+    }
+
+    /**
+     * Tests a single card.
+     *
+     * @param card the card
+     * @return true if the card matches
+     */
+    default boolean test(Card card) {
+        return switch (this) {
+            case All _ -> true;
+            case Rarity(CardRarity rarity) -> card.getRarity() == rarity;
+            case Variant(CardVariant variant) -> card.getVariant() == variant;
+            case And(CardFilter left, CardFilter right) -> left.test(card) && right.test(card);
+            case Or(CardFilter left, CardFilter right) -> left.test(card) || right.test(card);
+            case Not(CardFilter filter) -> !filter.test(card);
+        };
+    }
+
+    /**
+     * Describes the filter for people, e.g. "(rarity RARE or rarity LEGENDARY)".
+     *
+     * @return the description
+     */
+    default String describe() {
+        return switch (this) {
+            case All _ -> "any card";
+            case Rarity(CardRarity rarity) -> "rarity " + rarity;
+            case Variant(CardVariant variant) -> "variant " + variant;
+            case And(CardFilter left, CardFilter right) -> "(" + left.describe() + " and " + right.describe() + ")";
+            case Or(CardFilter left, CardFilter right) -> "(" + left.describe() + " or " + right.describe() + ")";
+            case Not(CardFilter filter) -> "not " + filter.describe();
+        };
+    }
+}
@@ -1,12 +1,18 @@
+import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Abstract class representing a generic holder of cards (e.g., a binder or deck).
  * Stores a name and a collection of {@link Card} objects.
+ * <p>
+ * The card list is guarded by the holder's monitor, so it can be read while
+ * the model changes it from another thread.
  */
 public abstract class CardHolder {
     private final String name;
     private final ArrayList<Card> cards;
+    private long cardsValueCents;
 
     /**
      * Constructs a CardHolder with the specified name.
@@ -15,6 +21,7 @@ public abstract class CardHolder {
     protected CardHolder(String name) {
         this.name = name;
         this.cards = new ArrayList<>();
+        this.cardsValueCents = 0;
     }
 
     /**
@@ -22,9 +29,10 @@ public abstract class CardHolder {
      * @param card the card to be added
      * @return true if card was added successfully
      */
-    public boolean addCard(Card card) {
+    public synchronized boolean addCard(Card card) {
         if (card == null) return false;
         cards.add(card);
+        cardsValueCents += card.getValueCents();
 
         return true;
     }
@@ -34,8 +42,26 @@ public abstract class CardHolder {
      * @param card the card to be removed
      * @return true if card was removed, false if card wasn't present
      */
-    public boolean removeCard(Card card) {
-        return cards.remove(card);
+    public synchronized boolean removeCard(Card card) {
+        return takeCard(card) != null;
+    }
+
+    /**
+     * Removes one copy of a card from the holder and returns the holder's own
+     * instance of it, which may be a different object equal to the given card.
+     * @param card the card to be removed
+     * @return the removed card, or null if the card wasn't present
+     */
+    public synchronized Card takeCard(Card card) {
+        int index = cards.indexOf(card);
+        if (index < 0) {
+            return null;
+        }
+
+        // Subtract the stored copy's value; equal cards always have equal values
+        Card removed = cards.remove(index);
+        cardsValueCents -= removed.getValueCents();
+        return removed;
     }
 
     /**
@@ -50,16 +76,57 @@ public abstract class CardHolder {
      * Returns a defensive copy of the cards in this holder.
      * @return a new ArrayList containing all cards
      */
-    public ArrayList<Card> getCards() {
+    public synchronized ArrayList<Card> getCards() {
         return new ArrayList<>(cards);
     }
 
+    /**
+     * Passes each card in this holder to an action, without copying the list.
+     * The holder stays locked meanwhile, so the action must not change the model.
+     * @param action the action to run for each card
+     */
+    public synchronized void forEachCard(Consumer<Card> action) {
+        cards.forEach(action);
+    }
+
+    /**
+     * Returns the sum of the values of all cards in this holder.
+     * The total is kept up to date by {@link #addCard(Card)} and
+     * {@link #removeCard(Card)}, so this does not iterate the cards.
+     * @return the running total of the card values
+     */
+    public synchronized BigDecimal getCardsValue() {
+        return Money.toBigDecimal(cardsValueCents);
+    }
+
+    /**
+     * Returns the running total of the card values in cents.
+     * @return the sum of all card values in cents
+     */
+    public synchronized long getCardsValueCents() {
+        return cardsValueCents;
+    }
+
+    /**
+     * Recomputes the total card value by summing every card in the holder.
+     * Used to verify the running total returned by {@link #getCardsValueCents()}.
+     * @return the freshly computed sum of all card values in cents
+     */
+    public synchronized long recalculateCardsValueCents() {
+        long total = 0;
+        for (Card card : cards) {
+            total += card.getValueCents();
+        }
+
+        return total;
+    }
+
     /**
      * Checks if the specified card is in this holder.
      * @param card the card to check for
      * @return true if the card is in the holder
      */
-    public boolean containsCard(Card card) {
+    public synchronized boolean containsCard(Card card) {
         return cards.contains(card);
     }
 
@@ -67,23 +134,32 @@ public abstract class CardHolder {
      * Returns the number of cards currently in the holder.
      * @return boolean value if cardholder is empty
      */
-    public int getCardsCount() {
+    public synchronized int getCardsCount() {
         return cards.size();
     }
     /**
      * Returns if cardholder is empty
      * @return the card count
      */
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return cards.isEmpty();
     }
 
+    /**
+     * Returns the rarities and variants this holder accepts, so the collection's
+     * bitmaps can find every card that fits it.
+     * @return the admission filter (override in subclasses)
+     */
+    public CardFilter getAdmissionFilter() {
+        return CardFilter.ALL;
+    }
+
     /**
      * Validates if a card can be added to this holder.
      * @param card the card to validate
-     * @return true if card is allowed (override in subclasses)
+     * @return true if card matches the admission filter
      */
     public boolean canAddCard(Card card) {
-        return true;
+        return getAdmissionFilter().test(card);
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from a card to the binders and decks that hold copies of it.
+ * <p>
+ * The model updates this index on every path that puts cards into or takes
+ * cards out of a {@link CardHolder}, so checking whether a card is still
+ * referenced anywhere does not need to scan every binder and deck.
+ * <p>
+ * The index can be read and updated from several threads at once, provided
+ * that updates for any one card are serialised, as the model does by holding
+ * that card's lock stripe.
+ */
+public class CardHolderIndex {
+    private final Map<CardKey, Map<CardHolder, Integer>> holdersByCard;
+
+    /**
+     * Constructs an empty index.
+     */
+    public CardHolderIndex() {
+        this.holdersByCard = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records that one more copy of a card was put into a holder.
+     *
+     * @param card   the card that was added
+     * @param holder the binder or deck it was added to
+     */
+    public void add(Card card, CardHolder holder) {
+        add(card, holder, 1);
+    }
+
+    /**
+     * Records that copies of a card were put into a holder.
+     *
+     * @param card   the card that was added
+     * @param holder the binder or deck it was added to
+     * @param copies the number of copies added
+     */
+    public void add(Card card, CardHolder holder, int copies) {
+        holdersByCard.computeIfAbsent(CardKey.of(card), _ -> new LinkedHashMap<>(2))
+                .merge(holder, copies, Integer::sum);
+    }
+
+    /**
+     * Records that one copy of a card was taken out of a holder.
+     *
+     * @param card   the card that was removed
+     * @param holder the binder or deck it was removed from
+     */
+    public void remove(Card card, CardHolder holder) {
+        remove(card, holder, 1);
+    }
+
+    /**
+     * Records that copies of a card were taken out of a holder.
+     *
+     * @param card    the card that was removed
+     * @param holder  the binder or deck it was removed from
+     * @param removed the number of copies removed
+     */
+    public void remove(Card card, CardHolder holder, int removed) {
+        CardKey key = CardKey.of(card);
+        Map<CardHolder, Integer> holders = holdersByCard.get(key);
+
+        if (holders == null) {
+            return;
+        }
+
+        holders.computeIfPresent(holder, (_, copies) -> (copies > removed) ? copies - removed : null);
+        if (holders.isEmpty()) {
+            holdersByCard.remove(key);
+        }
+    }
+
+    /**
+     * Drops every entry for a holder, e.g. after it has been sold.
+     *
+     * @param holder the binder or deck to forget
+     */
+    public void removeHolder(CardHolder holder) {
+        for (Card card : holder.getCards()) {
+            CardKey key = CardKey.of(card);
+            Map<CardHolder, Integer> holders = holdersByCard.get(key);
+
+            if (holders != null) {
+                holders.remove(holder);
+                if (holders.isEmpty()) {
+                    holdersByCard.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if any binder or deck holds a copy of the card.
+     *
+     * @param card the card to check
+     * @return true if at least one holder contains the card
+     */
+    public boolean isHeld(Card card) {
+        return holdersByCard.containsKey(CardKey.of(card));
+    }
+
+    /**
+     * Checks if a binder or deck of some kind holds a copy of the card.
+     *
+     * @param card the card to check
+     * @param kind the kind of holder, e.g. {@code Binder.class}
+     * @return true if at least one holder of that kind contains the card
+     */
+    public boolean isHeldIn(Card card, Class<? extends CardHolder> kind) {
+        Map<CardHolder, Integer> holders = holdersByCard.get(CardKey.of(card));
+
+        if (holders != null) {
+            for (CardHolder holder : holders.keySet()) {
+                if (kind.isInstance(holder)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the binders and decks that hold a copy of the card.
+     *
+     * @param card the card to look up
+     * @return a new list of the holders containing the card, possibly empty
+     */
+    public List<CardHolder> getHolders(Card card) {
+        Map<CardHolder, Integer> holders = holdersByCard.get(CardKey.of(card));
+
+        return (holders != null) ? new ArrayList<>(holders.keySet()) : new ArrayList<>();
+    }
+
+    /**
+     * Returns how many copies of the card a holder contains.
+     *
+     * @param card   the card to look up
+     * @param holder the binder or deck to check
+     * @return the number of copies held, zero if none
+     */
+    public int getCopies(Card card, CardHolder holder) {
+        Map<CardHolder, Integer> holders = holdersByCard.get(CardKey.of(card));
+
+        return (holders != null) ? holders.getOrDefault(holder, 0) : 0;
+    }
+}
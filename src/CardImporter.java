@@ -0,0 +1,676 @@
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Streams card lists from CSV or JSON into the collection.
+ * <p>
+ * Rows are parsed one at a time and turned into {@link Card}s with the usual
+ * rarity and variant rules. Rows for the same card are merged into one count,
+ * and cards are handed to the model in batches, so each batch is journaled
+ * with a single sync. Only the current batch is kept in memory, however large
+ * the file is.
+ * <p>
+ * CSV files have the columns {@code name, rarity, variant, value, count}, in that
+ * order unless the first row is a header naming them. JSON files hold either an
+ * array of objects or one object per line, with the same keys. Only name,
+ * rarity and value are required; variant defaults to normal and count to one.
+ * Rarities and variants may be written as constants ({@code FULL_ART}) or as
+ * displayed ({@code Full-art}).
+ */
+public class CardImporter {
+    /** Number of distinct cards handed to the model at a time. */
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private static final int MAX_REPORTED_REJECTIONS = 20;
+    private static final int NAME = 0;
+    private static final int RARITY = 1;
+    private static final int VARIANT = 2;
+    private static final int VALUE = 3;
+    private static final int COUNT = 4;
+    private static final String[] COLUMN_NAMES = {"name", "rarity", "variant", "value", "count"};
+
+    private final TradingCardInventorySystemModel model;
+    private final int batchSize;
+
+    /**
+     * Constructs an importer that adds cards to a model.
+     *
+     * @param model the model to import into
+     */
+    public CardImporter(TradingCardInventorySystemModel model) {
+        this(model, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs an importer with a custom batch size.
+     *
+     * @param model     the model to import into
+     * @param batchSize the number of distinct cards per batch (must be > 0)
+     */
+    public CardImporter(TradingCardInventorySystemModel model, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than zero.");
+        }
+
+        this.model = model;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports a card list file, reading it as JSON if its name ends in
+     * {@code .json} and as CSV otherwise.
+     *
+     * @param file the file to import
+     * @return the import report
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        return importFile(file, TaskProgress.NONE);
+    }
+
+    /**
+     * Imports a card list file like {@link #importFile(Path)}, reporting the
+     * bytes read so far after each batch. If cancellation is requested, the
+     * import stops at the next row and keeps the cards already read.
+     *
+     * @param file     the file to import
+     * @param progress where to report progress and check for cancellation
+     * @return the import report
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public ImportReport importFile(Path file, TaskProgress progress) throws IOException {
+        long size = Files.size(file);
+        CountingInputStream bytes = new CountingInputStream(Files.newInputStream(file));
+
+        try (Reader in = new InputStreamReader(bytes, StandardCharsets.UTF_8.newDecoder())) {
+            Run run = new Run(progress, () -> bytes.count, size);
+
+            if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                return importJson(in, run);
+            }
+            return importCsv(in, run);
+        }
+    }
+
+    /**
+     * Imports cards from CSV. Rows with bad values are rejected and reported;
+     * a file that cannot be parsed at all, e.g. with an unterminated quote,
+     * stops the import after the rows already read.
+     *
+     * @param in the CSV text
+     * @return the import report
+     * @throws IOException if reading fails or the CSV is malformed
+     */
+    public ImportReport importCsv(Reader in) throws IOException {
+        return importCsv(in, new Run(TaskProgress.NONE, () -> 0, 0));
+    }
+
+    private ImportReport importCsv(Reader in, Run run) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        List<String> fields = new ArrayList<>();
+        int[] columns = {NAME, RARITY, VARIANT, VALUE, COUNT};
+        boolean firstRow = true;
+
+        try {
+            while (!run.isCancelled() && csv.next(fields)) {
+                if (fields.size() == 1 && fields.getFirst().isBlank()) {
+                    continue; // Blank line
+                }
+
+                if (firstRow) {
+                    firstRow = false;
+                    if (isHeader(fields)) {
+                        columns = headerColumns(fields);
+                        continue;
+                    }
+                }
+
+                run.row(csv.recordLine(), field(fields, columns[NAME]), field(fields, columns[RARITY]),
+                        field(fields, columns[VARIANT]), field(fields, columns[VALUE]), field(fields, columns[COUNT]));
+            }
+        } finally {
+            run.flush();
+        }
+
+        return run.report();
+    }
+
+    /**
+     * Imports cards from JSON. Objects with bad values are rejected and
+     * reported; malformed JSON stops the import after the objects already read.
+     *
+     * @param in the JSON text
+     * @return the import report
+     * @throws IOException if reading fails or the JSON is malformed
+     */
+    public ImportReport importJson(Reader in) throws IOException {
+        return importJson(in, new Run(TaskProgress.NONE, () -> 0, 0));
+    }
+
+    private ImportReport importJson(Reader in, Run run) throws IOException {
+        JsonReader json = new JsonReader(in);
+        Map<String, String> fields = new HashMap<>();
+
+        try {
+            while (!run.isCancelled() && json.nextObject(fields)) {
+                run.row(json.objectLine(), fields.get(COLUMN_NAMES[NAME]), fields.get(COLUMN_NAMES[RARITY]),
+                        fields.get(COLUMN_NAMES[VARIANT]), fields.get(COLUMN_NAMES[VALUE]),
+                        fields.get(COLUMN_NAMES[COUNT]));
+            }
+        } finally {
+            run.flush();
+        }
+
+        return run.report();
+    }
+
+    /** A header row is one with a name column, wherever it is. */
+    private static boolean isHeader(List<String> fields) {
+        for (String field : fields) {
+            if (field.trim().equalsIgnoreCase(COLUMN_NAMES[NAME])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] headerColumns(List<String> header) throws IOException {
+        int[] columns = {-1, -1, -1, -1, -1};
+
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim();
+
+            for (int c = 0; c < COLUMN_NAMES.length; c++) {
+                if (column.equalsIgnoreCase(COLUMN_NAMES[c])) {
+                    columns[c] = i;
+                }
+            }
+        }
+
+        if (columns[NAME] < 0 || columns[RARITY] < 0 || columns[VALUE] < 0) {
+            throw new IOException("CSV header must have name, rarity and value columns.");
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return (column >= 0 && column < fields.size()) ? fields.get(column) : null;
+    }
+
+    /**
+     * Builds a card from the text of one row, with the same rules as the
+     * {@link Card} constructor.
+     *
+     * @throws IllegalArgumentException with a user-readable message if a field is invalid
+     */
+    static Card parseCard(String name, String rarity, String variant, String value, String count) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Missing card name.");
+        }
+
+        CardRarity cardRarity = parseEnum(CardRarity.class, "rarity", rarity);
+        CardVariant cardVariant = isBlank(variant) ? CardVariant.NORMAL : parseEnum(CardVariant.class, "variant", variant);
+        BigDecimal cardValue = parseValue(value);
+        int cardCount = isBlank(count) ? 1 : parseCount(count);
+
+        try {
+            return new Card(name.trim(), cardRarity, cardVariant, cardValue, cardCount);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Value '" + value.trim() + "' is too large.");
+        }
+    }
+
+    /**
+     * Parses an enum constant case-insensitively, accepting spaces or dashes for underscores.
+     *
+     * @throws IllegalArgumentException with a user-readable message if the text names no constant
+     */
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String field, String text) {
+        if (isBlank(text)) {
+            throw new IllegalArgumentException("Missing " + field + ".");
+        }
+
+        try {
+            return Enum.valueOf(type, text.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + field + " '" + text.trim() + "'.");
+        }
+    }
+
+    private static BigDecimal parseValue(String text) {
+        if (isBlank(text)) {
+            throw new IllegalArgumentException("Missing value.");
+        }
+
+        try {
+            return new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + text.trim() + "'.");
+        }
+    }
+
+    private static int parseCount(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid count '" + text.trim() + "'.");
+        }
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
+    /**
+     * State of one import: the pending batch and the running totals.
+     */
+    private final class Run {
+        private final TaskProgress progress;
+        private final LongSupplier position;
+        private final long length;
+        private final Map<CardKey, Card> batch = new LinkedHashMap<>();
+        private final List<String> rejections = new ArrayList<>();
+        private final long start = System.nanoTime();
+        private final int startSize = model.getCollectionSize();
+        private long rows;
+        private long importedRows;
+        private long batches;
+        private long rejectedRows;
+        private boolean cancelled;
+
+        /**
+         * @param progress where to report progress and check for cancellation
+         * @param position how much of the input has been read
+         * @param length   the length of the input, or 0 if unknown
+         */
+        Run(TaskProgress progress, LongSupplier position, long length) {
+            this.progress = progress;
+            this.position = position;
+            this.length = length;
+        }
+
+        boolean isCancelled() {
+            if (!cancelled && progress.isCancelRequested()) {
+                cancelled = true;
+            }
+            return cancelled;
+        }
+
+        void row(long line, String name, String rarity, String variant, String value, String count) {
+            rows++;
+
+            try {
+                Card card = parseCard(name, rarity, variant, value, count);
+                Card pending = batch.putIfAbsent(CardKey.of(card), card);
+
+                if (pending != null) {
+                    pending.setCount(Math.addExact(pending.getCount(), card.getCount()));
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                reject(line, e.getMessage());
+                return;
+            }
+
+            importedRows++;
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String reason) {
+            rejectedRows++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add("Line " + line + ": " + reason);
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            model.addCardsToCollection(batch.values());
+            batches++;
+            batch.clear();
+            progress.update(position.getAsLong(), length);
+        }
+
+        ImportReport report() {
+            return new ImportReport(rows, importedRows, model.getCollectionSize() - startSize, batches, System.nanoTime() - start,
+                    rejectedRows, List.copyOf(rejections), cancelled);
+        }
+    }
+
+    /**
+     * Counts the bytes read through it, so progress can be reported against the file size.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Buffered character input that tracks the current line number.
+     */
+    private static class Input {
+        private final Reader in;
+        private final char[] buffer = new char[1 << 14];
+        private int position;
+        private int limit;
+        private long line = 1;
+
+        Input(Reader in) {
+            this.in = in;
+        }
+
+        int peek() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+
+            return buffer[position];
+        }
+
+        int read() throws IOException {
+            int c = peek();
+
+            if (c >= 0) {
+                position++;
+                if (c == '\n') {
+                    line++;
+                }
+            }
+            return c;
+        }
+
+        long line() {
+            return line;
+        }
+
+        void skipByteOrderMark() throws IOException {
+            if (peek() == '\uFEFF') {
+                read();
+            }
+        }
+    }
+
+    /**
+     * Reads RFC 4180 style CSV: comma separated, with double-quoted fields that
+     * may contain commas, line breaks and doubled quotes.
+     */
+    private static final class CsvReader {
+        private final Input input;
+        private final StringBuilder field = new StringBuilder();
+        private long recordLine;
+
+        CsvReader(Reader in) throws IOException {
+            this.input = new Input(in);
+            input.skipByteOrderMark();
+        }
+
+        boolean next(List<String> fields) throws IOException {
+            fields.clear();
+            if (input.peek() < 0) {
+                return false;
+            }
+
+            recordLine = input.line();
+            field.setLength(0);
+            boolean quoted = false;
+
+            while (true) {
+                int c = input.read();
+
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IOException("Unterminated quoted field starting on line " + recordLine + ".");
+                    } else if (c == '"' && input.peek() == '"') {
+                        input.read();
+                        field.append('"');
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c < 0) {
+                    if (c == '\r' && input.peek() == '\n') {
+                        input.read();
+                    }
+                    fields.add(field.toString());
+                    return true;
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        long recordLine() {
+            return recordLine;
+        }
+    }
+
+    /**
+     * Pull parser for a JSON array of flat objects, or for objects one after
+     * another. String, number and literal values are kept as text; nested
+     * arrays and objects are skipped.
+     */
+    static final class JsonReader {
+        private final Input input;
+        private final StringBuilder text = new StringBuilder();
+        private boolean started;
+        private boolean inArray;
+        private long objectLine;
+
+        JsonReader(Reader in) throws IOException {
+            this.input = new Input(in);
+            input.skipByteOrderMark();
+        }
+
+        boolean nextObject(Map<String, String> fields) throws IOException {
+            skipWhitespace();
+            int c = input.peek();
+
+            if (!started) {
+                started = true;
+                if (c == '[') {
+                    input.read();
+                    inArray = true;
+                    skipWhitespace();
+                    if (input.peek() == ']') {
+                        input.read();
+                        return false;
+                    }
+                    return readObject(fields);
+                }
+            } else if (inArray) {
+                input.read();
+                if (c == ']') {
+                    return false;
+                } else if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+                skipWhitespace();
+            }
+
+            if (input.peek() < 0) {
+                if (inArray) {
+                    throw error("Unexpected end of input");
+                }
+                return false;
+            }
+            return readObject(fields);
+        }
+
+        long objectLine() {
+            return objectLine;
+        }
+
+        private boolean readObject(Map<String, String> fields) throws IOException {
+            objectLine = input.line();
+            fields.clear();
+            expect('{');
+            skipWhitespace();
+
+            if (input.peek() == '}') {
+                input.read();
+                return true;
+            }
+
+            while (true) {
+                skipWhitespace();
+                expect('"');
+                String key = readString().toLowerCase(Locale.ROOT);
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                fields.put(key, readValue());
+                skipWhitespace();
+
+                int c = input.read();
+                if (c == '}') {
+                    return true;
+                } else if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private String readValue() throws IOException {
+            int c = input.peek();
+
+            if (c == '"') {
+                input.read();
+                return readString();
+            } else if (c == '{' || c == '[') {
+                skipNested();
+                return null;
+            }
+
+            text.setLength(0);
+            while ((c = input.peek()) >= 0 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                text.append((char) input.read());
+            }
+
+            if (text.isEmpty()) {
+                throw error("Expected a value");
+            }
+            return text.toString().equals("null") ? null : text.toString();
+        }
+
+        private String readString() throws IOException {
+            text.setLength(0);
+
+            while (true) {
+                int c = input.read();
+
+                if (c < 0) {
+                    throw error("Unterminated string");
+                } else if (c == '"') {
+                    return text.toString();
+                } else if (c != '\\') {
+                    text.append((char) c);
+                    continue;
+                }
+
+                int escaped = input.read();
+                switch (escaped) {
+                    case '"', '\\', '/' -> text.append((char) escaped);
+                    case 'b' -> text.append('\b');
+                    case 'f' -> text.append('\f');
+                    case 'n' -> text.append('\n');
+                    case 'r' -> text.append('\r');
+                    case 't' -> text.append('\t');
+                    case 'u' -> {
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(input.read(), 16);
+                            if (digit < 0) {
+                                throw error("Invalid unicode escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        text.append((char) code);
+                    }
+                    default -> throw error("Invalid escape");
+                }
+            }
+        }
+
+        private void skipNested() throws IOException {
+            int depth = 0;
+
+            do {
+                int c = input.read();
+
+                if (c < 0) {
+                    throw error("Unexpected end of input");
+                } else if (c == '"') {
+                    readString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        }
+
+        private void skipWhitespace() throws IOException {
+            while (input.peek() >= 0 && Character.isWhitespace(input.peek())) {
+                input.read();
+            }
+        }
+
+        private void expect(char expected) throws IOException {
+            if (input.read() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " on line " + input.line() + " of the JSON input.");
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/**
+ * Open-addressing hash index over the cards in the collection.
+ * <p>
+ * Cards are found either by full identity (name ignoring case, rarity, variant
+ * and value, i.e. {@link Card#equals(Object)}) or by name alone. Both tables
+ * store card references directly in arrays, so indexing a card allocates
+ * nothing per card; this keeps bulk loads of millions of cards cheap for the
+ * garbage collector.
+ * <p>
+ * Name lookups return the earliest indexed card with that name, matching a
+ * front-to-back scan of the collection.
+ */
+public class CardIndex {
+    private static final int MIN_CAPACITY = 16;
+
+    private Card[] keyTable;
+    private int[] keyHashes;
+    private Card[] nameTable;
+    private int[] nameHashes;
+    private long[] nameSequence;
+    private int size;
+    private long nextSequence;
+
+    /**
+     * Constructs an index sized for the given number of cards.
+     *
+     * @param expectedCards the expected number of cards
+     */
+    public CardIndex(int expectedCards) {
+        allocate(capacityFor(expectedCards));
+    }
+
+    /**
+     * Returns the number of indexed cards.
+     *
+     * @return the number of cards
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the indexed card equal to the given card.
+     *
+     * @param card the card to look up
+     * @return the indexed card, or null if none is equal
+     */
+    public Card find(Card card) {
+        int slot = findKeySlot(card, keyHash(card));
+
+        return (slot >= 0) ? keyTable[slot] : null;
+    }
+
+    /**
+     * Finds the earliest indexed card with the given name, ignoring case.
+     *
+     * @param name the card name
+     * @return the matching card, or null if there is none
+     */
+    public Card findByName(String name) {
+        int hash = nameHash(name);
+        int mask = nameTable.length - 1;
+        Card found = null;
+        long foundSequence = Long.MAX_VALUE;
+
+        for (int i = spread(hash) & mask; nameTable[i] != null; i = (i + 1) & mask) {
+            if (nameHashes[i] == hash && nameSequence[i] < foundSequence
+                    && nameTable[i].getName().equalsIgnoreCase(name)) {
+                found = nameTable[i];
+                foundSequence = nameSequence[i];
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Adds a card that is not yet indexed.
+     *
+     * @param card the card to add
+     * @return the card's insertion sequence, greater than that of any card added before
+     */
+    public long add(Card card) {
+        if ((size + 1) * 2 > keyTable.length) {
+            resize(keyTable.length * 2);
+        }
+
+        long sequence = nextSequence++;
+        insertKey(card, keyHash(card));
+        insertName(card, nameHash(card.getName()), sequence);
+        size++;
+        return sequence;
+    }
+
+    /**
+     * Returns the insertion sequence of an indexed card.
+     *
+     * @param card the indexed card itself, as returned by {@link #find(Card)}
+     * @return the sequence {@link #add(Card)} returned for it
+     */
+    public long sequence(Card card) {
+        int mask = nameTable.length - 1;
+        int i = spread(nameHash(card.getName())) & mask;
+
+        while (nameTable[i] != card) {
+            i = (i + 1) & mask;
+        }
+        return nameSequence[i];
+    }
+
+    /**
+     * Removes the indexed card equal to the given card.
+     *
+     * @param card the card to remove
+     * @return the removed card, or null if no equal card was indexed
+     */
+    public Card remove(Card card) {
+        int slot = findKeySlot(card, keyHash(card));
+        if (slot < 0) {
+            return null;
+        }
+
+        Card removed = keyTable[slot];
+        deleteKeySlot(slot);
+
+        int mask = nameTable.length - 1;
+        int i = spread(nameHash(removed.getName())) & mask;
+        while (nameTable[i] != removed) {
+            i = (i + 1) & mask;
+        }
+        deleteNameSlot(i);
+
+        size--;
+        return removed;
+    }
+
+    /**
+     * Computes a hash of a card name that is equal for names that are
+     * equal ignoring case.
+     *
+     * @param name the name to hash
+     * @return the case-insensitive hash
+     */
+    static int nameHash(String name) {
+        int hash = 0;
+
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Computes a hash of a card's identity that agrees with
+     * {@link Card#equals(Object)}.
+     *
+     * @param card the card to hash
+     * @return the identity hash
+     */
+    static int keyHash(Card card) {
+        int hash = nameHash(card.getName());
+        hash = 31 * hash + card.getRarity().ordinal();
+        hash = 31 * hash + card.getVariant().ordinal();
+        return 31 * hash + Long.hashCode(card.getValueCents());
+    }
+
+    /**
+     * Spreads a hash so that its low bits can pick a table slot.
+     *
+     * @param hash the hash to spread
+     * @return the spread hash
+     */
+    static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the table capacity, a power of two, that holds the given number
+     * of cards at most half full.
+     *
+     * @param cards the number of cards
+     * @return the capacity
+     */
+    static int capacityFor(int cards) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < cards * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keyTable = new Card[capacity];
+        keyHashes = new int[capacity];
+        nameTable = new Card[capacity];
+        nameHashes = new int[capacity];
+        nameSequence = new long[capacity];
+    }
+
+    private int findKeySlot(Card card, int hash) {
+        int mask = keyTable.length - 1;
+
+        for (int i = spread(hash) & mask; keyTable[i] != null; i = (i + 1) & mask) {
+            if (keyHashes[i] == hash && keyTable[i].equals(card)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void insertKey(Card card, int hash) {
+        int mask = keyTable.length - 1;
+        int i = spread(hash) & mask;
+
+        while (keyTable[i] != null) {
+            i = (i + 1) & mask;
+        }
+
+        keyTable[i] = card;
+        keyHashes[i] = hash;
+    }
+
+    private void insertName(Card card, int hash, long sequence) {
+        int mask = nameTable.length - 1;
+        int i = spread(hash) & mask;
+
+        while (nameTable[i] != null) {
+            i = (i + 1) & mask;
+        }
+
+        nameTable[i] = card;
+        nameHashes[i] = hash;
+        nameSequence[i] = sequence;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void deleteKeySlot(int hole) {
+        int mask = keyTable.length - 1;
+        keyTable[hole] = null;
+
+        for (int i = (hole + 1) & mask; keyTable[i] != null; i = (i + 1) & mask) {
+            int home = spread(keyHashes[i]) & mask;
+
+            if (!isBetween(hole, home, i)) {
+                keyTable[hole] = keyTable[i];
+                keyHashes[hole] = keyHashes[i];
+                keyTable[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private void deleteNameSlot(int hole) {
+        int mask = nameTable.length - 1;
+        nameTable[hole] = null;
+
+        for (int i = (hole + 1) & mask; nameTable[i] != null; i = (i + 1) & mask) {
+            int home = spread(nameHashes[i]) & mask;
+
+            if (!isBetween(hole, home, i)) {
+                nameTable[hole] = nameTable[i];
+                nameHashes[hole] = nameHashes[i];
+                nameSequence[hole] = nameSequence[i];
+                nameTable[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    /**
+     * Checks if a slot's home position lies cyclically after the hole and at
+     * or before the slot itself, in which case the entry must stay put.
+     */
+    static boolean isBetween(int hole, int home, int slot) {
+        return (hole <= slot) ? (hole < home && home <= slot) : (hole < home || home <= slot);
+    }
+
+    /**
+     * Finds the position of a slot number in a table of slots, for stores
+     * that index their cards by slot rather than by reference. Slots are
+     * stored plus one, so 0 marks an empty position.
+     *
+     * @param slots the table
+     * @param hash  the hash the slot was inserted with
+     * @param slot  the slot number, which must be in the table
+     * @return the position of the slot in the table
+     */
+    static int findSlot(int[] slots, int hash, int slot) {
+        int mask = slots.length - 1;
+        int i = spread(hash) & mask;
+
+        while (slots[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Inserts a slot number into a table of slots, which must have room for it.
+     *
+     * @param slots  the table
+     * @param hashes the hashes of the table's slots
+     * @param slot   the slot number
+     * @param hash   the slot's hash
+     */
+    static void insertSlot(int[] slots, int[] hashes, int slot, int hash) {
+        int mask = slots.length - 1;
+        int i = spread(hash) & mask;
+
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+
+        slots[i] = slot + 1;
+        hashes[i] = hash;
+    }
+
+    /**
+     * Empties a position of a table of slots, with the same backward-shift
+     * deletion as the card tables.
+     *
+     * @param slots  the table
+     * @param hashes the hashes of the table's slots
+     * @param hole   the position to empty
+     */
+    static void deleteSlot(int[] slots, int[] hashes, int hole) {
+        int mask = slots.length - 1;
+        slots[hole] = 0;
+
+        for (int i = (hole + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int home = spread(hashes[i]) & mask;
+
+            if (!isBetween(hole, home, i)) {
+                slots[hole] = slots[i];
+                hashes[hole] = hashes[i];
+                slots[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        Card[] oldKeys = keyTable;
+        int[] oldKeyHashes = keyHashes;
+        Card[] oldNames = nameTable;
+        int[] oldNameHashes = nameHashes;
+        long[] oldSequence = nameSequence;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insertKey(oldKeys[i], oldKeyHashes[i]);
+            }
+            if (oldNames[i] != null) {
+                insertName(oldNames[i], oldNameHashes[i], oldSequence[i]);
+            }
+        }
+    }
+}
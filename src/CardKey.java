@@ -0,0 +1,50 @@
+/**
+ * Hash key identifying a distinct card in the collection.
+ * <p>
+ * {@link Card#equals(Object)} compares names case-insensitively while
+ * {@link Card#hashCode()} does not, so cards cannot be used directly as
+ * hash keys. This key folds the name the same way
+ * {@link String#equalsIgnoreCase(String)} does, so two cards are equal
+ * if and only if their keys are equal.
+ *
+ * @param foldedName the case-folded card name
+ * @param rarity     the card rarity
+ * @param variant    the card variant
+ * @param valueCents the final card value in cents
+ */
+public record CardKey(String foldedName, CardRarity rarity, CardVariant variant, long valueCents) {
+    /**
+     * Creates the key for the given card.
+     *
+     * @param card the card to key
+     * @return the key of the card
+     */
+    public static CardKey of(Card card) {
+        return new CardKey(fold(card.getName()), card.getRarity(), card.getVariant(), card.getValueCents());
+    }
+
+    /**
+     * Case-folds a card name so that folded names are equal exactly when
+     * the original names are equal ignoring case.
+     *
+     * @param name the name to fold
+     * @return the folded name
+     */
+    public static String fold(String name) {
+        StringBuilder folded = null;
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char f = Character.toLowerCase(Character.toUpperCase(c));
+
+            if (f != c && folded == null) {
+                folded = new StringBuilder(name.length()).append(name, 0, i);
+            }
+            if (folded != null) {
+                folded.append(f);
+            }
+        }
+
+        return (folded != null) ? folded.toString() : name;
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.Serial;
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+
+/**
+ * The card collection as a Swing list and combo box model, in collection
+ * order or in name order, shared by every list and combo box that shows it.
+ * <p>
+ * Nothing is copied: each row is read from the model's collection index by
+ * position only when Swing asks for it, which with a fixed cell height and a
+ * prototype value is only for the rows on screen. Showing the collection
+ * therefore costs the same for a hundred cards as for a million.
+ * <p>
+ * The size Swing sees is only changed by {@link #cardAdded()} and
+ * {@link #cardRemoved(Card)}, which the view calls as the model's events arrive on
+ * the event dispatch thread, so rows are never announced before their event.
+ * A row read while later changes are still on their way may show a
+ * neighbouring card, or nothing, until those events arrive and repaint it.
+ */
+public class CardListModel extends AbstractListModel<Card> implements ComboBoxModel<Card> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final boolean nameOrder;
+    // A view of a live model, so nothing of it is serialized
+    private transient TradingCardInventorySystemModel model;
+    private transient int size;
+    private transient Object selectedItem;
+
+    /**
+     * Constructs a list of the collection in collection order.
+     */
+    public CardListModel() {
+        this(false);
+    }
+
+    /**
+     * Constructs a list of the collection.
+     *
+     * @param nameOrder whether to list the cards in name order, read from the
+     *                  model's name index, rather than in collection order
+     */
+    public CardListModel(boolean nameOrder) {
+        this.nameOrder = nameOrder;
+    }
+
+    /**
+     * Shows the collection of a model, replacing whatever was shown before.
+     *
+     * @param model the model to read the collection from
+     */
+    public void setModel(TradingCardInventorySystemModel model) {
+        int oldSize = size;
+
+        this.model = model;
+        size = 0;
+        selectedItem = null;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+
+        size = model.getCollectionSize();
+        if (size > 0) {
+            fireIntervalAdded(this, 0, size - 1);
+        }
+    }
+
+    /**
+     * Shows a card added to the collection. In name order the card may land
+     * anywhere, so every row is repainted as well.
+     */
+    public void cardAdded() {
+        size++;
+        fireIntervalAdded(this, size - 1, size - 1);
+        if (nameOrder) {
+            cardsChanged();
+        }
+    }
+
+    /**
+     * Shows that a card was removed from the collection. The collection keeps
+     * no record of where the card was, so the last row goes and every row is
+     * repainted; only the rows on screen are actually redrawn.
+     *
+     * @param card the removed card
+     */
+    public void cardRemoved(Card card) {
+        if (size == 0) {
+            return;
+        }
+
+        if (card.equals(selectedItem)) {
+            selectedItem = null;
+        }
+        size--;
+        fireIntervalRemoved(this, size, size);
+        cardsChanged();
+    }
+
+    /**
+     * Repaints the rows, e.g. after a card's count changed. Rows read the
+     * count when they are painted, so only the rows on screen are redrawn.
+     */
+    public void cardsChanged() {
+        if (size > 0) {
+            fireContentsChanged(this, 0, size - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Reads a card from the collection.
+     *
+     * @param index the row
+     * @return the card, or null if the collection has since shrunk below the row
+     */
+    @Override
+    public Card getElementAt(int index) {
+        if (model == null) {
+            return null;
+        }
+        return nameOrder ? model.getCardInNameOrder(index) : model.getCardFromCollection(index);
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if ((selectedItem != null && !selectedItem.equals(item)) || (selectedItem == null && item != null)) {
+            selectedItem = item;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+}
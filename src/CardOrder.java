@@ -0,0 +1,207 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The collection order of a card store: the store's slot numbers in the
+ * order their cards were added, with removal in logarithmic time.
+ * <p>
+ * Each entry carries its card's insertion sequence, which only grows, so
+ * the entries are sorted by sequence and a card's entry is found by binary
+ * search. A removed card's entry is left in place as a tombstone, and a
+ * Fenwick tree over the entries counts the live ones before any position,
+ * so the card at an index of the live order is found without shifting or
+ * scanning the entries. Once more than half the entries are tombstones they
+ * are compacted away, which keeps removal amortized logarithmic and walks
+ * of the order linear in the number of live cards.
+ * <p>
+ * Not thread safe; stores guard it with their own lock.
+ */
+final class CardOrder {
+    private static final int MIN_CAPACITY = 16;
+    private static final int REMOVED = -1;
+
+    private int[] slots;
+    private long[] sequences;
+    // Fenwick tree of live entries, 1-based over positions
+    private int[] tree;
+    private int length;
+    private int size;
+
+    /**
+     * Constructs an empty order sized for the given number of cards.
+     *
+     * @param expectedCards the expected number of cards
+     */
+    CardOrder(int expectedCards) {
+        int capacity = Math.max(expectedCards, MIN_CAPACITY);
+
+        slots = new int[capacity];
+        sequences = new long[capacity];
+        tree = new int[capacity + 1];
+    }
+
+    /**
+     * Returns the number of live cards.
+     *
+     * @return the number of cards
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot of the card at a position in the live order.
+     *
+     * @param index the position, from 0 to size() - 1
+     * @return the card's slot
+     */
+    int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+
+        // Descend the tree for the last position with no more than index live entries before it
+        int position = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(slots.length); step > 0; step >>>= 1) {
+            int next = position + step;
+
+            if (next <= slots.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return slots[position];
+    }
+
+    /**
+     * Appends a card to the order.
+     *
+     * @param slot     the card's slot
+     * @param sequence the card's insertion sequence, greater than any before
+     */
+    void add(int slot, long sequence) {
+        if (length == slots.length) {
+            if ((length - size) * 2 >= length) {
+                compact(slots.length);
+            } else {
+                compact(slots.length * 2);
+            }
+        }
+
+        slots[length] = slot;
+        sequences[length] = sequence;
+        length++;
+        size++;
+        for (int i = length; i <= slots.length; i += i & -i) {
+            tree[i]++;
+        }
+    }
+
+    /**
+     * Removes a card from the order.
+     *
+     * @param sequence the card's insertion sequence
+     * @return the card's slot, or -1 if no live card has that sequence
+     */
+    int remove(long sequence) {
+        int position = Arrays.binarySearch(sequences, 0, length, sequence);
+        if (position < 0 || slots[position] == REMOVED) {
+            return REMOVED;
+        }
+
+        int slot = slots[position];
+        slots[position] = REMOVED;
+        size--;
+        for (int i = position + 1; i <= slots.length; i += i & -i) {
+            tree[i]--;
+        }
+
+        if ((length - size) * 2 > length && length > MIN_CAPACITY) {
+            compact(slots.length);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of a live card.
+     *
+     * @param sequence the card's insertion sequence
+     * @return the card's slot, or -1 if no live card has that sequence
+     */
+    int slot(long sequence) {
+        int position = Arrays.binarySearch(sequences, 0, length, sequence);
+
+        return (position >= 0) ? slots[position] : REMOVED;
+    }
+
+    /**
+     * Passes the slot of each live card to an action, in order.
+     *
+     * @param action the action to run for each slot
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < length; i++) {
+            if (slots[i] != REMOVED) {
+                action.accept(slots[i]);
+            }
+        }
+    }
+
+    /**
+     * Passes the slots of live cards to an action, in order, starting from
+     * the first card whose insertion sequence is at least the given one.
+     *
+     * @param sequence the sequence to start from
+     * @param max      the most cards to pass
+     * @param action   the action to run for each slot
+     * @return the sequence to continue from, or -1 if no cards are left
+     */
+    long forEach(long sequence, int max, IntConsumer action) {
+        int position = Arrays.binarySearch(sequences, 0, length, sequence);
+        int passed = 0;
+
+        for (int i = (position >= 0) ? position : -position - 1; i < length; i++) {
+            if (slots[i] == REMOVED) {
+                continue;
+            }
+            if (passed == max) {
+                return sequences[i];
+            }
+            action.accept(slots[i]);
+            passed++;
+        }
+        return -1;
+    }
+
+    /**
+     * Drops the tombstones, moving the live entries to the front of arrays
+     * of the given capacity, and rebuilds the tree in linear time.
+     */
+    private void compact(int capacity) {
+        int[] oldSlots = slots;
+        long[] oldSequences = sequences;
+        int live = 0;
+
+        slots = new int[capacity];
+        sequences = new long[capacity];
+        for (int i = 0; i < length; i++) {
+            if (oldSlots[i] != REMOVED) {
+                slots[live] = oldSlots[i];
+                sequences[live] = oldSequences[i];
+                live++;
+            }
+        }
+        length = live;
+
+        tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += (i <= length) ? 1 : 0;
+
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,397 @@
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A question about the collection cards: conditions on name, rarity, variant,
+ * value, free count and binder or deck membership, with an order and a limit.
+ * For example, the ten most valuable rare cards with more than three free copies
+ * that are in no binder:
+ * <pre>
+ * CardQuery.all().rarity(CardRarity.RARE).countAtLeast(4).inBinder(false)
+ *         .orderBy(CardQuery.Order.VALUE, true).limit(10)
+ * </pre>
+ * Queries are immutable; each method returns a new query with one more
+ * condition, all of which must hold. They are answered by
+ * {@link TradingCardInventorySystemModel#queryCards(CardQuery)}, which plans
+ * each one against the collection's indexes (see {@link QueryPlan}).
+ */
+public final class CardQuery {
+    /**
+     * What the results can be ordered by. Cards that tie come in no
+     * particular order.
+     */
+    public enum Order {
+        NAME(Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER)),
+        VALUE(Comparator.comparingLong(Card::getValueCents)),
+        COUNT(Comparator.comparingInt(Card::getCount));
+
+        private final Comparator<Card> comparator;
+
+        Order(Comparator<Card> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    private CardFilter filter = CardFilter.ALL;
+    private String namePrefix = "";
+    private long minValueCents = Long.MIN_VALUE;
+    private long maxValueCents = Long.MAX_VALUE;
+    private int minCount = 0;
+    private int maxCount = Integer.MAX_VALUE;
+    private Boolean inBinder;
+    private Boolean inDeck;
+    private CardHolder holder;
+    private Predicate<Card> condition;
+    private final List<String> conditionNames = new ArrayList<>();
+    private Order order;
+    private boolean descending;
+    private int limit = Integer.MAX_VALUE;
+
+    private CardQuery() {
+    }
+
+    /**
+     * Starts a query matching every card in the collection.
+     *
+     * @return the query
+     */
+    public static CardQuery all() {
+        return new CardQuery();
+    }
+
+    /**
+     * Keeps the cards matching a rarity and variant filter.
+     *
+     * @param filter the filter
+     * @return the new query
+     */
+    public CardQuery filter(CardFilter filter) {
+        CardQuery query = copy();
+        query.filter = (this.filter == CardFilter.ALL) ? filter : this.filter.and(filter);
+        return query;
+    }
+
+    /**
+     * Keeps the cards of any of the given rarities.
+     *
+     * @param rarities the rarities
+     * @return the new query
+     */
+    public CardQuery rarity(CardRarity... rarities) {
+        return filter(CardFilter.rarity(rarities));
+    }
+
+    /**
+     * Keeps the cards of any of the given variants.
+     *
+     * @param variants the variants
+     * @return the new query
+     */
+    public CardQuery variant(CardVariant... variants) {
+        return filter(CardFilter.variant(variants));
+    }
+
+    /**
+     * Keeps the cards whose names start with a prefix, ignoring case,
+     * replacing any earlier prefix.
+     *
+     * @param prefix the prefix
+     * @return the new query
+     */
+    public CardQuery nameStartsWith(String prefix) {
+        CardQuery query = copy();
+        query.namePrefix = prefix;
+        return query;
+    }
+
+    /**
+     * Keeps the cards worth at least a value.
+     *
+     * @param min the lowest value, inclusive
+     * @return the new query
+     */
+    public CardQuery valueAtLeast(BigDecimal min) {
+        CardQuery query = copy();
+        query.minValueCents = Math.max(minValueCents, Money.toCents(min));
+        return query;
+    }
+
+    /**
+     * Keeps the cards worth at most a value.
+     *
+     * @param max the highest value, inclusive
+     * @return the new query
+     */
+    public CardQuery valueAtMost(BigDecimal max) {
+        CardQuery query = copy();
+        query.maxValueCents = Math.min(maxValueCents, Money.toCents(max));
+        return query;
+    }
+
+    /**
+     * Keeps the cards with at least a number of free copies in the collection.
+     *
+     * @param min the lowest count, inclusive
+     * @return the new query
+     */
+    public CardQuery countAtLeast(int min) {
+        CardQuery query = copy();
+        query.minCount = Math.max(minCount, min);
+        return query;
+    }
+
+    /**
+     * Keeps the cards with at most a number of free copies in the collection.
+     *
+     * @param max the highest count, inclusive
+     * @return the new query
+     */
+    public CardQuery countAtMost(int max) {
+        CardQuery query = copy();
+        query.maxCount = Math.min(maxCount, max);
+        return query;
+    }
+
+    /**
+     * Keeps the cards that some binder holds a copy of, or that none does.
+     *
+     * @param held true for cards in a binder, false for cards in none
+     * @return the new query
+     */
+    public CardQuery inBinder(boolean held) {
+        CardQuery query = copy();
+        query.inBinder = held;
+        return query;
+    }
+
+    /**
+     * Keeps the cards that some deck holds a copy of, or that none does.
+     *
+     * @param held true for cards in a deck, false for cards in none
+     * @return the new query
+     */
+    public CardQuery inDeck(boolean held) {
+        CardQuery query = copy();
+        query.inDeck = held;
+        return query;
+    }
+
+    /**
+     * Keeps the cards that one binder or deck holds a copy of, replacing any
+     * earlier holder.
+     *
+     * @param holder the binder or deck
+     * @return the new query
+     */
+    public CardQuery inHolder(CardHolder holder) {
+        CardQuery query = copy();
+        query.holder = holder;
+        return query;
+    }
+
+    /**
+     * Keeps the cards passing any other test. No index can answer it, so it
+     * is checked on each card the query visits.
+     *
+     * @param description what the test checks, for {@link QueryPlan#explain()}
+     * @param test        the test
+     * @return the new query
+     */
+    public CardQuery where(String description, Predicate<Card> test) {
+        CardQuery query = copy();
+        query.condition = (condition == null) ? test : condition.and(test);
+        query.conditionNames.add(description);
+        return query;
+    }
+
+    /**
+     * Orders the results.
+     *
+     * @param order      what to order by
+     * @param descending whether to put the greatest first
+     * @return the new query
+     */
+    public CardQuery orderBy(Order order, boolean descending) {
+        CardQuery query = copy();
+        query.order = order;
+        query.descending = descending;
+        return query;
+    }
+
+    /**
+     * Keeps only the first results, after ordering, replacing any earlier limit.
+     *
+     * @param limit the most results
+     * @return the new query
+     */
+    public CardQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative.");
+        }
+
+        CardQuery query = copy();
+        query.limit = limit;
+        return query;
+    }
+
+    CardFilter getFilter() {
+        return filter;
+    }
+
+    String getNamePrefix() {
+        return namePrefix;
+    }
+
+    long getMinValueCents() {
+        return minValueCents;
+    }
+
+    long getMaxValueCents() {
+        return maxValueCents;
+    }
+
+    boolean hasValueRange() {
+        return minValueCents != Long.MIN_VALUE || maxValueCents != Long.MAX_VALUE;
+    }
+
+    Boolean getInBinder() {
+        return inBinder;
+    }
+
+    Boolean getInDeck() {
+        return inDeck;
+    }
+
+    CardHolder getHolder() {
+        return holder;
+    }
+
+    /**
+     * Checks whether the query has conditions on binder or deck membership,
+     * which the model checks under the card's lock rather than from an index.
+     */
+    boolean hasHoldingConditions() {
+        return inBinder != null || inDeck != null || holder != null;
+    }
+
+    Order getOrder() {
+        return order;
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the comparator for the query's order, or null if it has none.
+     */
+    Comparator<Card> comparator() {
+        if (order == null) {
+            return null;
+        }
+        return descending ? order.comparator.reversed() : order.comparator;
+    }
+
+    /**
+     * Tests every condition that depends on the card alone, leaving out
+     * binder and deck membership.
+     *
+     * @param card the card to test
+     * @return true if the card passes
+     */
+    boolean matchesCard(Card card) {
+        long value = card.getValueCents();
+        int count = card.getCount();
+
+        return value >= minValueCents && value <= maxValueCents
+                && count >= minCount && count <= maxCount
+                && card.getName().regionMatches(true, 0, namePrefix, 0, namePrefix.length())
+                && filter.test(card)
+                && (condition == null || condition.test(card));
+    }
+
+    /**
+     * Describes the conditions that no index answers, e.g. "count >= 4, not in a binder".
+     *
+     * @return the description, or an empty string if there are none
+     */
+    String describeUnindexed() {
+        List<String> parts = new ArrayList<>();
+
+        if (minCount > 0) {
+            parts.add("count >= " + minCount);
+        }
+        if (maxCount < Integer.MAX_VALUE) {
+            parts.add("count <= " + maxCount);
+        }
+        if (inBinder != null) {
+            parts.add(inBinder ? "in a binder" : "not in a binder");
+        }
+        if (inDeck != null) {
+            parts.add(inDeck ? "in a deck" : "not in a deck");
+        }
+        if (holder != null) {
+            parts.add("in '" + holder.getName() + "'");
+        }
+        parts.addAll(conditionNames);
+        return String.join(", ", parts);
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+
+        if (filter != CardFilter.ALL) {
+            parts.add(filter.describe());
+        }
+        if (!namePrefix.isEmpty()) {
+            parts.add("name starts with '" + namePrefix + "'");
+        }
+        if (minValueCents != Long.MIN_VALUE) {
+            parts.add("value >= " + Money.toBigDecimal(minValueCents));
+        }
+        if (maxValueCents != Long.MAX_VALUE) {
+            parts.add("value <= " + Money.toBigDecimal(maxValueCents));
+        }
+        String unindexed = describeUnindexed();
+        if (!unindexed.isEmpty()) {
+            parts.add(unindexed);
+        }
+
+        StringBuilder text = new StringBuilder(parts.isEmpty() ? "every card" : String.join(", ", parts));
+        if (order != null) {
+            text.append("; order by ").append(order.name().toLowerCase()).append(descending ? " descending" : "");
+        }
+        if (limit < Integer.MAX_VALUE) {
+            text.append("; limit ").append(limit);
+        }
+        return text.toString();
+    }
+
+    private CardQuery copy() {
+        CardQuery query = new CardQuery();
+
+        query.filter = filter;
+        query.namePrefix = namePrefix;
+        query.minValueCents = minValueCents;
+        query.maxValueCents = maxValueCents;
+        query.minCount = minCount;
+        query.maxCount = maxCount;
+        query.inBinder = inBinder;
+        query.inDeck = inDeck;
+        query.holder = holder;
+        query.condition = condition;
+        query.conditionNames.addAll(conditionNames);
+        query.order = order;
+        query.descending = descending;
+        query.limit = limit;
+        return query;
+    }
+}
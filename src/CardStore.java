@@ -0,0 +1,187 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Backing store for the cards in the model's collection.
+ * <p>
+ * The store keeps the collection in insertion order and indexes it by card
+ * identity and by name. Implementations may hand out card objects that are
+ * views of their own storage, so callers must use the card returned by
+ * {@link #add(Card)} or a lookup, rather than the card they passed in, when
+ * they want to read or update the stored count.
+ * <p>
+ * Stores are safe for concurrent use. The model serialises changes to any one
+ * card itself, so a store only has to keep its own structure consistent.
+ */
+public interface CardStore extends Closeable {
+    /** Creates an empty store sized for an expected number of cards. */
+    @FunctionalInterface
+    interface Factory {
+        CardStore create(int expectedCards) throws IOException;
+    }
+
+    /**
+     * Returns the number of cards in the store.
+     *
+     * @return the number of cards
+     */
+    int size();
+
+    /**
+     * Returns the card at a position in insertion order.
+     *
+     * @param index the position of the card, from 0 to size() - 1
+     * @return the card at that position
+     */
+    Card get(int index);
+
+    /**
+     * Returns the card at a position in insertion order, or null if the
+     * position is out of range, e.g. because another thread removed a card.
+     *
+     * @param index the position of the card
+     * @return the card at that position, or null
+     */
+    Card getOrNull(int index);
+
+    /**
+     * Passes each stored card to an action in insertion order. Changes to
+     * the store wait until the walk is done.
+     *
+     * @param action the action to run for each card
+     */
+    void forEach(Consumer<Card> action);
+
+    /**
+     * Passes the stored cards to an action in insertion order, a chunk at a
+     * time, so that a long walk need not hold up changes to the store: only
+     * each call waits for changes, and changes may be made between calls.
+     * <p>
+     * A walk starts from cursor 0 and continues from the cursor each call
+     * returns. The cursor follows insertion order, so a walk visits every
+     * card that stays in the store throughout exactly once, whatever is
+     * added or removed meanwhile. Cards added or removed during the walk may
+     * or may not be visited, and a card removed and added back may be visited
+     * twice.
+     *
+     * @param cursor where to continue the walk, 0 to start it
+     * @param max    the most cards to pass in this call
+     * @param action the action to run for each card
+     * @return the cursor to continue from, or -1 once every card was passed
+     */
+    long forEach(long cursor, int max, Consumer<Card> action);
+
+    /**
+     * Returns the total value of the stored cards' copies, each card's value
+     * times its count, in cents. Changes to the store wait until the sum is
+     * done; counts changed meanwhile may or may not be included.
+     *
+     * @return the total value in cents
+     */
+    default long totalValueCents() {
+        long[] total = new long[1];
+        forEach(card -> total[0] += card.getValueCents() * card.getCount());
+        return total[0];
+    }
+
+    /**
+     * Returns the total number of copies of the stored cards, with the same
+     * consistency as {@link #totalValueCents()}.
+     *
+     * @return the total count
+     */
+    default long totalCount() {
+        long[] total = new long[1];
+        forEach(card -> total[0] += card.getCount());
+        return total[0];
+    }
+
+    /**
+     * Returns the slot of the stored card equal to the given card. A slot is
+     * a small number, from 0, that stands for a stored card until the card is
+     * removed, after which it may be given to another card; an index over the
+     * store can keep slots instead of cards and fetch the cards on demand.
+     *
+     * @param card the card to look up
+     * @return the stored card's slot, or -1 if none is equal
+     */
+    int slotOf(Card card);
+
+    /**
+     * Returns the stored card in a slot.
+     *
+     * @param slot the slot of a stored card
+     * @return the card
+     */
+    Card cardInSlot(int slot);
+
+    /**
+     * Returns the name of the stored card in a slot, without making a card
+     * for it where the store would have to. A stored card's name never
+     * changes, so unlike the other methods this one does not wait for changes
+     * to the store, and is cheap enough to call for every comparison of a
+     * search; in return the caller must know the card is stored throughout
+     * the call, e.g. because it saw the card added under a lock of its own
+     * that the card's removal must also take.
+     *
+     * @param slot the slot of a stored card
+     * @return the card's name
+     */
+    String nameInSlot(int slot);
+
+    /**
+     * Finds the stored card equal to the given card.
+     *
+     * @param card the card to look up
+     * @return the stored card, or null if none is equal
+     */
+    Card find(Card card);
+
+    /**
+     * Finds the earliest stored card with the given name, ignoring case.
+     *
+     * @param name the card name
+     * @return the matching card, or null if there is none
+     */
+    Card findByName(String name);
+
+    /**
+     * Adds a card that is not yet in the store.
+     *
+     * @param card the card to add
+     * @return the stored card, whose count is the one the store keeps
+     */
+    Card add(Card card);
+
+    /**
+     * Removes the stored card equal to the given card.
+     *
+     * @param card the card to remove
+     * @return the removed card, or null if no equal card was stored
+     */
+    Card remove(Card card);
+
+    /**
+     * Tells the store that nothing but the caller still holds a removed card,
+     * so it may reuse the card's storage for the next card added. Afterwards
+     * the card is no longer a view of the store: it keeps its name, rarity,
+     * variant and value but its count may read as zero, and adding it back
+     * adds it as a new card. Stores that do not reuse storage this way
+     * ignore it: the heap store keeps nothing for a removed card, and the
+     * mapped store reclaims space only when rebuilt from a snapshot.
+     *
+     * @param card a card returned by {@link #remove(Card)}
+     */
+    default void release(Card card) {
+    }
+
+    /**
+     * Releases any files the store holds. The heap store holds none.
+     *
+     * @throws IOException if the files cannot be closed
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,773 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the cards in the collection in name order, ignoring case, and in value
+ * order, for ordered display and value queries without sorting or scanning.
+ * <p>
+ * Each order is a treap (a binary search tree kept balanced by random
+ * priorities) in which every node also counts the nodes below it, so adding
+ * or removing a card, finding the card at a position and finding a card's
+ * position all take O(log n), and walking k cards from any position takes
+ * O(log n + k). Cards that tie, by name or by value, stay in the order they
+ * were added: each card is stamped with a sequence number on entry, which
+ * breaks ties.
+ * <p>
+ * The index holds no cards. Its nodes are the {@link CardStore}'s slots,
+ * node s + 1 for slot s since node 0 is the empty tree, and live in parallel
+ * arrays rather than objects; it keeps each card's value and reads names
+ * from the store, and fetches the cards it passes out from the store on
+ * demand. Indexing a card therefore allocates nothing per card, and over a
+ * mapped or columnar store keeps no object per card on the heap. Both trees
+ * are built over the same nodes, as is a {@link CardBitmapIndex} that answers
+ * rarity and variant filters. A card's name and value never change, so
+ * neither tree needs updating while the card stays in the collection.
+ * <p>
+ * A card must be added to the store before it is added here, and removed
+ * from here before it is removed from the store, so every indexed slot holds
+ * its card. The index is safe for concurrent use.
+ */
+public class CollectionIndex {
+    private static final int NIL = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private final CardStore store;
+    private long[] values;
+    private long[] sequences;
+    private int[] priorities;
+    private long nextSequence;
+    private final Order byName;
+    private final Order byValue;
+    private final CardBitmapIndex bitmaps;
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * Constructs an index over a card store, sized for the given number of cards.
+     *
+     * @param store         the store holding the indexed cards
+     * @param expectedCards the expected number of cards
+     */
+    public CollectionIndex(CardStore store, int expectedCards) {
+        this.store = store;
+        this.byName = new Order() {
+            @Override
+            int compareKeys(int a, int b) {
+                return String.CASE_INSENSITIVE_ORDER.compare(name(a), name(b));
+            }
+        };
+        this.byValue = new Order() {
+            @Override
+            int compareKeys(int a, int b) {
+                return Long.compare(values[a], values[b]);
+            }
+        };
+        allocate(Math.max(MIN_CAPACITY, expectedCards + 1));
+        this.bitmaps = new CardBitmapIndex();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Returns the number of indexed cards.
+     *
+     * @return the number of cards
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byName.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a card after every indexed card with the same name, and after every
+     * indexed card with the same value.
+     *
+     * @param card the card to add, already in the store
+     */
+    public void add(Card card) {
+        lock.writeLock().lock();
+        try {
+            int slot = newSlot(store.slotOf(card) + 1, card);
+
+            byName.insert(slot);
+            byValue.insert(slot);
+            bitmaps.add(slot, card);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a card.
+     *
+     * @param card the card to remove, matched by {@link Card#equals(Object)},
+     *             still in the store
+     * @return true if the card was indexed
+     */
+    public boolean remove(Card card) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(card);
+            if (slot == NIL) {
+                return false;
+            }
+
+            byName.delete(slot);
+            byValue.delete(slot);
+            bitmaps.remove(slot, card);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the card at a position in name order.
+     *
+     * @param index the position
+     * @return the card, or null if the position is out of range
+     */
+    public Card get(int index) {
+        lock.readLock().lock();
+        try {
+            return (index >= 0 && index < byName.size()) ? card(byName.slotAt(index)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the position of a card in name order.
+     *
+     * @param card the card, matched by {@link Card#equals(Object)}
+     * @return the position, or -1 if the card is not indexed
+     */
+    public int indexOf(Card card) {
+        lock.readLock().lock();
+        try {
+            int slot = find(card);
+
+            return (slot != NIL) ? byName.rank(slot) : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes each card to an action in name order. Changes to the index wait
+     * until the walk is done, so the action must not change the collection.
+     *
+     * @param action the action to run for each card
+     */
+    public void forEach(Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            byName.walk(0, byName.size(), false, every(action));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the cards matching a filter, from the rarity and variant bitmaps alone.
+     *
+     * @param filter the filter
+     * @return the number of matching cards
+     */
+    public int count(CardFilter filter) {
+        lock.readLock().lock();
+        try {
+            return bitmaps.count(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes each card matching a filter to an action, visiting only the
+     * matching cards. Cards come in slot order, not name order. Changes to the
+     * index wait until the walk is done, so the action must not change the
+     * collection.
+     *
+     * @param filter the filter
+     * @param action the action to run for each matching card
+     */
+    public void forEach(CardFilter filter, Consumer<Card> action) {
+        scan(filter, every(action));
+    }
+
+    /**
+     * Counts the cards whose value lies in a range, in O(log n).
+     *
+     * @param minCents the lowest value in cents, inclusive
+     * @param maxCents the highest value in cents, inclusive
+     * @return the number of cards in the range
+     */
+    public int countInValueRange(long minCents, long maxCents) {
+        lock.readLock().lock();
+        try {
+            return Math.max(0, valuesBelow(maxCents, true) - valuesBelow(minCents, false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes each card whose value lies in a range to an action, from the
+     * least valuable up. Changes to the index wait until the walk is done, so
+     * the action must not change the collection.
+     *
+     * @param minCents the lowest value in cents, inclusive
+     * @param maxCents the highest value in cents, inclusive
+     * @param action   the action to run for each card in the range
+     */
+    public void forEachInValueRange(long minCents, long maxCents, Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            int from = valuesBelow(minCents, false);
+
+            byValue.walk(from, valuesBelow(maxCents, true) - from, false, every(action));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes the most or least valuable cards to an action, starting from the
+     * extreme. Cards of equal value come in the order they were added, from
+     * either end. Changes to the index wait until the walk is done, so the
+     * action must not change the collection.
+     *
+     * @param count      the most cards to pass
+     * @param descending true for the most valuable cards, false for the least
+     * @param action     the action to run for each card
+     */
+    public void forEachByValue(int count, boolean descending, Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            int size = byValue.size();
+
+            byValue.walk(descending ? size - 1 : 0, Math.min(count, size), descending, every(action));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the card at a percentile of value, by the nearest-rank method: the
+     * least valuable card that at least that share of the cards are worth no more than.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the card, or null if the index is empty
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public Card getAtValuePercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+
+        lock.readLock().lock();
+        try {
+            int size = byValue.size();
+            if (size == 0) {
+                return null;
+            }
+
+            int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+            return card(byValue.slotAt(Math.clamp(rank, 0, size - 1)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the indexed instance of a card.
+     *
+     * @param card the card, matched by {@link Card#equals(Object)}
+     * @return the indexed card, or null if it is not indexed
+     */
+    public Card lookup(Card card) {
+        lock.readLock().lock();
+        try {
+            int slot = find(card);
+
+            return (slot != NIL) ? card(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the cards whose names start with a prefix, ignoring case, in O(log n).
+     *
+     * @param prefix the prefix
+     * @return the number of cards
+     */
+    public int countWithPrefix(String prefix) {
+        lock.readLock().lock();
+        try {
+            return nameRangeEnd(prefix) - nameRangeStart(prefix);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes the cards whose names start with a prefix, ignoring case, to a
+     * visitor in name order until it returns false. Changes to the index wait
+     * until the walk is done, so the visitor must not change the collection.
+     *
+     * @param prefix     the prefix, or an empty string for every card
+     * @param descending whether to walk from the end of the name order
+     * @param visitor    the visitor, returning whether to go on
+     */
+    public void scanByName(String prefix, boolean descending, Predicate<Card> visitor) {
+        lock.readLock().lock();
+        try {
+            int from = nameRangeStart(prefix);
+            int to = nameRangeEnd(prefix);
+
+            byName.walk(descending ? to - 1 : from, to - from, descending, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes the cards whose value lies in a range to a visitor in value order
+     * until it returns false. Changes to the index wait until the walk is
+     * done, so the visitor must not change the collection.
+     *
+     * @param minCents   the lowest value in cents, inclusive
+     * @param maxCents   the highest value in cents, inclusive
+     * @param descending whether to walk from the most valuable card down
+     * @param visitor    the visitor, returning whether to go on
+     */
+    public void scanByValue(long minCents, long maxCents, boolean descending, Predicate<Card> visitor) {
+        lock.readLock().lock();
+        try {
+            int from = valuesBelow(minCents, false);
+            int to = valuesBelow(maxCents, true);
+
+            byValue.walk(descending ? to - 1 : from, to - from, descending, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes the cards matching a rarity and variant filter to a visitor in
+     * slot order until it returns false. Changes to the index wait until the
+     * walk is done, so the visitor must not change the collection.
+     *
+     * @param filter  the filter
+     * @param visitor the visitor, returning whether to go on
+     */
+    public void scan(CardFilter filter, Predicate<Card> visitor) {
+        lock.readLock().lock();
+        try {
+            BitSet slots = bitmaps.evaluate(filter);
+
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                if (!visitor.test(card(slot))) {
+                    return;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes cards whose names start with a query, ignoring case, to an action:
+     * first those that start with the query exactly, in name order, then if
+     * asked those that start with something one edit (a missing, wrong or
+     * extra character) away from it.
+     * <p>
+     * Names starting with a given prefix are adjacent in name order, so each
+     * prefix is a range found in O(log n). A near match differs from the query
+     * first at some position, so for each position the search looks up the
+     * prefix with the query's character dropped, and for each character the
+     * collection has there instead, the prefixes with that character in
+     * place of or ahead of the query's. Characters the collection does not have
+     * cost nothing, which keeps a fuzzy search to a few hundred lookups.
+     *
+     * @param query the start of the names to find
+     * @param limit the most cards to pass
+     * @param fuzzy whether to include near matches
+     * @param action the action to run for each card found
+     */
+    public void search(String query, int limit, boolean fuzzy, Consumer<Card> action) {
+        Set<Card> found = new LinkedHashSet<>();
+
+        lock.readLock().lock();
+        try {
+            collectPrefix(query, found, limit);
+
+            for (int i = 0; fuzzy && i < query.length() && found.size() < limit; i++) {
+                String head = query.substring(0, i);
+                int position = nameRangeStart(head);
+                int end = nameRangeEnd(head);
+
+                collectPrefix(head + query.substring(i + 1), found, limit);
+                while (position < end && found.size() < limit) {
+                    String name = name(byName.slotAt(position));
+
+                    // The name is the head itself, which sorts first
+                    if (name.length() <= i) {
+                        position++;
+                        continue;
+                    }
+
+                    String next = head + name.charAt(i);
+                    if (fold(name.charAt(i)) != fold(query.charAt(i))) {
+                        collectPrefix(next + query.substring(i + 1), found, limit);
+                        collectPrefix(next + query.substring(i), found, limit);
+                    }
+                    position = nameRangeEnd(next);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        found.forEach(action);
+    }
+
+    // Adds the cards whose names start with a prefix until there are enough
+    private void collectPrefix(String prefix, Set<Card> found, int limit) {
+        int position = nameRangeStart(prefix);
+        int end = nameRangeEnd(prefix);
+
+        // Cards already found do not count, so walk in steps of what is still missing
+        while (position < end && found.size() < limit) {
+            int step = Math.min(end - position, limit - found.size());
+
+            byName.walk(position, step, false, every(found::add));
+            position += step;
+        }
+    }
+
+    // The position of the first name not before a prefix
+    private int nameRangeStart(String prefix) {
+        return byName.countBefore(slot -> comparePrefix(name(slot), prefix) < 0);
+    }
+
+    // The position of the first name after every name starting with a prefix
+    private int nameRangeEnd(String prefix) {
+        return byName.countBefore(slot -> comparePrefix(name(slot), prefix) <= 0);
+    }
+
+    /**
+     * Compares the start of a name with a prefix as
+     * {@link String#CASE_INSENSITIVE_ORDER} would, so the names comparing
+     * equal are exactly those starting with the prefix.
+     */
+    private static int comparePrefix(String name, String prefix) {
+        int length = Math.min(name.length(), prefix.length());
+
+        for (int i = 0; i < length; i++) {
+            int difference = fold(name.charAt(i)) - fold(prefix.charAt(i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return (name.length() < prefix.length()) ? -1 : 0;
+    }
+
+    private static char fold(char c) {
+        if (c < 0x80) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // The number of cards worth less than a value, or no more than it if inclusive
+    private int valuesBelow(long cents, boolean inclusive) {
+        IntPredicate before = inclusive
+                ? slot -> values[slot] <= cents
+                : slot -> values[slot] < cents;
+
+        return byValue.countBefore(before);
+    }
+
+    /**
+     * Finds the node of a card from its slot in the store, if the card is
+     * indexed; it may be in the store but not yet indexed.
+     */
+    private int find(Card card) {
+        int slot = store.slotOf(card) + 1;
+
+        return (slot != NIL && byName.contains(slot)) ? slot : NIL;
+    }
+
+    private Card card(int slot) {
+        return store.cardInSlot(slot - 1);
+    }
+
+    private String name(int slot) {
+        return store.nameInSlot(slot - 1);
+    }
+
+    private int newSlot(int slot, Card card) {
+        if (slot >= values.length) {
+            allocate(Math.max(values.length * 2, slot + 1));
+        }
+
+        values[slot] = card.getValueCents();
+        sequences[slot] = nextSequence++;
+        priorities[slot] = ThreadLocalRandom.current().nextInt();
+        byName.reset(slot);
+        byValue.reset(slot);
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        values = (values == null) ? new long[capacity] : Arrays.copyOf(values, capacity);
+        sequences = (sequences == null) ? new long[capacity] : Arrays.copyOf(sequences, capacity);
+        priorities = (priorities == null) ? new int[capacity] : Arrays.copyOf(priorities, capacity);
+        byName.allocate(capacity);
+        byValue.allocate(capacity);
+    }
+
+    /**
+     * One ordering of the indexed slots: the child links and subtree sizes of
+     * a treap over them. Both orders share the slots' priorities, which is
+     * fine because each is balanced by the priorities' randomness alone. A
+     * slot not in the order has a subtree size of 0.
+     */
+    private abstract class Order {
+        private int[] left;
+        private int[] right;
+        private int[] sizes;
+        private int root = NIL;
+        private int splitBefore;
+        private int splitAfter;
+
+        /**
+         * Compares the keys of two slots, leaving ties to the sequence numbers.
+         */
+        abstract int compareKeys(int a, int b);
+
+        int size() {
+            return sizes[root];
+        }
+
+        // Everything already indexed with an equal key sorts before the new slot
+        void insert(int slot) {
+            split(root, slot);
+            root = merge(merge(splitBefore, slot), splitAfter);
+        }
+
+        void delete(int slot) {
+            root = delete(root, slot);
+            sizes[slot] = 0;
+        }
+
+        boolean contains(int slot) {
+            return slot < sizes.length && sizes[slot] != 0;
+        }
+
+        int slotAt(int index) {
+            int node = root;
+
+            while (true) {
+                int before = sizes[left[node]];
+
+                if (index < before) {
+                    node = left[node];
+                } else if (index == before) {
+                    return node;
+                } else {
+                    index -= before + 1;
+                    node = right[node];
+                }
+            }
+        }
+
+        int rank(int slot) {
+            int position = 0;
+            int node = root;
+
+            while (node != slot) {
+                if (compare(slot, node) < 0) {
+                    node = left[node];
+                } else {
+                    position += sizes[left[node]] + 1;
+                    node = right[node];
+                }
+            }
+            return position + sizes[left[slot]];
+        }
+
+        /**
+         * Counts the slots matching a test that holds for every slot up to some
+         * position in this order and for none after it.
+         */
+        int countBefore(IntPredicate sortsBefore) {
+            int position = 0;
+            int node = root;
+
+            while (node != NIL) {
+                if (sortsBefore.test(node)) {
+                    position += sizes[left[node]] + 1;
+                    node = right[node];
+                } else {
+                    node = left[node];
+                }
+            }
+            return position;
+        }
+
+        /**
+         * Passes cards to a visitor from a position, going up or down the
+         * order, until the visitor returns false. Finding the start keeps the
+         * path back up on a stack, so each further card costs O(1) on average.
+         */
+        void walk(int from, int count, boolean descending, Predicate<Card> visitor) {
+            if (count <= 0) {
+                return;
+            }
+
+            int[] stack = new int[64];
+            int depth = 0;
+            int node = root;
+
+            // Stack the nodes on the path to the start that come after it in walk order
+            while (node != NIL) {
+                int before = sizes[left[node]];
+
+                if (from == before) {
+                    stack = push(stack, depth++, node);
+                    break;
+                } else if ((from < before) != descending) {
+                    stack = push(stack, depth++, node);
+                    if (descending) {
+                        from -= before + 1;
+                    }
+                    node = descending ? right[node] : left[node];
+                } else {
+                    if (!descending) {
+                        from -= before + 1;
+                    }
+                    node = descending ? left[node] : right[node];
+                }
+            }
+
+            while (count > 0 && depth > 0) {
+                node = stack[--depth];
+                if (!visitor.test(card(node))) {
+                    return;
+                }
+                count--;
+
+                for (node = descending ? left[node] : right[node]; node != NIL;
+                        node = descending ? right[node] : left[node]) {
+                    stack = push(stack, depth++, node);
+                }
+            }
+        }
+
+        void reset(int slot) {
+            left[slot] = NIL;
+            right[slot] = NIL;
+            sizes[slot] = 1;
+        }
+
+        void allocate(int capacity) {
+            left = (left == null) ? new int[capacity] : Arrays.copyOf(left, capacity);
+            right = (right == null) ? new int[capacity] : Arrays.copyOf(right, capacity);
+            sizes = (sizes == null) ? new int[capacity] : Arrays.copyOf(sizes, capacity);
+        }
+
+        private int compare(int a, int b) {
+            int byKey = compareKeys(a, b);
+
+            return (byKey != 0) ? byKey : Long.compare(sequences[a], sequences[b]);
+        }
+
+        /**
+         * Splits a tree into the nodes that sort before a slot and those that sort
+         * after it, leaving the two trees in {@code splitBefore} and {@code splitAfter}.
+         */
+        private void split(int node, int slot) {
+            if (node == NIL) {
+                splitBefore = NIL;
+                splitAfter = NIL;
+            } else if (compare(node, slot) < 0) {
+                split(right[node], slot);
+                right[node] = splitBefore;
+                update(node);
+                splitBefore = node;
+            } else {
+                split(left[node], slot);
+                left[node] = splitAfter;
+                update(node);
+                splitAfter = node;
+            }
+        }
+
+        /**
+         * Joins two trees whose nodes all sort in order, the first before the second.
+         */
+        private int merge(int a, int b) {
+            if (a == NIL) {
+                return b;
+            } else if (b == NIL) {
+                return a;
+            }
+
+            if (priorities[a] > priorities[b]) {
+                right[a] = merge(right[a], b);
+                update(a);
+                return a;
+            }
+
+            left[b] = merge(a, left[b]);
+            update(b);
+            return b;
+        }
+
+        private int delete(int node, int slot) {
+            if (node == slot) {
+                return merge(left[node], right[node]);
+            }
+
+            if (compare(slot, node) < 0) {
+                left[node] = delete(left[node], slot);
+            } else {
+                right[node] = delete(right[node], slot);
+            }
+            update(node);
+            return node;
+        }
+
+        private void update(int node) {
+            sizes[node] = sizes[left[node]] + sizes[right[node]] + 1;
+        }
+    }
+
+    private static Predicate<Card> every(Consumer<Card> action) {
+        return card -> {
+            action.accept(card);
+            return true;
+        };
+    }
+
+    private static int[] push(int[] stack, int depth, int node) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth] = node;
+        return stack;
+    }
+}
@@ -2,6 +2,9 @@
  * A specialized binder for collector-grade cards that only accepts rare/legendary cards with special variants.
  */
 public class CollectorBinder extends Binder {
+    private static final CardFilter ADMITS = CardFilter.rarity(CardRarity.RARE, CardRarity.LEGENDARY)
+            .and(CardFilter.variant(CardVariant.NORMAL).negate());
+
     /**
      * Creates a new CollectorBinder with the specified name.
      *
@@ -11,17 +14,12 @@ public class CollectorBinder extends Binder {
         super(name);
     }
     /**
-     * Adds a card to the binder if it meets collector criteria.
+     * Accepts only collector-grade cards.
      *
-     * @param card the card to add
-     * @return true if card was added, false if card didn't meet requirements
+     * @return a filter matching rare or legendary cards with a special variant
      */
     @Override
-    public boolean addCard(Card card) {
-        if(card.getVariant() == CardVariant.NORMAL ||(card.getRarity() != CardRarity.RARE && card.getRarity() != CardRarity.LEGENDARY)) {
-            return false;
-        }
-
-        return super.addCard(card);
+    public CardFilter getAdmissionFilter() {
+        return ADMITS;
     }
 }
\ No newline at end of file
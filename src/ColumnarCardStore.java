@@ -0,0 +1,493 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Card store that keeps the collection in columns of primitive arrays
+ * instead of as {@link Card} objects, so scans of the whole collection read a
+ * few dense arrays rather than following a reference per card to a name, two
+ * enums and a count spread over the heap.
+ * <p>
+ * Each card is a slot across the columns:
+ * <pre>
+ * int   name id, an index into the table of distinct name spellings
+ * byte  rarity, byte variant
+ * long  value in cents
+ * int   count
+ * long  insertion sequence
+ * byte  live flag
+ * int   generation
+ * </pre>
+ * The columns are split into pages of 4,096 slots. Growing the store adds
+ * pages and never moves a slot, so a count written through a view while
+ * another thread adds cards is not lost.
+ * <p>
+ * Cards handed out by the store are thin views of a slot, made on demand:
+ * their count is read from and written to the count column. As in
+ * {@link MappedCardStore}, a removed card's slot is kept, flagged as not live,
+ * so views still held by binders or decks stay valid, and it is reused when
+ * such a view is added back. Once the model {@linkplain #release releases} a
+ * removed card that nothing holds, its slot goes on a free list and the next
+ * new card takes it, so the columns, and the scans over them, do not grow
+ * with cards that come and go. Releasing bumps the slot's generation, which
+ * every view records when made, so a view of the released card reads its
+ * count as zero rather than the count of the card that takes the slot.
+ * <p>
+ * {@link #totalValueCents()} and {@link #totalCount()} are loops over each
+ * page's value, count and live columns, without a branch or an object per
+ * card, which the JIT unrolls and can vectorize.
+ * <p>
+ * The indexes and columns are guarded by a read-write lock. Counts are read
+ * and written with volatile access, without the lock. The page and name
+ * tables are volatile, so names, which never change, can be read without the
+ * lock too.
+ */
+public class ColumnarCardStore implements CardStore {
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int MIN_CAPACITY = 16;
+    private static final CardRarity[] RARITIES = CardRarity.values();
+    private static final CardVariant[] VARIANTS = CardVariant.values();
+    private static final VarHandle COUNT = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle GENERATION = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Page[] pages;
+    private int slotCount;
+    private long nextSequence;
+
+    // Distinct name spellings, by name id
+    private volatile String[] names;
+    private int nameCount;
+
+    // Collection order, as slots
+    private final CardOrder order;
+
+    // Released slots, for reuse
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    // Open-addressing tables of live slots; slots are stored plus one so 0 means empty
+    private int[] keySlots;
+    private int[] keyHashes;
+    private int[] nameSlots;
+    private int[] nameHashes;
+
+    /**
+     * One page of every column.
+     */
+    private static final class Page {
+        final int[] nameIds = new int[PAGE_SIZE];
+        final byte[] rarities = new byte[PAGE_SIZE];
+        final byte[] variants = new byte[PAGE_SIZE];
+        final long[] values = new long[PAGE_SIZE];
+        final int[] counts = new int[PAGE_SIZE];
+        final long[] sequences = new long[PAGE_SIZE];
+        final byte[] live = new byte[PAGE_SIZE];
+        final int[] generations = new int[PAGE_SIZE];
+    }
+
+    /**
+     * Constructs an empty store sized for the given number of cards.
+     *
+     * @param expectedCards the expected number of cards
+     */
+    public ColumnarCardStore(int expectedCards) {
+        int capacity = Math.max(expectedCards, MIN_CAPACITY);
+
+        this.pages = new Page[(capacity + PAGE_MASK) >>> PAGE_BITS];
+        this.names = new String[capacity];
+        this.order = new CardOrder(expectedCards);
+        allocateTables(CardIndex.capacityFor(expectedCards));
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return order.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card get(int index) {
+        lock.readLock().lock();
+        try {
+            return view(order.get(index));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card getOrNull(int index) {
+        lock.readLock().lock();
+        try {
+            return (index >= 0 && index < order.size()) ? view(order.get(index)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            order.forEach(slot -> action.accept(view(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long forEach(long cursor, int max, Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            return order.forEach(cursor, max, slot -> action.accept(view(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long totalValueCents() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+
+            for (int first = 0; first < slotCount; first += PAGE_SIZE) {
+                Page page = pages[first >>> PAGE_BITS];
+                long[] values = page.values;
+                int[] counts = page.counts;
+                byte[] live = page.live;
+                int slots = Math.min(PAGE_SIZE, slotCount - first);
+
+                for (int i = 0; i < slots; i++) {
+                    total += values[i] * counts[i] * live[i];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long totalCount() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+
+            for (int first = 0; first < slotCount; first += PAGE_SIZE) {
+                Page page = pages[first >>> PAGE_BITS];
+                int[] counts = page.counts;
+                byte[] live = page.live;
+                int slots = Math.min(PAGE_SIZE, slotCount - first);
+
+                for (int i = 0; i < slots; i++) {
+                    total += counts[i] * live[i];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int slotOf(Card card) {
+        lock.readLock().lock();
+        try {
+            int i = findKeyIndex(card, CardIndex.keyHash(card));
+
+            return (i >= 0) ? keySlots[i] - 1 : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card cardInSlot(int slot) {
+        lock.readLock().lock();
+        try {
+            return view(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String nameInSlot(int slot) {
+        return name(slot);
+    }
+
+    @Override
+    public Card find(Card card) {
+        lock.readLock().lock();
+        try {
+            int i = findKeyIndex(card, CardIndex.keyHash(card));
+
+            return (i >= 0) ? view(keySlots[i] - 1) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card findByName(String name) {
+        lock.readLock().lock();
+        try {
+            int hash = CardIndex.nameHash(name);
+            int mask = nameSlots.length - 1;
+            int found = -1;
+            long foundSequence = Long.MAX_VALUE;
+
+            for (int i = CardIndex.spread(hash) & mask; nameSlots[i] != 0; i = (i + 1) & mask) {
+                int slot = nameSlots[i] - 1;
+                long sequence = pages[slot >>> PAGE_BITS].sequences[slot & PAGE_MASK];
+
+                if (nameHashes[i] == hash && sequence < foundSequence && name(slot).equalsIgnoreCase(name)) {
+                    found = slot;
+                    foundSequence = sequence;
+                }
+            }
+
+            return (found >= 0) ? view(found) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card add(Card card) {
+        lock.writeLock().lock();
+        try {
+            boolean returning = card instanceof StoredCard stored && stored.isCurrent(this) && !isLive(stored.slot);
+            // A view returning to the collection keeps its slot and count
+            int slot = returning ? ((StoredCard) card).slot : appendSlot(card);
+            Page page = pages[slot >>> PAGE_BITS];
+
+            long sequence = nextSequence++;
+            page.sequences[slot & PAGE_MASK] = sequence;
+            page.live[slot & PAGE_MASK] = 1;
+
+            if ((order.size() + 1) * 2 > keySlots.length) {
+                resizeTables(keySlots.length * 2);
+            }
+            CardIndex.insertSlot(keySlots, keyHashes, slot, CardIndex.keyHash(card));
+            CardIndex.insertSlot(nameSlots, nameHashes, slot, CardIndex.nameHash(card.getName()));
+            order.add(slot, sequence);
+
+            return returning ? card : view(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Card remove(Card card) {
+        lock.writeLock().lock();
+        try {
+            int hash = CardIndex.keyHash(card);
+            int i = findKeyIndex(card, hash);
+            if (i < 0) {
+                return null;
+            }
+
+            int slot = keySlots[i] - 1;
+            CardIndex.deleteSlot(keySlots, keyHashes, i);
+            CardIndex.deleteSlot(nameSlots, nameHashes,
+                    CardIndex.findSlot(nameSlots, CardIndex.nameHash(name(slot)), slot));
+            pages[slot >>> PAGE_BITS].live[slot & PAGE_MASK] = 0;
+
+            order.remove(pages[slot >>> PAGE_BITS].sequences[slot & PAGE_MASK]);
+
+            return view(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void release(Card card) {
+        lock.writeLock().lock();
+        try {
+            if (card instanceof StoredCard stored && stored.isCurrent(this) && !isLive(stored.slot)) {
+                int slot = stored.slot;
+
+                GENERATION.setVolatile(pages[slot >>> PAGE_BITS].generations, slot & PAGE_MASK, stored.generation + 1);
+                if (freeCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+                }
+                freeSlots[freeCount++] = slot;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isLive(int slot) {
+        return pages[slot >>> PAGE_BITS].live[slot & PAGE_MASK] != 0;
+    }
+
+    private String name(int slot) {
+        return names[pages[slot >>> PAGE_BITS].nameIds[slot & PAGE_MASK]];
+    }
+
+    private Card view(int slot) {
+        Page page = pages[slot >>> PAGE_BITS];
+        int offset = slot & PAGE_MASK;
+
+        return new StoredCard(this, slot, page.counts, page.generations, names[page.nameIds[offset]],
+                RARITIES[page.rarities[offset]], VARIANTS[page.variants[offset]], page.values[offset]);
+    }
+
+    private int appendSlot(Card card) {
+        int slot = (freeCount > 0) ? freeSlots[--freeCount] : slotCount;
+        int pageIndex = slot >>> PAGE_BITS;
+
+        if (pageIndex == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        if (pages[pageIndex] == null) {
+            pages[pageIndex] = new Page();
+        }
+
+        Page page = pages[pageIndex];
+        int offset = slot & PAGE_MASK;
+
+        page.nameIds[offset] = storeName(card.getName());
+        page.rarities[offset] = (byte) card.getRarity().ordinal();
+        page.variants[offset] = (byte) card.getVariant().ordinal();
+        page.values[offset] = card.getValueCents();
+        COUNT.setVolatile(page.counts, offset, card.getCount());
+        if (slot == slotCount) {
+            slotCount++;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the id of a name, adding it to the name table unless a live
+     * card already uses exactly the same spelling.
+     */
+    private int storeName(String name) {
+        int hash = CardIndex.nameHash(name);
+        int mask = nameSlots.length - 1;
+
+        for (int i = CardIndex.spread(hash) & mask; nameSlots[i] != 0; i = (i + 1) & mask) {
+            int slot = nameSlots[i] - 1;
+
+            if (nameHashes[i] == hash && name(slot).equals(name)) {
+                return pages[slot >>> PAGE_BITS].nameIds[slot & PAGE_MASK];
+            }
+        }
+
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount * 2);
+        }
+        names[nameCount] = name;
+        return nameCount++;
+    }
+
+    private int findKeyIndex(Card card, int hash) {
+        int mask = keySlots.length - 1;
+
+        for (int i = CardIndex.spread(hash) & mask; keySlots[i] != 0; i = (i + 1) & mask) {
+            if (keyHashes[i] == hash && matches(keySlots[i] - 1, card)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    // Same identity as Card.equals, comparing the primitive columns before the name
+    private boolean matches(int slot, Card card) {
+        Page page = pages[slot >>> PAGE_BITS];
+        int offset = slot & PAGE_MASK;
+
+        return page.values[offset] == card.getValueCents()
+                && page.rarities[offset] == card.getRarity().ordinal()
+                && page.variants[offset] == card.getVariant().ordinal()
+                && names[page.nameIds[offset]].equalsIgnoreCase(card.getName());
+    }
+
+    private void allocateTables(int capacity) {
+        keySlots = new int[capacity];
+        keyHashes = new int[capacity];
+        nameSlots = new int[capacity];
+        nameHashes = new int[capacity];
+    }
+
+    private void resizeTables(int capacity) {
+        int[] oldKeySlots = keySlots;
+        int[] oldKeyHashes = keyHashes;
+        int[] oldNameSlots = nameSlots;
+        int[] oldNameHashes = nameHashes;
+
+        allocateTables(capacity);
+
+        for (int i = 0; i < oldKeySlots.length; i++) {
+            if (oldKeySlots[i] != 0) {
+                CardIndex.insertSlot(keySlots, keyHashes, oldKeySlots[i] - 1, oldKeyHashes[i]);
+            }
+            if (oldNameSlots[i] != 0) {
+                CardIndex.insertSlot(nameSlots, nameHashes, oldNameSlots[i] - 1, oldNameHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * A card backed by a slot in the store. Its count lives in the count
+     * column of the slot's page, so every view of the same slot sees the
+     * same count, until the slot is released; the view then keeps a count of
+     * its own, like a card removed from the heap store.
+     */
+    private static final class StoredCard extends Card {
+        private final ColumnarCardStore store;
+        private final int slot;
+        private final int[] counts;
+        private final int[] generations;
+        private final int generation;
+
+        private StoredCard(ColumnarCardStore store, int slot, int[] counts, int[] generations, String name,
+                           CardRarity rarity, CardVariant variant, long valueCents) {
+            super(name, rarity, variant, valueCents, 0);
+            this.store = store;
+            this.slot = slot;
+            this.counts = counts;
+            this.generations = generations;
+            this.generation = (int) GENERATION.getVolatile(generations, slot & PAGE_MASK);
+        }
+
+        /**
+         * Checks that the view belongs to a store and its slot was not released since it was made.
+         */
+        boolean isCurrent(ColumnarCardStore store) {
+            return this.store == store && (int) GENERATION.getVolatile(generations, slot & PAGE_MASK) == generation;
+        }
+
+        @Override
+        public int getCount() {
+            int count = (int) COUNT.getVolatile(counts, slot & PAGE_MASK);
+
+            // Read after the count: a slot is released before it is reused, so a reused count shows here
+            return isCurrent(store) ? count : super.getCount();
+        }
+
+        @Override
+        public void setCount(int count) {
+            if (isCurrent(store)) {
+                COUNT.setVolatile(counts, slot & PAGE_MASK, count);
+            } else {
+                super.setCount(count);
+            }
+        }
+    }
+}
@@ -5,5 +5,15 @@ public enum DeckType {
     /** Standard deck that cannot be sold */
     NORMAL,
     /** Deck that can be sold as a whole */
-    SELLABLE
+    SELLABLE;
+
+    /**
+     * Returns the type of an existing deck.
+     *
+     * @param deck the deck to classify
+     * @return the deck's type
+     */
+    public static DeckType of(Deck deck) {
+        return deck.isSellable() ? SELLABLE : NORMAL;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Card store that keeps the collection as ordinary {@link Card} objects on
+ * the heap. Stored cards are the very objects that were added.
+ * <p>
+ * Each card takes a slot in an array of cards, and the collection order is a
+ * {@link CardOrder} of slots, so removing a card neither shifts the order nor
+ * scans it. A removed card's slot is reused by the next card added.
+ */
+public class HeapCardStore implements CardStore {
+    private final CardIndex index;
+    private final CardOrder order;
+    private final ReentrantReadWriteLock lock;
+    // Volatile so nameInSlot may read it without the lock
+    private volatile Card[] cards;
+    private int slotCount;
+
+    // Slots of removed cards, for reuse
+    private int[] freeSlots;
+    private int freeCount;
+
+    /**
+     * Constructs an empty store sized for the given number of cards.
+     *
+     * @param expectedCards the expected number of cards
+     */
+    public HeapCardStore(int expectedCards) {
+        this.index = new CardIndex(expectedCards);
+        this.order = new CardOrder(expectedCards);
+        this.lock = new ReentrantReadWriteLock();
+        this.cards = new Card[Math.max(expectedCards, 16)];
+        this.freeSlots = new int[16];
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return order.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card get(int index) {
+        lock.readLock().lock();
+        try {
+            return cards[order.get(index)];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card getOrNull(int index) {
+        lock.readLock().lock();
+        try {
+            return (index >= 0 && index < order.size()) ? cards[order.get(index)] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            order.forEach(slot -> action.accept(cards[slot]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long forEach(long cursor, int max, Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            return order.forEach(cursor, max, slot -> action.accept(cards[slot]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int slotOf(Card card) {
+        lock.readLock().lock();
+        try {
+            Card stored = index.find(card);
+
+            return (stored != null) ? order.slot(index.sequence(stored)) : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card cardInSlot(int slot) {
+        lock.readLock().lock();
+        try {
+            return cards[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String nameInSlot(int slot) {
+        return cards[slot].getName();
+    }
+
+    @Override
+    public Card find(Card card) {
+        lock.readLock().lock();
+        try {
+            return index.find(card);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card findByName(String name) {
+        lock.readLock().lock();
+        try {
+            return index.findByName(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card add(Card card) {
+        lock.writeLock().lock();
+        try {
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                if (slotCount == cards.length) {
+                    cards = Arrays.copyOf(cards, slotCount * 2);
+                }
+                slot = slotCount++;
+            }
+
+            cards[slot] = card;
+            order.add(slot, index.add(card));
+            return card;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Card remove(Card card) {
+        lock.writeLock().lock();
+        try {
+            Card removed = index.find(card);
+            if (removed == null) {
+                return null;
+            }
+
+            int slot = order.remove(index.sequence(removed));
+            index.remove(removed);
+            cards[slot] = null;
+
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
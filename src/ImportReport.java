@@ -0,0 +1,51 @@
+import java.util.List;
+
+/**
+ * Outcome of a bulk card import.
+ *
+ * @param rows          the number of data rows read
+ * @param importedRows  the number of rows added to the collection
+ * @param newCards      the number of cards that were not in the collection before
+ * @param batches       the number of batches committed to the model
+ * @param elapsedNanos  the wall-clock time the import took
+ * @param rejectedRows  the number of rows that were rejected
+ * @param rejections    descriptions of the first rejected rows, with their line numbers
+ * @param cancelled     whether the import was cancelled before the end of the file
+ */
+public record ImportReport(long rows, long importedRows, long newCards, long batches, long elapsedNanos,
+                           long rejectedRows, List<String> rejections, boolean cancelled) {
+    /**
+     * Returns the import throughput.
+     *
+     * @return rows read per second
+     */
+    public double rowsPerSecond() {
+        return (elapsedNanos > 0) ? rows * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Describes the import for the user.
+     *
+     * @return a short multi-line summary
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+
+        if (cancelled) {
+            summary.append("Import cancelled. ");
+        }
+        summary.append(String.format("Imported %,d of %,d rows (%,d new cards) in %.2f s, %,.0f rows/s.",
+                importedRows, rows, newCards, elapsedNanos / 1e9, rowsPerSecond()));
+        if (rejectedRows > 0) {
+            summary.append(String.format("%nRejected %,d rows:", rejectedRows));
+            for (String rejection : rejections) {
+                summary.append(System.lineSeparator()).append("  ").append(rejection);
+            }
+            if (rejectedRows > rejections.size()) {
+                summary.append(System.lineSeparator()).append("  ...");
+            }
+        }
+
+        return summary.toString();
+    }
+}
@@ -0,0 +1,249 @@
+import java.math.BigDecimal;
+
+/**
+ * The checks, model calls and messages behind the inventory's commands,
+ * shared by the Swing {@link TradingCardInventorySystemController} and the
+ * headless {@link InventoryScript}, so both front ends refuse the same things
+ * with the same words.
+ * <p>
+ * Nothing here talks to the user. A check returns the message saying why an
+ * action cannot go ahead, or null if it can, so a front end can ask its own
+ * questions, such as confirming a sale, between a check and the action it
+ * guards. An action returns an {@link Outcome}: whether the model did it, and
+ * the message to show either way. Actions do not repeat the checks; the model
+ * refuses anything that became invalid meanwhile.
+ */
+public class InventoryActions {
+    private final TradingCardInventorySystemModel model;
+
+    // Trades of cards whose values differ by this much are confirmed first
+    private static final long TRADE_CONFIRM_CENTS = 100;
+
+    /**
+     * Whether an action was done, and the message to show for it.
+     *
+     * @param done    true if the model made the change
+     * @param message what happened, or why nothing did
+     */
+    public record Outcome(boolean done, String message) {
+        private static Outcome of(boolean done, String doneMessage, String failedMessage) {
+            return new Outcome(done, done ? doneMessage : failedMessage);
+        }
+    }
+
+    /**
+     * Creates the actions for a model.
+     *
+     * @param model the model to act on
+     */
+    public InventoryActions(TradingCardInventorySystemModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Checks the name and value of a card about to be added.
+     *
+     * @param name  the card's name
+     * @param value the card's value
+     * @return why the card cannot be added, or null if it can
+     */
+    public String checkNewCard(String name, BigDecimal value) {
+        if (name.isBlank()) {
+            return "Card name cannot be empty.";
+        } else if (value.signum() <= 0) {
+            return "Card value must be greater than zero.";
+        }
+        return null;
+    }
+
+    /**
+     * Adjusts the free count of a collection card.
+     *
+     * @param card       the card
+     * @param adjustment the signed change to its count
+     * @return the outcome
+     */
+    public Outcome adjustCardCount(Card card, int adjustment) {
+        return Outcome.of(model.adjustCardCount(card, adjustment), "Card count adjusted successfully!",
+                "Adjustment cannot set card count below zero.");
+    }
+
+    /**
+     * Checks that a card has a free copy to sell.
+     *
+     * @param card the collection card
+     * @return why the card cannot be sold, or null if it can
+     */
+    public String checkSellCard(Card card) {
+        return model.isSellableCard(card) ? null : "Cannot sell card - it's in a binder or deck.";
+    }
+
+    /**
+     * Sells one free copy of a card.
+     *
+     * @param card the collection card
+     * @return the outcome
+     */
+    public Outcome sellCard(Card card) {
+        return Outcome.of(model.sellCard(card), "Card sold successfully!", "Failed to sell card.");
+    }
+
+    /**
+     * Creates a binder.
+     *
+     * @param name the binder's name
+     * @param type the kind of binder
+     * @return the outcome
+     */
+    public Outcome createBinder(String name, BinderType type) {
+        return Outcome.of(model.createBinder(name, type), "Binder created.", "That binder already exists.");
+    }
+
+    /**
+     * Creates a deck.
+     *
+     * @param name the deck's name
+     * @param type the kind of deck
+     * @return the outcome
+     */
+    public Outcome createDeck(String name, DeckType type) {
+        return Outcome.of(model.createDeck(name, type), "Deck created.", "That deck already exists.");
+    }
+
+    /**
+     * Checks that a binder or deck has room for another card.
+     *
+     * @param holder the binder or deck
+     * @return why no card can be added, or null if one can
+     */
+    public String checkAddToHolder(CardHolder holder) {
+        if (holder instanceof Binder) {
+            return (holder.getCardsCount() < Binder.MAX_CARD_COUNT) ? null : "Binder is at max capacity.";
+        }
+        return (holder.getCardsCount() < Deck.MAX_CARD_COUNT) ? null : "Deck is at max capacity.";
+    }
+
+    /**
+     * Moves a free copy of a collection card into a binder or deck.
+     *
+     * @param holder the binder or deck
+     * @param card   the collection card
+     * @return the outcome
+     */
+    public Outcome addToHolder(CardHolder holder, Card card) {
+        boolean added = (holder instanceof Binder binder) ? model.addCardToBinder(binder, card)
+                : model.addCardToDeck((Deck) holder, card);
+
+        return Outcome.of(added, "Card added to " + kind(holder) + ".", "Cannot add card - invalid type or count.");
+    }
+
+    /**
+     * Moves a card from a binder or deck back to the collection.
+     *
+     * @param holder the binder or deck
+     * @param card   the held card
+     * @return the outcome
+     */
+    public Outcome removeFromHolder(CardHolder holder, Card card) {
+        boolean removed = (holder instanceof Binder binder) ? model.removeCardFromBinder(binder, card)
+                : model.removeCardFromDeck((Deck) holder, card);
+
+        return Outcome.of(removed, "Card removed.", "'" + card.getName() + "' was already removed.");
+    }
+
+    /**
+     * Returns the question to confirm a trade with, if the cards' values are
+     * far enough apart to ask.
+     *
+     * @param incoming the card traded in
+     * @param outgoing the card traded away
+     * @return the question, or null if the trade needs no confirmation
+     */
+    public String tradeQuestion(Card incoming, Card outgoing) {
+        long difference = Math.abs(incoming.getValueCents() - outgoing.getValueCents());
+
+        return (difference >= TRADE_CONFIRM_CENTS)
+                ? "Value difference is $" + Money.toBigDecimal(difference) + ". Proceed?" : null;
+    }
+
+    /**
+     * Trades a binder card for a new one.
+     *
+     * @param binder   the binder
+     * @param incoming the card traded in
+     * @param outgoing the binder's card traded away
+     * @return the outcome
+     */
+    public Outcome trade(Binder binder, Card incoming, Card outgoing) {
+        return Outcome.of(model.executeTrade(binder, incoming, outgoing), "Trade successful!",
+                "Trade failed. Check binder requirements.");
+    }
+
+    /**
+     * Checks that a binder or deck can be sold.
+     *
+     * @param holder the binder or deck
+     * @return why it cannot be sold, or null if it can
+     */
+    public String checkSellHolder(CardHolder holder) {
+        if (!(holder instanceof Sellable)) {
+            return "This " + kind(holder) + " type cannot be sold.";
+        } else if (holder.isEmpty()) {
+            return "Cannot sell empty " + kind(holder) + ".";
+        }
+        return null;
+    }
+
+    /**
+     * Checks a custom price for a luxury binder, which may not be below the
+     * binder's base value.
+     *
+     * @param binder the luxury binder
+     * @param price  the custom price
+     * @return why the price is refused, or null if it is accepted
+     */
+    public String checkCustomPrice(LuxuryBinder binder, BigDecimal price) {
+        BigDecimal baseValue = binder.calculateBaseValue();
+
+        return (price.compareTo(baseValue) >= 0) ? null : "Price must be at least $" + baseValue;
+    }
+
+    /**
+     * Sells a binder or deck, a luxury binder at a custom price if one is
+     * given. The price is set by the model as part of the sale.
+     *
+     * @param holder      the binder or deck
+     * @param customPrice the price for a luxury binder, or null for its own
+     * @return the outcome, with the price it sold for
+     */
+    public Outcome sellHolder(CardHolder holder, BigDecimal customPrice) {
+        boolean sold = (holder instanceof Binder binder) ? model.sellBinder(binder, customPrice)
+                : model.sellDeck((Deck) holder);
+
+        // A sold holder is no longer in the model, so its value is the price it fetched
+        return Outcome.of(sold, sold ? capitalized(kind(holder)) + " sold for $" + ((Sellable) holder).calculateValue()
+                : null, "Failed to complete sale");
+    }
+
+    /**
+     * Deletes a binder or deck, returning its cards to the collection.
+     *
+     * @param holder the binder or deck
+     * @return the outcome
+     */
+    public Outcome deleteHolder(CardHolder holder) {
+        boolean deleted = (holder instanceof Binder binder) ? model.deleteBinder(binder)
+                : model.deleteDeck((Deck) holder);
+
+        return Outcome.of(deleted, capitalized(kind(holder)) + " deleted.",
+                "'" + holder.getName() + "' was already removed.");
+    }
+
+    private static String kind(CardHolder holder) {
+        return (holder instanceof Binder) ? "binder" : "deck";
+    }
+
+    private static String capitalized(String kind) {
+        return Character.toUpperCase(kind.charAt(0)) + kind.substring(1);
+    }
+}
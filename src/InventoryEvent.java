@@ -0,0 +1,93 @@
+/**
+ * A single change to the inventory, delivered to {@link InventoryListener}s
+ * so that views can apply it instead of reloading everything.
+ * <p>
+ * Cards in events are the collection's or holder's own instances, so a view
+ * can find them in its lists by equality and read their current counts.
+ */
+public sealed interface InventoryEvent {
+    /**
+     * A card that was not in the collection was added to it.
+     *
+     * @param card the collection's copy of the card
+     */
+    record CardAdded(Card card) implements InventoryEvent {
+    }
+
+    /**
+     * A card was removed from the collection, e.g. after its last copy was sold.
+     *
+     * @param card the removed card
+     */
+    record CardRemoved(Card card) implements InventoryEvent {
+    }
+
+    /**
+     * The free count of a collection card changed.
+     *
+     * @param card  the collection's copy of the card
+     * @param count the new count
+     */
+    record CountChanged(Card card, int count) implements InventoryEvent {
+    }
+
+    /**
+     * A binder or deck was created.
+     *
+     * @param holder the new binder or deck
+     */
+    record HolderCreated(CardHolder holder) implements InventoryEvent {
+    }
+
+    /**
+     * A binder or deck was deleted, after its cards went back to the collection.
+     *
+     * @param holder the deleted binder or deck
+     */
+    record HolderDeleted(CardHolder holder) implements InventoryEvent {
+    }
+
+    /**
+     * A copy of a card was put into a binder or deck.
+     *
+     * @param holder the binder or deck
+     * @param card   the card now held
+     */
+    record HolderCardAdded(CardHolder holder, Card card) implements InventoryEvent {
+    }
+
+    /**
+     * A copy of a card was taken out of a binder or deck.
+     *
+     * @param holder the binder or deck
+     * @param card   the card taken out
+     */
+    record HolderCardRemoved(CardHolder holder, Card card) implements InventoryEvent {
+    }
+
+    /**
+     * One copy of a collection card was sold.
+     *
+     * @param card       the collection's copy of the card
+     * @param priceCents the sale price in cents
+     */
+    record CardSold(Card card, long priceCents) implements InventoryEvent {
+    }
+
+    /**
+     * A binder or deck was sold, and with it every card it held.
+     *
+     * @param holder     the sold binder or deck
+     * @param priceCents the sale price in cents
+     */
+    record HolderSold(CardHolder holder, long priceCents) implements InventoryEvent {
+    }
+
+    /**
+     * The collector's money changed.
+     *
+     * @param cents the new balance in cents
+     */
+    record MoneyChanged(long cents) implements InventoryEvent {
+    }
+}
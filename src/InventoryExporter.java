@@ -0,0 +1,259 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the whole inventory to CSV or JSON for downstream reporting.
+ * <p>
+ * The exporter copies the collection out a chunk of cards at a time, and each
+ * binder and deck one at a time, and writes each copy through a fixed-size
+ * buffer after the model's locks are released, so a slow destination never
+ * holds up changes to the inventory, and exporting millions of cards never
+ * holds more than a chunk and the buffer in memory. The export is therefore
+ * not a snapshot: cards that change while it runs may or may not be exported
+ * changed.
+ * <p>
+ * Both formats carry the collector's money, every collection card with its
+ * count, and every binder and deck with its type (the class name, e.g.
+ * {@code LuxuryBinder}), its value and the cards it holds. The value of a
+ * sellable binder or deck is its {@link Sellable#calculateValue()} price; other
+ * holders report the total value of their cards.
+ * <p>
+ * CSV has one row per entry with the columns
+ * {@code section, holder, type, name, rarity, variant, value, count}, where the
+ * section is one of {@code money}, {@code card}, {@code binder}, {@code deck} or
+ * {@code held}. JSON is a single object with {@code collectorMoney},
+ * {@code cards}, {@code binders} and {@code decks}.
+ */
+public class InventoryExporter {
+    /** Output formats. */
+    public enum Format {
+        CSV,
+        JSON;
+
+        /**
+         * Picks the format from a file name, JSON for {@code .json} and CSV otherwise.
+         *
+         * @param file the output file
+         * @return the format for the file
+         */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    private static final int BUFFER_CHARS = 1 << 16;
+    private static final int CHUNK_CARDS = 4096;
+
+    private final TradingCardInventorySystemModel model;
+
+    /**
+     * Constructs an exporter for a model.
+     *
+     * @param model the model to export
+     */
+    public InventoryExporter(TradingCardInventorySystemModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Exports the inventory to a file, replacing it, in the format its name suggests.
+     *
+     * @param file the output file
+     * @throws IOException if the file cannot be written
+     */
+    public void export(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            export(channel, Format.of(file));
+        }
+    }
+
+    /**
+     * Exports the inventory to a channel. The channel is left open.
+     *
+     * @param channel the destination
+     * @param format  the output format
+     * @throws IOException if writing fails
+     */
+    public void export(WritableByteChannel channel, Format format) throws IOException {
+        Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_CHARS);
+
+        try {
+            switch (format) {
+                case CSV -> writeCsv(out);
+                case JSON -> writeJson(out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        out.flush();
+    }
+
+    private void writeCsv(Writer out) throws IOException {
+        out.write("section,holder,type,name,rarity,variant,value,count\n");
+        out.write("money,,,,,," + model.getCollectorMoney().toPlainString() + ",\n");
+
+        model.forEachCardChunk(CHUNK_CARDS, cards -> {
+            for (Card card : cards) {
+                write(out, "card,,,");
+                writeCsvCard(out, card);
+                write(out, "," + card.getCount() + "\n");
+            }
+        });
+        for (Binder binder : model.getBinders()) {
+            writeCsvHolder(out, "binder", binder);
+        }
+        for (Deck deck : model.getDecks()) {
+            writeCsvHolder(out, "deck", deck);
+        }
+    }
+
+    private void writeCsvHolder(Writer out, String section, CardHolder holder) {
+        String name = csv(holder.getName());
+        List<Card> cards = holder.getCards();
+
+        write(out, section + "," + name + "," + holder.getClass().getSimpleName() + ",,,,"
+                + holderValue(holder).toPlainString() + "," + cards.size() + "\n");
+        for (Card card : cards) {
+            write(out, "held," + name + ",,");
+            writeCsvCard(out, card);
+            write(out, ",1\n");
+        }
+    }
+
+    private static void writeCsvCard(Writer out, Card card) {
+        write(out, csv(card.getName()) + "," + card.getRarity() + "," + card.getVariant() + ","
+                + card.getValue().toPlainString());
+    }
+
+    private void writeJson(Writer out) throws IOException {
+        out.write("{\"collectorMoney\":" + model.getCollectorMoney().toPlainString() + ",\n\"cards\":[");
+
+        Separator cards = new Separator(",\n");
+        model.forEachCardChunk(CHUNK_CARDS, chunk -> {
+            for (Card card : chunk) {
+                cards.write(out);
+                writeJsonCard(out, card);
+                write(out, ",\"count\":" + card.getCount() + "}");
+            }
+        });
+
+        out.write("],\n\"binders\":[");
+        Separator binders = new Separator(",\n");
+        for (Binder binder : model.getBinders()) {
+            binders.write(out);
+            writeJsonHolder(out, binder);
+        }
+
+        out.write("],\n\"decks\":[");
+        Separator decks = new Separator(",\n");
+        for (Deck deck : model.getDecks()) {
+            decks.write(out);
+            writeJsonHolder(out, deck);
+        }
+
+        out.write("]}\n");
+    }
+
+    private void writeJsonHolder(Writer out, CardHolder holder) {
+        write(out, "{\"name\":" + json(holder.getName()) + ",\"type\":\"" + holder.getClass().getSimpleName()
+                + "\",\"value\":" + holderValue(holder).toPlainString() + ",\"cards\":[");
+
+        Separator cards = new Separator(",");
+        for (Card card : holder.getCards()) {
+            cards.write(out);
+            writeJsonCard(out, card);
+            write(out, "}");
+        }
+
+        write(out, "]}");
+    }
+
+    // Leaves the object open so the caller can add fields
+    private static void writeJsonCard(Writer out, Card card) {
+        write(out, "{\"name\":" + json(card.getName()) + ",\"rarity\":\"" + card.getRarity() + "\",\"variant\":\""
+                + card.getVariant() + "\",\"value\":" + card.getValue().toPlainString());
+    }
+
+    private static BigDecimal holderValue(CardHolder holder) {
+        return (holder instanceof Sellable sellable) ? sellable.calculateValue() : holder.getCardsValue();
+    }
+
+    private static void write(Writer out, String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Quotes a string as a JSON string literal.
+     *
+     * @param value the string to quote
+     * @return the JSON literal, including the surrounding quotes
+     */
+    static String json(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Writes a separator before every element but the first.
+     */
+    private static final class Separator {
+        private final String text;
+        private boolean first = true;
+
+        Separator(String text) {
+            this.text = text;
+        }
+
+        void write(Writer out) {
+            if (!first) {
+                InventoryExporter.write(out, text);
+            }
+            first = false;
+        }
+    }
+}
@@ -0,0 +1,550 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of model mutations.
+ * <p>
+ * Each mutating model method appends one record describing the change and
+ * waits for it to be durable before returning. Records are framed as
+ * <pre>
+ * int   payload length
+ * long  sequence number
+ * byte  operation
+ * ...   operation payload
+ * int   CRC32 of sequence, operation and payload
+ * </pre>
+ * so a record torn by a crash is detected and discarded on recovery.
+ * <p>
+ * Commits are grouped: records appended while another thread is syncing
+ * the file wait for that sync to finish, and the next thread to commit writes
+ * and syncs all of them with a single {@link FileChannel#force(boolean)}.
+ */
+public class InventoryJournal implements Closeable {
+    /** Kinds of journal records, one per mutating model method. */
+    public enum Operation {
+        ADD_CARD,
+        ADJUST_CARD_COUNT,
+        CREATE_BINDER,
+        DELETE_BINDER,
+        ADD_CARD_TO_BINDER,
+        REMOVE_CARD_FROM_BINDER,
+        EXECUTE_TRADE,
+        SELL_BINDER,
+        CREATE_DECK,
+        DELETE_DECK,
+        ADD_CARD_TO_DECK,
+        REMOVE_CARD_FROM_DECK,
+        SELL_DECK,
+        SELL_CARD,
+        ADD_CARDS,
+        REMOVE_CARDS_FROM_COLLECTION,
+        ADD_CARDS_TO_BINDER,
+        REMOVE_CARDS_FROM_BINDER,
+        ADD_CARDS_TO_DECK,
+        REMOVE_CARDS_FROM_DECK
+    }
+
+    /** Writes the payload of a record. */
+    @FunctionalInterface
+    public interface RecordBody {
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    private static final int FRAME_OVERHEAD = Integer.BYTES + Long.BYTES + 1 + Integer.BYTES;
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final CardRarity[] RARITIES = CardRarity.values();
+    private static final CardVariant[] VARIANTS = CardVariant.values();
+    private static final BinderType[] BINDER_TYPES = BinderType.values();
+    private static final DeckType[] DECK_TYPES = DeckType.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Object lock;
+    private final RecordBuffer pending;
+    private final CRC32 crc;
+    private long appendedSequence;
+    private long durableSequence;
+    private long size;
+    private boolean flushing;
+    private IOException failure;
+
+    /**
+     * Opens a journal file for appending, creating it if needed. Use
+     * {@link #replay(Path, TradingCardInventorySystemModel, long)} first to
+     * recover the records already in the file.
+     *
+     * @param path         the journal file
+     * @param lastSequence the sequence number of the last record already applied
+     * @throws IOException if the file cannot be opened
+     */
+    public InventoryJournal(Path path, long lastSequence) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.lock = new Object();
+        this.pending = new RecordBuffer();
+        this.crc = new CRC32();
+        this.appendedSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        this.size = channel.size();
+    }
+
+    /**
+     * Appends a record to the journal buffer. The record is not durable
+     * until {@link #commit(long)} returns for its sequence number.
+     *
+     * @param operation the kind of mutation
+     * @param body      writes the record payload
+     * @return the sequence number of the record
+     */
+    public long append(Operation operation, RecordBody body) {
+        synchronized (lock) {
+            int start = pending.length();
+            long sequence = appendedSequence + 1;
+
+            try {
+                pending.writeInt(0); // Payload length, patched below
+                pending.writeLong(sequence);
+                pending.writeByte(operation.ordinal());
+                body.writeTo(pending);
+
+                int payloadLength = pending.length() - start - FRAME_OVERHEAD + Integer.BYTES;
+                pending.patchInt(start, payloadLength);
+
+                crc.reset();
+                crc.update(pending.array(), start + Integer.BYTES, pending.length() - start - Integer.BYTES);
+                pending.writeInt((int) crc.getValue());
+            } catch (IOException e) {
+                pending.truncate(start);
+                throw new UncheckedIOException(e);
+            }
+
+            appendedSequence = sequence;
+            return sequence;
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence number, and every record
+     * before it, has been written and synced to disk. Whichever caller gets
+     * here first while no sync is running writes every pending record at once.
+     *
+     * @param sequence the sequence number returned by {@link #append}
+     * @throws IOException if the journal could not be written
+     */
+    public void commit(long sequence) throws IOException {
+        byte[] batch;
+        int batchLength;
+        long batchSequence;
+
+        synchronized (lock) {
+            while (true) {
+                if (failure != null) {
+                    throw failure;
+                } else if (durableSequence >= sequence) {
+                    return;
+                } else if (!flushing) {
+                    break;
+                }
+
+                awaitFlush();
+            }
+
+            flushing = true;
+            batch = pending.array();
+            batchLength = pending.length();
+            batchSequence = appendedSequence;
+            pending.detach();
+        }
+
+        IOException error = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch, 0, batchLength);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (lock) {
+            flushing = false;
+            if (error == null) {
+                durableSequence = batchSequence;
+                size += batchLength;
+            } else {
+                failure = error;
+            }
+            lock.notifyAll();
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last appended record.
+     *
+     * @return the last sequence number
+     */
+    public long getLastSequence() {
+        synchronized (lock) {
+            return appendedSequence;
+        }
+    }
+
+    /**
+     * Returns the number of bytes written to the journal file.
+     *
+     * @return the durable size of the journal
+     */
+    public long size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Empties the journal after a snapshot has captured every appended record.
+     * Callers must make sure no mutation appends while this runs.
+     *
+     * @throws IOException if the file cannot be truncated
+     */
+    public void truncate() throws IOException {
+        synchronized (lock) {
+            while (flushing) {
+                awaitFlush();
+            }
+
+            pending.truncate(0);
+            channel.truncate(0);
+            channel.force(true);
+            durableSequence = appendedSequence;
+            size = 0;
+        }
+    }
+
+    /**
+     * Syncs any pending records and closes the journal file.
+     *
+     * @throws IOException if the final sync or close fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            commit(getLastSequence());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return the path of the journal
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    private void awaitFlush() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal commit.", e);
+        }
+    }
+
+    /**
+     * Applies the records of a journal file to a model, skipping records already
+     * contained in the snapshot the model was loaded from. A torn or corrupt
+     * record at the end of the file, left by a crash during an append, is cut
+     * off together with anything after it.
+     *
+     * @param path          the journal file
+     * @param model         the model to apply the records to; must not have a journal attached
+     * @param afterSequence the journal sequence number the model already includes
+     * @return the sequence number of the last record in the journal
+     * @throws IOException if the file cannot be read or truncated
+     */
+    public static long replay(Path path, TradingCardInventorySystemModel model, long afterSequence) throws IOException {
+        if (!Files.exists(path)) {
+            return afterSequence;
+        }
+
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        long lastSequence = afterSequence;
+        int validLength = 0;
+
+        while (buffer.remaining() >= FRAME_OVERHEAD) {
+            int start = buffer.position();
+            int payloadLength = buffer.getInt();
+            int frameLength = payloadLength + FRAME_OVERHEAD;
+
+            if (payloadLength < 0 || frameLength > bytes.length - start) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(bytes, start + Integer.BYTES, frameLength - 2 * Integer.BYTES);
+            if ((int) crc.getValue() != buffer.getInt(start + frameLength - Integer.BYTES)) {
+                break;
+            }
+
+            long sequence = buffer.getLong();
+            int operation = buffer.get();
+            ByteBuffer payload = buffer.slice(buffer.position(), payloadLength);
+
+            if (sequence > afterSequence) {
+                try {
+                    apply(model, OPERATIONS[operation], payload);
+                } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                    throw new IOException("Corrupt journal record " + sequence
+                            + ((e.getMessage() != null) ? ": " + e.getMessage() : "."), e);
+                }
+                lastSequence = sequence;
+            }
+
+            buffer.position(start + frameLength);
+            validLength = buffer.position();
+        }
+
+        if (validLength < bytes.length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+
+        return lastSequence;
+    }
+
+    private static void apply(TradingCardInventorySystemModel model, Operation operation, ByteBuffer in) {
+        switch (operation) {
+            case ADD_CARD -> model.addCardToCollection(readCard(in));
+            case ADJUST_CARD_COUNT -> {
+                Card card = model.findCollectionCard(readCard(in));
+                int adjustment = in.getInt();
+
+                if (card != null) {
+                    model.adjustCardCount(card, adjustment);
+                }
+            }
+            case CREATE_BINDER -> model.createBinder(InventorySnapshot.readString(in), BINDER_TYPES[in.get()]);
+            case DELETE_BINDER -> model.deleteBinder(readBinder(model, in));
+            case ADD_CARD_TO_BINDER -> {
+                Binder binder = readBinder(model, in);
+                model.addCardToBinder(binder, collectionCopy(model, readCard(in)));
+            }
+            case REMOVE_CARD_FROM_BINDER -> {
+                Binder binder = readBinder(model, in);
+                model.removeCardFromBinder(binder, heldCopy(binder, readCard(in)));
+            }
+            case EXECUTE_TRADE -> {
+                Binder binder = readBinder(model, in);
+                Card incoming = readCard(in);
+                model.executeTrade(binder, incoming, heldCopy(binder, readCard(in)));
+            }
+            case SELL_BINDER -> {
+                Binder binder = readBinder(model, in);
+                long customPriceCents = in.getLong();
+
+                model.sellBinder(binder, (customPriceCents >= 0) ? Money.toBigDecimal(customPriceCents) : null);
+            }
+            case CREATE_DECK -> model.createDeck(InventorySnapshot.readString(in), DECK_TYPES[in.get()]);
+            case DELETE_DECK -> model.deleteDeck(readDeck(model, in));
+            case ADD_CARD_TO_DECK -> {
+                Deck deck = readDeck(model, in);
+                model.addCardToDeck(deck, collectionCopy(model, readCard(in)));
+            }
+            case REMOVE_CARD_FROM_DECK -> {
+                Deck deck = readDeck(model, in);
+                model.removeCardFromDeck(deck, heldCopy(deck, readCard(in)));
+            }
+            case SELL_DECK -> model.sellDeck(readDeck(model, in));
+            case SELL_CARD -> model.sellCard(readCard(in));
+            case ADD_CARDS -> {
+                Card[] cards = new Card[in.getInt()];
+                for (int i = 0; i < cards.length; i++) {
+                    cards[i] = readCard(in);
+                }
+                model.addCardsToCollection(Arrays.asList(cards));
+            }
+            case REMOVE_CARDS_FROM_COLLECTION -> model.removeCardsFromCollection(readQuantities(in, null));
+            case ADD_CARDS_TO_BINDER -> {
+                Binder binder = readBinder(model, in);
+                model.addCardsToBinder(binder, readQuantities(in, null));
+            }
+            case REMOVE_CARDS_FROM_BINDER -> {
+                Binder binder = readBinder(model, in);
+                model.removeCardsFromBinder(binder, readQuantities(in, binder));
+            }
+            case ADD_CARDS_TO_DECK -> {
+                Deck deck = readDeck(model, in);
+                model.addCardsToDeck(deck, readQuantities(in, null));
+            }
+            case REMOVE_CARDS_FROM_DECK -> {
+                Deck deck = readDeck(model, in);
+                model.removeCardsFromDeck(deck, readQuantities(in, deck));
+            }
+        }
+    }
+
+    /**
+     * Reads the name of the binder a record changes and returns that binder.
+     *
+     * @throws IllegalArgumentException if the model has no binder of that name
+     */
+    private static Binder readBinder(TradingCardInventorySystemModel model, ByteBuffer in) {
+        String name = InventorySnapshot.readString(in);
+        Binder binder = model.getBinder(name);
+
+        if (binder == null) {
+            throw new IllegalArgumentException("No binder named '" + name + "'.");
+        }
+        return binder;
+    }
+
+    /**
+     * Reads the name of the deck a record changes and returns that deck.
+     *
+     * @throws IllegalArgumentException if the model has no deck of that name
+     */
+    private static Deck readDeck(TradingCardInventorySystemModel model, ByteBuffer in) {
+        String name = InventorySnapshot.readString(in);
+        Deck deck = model.getDeck(name);
+
+        if (deck == null) {
+            throw new IllegalArgumentException("No deck named '" + name + "'.");
+        }
+        return deck;
+    }
+
+    /**
+     * Reads the cards and quantities of a batch record, using the holder's
+     * own copies of the cards when a holder is given.
+     */
+    private static Map<Card, Integer> readQuantities(ByteBuffer in, CardHolder holder) {
+        int size = in.getInt();
+        Map<Card, Integer> quantities = LinkedHashMap.newLinkedHashMap(size);
+
+        for (int i = 0; i < size; i++) {
+            Card card = readCard(in);
+            quantities.put((holder != null) ? heldCopy(holder, card) : card, in.getInt());
+        }
+        return quantities;
+    }
+
+    /**
+     * Returns the collection's copy of a card so that replayed holder additions
+     * share the card object with the collection, as the original calls did.
+     */
+    private static Card collectionCopy(TradingCardInventorySystemModel model, Card card) {
+        Card collectionCard = model.findCollectionCard(card);
+        return (collectionCard != null) ? collectionCard : card;
+    }
+
+    /**
+     * Returns the holder's own copy of a card, so that a card returned to the
+     * collection is the same object the holder had.
+     */
+    private static Card heldCopy(CardHolder holder, Card card) {
+        for (Card held : holder.getCards()) {
+            if (held.equals(card)) {
+                return held;
+            }
+        }
+
+        return card;
+    }
+
+    /**
+     * Writes the identity and count of a card to a record payload.
+     *
+     * @param out  the record payload
+     * @param card the card to write
+     * @throws IOException if writing fails
+     */
+    public static void writeCard(DataOutput out, Card card) throws IOException {
+        InventorySnapshot.writeString(out, card.getName());
+        out.writeByte(card.getRarity().ordinal());
+        out.writeByte(card.getVariant().ordinal());
+        out.writeLong(card.getValueCents());
+        out.writeInt(card.getCount());
+    }
+
+    private static Card readCard(ByteBuffer in) {
+        String name = InventorySnapshot.readString(in);
+        CardRarity rarity = RARITIES[in.get()];
+        CardVariant variant = VARIANTS[in.get()];
+        long valueCents = in.getLong();
+        int count = in.getInt();
+
+        return Card.restore(name, rarity, variant, valueCents, count);
+    }
+
+    /**
+     * Growable byte buffer for records waiting to be committed.
+     */
+    private static final class RecordBuffer extends DataOutputStream {
+        RecordBuffer() {
+            super(new Bytes());
+        }
+
+        byte[] array() {
+            return ((Bytes) out).array();
+        }
+
+        int length() {
+            return ((Bytes) out).size();
+        }
+
+        void truncate(int length) {
+            ((Bytes) out).truncate(length);
+        }
+
+        void patchInt(int offset, int value) {
+            byte[] bytes = array();
+            bytes[offset] = (byte) (value >>> 24);
+            bytes[offset + 1] = (byte) (value >>> 16);
+            bytes[offset + 2] = (byte) (value >>> 8);
+            bytes[offset + 3] = (byte) value;
+        }
+
+        /** Hands the current bytes to a committer and starts a fresh array. */
+        void detach() {
+            ((Bytes) out).detach();
+        }
+    }
+
+    private static final class Bytes extends ByteArrayOutputStream {
+        Bytes() {
+            super(4096);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void truncate(int length) {
+            count = length;
+        }
+
+        void detach() {
+            buf = new byte[Math.max(4096, buf.length)];
+            count = 0;
+        }
+    }
+}
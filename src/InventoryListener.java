@@ -0,0 +1,20 @@
+/**
+ * Receives the changes made to a {@link TradingCardInventorySystemModel}.
+ * <p>
+ * Events are delivered on the thread that made the change, once the change
+ * is appended to the model's journal but while the model still holds the
+ * locks for it, so a listener never sees a change the journal does not have,
+ * and the events for any one card or holder arrive in the order the changes
+ * were made. Listeners must therefore be
+ * quick and must not change the model; a Swing view should hand each event
+ * to the event dispatch thread.
+ */
+@FunctionalInterface
+public interface InventoryListener {
+    /**
+     * Called after a change to the inventory.
+     *
+     * @param event the change
+     */
+    void inventoryChanged(InventoryEvent event);
+}
@@ -0,0 +1,426 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Counts and times the model's operations, per operation and per kind of
+ * binder or deck the operation works on.
+ * <p>
+ * Every operation and target has its own latency histogram, laid out the way
+ * HdrHistogram lays out its buckets: each power of two is split into 16
+ * buckets of equal width, so a recorded time is known to within a sixteenth
+ * of itself, from single nanoseconds up to about 36 minutes; longer times
+ * share the last bucket, which reports the longest of them. Each bucket is a
+ * {@link LongAdder}, created when the first time lands in it, so threads
+ * recording at once rarely contend and unused buckets cost nothing.
+ * Recording a call costs two reads of the clock and one or two adder
+ * increments.
+ * <p>
+ * A model records nothing until it is given metrics with
+ * {@link TradingCardInventorySystemModel#setMetrics}; until then each
+ * operation pays one volatile read. The histograms can be read as a list of
+ * {@link Summary summaries}, written in the Prometheus text format for
+ * scraping, or logged periodically, one line per operation that ran.
+ */
+public final class InventoryMetrics {
+    /** The timed model operations. */
+    public enum Operation {
+        ADD_CARD, ADD_CARDS, REMOVE_CARDS, ADJUST_CARD_COUNT, SET_CARD_COUNT, SELL_CARD,
+        GET_CARD, GET_COLLECTION, GET_COLLECTION_VALUE, COUNT_COPIES, GET_CARDS_BY_FILTER, COUNT_CARDS_IN_VALUE_RANGE, GET_CARDS_IN_VALUE_RANGE,
+        GET_CARDS_BY_VALUE, GET_CARD_AT_VALUE_PERCENTILE, SEARCH_CARDS, QUERY_CARDS, GET_HOLDERS_OF_CARD,
+        CREATE_HOLDER, DELETE_HOLDER, ADD_CARD_TO_HOLDER, REMOVE_CARD_FROM_HOLDER,
+        ADD_CARDS_TO_HOLDER, REMOVE_CARDS_FROM_HOLDER, TRADE, SELL_HOLDER;
+
+        /**
+         * Returns the operation's name as it appears in metrics, e.g. "sell_card".
+         *
+         * @return the name in lower case
+         */
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** What an operation works on: the collection itself, or a binder or deck of one type. */
+    public enum Target {
+        COLLECTION, BASIC_BINDER, PAUPER_BINDER, RARES_BINDER, LUXURY_BINDER, COLLECTOR_BINDER,
+        NORMAL_DECK, SELLABLE_DECK;
+
+        /**
+         * Returns the target for a binder type.
+         *
+         * @param type the binder type
+         * @return the target
+         */
+        public static Target of(BinderType type) {
+            return switch (type) {
+                case BASIC -> BASIC_BINDER;
+                case PAUPER -> PAUPER_BINDER;
+                case RARES -> RARES_BINDER;
+                case LUXURY -> LUXURY_BINDER;
+                case COLLECTOR -> COLLECTOR_BINDER;
+            };
+        }
+
+        /**
+         * Returns the target for a deck type.
+         *
+         * @param type the deck type
+         * @return the target
+         */
+        public static Target of(DeckType type) {
+            return switch (type) {
+                case NORMAL -> NORMAL_DECK;
+                case SELLABLE -> SELLABLE_DECK;
+            };
+        }
+
+        /**
+         * Returns the target for a binder or deck.
+         *
+         * @param holder the binder or deck
+         * @return the target
+         */
+        public static Target of(CardHolder holder) {
+            return (holder instanceof Binder binder) ? of(BinderType.of(binder)) : of(DeckType.of((Deck) holder));
+        }
+
+        /**
+         * Returns the target's name as it appears in metrics, e.g. "pauper_binder".
+         *
+         * @return the name in lower case
+         */
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * The times recorded for one operation and target.
+     *
+     * @param operation  the operation
+     * @param target     what it worked on
+     * @param count      the number of calls
+     * @param totalNanos the time all calls took together
+     * @param p50Nanos   the median time
+     * @param p90Nanos   the time 90% of calls took at most
+     * @param p99Nanos   the time 99% of calls took at most
+     * @param maxNanos   the longest time
+     */
+    public record Summary(Operation operation, Target target, long count, long totalNanos,
+                          long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+        /**
+         * Returns the mean time of a call.
+         *
+         * @return the mean in nanoseconds, or 0 if there were no calls
+         */
+        public long meanNanos() {
+            return (count > 0) ? totalNanos / count : 0;
+        }
+    }
+
+    /**
+     * Times one call, from its creation until it is closed. Meant for
+     * try-with-resources around the body of the timed operation.
+     */
+    public static final class Timing implements AutoCloseable {
+        /** A timing that records nothing, for models without metrics. */
+        static final Timing NONE = new Timing(null, 0);
+
+        private final Histogram histogram;
+        private final long startNanos;
+
+        private Timing(Histogram histogram, long startNanos) {
+            this.histogram = histogram;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (histogram != null) {
+                histogram.record(System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final Target[] TARGETS = Target.values();
+
+    private final AtomicReferenceArray<Histogram> histograms =
+            new AtomicReferenceArray<>(Operation.values().length * TARGETS.length);
+
+    /**
+     * Starts timing a call.
+     *
+     * @param operation the operation called
+     * @param target    what it works on
+     * @return the timing, to close when the call returns
+     */
+    public Timing start(Operation operation, Target target) {
+        return new Timing(histogram(operation, target), System.nanoTime());
+    }
+
+    /**
+     * Records a call timed by other means.
+     *
+     * @param operation the operation called
+     * @param target    what it worked on
+     * @param nanos     the time the call took
+     */
+    public void record(Operation operation, Target target, long nanos) {
+        histogram(operation, target).record(nanos);
+    }
+
+    /**
+     * Summarises every operation and target called so far.
+     *
+     * @return the summaries, by operation and then target
+     */
+    public List<Summary> summaries() {
+        List<Summary> summaries = new ArrayList<>();
+
+        for (int i = 0; i < histograms.length(); i++) {
+            Histogram histogram = histograms.get(i);
+            if (histogram != null) {
+                summaries.add(histogram.snapshot().summary(histogram.operation, histogram.target));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Writes every histogram in the Prometheus text exposition format: a
+     * summary of times in seconds with its median, 90th and 99th percentiles,
+     * and a gauge of the longest time.
+     *
+     * @param out where to write
+     * @throws IOException if the text cannot be written
+     */
+    public void writeText(Appendable out) throws IOException {
+        List<Summary> summaries = summaries();
+
+        out.append("# HELP tcis_operation_seconds Time taken by inventory operations.\n");
+        out.append("# TYPE tcis_operation_seconds summary\n");
+        for (Summary summary : summaries) {
+            String labels = "operation=\"" + summary.operation().label() + "\",target=\"" + summary.target().label() + "\"";
+
+            appendSample(out, "tcis_operation_seconds", labels + ",quantile=\"0.5\"", summary.p50Nanos());
+            appendSample(out, "tcis_operation_seconds", labels + ",quantile=\"0.9\"", summary.p90Nanos());
+            appendSample(out, "tcis_operation_seconds", labels + ",quantile=\"0.99\"", summary.p99Nanos());
+            appendSample(out, "tcis_operation_seconds_sum", labels, summary.totalNanos());
+            out.append("tcis_operation_seconds_count{").append(labels).append("} ")
+                    .append(Long.toString(summary.count())).append('\n');
+        }
+
+        out.append("# HELP tcis_operation_max_seconds Longest time taken by an inventory operation.\n");
+        out.append("# TYPE tcis_operation_max_seconds gauge\n");
+        for (Summary summary : summaries) {
+            appendSample(out, "tcis_operation_max_seconds", "operation=\"" + summary.operation().label()
+                    + "\",target=\"" + summary.target().label() + "\"", summary.maxNanos());
+        }
+    }
+
+    /**
+     * Logs the operations called in each period, one line per operation and
+     * target with its count and times over that period, from a daemon thread.
+     *
+     * @param period how often to log
+     * @param log    receives each line
+     * @return closes to stop logging
+     */
+    public Closeable logEvery(Duration period, Consumer<String> log) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("inventory-metrics").daemon().factory());
+        Map<Histogram, Snapshot> previous = new HashMap<>();
+
+        scheduler.scheduleAtFixedRate(() -> {
+            for (int i = 0; i < histograms.length(); i++) {
+                Histogram histogram = histograms.get(i);
+                if (histogram == null) {
+                    continue;
+                }
+
+                Snapshot snapshot = histogram.snapshot();
+                Snapshot earlier = previous.put(histogram, snapshot);
+                Summary summary = ((earlier != null) ? snapshot.minus(earlier) : snapshot)
+                        .summary(histogram.operation, histogram.target);
+
+                if (summary.count() > 0) {
+                    log.accept(String.format("metrics %s %s: %,d calls in %ds, mean %s, p50 %s, p99 %s, max %s",
+                            summary.operation().label(), summary.target().label(), summary.count(),
+                            period.toSeconds(), duration(summary.meanNanos()), duration(summary.p50Nanos()),
+                            duration(summary.p99Nanos()), duration(summary.maxNanos())));
+                }
+            }
+        }, period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+
+        return scheduler::shutdownNow;
+    }
+
+    private Histogram histogram(Operation operation, Target target) {
+        int slot = operation.ordinal() * TARGETS.length + target.ordinal();
+        Histogram histogram = histograms.get(slot);
+
+        if (histogram == null) {
+            histograms.compareAndSet(slot, null, new Histogram(operation, target));
+            histogram = histograms.get(slot);
+        }
+        return histogram;
+    }
+
+    private static void appendSample(Appendable out, String name, String labels, long nanos) throws IOException {
+        out.append(name).append('{').append(labels).append("} ").append(Double.toString(nanos / 1e9)).append('\n');
+    }
+
+    /**
+     * Formats a time for a log line, e.g. "850ns", "12.4us" or "3.10ms".
+     */
+    private static String duration(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        } else if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1e3);
+        } else if (nanos < 1_000_000_000) {
+            return String.format("%.2fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+
+    /**
+     * Finds the bucket of a time: times under 16 ns have a bucket each, and
+     * each power of two above is split into 16 buckets.
+     */
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        int index = (shift + 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    /**
+     * Returns the lowest time that falls in a bucket.
+     */
+    static long lowestInBucket(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Returns the highest time a bucket can hold, given the longest time
+     * recorded. The last bucket has no upper bound, so it holds up to the longest.
+     */
+    static long highestInBucket(int index, long maxNanos) {
+        return (index == BUCKETS - 1) ? maxNanos : Math.min(maxNanos, lowestInBucket(index + 1) - 1);
+    }
+
+    /** The histogram of one operation and target. */
+    private static final class Histogram {
+        final Operation operation;
+        final Target target;
+        final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Histogram(Operation operation, Target target) {
+            this.operation = operation;
+            this.target = target;
+        }
+
+        void record(long nanos) {
+            int index = bucket(nanos);
+            LongAdder bucket = buckets.get(index);
+
+            if (bucket == null) {
+                buckets.compareAndSet(index, null, new LongAdder());
+                bucket = buckets.get(index);
+            }
+            bucket.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get()) {
+                maxNanos.accumulate(nanos);
+            }
+        }
+
+        /**
+         * Reads the histogram. Calls recorded meanwhile may be counted in some
+         * buckets and not yet in the totals.
+         */
+        Snapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                LongAdder bucket = buckets.get(i);
+                if (bucket != null) {
+                    counts[i] = bucket.sum();
+                    count += counts[i];
+                }
+            }
+            return new Snapshot(counts, count, totalNanos.sum(), maxNanos.get());
+        }
+    }
+
+    /** A histogram's counts at one moment, or the difference between two moments. */
+    private record Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+        /**
+         * Returns the calls recorded since an earlier snapshot. Their longest
+         * time is taken from the highest bucket they reached.
+         */
+        Snapshot minus(Snapshot earlier) {
+            long[] difference = new long[BUCKETS];
+            long max = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                difference[i] = counts[i] - earlier.counts[i];
+                if (difference[i] > 0) {
+                    max = highestInBucket(i, maxNanos);
+                }
+            }
+            return new Snapshot(difference, count - earlier.count, totalNanos - earlier.totalNanos, max);
+        }
+
+        /**
+         * Finds the time that a share of the calls took at most, as the
+         * highest time in the bucket where that share is reached.
+         */
+        long percentile(double share) {
+            long rank = Math.max(1, (long) Math.ceil(share * count));
+            long seen = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestInBucket(i, maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        Summary summary(Operation operation, Target target) {
+            return new Summary(operation, target, count, totalNanos,
+                    percentile(0.5), percentile(0.9), percentile(0.99), maxNanos);
+        }
+    }
+}
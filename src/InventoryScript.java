@@ -0,0 +1,381 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Headless batch front end to the inventory: runs a script of commands
+ * against the model, for servers and CI machines without a display.
+ * <p>
+ * Each line is one command; blank lines and lines starting with {@code #} are
+ * skipped. Words are separated by spaces, and a word with spaces in it is put
+ * in double quotes, with {@code ""} for a quote inside it. Cards and holders
+ * are looked up by name the same way the view does. Commands:
+ * <pre>
+ * add {card} {rarity} {variant} {value} [count]     add a card, or copies of one already in the collection
+ * count {card} {adjustment}                        adjust a card's free count by a signed amount
+ * sell {card}                                      sell one free copy
+ * import {file}                                    import a CSV or JSON card list
+ * binder create {name} [type]                      create a binder, basic by default
+ * binder add {binder} {card}                       move a collection card into the binder
+ * binder remove {binder} {card}                    move a card back to the collection
+ * binder trade {binder} {outgoing card} {card} {rarity} {variant} {value}
+ *                                                  trade a binder card for a new one
+ * binder sell {binder} [price]                     sell it, at a custom price for a luxury binder
+ * binder delete {binder}                           delete it, returning its cards
+ * deck create|add|remove|sell|delete ...           the same for decks, normal by default
+ * report                                           print the money, collection, binders and decks
+ * </pre>
+ * The checks and messages are the controller's, shared through
+ * {@link InventoryActions}, but its questions get fixed answers so a script
+ * runs unattended: adding a card the collection already has adds to
+ * its count, trades go ahead whatever the difference in value, and sales
+ * and deletions are confirmed. A command that fails is reported with its line
+ * number on the error stream and the script carries on.
+ */
+public class InventoryScript {
+    private final TradingCardInventorySystemModel model;
+    private final InventoryActions actions;
+    private final PrintStream out;
+
+    /**
+     * Creates a script runner for a model.
+     *
+     * @param model the model to run commands against
+     * @param out   where reports and import summaries are printed
+     */
+    public InventoryScript(TradingCardInventorySystemModel model, PrintStream out) {
+        this.model = model;
+        this.actions = new InventoryActions(model);
+        this.out = out;
+    }
+
+    /**
+     * Runs a script against the inventory in the data directory named by
+     * {@code -Dtcis.data} (as {@link Main} does), or against an empty inventory
+     * that is not saved if {@code --memory} is given, then prints how many
+     * commands ran and how fast to standard error. Exits with status 1 if
+     * any command failed.
+     * <p>
+     * Usage: {@code java InventoryScript [--memory] [file]}.
+     *
+     * @param args the options and the script file, standard input if none or {@code -}
+     * @throws IOException if the script cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        boolean inMemory = args.length > 0 && args[0].equals("--memory");
+        String file = (args.length > (inMemory ? 1 : 0)) ? args[args.length - 1] : "-";
+        Path dataDirectory = Path.of(System.getProperty("tcis.data", "inventory"));
+
+        InventoryStore store = inMemory ? null : Main.openStore(dataDirectory);
+        TradingCardInventorySystemModel model = (store != null) ? store.getModel() : new TradingCardInventorySystemModel();
+        Main.startMetrics(model, false);
+        InventoryScript script = new InventoryScript(model, System.out);
+
+        int failures;
+        try (Reader in = file.equals("-") ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Path.of(file))) {
+            failures = script.run(in, System.err);
+        } finally {
+            if (store != null) {
+                Main.closeStore(store, dataDirectory);
+            }
+        }
+        System.exit((failures > 0) ? 1 : 0);
+    }
+
+    /**
+     * Runs every command of a script.
+     *
+     * @param in     the script
+     * @param errors where failed commands are reported, and the totals at the end
+     * @return the number of commands that failed
+     * @throws IOException if the script cannot be read
+     */
+    public int run(Reader in, PrintStream errors) throws IOException {
+        BufferedReader lines = (in instanceof BufferedReader buffered) ? buffered : new BufferedReader(in);
+        long start = System.nanoTime();
+        int lineNumber = 0;
+        int commands = 0;
+        int failures = 0;
+
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            if (line.isBlank() || line.strip().startsWith("#")) {
+                continue;
+            }
+
+            commands++;
+            try {
+                execute(words(line));
+            } catch (IllegalArgumentException | CommandException e) {
+                failures++;
+                errors.println("line " + lineNumber + ": " + e.getMessage());
+            } catch (IOException e) {
+                failures++;
+                errors.println("line " + lineNumber + ": Stopped: " + e.getMessage());
+            } catch (UncheckedIOException e) {
+                failures++;
+                errors.println("line " + lineNumber + ": Stopped: " + e.getCause().getMessage());
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        errors.printf("Ran %,d commands (%,d failed) in %.2f s, %,.0f commands/s.%n", commands, failures, seconds,
+                commands / Math.max(seconds, 1e-9));
+        return failures;
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param words the command's words
+     * @throws IllegalArgumentException if the command is malformed
+     * @throws CommandException         if the model refuses it
+     * @throws IOException              if a file it names cannot be read
+     */
+    private void execute(List<String> words) throws IOException {
+        switch (keyword(words, 0)) {
+            case "add" -> {
+                requireWords(words, 5, 6, "add {card} {rarity} {variant} {value} [count]");
+                model.addCardToCollection(CardImporter.parseCard(words.get(1), words.get(2), words.get(3),
+                        words.get(4), (words.size() > 5) ? words.get(5) : null));
+            }
+            case "count" -> {
+                requireWords(words, 3, 3, "count {card} {adjustment}");
+                Card card = collectionCard(words.get(1));
+                require(actions.adjustCardCount(card, parseInt(words.get(2), "adjustment")));
+            }
+            case "sell" -> {
+                requireWords(words, 2, 2, "sell {card}");
+                Card card = collectionCard(words.get(1));
+                require(actions.checkSellCard(card));
+                require(actions.sellCard(card));
+            }
+            case "import" -> {
+                requireWords(words, 2, 2, "import {file}");
+                out.println(new CardImporter(model).importFile(Path.of(words.get(1))).summary());
+            }
+            case "binder", "deck" -> executeHolder(words);
+            case "report" -> {
+                requireWords(words, 1, 1, "report");
+                report();
+            }
+            default -> throw new IllegalArgumentException("Unknown command '" + words.getFirst() + "'.");
+        }
+    }
+
+    private void executeHolder(List<String> words) {
+        boolean binders = words.getFirst().equalsIgnoreCase("binder");
+        String kind = binders ? "binder" : "deck";
+        String action = keyword(words, 1);
+
+        if (action.equals("create")) {
+            requireWords(words, 3, 4, kind + " create {name} [type]");
+            String name = words.get(2);
+            require(binders
+                    ? actions.createBinder(name, (words.size() > 3) ? CardImporter.parseEnum(BinderType.class, "type", words.get(3)) : BinderType.BASIC)
+                    : actions.createDeck(name, (words.size() > 3) ? CardImporter.parseEnum(DeckType.class, "type", words.get(3)) : DeckType.NORMAL));
+            return;
+        }
+
+        requireWords(words, 3, 9, kind + " " + action + " {" + kind + "} ...");
+        CardHolder holder = binders ? model.getBinder(words.get(2)) : model.getDeck(words.get(2));
+        if (holder == null) {
+            throw new CommandException("No " + kind + " named '" + words.get(2) + "'.");
+        }
+
+        switch (action) {
+            case "add" -> {
+                requireWords(words, 4, 4, kind + " add {" + kind + "} {card}");
+                Card card = collectionCard(words.get(3));
+                require(actions.checkAddToHolder(holder));
+                require(actions.addToHolder(holder, card));
+            }
+            case "remove" -> {
+                requireWords(words, 4, 4, kind + " remove {" + kind + "} {card}");
+                require(actions.removeFromHolder(holder, heldCard(holder, words.get(3))));
+            }
+            case "trade" -> {
+                requireWords(words, 8, 8, "binder trade {binder} {outgoing card} {card} {rarity} {variant} {value}");
+                if (!binders) {
+                    throw new IllegalArgumentException("Only binders trade cards.");
+                }
+                Card outgoing = heldCard(holder, words.get(3));
+                Card incoming = CardImporter.parseCard(words.get(4), words.get(5), words.get(6), words.get(7), null);
+                require(actions.trade((Binder) holder, incoming, outgoing));
+            }
+            case "sell" -> {
+                requireWords(words, 3, 4, kind + " sell {" + kind + "} [price]");
+                sellHolder(holder, (words.size() > 3) ? words.get(3) : null);
+            }
+            case "delete" -> {
+                requireWords(words, 3, 3, kind + " delete {" + kind + "}");
+                require(actions.deleteHolder(holder));
+            }
+            default -> throw new IllegalArgumentException("Unknown " + kind + " command '" + words.get(1) + "'.");
+        }
+    }
+
+    private void sellHolder(CardHolder holder, String price) {
+        require(actions.checkSellHolder(holder));
+
+        BigDecimal customPrice = null;
+        if (price != null) {
+            if (!(holder instanceof LuxuryBinder luxury)) {
+                throw new IllegalArgumentException("Only luxury binders take a custom price.");
+            }
+            customPrice = parseDecimal(price, "price");
+            require(actions.checkCustomPrice(luxury, customPrice));
+        }
+
+        require(actions.sellHolder(holder, customPrice));
+    }
+
+    /**
+     * Prints the collector's money, the size and worth of the collection, and
+     * every binder and deck with its value.
+     */
+    private void report() {
+        out.println("money $" + model.getCollectorMoney().toPlainString());
+        out.printf("collection %,d cards, %,d free copies, worth $%s%n", model.getCollectionSize(),
+                model.countCopies(), model.getCollectionValue().toPlainString());
+        for (Binder binder : model.getBinders()) {
+            reportHolder("binder", binder);
+        }
+        for (Deck deck : model.getDecks()) {
+            reportHolder("deck", deck);
+        }
+    }
+
+    private void reportHolder(String kind, CardHolder holder) {
+        BigDecimal value = (holder instanceof Sellable sellable) ? sellable.calculateValue() : holder.getCardsValue();
+
+        out.printf("%s '%s' (%s) %,d cards, worth $%s%n", kind, holder.getName(), holder.getClass().getSimpleName(),
+                holder.getCardsCount(), value.toPlainString());
+    }
+
+    private Card collectionCard(String name) {
+        Card card = model.getCardFromCollection(name);
+        if (card == null) {
+            throw new CommandException("No card named '" + name + "' in the collection.");
+        }
+        return card;
+    }
+
+    private static Card heldCard(CardHolder holder, String name) {
+        for (Card held : holder.getCards()) {
+            if (held.getName().equalsIgnoreCase(name)) {
+                return held;
+            }
+        }
+        throw new CommandException("'" + holder.getName() + "' holds no card named '" + name + "'.");
+    }
+
+    /**
+     * Splits a line into words at spaces, keeping quoted words whole.
+     *
+     * @throws IllegalArgumentException if a quote is not closed
+     */
+    static List<String> words(String line) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        int i = 0;
+
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                word.setLength(0);
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("Unclosed quote.");
+                    }
+                    c = line.charAt(i++);
+                    if (c != '"') {
+                        word.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        word.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                words.add(word.toString());
+            } else {
+                int end = i;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                    end++;
+                }
+                words.add(line.substring(i, end));
+                i = end;
+            }
+        }
+        return words;
+    }
+
+    private static String keyword(List<String> words, int index) {
+        if (words.size() <= index) {
+            throw new IllegalArgumentException("Missing command after '" + String.join(" ", words) + "'.");
+        }
+        return words.get(index).toLowerCase(Locale.ROOT);
+    }
+
+    private static void requireWords(List<String> words, int min, int max, String usage) {
+        if (words.size() < min || words.size() > max) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+
+    private static void require(String refusal) {
+        if (refusal != null) {
+            throw new CommandException(refusal);
+        }
+    }
+
+    private static void require(InventoryActions.Outcome outcome) {
+        if (!outcome.done()) {
+            throw new CommandException(outcome.message());
+        }
+    }
+
+    private static int parseInt(String text, String field) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + " '" + text + "'.");
+        }
+    }
+
+    private static BigDecimal parseDecimal(String text, String field) {
+        try {
+            return new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + " '" + text + "'.");
+        }
+    }
+
+    /**
+     * A well-formed command the inventory refuses.
+     */
+    private static final class CommandException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        CommandException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,654 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless HTTP/JSON front end to the inventory, for running it as a local
+ * backend instead of through the Swing view.
+ * <p>
+ * Every request runs on its own virtual thread and calls the thread-safe model
+ * directly. Request bodies are flat JSON objects; responses are JSON. Card and
+ * holder names in paths are URL-encoded, and cards are looked up by name the
+ * same way the view does. Endpoints:
+ * <pre>
+ * GET    /money                          collector's money
+ * GET    /cards                          every collection card, or those matching a query (below)
+ * POST   /cards                          add a card {name, rarity, variant, value, count}
+ * GET    /cards/{name}                   one card
+ * PUT    /cards/{name}                   set its free count {count}
+ * DELETE /cards/{name}                   set its free count to zero
+ * POST   /cards/{name}/sell              sell one copy
+ * GET    /binders | /decks               every binder or deck, without cards
+ * POST   /binders | /decks               create one {name, type}
+ * GET    /binders/{name} | /decks/{name} one binder or deck with its cards
+ * DELETE /binders/{name} | /decks/{name} delete it, returning its cards
+ * POST   /binders/{name}/cards           move a collection card in {name}
+ * DELETE /binders/{name}/cards/{card}    move a card back to the collection
+ * POST   /binders/{name}/sell            sell it {price, luxury binders only, optional}
+ * POST   /binders/{name}/trade           trade {outgoing, name, rarity, variant, value}
+ * GET    /metrics                        operation counts and latencies, as Prometheus text
+ * </pre>
+ * The card list takes a {@link CardQuery} as parameters, all of which must
+ * hold: {@code rarity} and {@code variant} take comma-separated alternatives,
+ * excluded with a leading {@code !}, e.g. {@code ?rarity=rare,legendary&variant=!normal};
+ * {@code name} a name prefix; {@code minValue}, {@code maxValue},
+ * {@code minCount} and {@code maxCount} inclusive bounds; {@code inBinder} and
+ * {@code inDeck} {@code true} or {@code false}; {@code sort} one of
+ * {@code name}, {@code value} or {@code count}, descending with a leading
+ * {@code -}; and {@code limit} the most cards. Adding {@code explain} answers
+ * {@code {"plan": ...}} with the query's plan instead of running it. The deck
+ * card and sell endpoints mirror the binder ones. Failures answer
+ * {@code 400} for malformed requests, {@code 404} for unknown names and
+ * {@code 409} when the model refuses the operation, with an {@code error} message.
+ */
+public class InventoryServer implements Closeable {
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 8080;
+
+    static {
+        // Without this, small responses wait for the client's delayed ACK (~40 ms on Linux)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final TradingCardInventorySystemModel model;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server for a model, bound to a port on the loopback interface.
+     * The server does not accept requests until {@link #start()} is called.
+     *
+     * @param model the model to serve
+     * @param port  the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public InventoryServer(TradingCardInventorySystemModel model, int port) throws IOException {
+        this.model = model;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Runs the inventory in the data directory named by {@code -Dtcis.data}
+     * (as {@link Main} does) as a server, recording operation metrics unless
+     * {@code -Dtcis.metrics=false}.
+     * <p>
+     * Usage: {@code java InventoryServer [port]}.
+     *
+     * @param args an optional port, {@value #DEFAULT_PORT} by default
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path dataDirectory = Path.of(System.getProperty("tcis.data", "inventory"));
+
+        InventoryStore store = Main.openStore(dataDirectory);
+        TradingCardInventorySystemModel model = (store != null) ? store.getModel() : new TradingCardInventorySystemModel();
+        Main.startMetrics(model, true);
+        InventoryServer server = new InventoryServer(model, port);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            if (store != null) {
+                Main.closeStore(store, dataDirectory);
+            }
+        }));
+
+        server.start();
+        System.out.println("Serving " + dataDirectory + " on http://localhost:" + server.getPort() + "/");
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits for those in progress to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            List<String> path = pathSegments(exchange);
+
+            try {
+                if (path.isEmpty()) {
+                    respondError(exchange, 404, "No such resource.");
+                    return;
+                }
+
+                switch (path.getFirst()) {
+                    case "money" -> handleMoney(exchange, method, path);
+                    case "cards" -> handleCards(exchange, method, path);
+                    case "binders", "decks" -> handleHolders(exchange, method, path);
+                    case "metrics" -> handleMetrics(exchange, method, path);
+                    default -> respondError(exchange, 404, "No such resource.");
+                }
+            } catch (RuntimeException e) {
+                fail(exchange, e);
+            }
+        }
+    }
+
+    /**
+     * Answers a request that failed with the status its exception calls for.
+     * Unexpected exceptions are answered with 500 and also reported to the
+     * thread's uncaught exception handler. If the response was already under
+     * way it cannot be changed, so the exchange is just closed, which cuts
+     * the response short.
+     */
+    private static void fail(HttpExchange exchange, RuntimeException e) throws IOException {
+        int status = switch (e) {
+            case IllegalArgumentException _ -> 400;
+            case RequestException request -> request.status;
+            case UncheckedIOException _ -> 500;
+            default -> {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                yield 500;
+            }
+        };
+
+        if (exchange.getResponseCode() == -1) {
+            respondError(exchange, status, (status == 500 && !(e instanceof UncheckedIOException))
+                    ? "Internal error." : e.getMessage());
+        }
+    }
+
+    private void handleMoney(HttpExchange exchange, String method, List<String> path) throws IOException {
+        requireMethod(method, "GET", path.size() == 1);
+        respond(exchange, 200, money());
+    }
+
+    private void handleMetrics(HttpExchange exchange, String method, List<String> path) throws IOException {
+        requireMethod(method, "GET", path.size() == 1);
+
+        InventoryMetrics metrics = model.getMetrics();
+        if (metrics == null) {
+            throw new RequestException(404, "Metrics are not being recorded.");
+        }
+
+        StringBuilder text = new StringBuilder();
+        metrics.writeText(text);
+        byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void handleCards(HttpExchange exchange, String method, List<String> path) throws IOException {
+        if (path.size() == 1) {
+            switch (method) {
+                case "GET" -> respondCards(exchange);
+                case "POST" -> {
+                    Map<String, String> body = readBody(exchange);
+                    Card card = CardImporter.parseCard(body.get("name"), body.get("rarity"), body.get("variant"),
+                            body.get("value"), body.get("count"));
+
+                    model.addCardToCollection(card);
+                    respond(exchange, 201, cardJson(model.findCollectionCard(card)));
+                }
+                default -> throw new RequestException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        Card card = collectionCard(path.get(1));
+        if (path.size() == 2) {
+            switch (method) {
+                case "GET" -> respond(exchange, 200, cardJson(card));
+                case "PUT" -> {
+                    setCount(card, parseInt(readBody(exchange).get("count"), "count"));
+                    respond(exchange, 200, cardJson(card));
+                }
+                case "DELETE" -> {
+                    setCount(card, 0);
+                    respond(exchange, 200, cardJson(card));
+                }
+                default -> throw new RequestException(405, "Method not allowed.");
+            }
+        } else {
+            requireMethod(method, "POST", path.size() == 3 && path.get(2).equals("sell"));
+            if (!model.sellCard(card)) {
+                throw new RequestException(409, "No free copy of '" + card.getName() + "' to sell.");
+            }
+            respond(exchange, 200, money());
+        }
+    }
+
+    private void handleHolders(HttpExchange exchange, String method, List<String> path) throws IOException {
+        boolean binders = path.getFirst().equals("binders");
+
+        if (path.size() == 1) {
+            switch (method) {
+                case "GET" -> respondHolders(exchange, binders);
+                case "POST" -> createHolder(exchange, binders, readBody(exchange));
+                default -> throw new RequestException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        CardHolder holder = binders ? model.getBinder(path.get(1)) : model.getDeck(path.get(1));
+        if (holder == null) {
+            throw new RequestException(404, "No " + (binders ? "binder" : "deck") + " named '" + path.get(1) + "'.");
+        }
+
+        if (path.size() == 2) {
+            switch (method) {
+                case "GET" -> respond(exchange, 200, holderJson(holder, true));
+                case "DELETE" -> {
+                    boolean deleted = binders ? model.deleteBinder((Binder) holder) : model.deleteDeck((Deck) holder);
+                    requireDone(deleted, "'" + holder.getName() + "' was already removed.");
+                    respond(exchange, 200, holderJson(holder, false));
+                }
+                default -> throw new RequestException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        switch (path.get(2)) {
+            case "cards" -> {
+                if (path.size() == 3) {
+                    requireMethod(method, "POST", true);
+                    addToHolder(exchange, holder, collectionCard(readBody(exchange).get("name")));
+                } else {
+                    requireMethod(method, "DELETE", path.size() == 4);
+                    removeFromHolder(exchange, holder, path.get(3));
+                }
+            }
+            case "sell" -> {
+                requireMethod(method, "POST", path.size() == 3);
+                sellHolder(exchange, holder, readBody(exchange));
+            }
+            case "trade" -> {
+                requireMethod(method, "POST", binders && path.size() == 3);
+                trade(exchange, (Binder) holder, readBody(exchange));
+            }
+            default -> throw new RequestException(404, "No such resource.");
+        }
+    }
+
+    private void createHolder(HttpExchange exchange, boolean binders, Map<String, String> body) throws IOException {
+        String name = body.get("name");
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Missing name.");
+        }
+
+        String type = body.get("type");
+        boolean created = binders
+                ? model.createBinder(name, (type == null) ? BinderType.BASIC : CardImporter.parseEnum(BinderType.class, "type", type))
+                : model.createDeck(name, (type == null) ? DeckType.NORMAL : CardImporter.parseEnum(DeckType.class, "type", type));
+        requireDone(created, "'" + name + "' already exists.");
+
+        CardHolder holder = binders ? model.getBinder(name) : model.getDeck(name);
+        respond(exchange, 201, holderJson(holder, false));
+    }
+
+    private void addToHolder(HttpExchange exchange, CardHolder holder, Card card) throws IOException {
+        boolean added = (holder instanceof Binder binder) ? model.addCardToBinder(binder, card)
+                : model.addCardToDeck((Deck) holder, card);
+        requireDone(added, "'" + holder.getName() + "' cannot take '" + card.getName() + "'.");
+
+        respond(exchange, 200, holderJson(holder, true));
+    }
+
+    private void removeFromHolder(HttpExchange exchange, CardHolder holder, String cardName) throws IOException {
+        Card card = null;
+        for (Card held : holder.getCards()) {
+            if (held.getName().equalsIgnoreCase(cardName)) {
+                card = held;
+                break;
+            }
+        }
+        if (card == null) {
+            throw new RequestException(404, "'" + holder.getName() + "' holds no card named '" + cardName + "'.");
+        }
+
+        boolean removed = (holder instanceof Binder binder) ? model.removeCardFromBinder(binder, card)
+                : model.removeCardFromDeck((Deck) holder, card);
+        requireDone(removed, "'" + card.getName() + "' was already removed.");
+
+        respond(exchange, 200, holderJson(holder, true));
+    }
+
+    private void sellHolder(HttpExchange exchange, CardHolder holder, Map<String, String> body) throws IOException {
+        String price = body.get("price");
+        BigDecimal customPrice = null;
+
+        if (price != null) {
+            if (!(holder instanceof LuxuryBinder luxury)) {
+                throw new IllegalArgumentException("Only luxury binders take a custom price.");
+            }
+            customPrice = parseDecimal(price, "price");
+            requireDone(customPrice.compareTo(luxury.calculateBaseValue()) >= 0,
+                    "Price must be at least " + luxury.calculateBaseValue() + ".");
+        }
+
+        // The model sets the custom price as part of the sale
+        boolean sold = (holder instanceof Binder binder) ? model.sellBinder(binder, customPrice)
+                : model.sellDeck((Deck) holder);
+        requireDone(sold, "'" + holder.getName() + "' cannot be sold.");
+
+        respond(exchange, 200, money());
+    }
+
+    private void trade(HttpExchange exchange, Binder binder, Map<String, String> body) throws IOException {
+        String outgoingName = body.get("outgoing");
+        if (outgoingName == null) {
+            throw new IllegalArgumentException("Missing outgoing card.");
+        }
+
+        Card outgoing = null;
+        for (Card held : binder.getCards()) {
+            if (held.getName().equalsIgnoreCase(outgoingName)) {
+                outgoing = held;
+                break;
+            }
+        }
+        if (outgoing == null) {
+            throw new RequestException(404, "'" + binder.getName() + "' holds no card named '" + outgoingName + "'.");
+        }
+
+        Card incoming = CardImporter.parseCard(body.get("name"), body.get("rarity"), body.get("variant"),
+                body.get("value"), null);
+        requireDone(model.executeTrade(binder, incoming, outgoing),
+                "'" + binder.getName() + "' cannot take '" + incoming.getName() + "'.");
+
+        respond(exchange, 200, holderJson(binder, true));
+    }
+
+    private void setCount(Card card, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative.");
+        }
+        requireDone(model.setCardCount(card, count), "'" + card.getName() + "' was removed from the collection.");
+    }
+
+    private Card collectionCard(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Missing card name.");
+        }
+
+        Card card = model.getCardFromCollection(name);
+        if (card == null) {
+            throw new RequestException(404, "No card named '" + name + "' in the collection.");
+        }
+        return card;
+    }
+
+    private String money() {
+        return "{\"collectorMoney\":" + model.getCollectorMoney().toPlainString() + "}";
+    }
+
+    private static String cardJson(Card card) {
+        return "{\"name\":" + InventoryExporter.json(card.getName()) + ",\"rarity\":\"" + card.getRarity()
+                + "\",\"variant\":\"" + card.getVariant() + "\",\"value\":" + card.getValue().toPlainString()
+                + ",\"count\":" + card.getCount() + "}";
+    }
+
+    private static String holderJson(CardHolder holder, boolean withCards) {
+        BigDecimal value = (holder instanceof Sellable sellable) ? sellable.calculateValue() : holder.getCardsValue();
+        StringBuilder json = new StringBuilder("{\"name\":").append(InventoryExporter.json(holder.getName()))
+                .append(",\"type\":\"").append(holder.getClass().getSimpleName())
+                .append("\",\"value\":").append(value.toPlainString());
+
+        if (withCards) {
+            json.append(",\"cards\":[");
+            List<Card> cards = holder.getCards();
+            for (int i = 0; i < cards.size(); i++) {
+                json.append((i > 0) ? "," : "").append(cardJson(cards.get(i)));
+            }
+            json.append(']');
+        } else {
+            json.append(",\"count\":").append(holder.getCardsCount());
+        }
+
+        return json.append('}').toString();
+    }
+
+    private void respondHolders(HttpExchange exchange, boolean binders) throws IOException {
+        List<String> holders = new ArrayList<>();
+        if (binders) {
+            model.forEachBinder(binder -> holders.add(holderJson(binder, false)));
+        } else {
+            model.forEachDeck(deck -> holders.add(holderJson(deck, false)));
+        }
+
+        respond(exchange, 200, "[" + String.join(",", holders) + "]");
+    }
+
+    /**
+     * Streams the collection, so large collections are never built up as one
+     * string. The cards are copied out of the collection first, so the
+     * collection is not held locked while the client reads. A query visits
+     * only the cards its plan reads.
+     */
+    private void respondCards(HttpExchange exchange) throws IOException {
+        List<Map.Entry<String, String>> parameters = queryParameters(exchange);
+        CardQuery query = parameters.isEmpty() ? null : cardQuery(parameters);
+        if (parameters.stream().anyMatch(parameter -> parameter.getKey().equals("explain"))) {
+            respond(exchange, 200, "{\"plan\":" + InventoryExporter.json(model.explainQuery(query)) + "}");
+            return;
+        }
+
+        List<Card> cards = (query != null) ? model.queryCards(query) : model.getCardCollection();
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                1 << 16);
+
+        out.write('[');
+        for (int i = 0; i < cards.size(); i++) {
+            out.write((i > 0) ? ",\n" : "");
+            out.write(cardJson(cards.get(i)));
+        }
+        out.write("]\n");
+        out.flush();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, "{\"error\":" + InventoryExporter.json(String.valueOf(message)) + "}");
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        CardImporter.JsonReader reader = new CardImporter.JsonReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+
+        try {
+            reader.nextObject(fields);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        return fields;
+    }
+
+    private static List<String> pathSegments(HttpExchange exchange) {
+        List<String> segments = new ArrayList<>();
+
+        for (String segment : exchange.getRequestURI().getRawPath().split("/")) {
+            if (!segment.isEmpty()) {
+                // Keep '+' literal; only percent escapes are decoded in paths
+                segments.add(URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8));
+            }
+        }
+        return segments;
+    }
+
+    private static void requireMethod(String method, String expected, boolean pathMatches) {
+        if (!pathMatches) {
+            throw new RequestException(404, "No such resource.");
+        } else if (!method.equals(expected)) {
+            throw new RequestException(405, "Method not allowed.");
+        }
+    }
+
+    /**
+     * Reads the parameters of a request's query string, in order.
+     *
+     * @return the parameters, empty if the request has none
+     */
+    private static List<Map.Entry<String, String>> queryParameters(HttpExchange exchange) {
+        List<Map.Entry<String, String>> parameters = new ArrayList<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = (equals < 0) ? parameter : parameter.substring(0, equals);
+            String value = (equals < 0) ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.add(Map.entry(name, value));
+        }
+        return parameters;
+    }
+
+    /**
+     * Builds the card query of a card list request.
+     */
+    private static CardQuery cardQuery(List<Map.Entry<String, String>> parameters) {
+        CardQuery query = CardQuery.all();
+
+        for (Map.Entry<String, String> parameter : parameters) {
+            String name = parameter.getKey();
+            String value = parameter.getValue();
+
+            query = switch (name) {
+                case "rarity", "variant" -> query.filter(cardFilter(name, value));
+                case "name" -> query.nameStartsWith(value);
+                case "minValue" -> query.valueAtLeast(parseDecimal(value, name));
+                case "maxValue" -> query.valueAtMost(parseDecimal(value, name));
+                case "minCount" -> query.countAtLeast(parseInt(value, name));
+                case "maxCount" -> query.countAtMost(parseInt(value, name));
+                case "inBinder" -> query.inBinder(parseBoolean(value, name));
+                case "inDeck" -> query.inDeck(parseBoolean(value, name));
+                case "sort" -> query.orderBy(CardImporter.parseEnum(CardQuery.Order.class, name,
+                        value.startsWith("-") ? value.substring(1) : value), value.startsWith("-"));
+                case "limit" -> query.limit(parseInt(value, name));
+                case "explain" -> query;
+                default -> throw new IllegalArgumentException("Unknown parameter '" + name + "'.");
+            };
+        }
+        return query;
+    }
+
+    /**
+     * Reads a rarity or variant filter: comma-separated alternatives, all
+     * excluded if the list starts with {@code !}.
+     */
+    private static CardFilter cardFilter(String name, String value) {
+        boolean exclude = value.startsWith("!");
+        CardFilter filter = null;
+
+        for (String text : (exclude ? value.substring(1) : value).split(",")) {
+            CardFilter one = name.equals("rarity")
+                    ? new CardFilter.Rarity(CardImporter.parseEnum(CardRarity.class, name, text))
+                    : new CardFilter.Variant(CardImporter.parseEnum(CardVariant.class, name, text));
+            filter = (filter == null) ? one : filter.or(one);
+        }
+        return exclude ? filter.negate() : filter;
+    }
+
+    private static void requireDone(boolean done, String message) {
+        if (!done) {
+            throw new RequestException(409, message);
+        }
+    }
+
+    private static int parseInt(String text, String field) {
+        try {
+            return Integer.parseInt(String.valueOf(text).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + " '" + text + "'.");
+        }
+    }
+
+    private static boolean parseBoolean(String text, String field) {
+        return switch (text) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("Invalid " + field + " '" + text + "'.");
+        };
+    }
+
+    private static BigDecimal parseDecimal(String text, String field) {
+        try {
+            return new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + " '" + text + "'.");
+        }
+    }
+
+    /**
+     * A request that cannot be served, answered with the given HTTP status.
+     */
+    private static final class RequestException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        RequestException(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+}
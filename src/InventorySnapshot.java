@@ -0,0 +1,355 @@
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Saves and loads the whole inventory model to a compact, versioned binary file.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * int    magic "TCIS"
+ * short  format version
+ * long   last journal sequence number included (version 2 and later)
+ * long   collector money in cents
+ * int    collection size C, int total distinct cards N (N &gt;= C)
+ * N x    card: string name, byte rarity, byte variant, long value cents, int count
+ * int    binder count
+ *        binder: string name, byte BinderType, long custom price cents (-1 if none),
+ *                int size, size x int card id
+ * int    deck count
+ *        deck:   string name, byte DeckType, int size, size x int card id
+ * </pre>
+ * Cards are written once. The first C cards are the collection in its original
+ * order; the rest are cards that are only held by binders or decks. Holders refer to
+ * cards by their position in that table, so cards shared between the collection and
+ * holders are restored as one object, as they were when saved.
+ * <p>
+ * Loading reads the whole file at once and decodes it straight from the buffer,
+ * without reflection or per-field streams.
+ */
+public final class InventorySnapshot {
+    private static final int MAGIC = 0x54434953; // "TCIS"
+    private static final short VERSION = 2;
+    private static final short FIRST_VERSION_WITH_JOURNAL = 2;
+    private static final long NO_CUSTOM_PRICE = -1;
+
+    private static final CardRarity[] RARITIES = CardRarity.values();
+    private static final CardVariant[] VARIANTS = CardVariant.values();
+    private static final BinderType[] BINDER_TYPES = BinderType.values();
+    private static final DeckType[] DECK_TYPES = DeckType.values();
+
+    private InventorySnapshot() {
+    }
+
+    /**
+     * Saves the model to a file. The snapshot is written to a temporary file
+     * first and moved into place, so an interrupted save never leaves a
+     * truncated snapshot behind.
+     *
+     * @param model the model to save
+     * @param path  the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(TradingCardInventorySystemModel model, Path path) throws IOException {
+        save(model, path, 0);
+    }
+
+    /**
+     * Saves the model to a file, recording the last journal record it includes.
+     *
+     * @param model           the model to save
+     * @param path            the snapshot file
+     * @param journalSequence sequence number of the last journal record applied to the model
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(TradingCardInventorySystemModel model, Path path, long journalSequence) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            write(model, out, journalSequence);
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a model from a snapshot file.
+     *
+     * @param path the snapshot file
+     * @return the restored model
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static TradingCardInventorySystemModel load(Path path) throws IOException {
+        return load(path, HeapCardStore::new);
+    }
+
+    /**
+     * Loads a model from a snapshot file into a card store of the caller's choice.
+     *
+     * @param path       the snapshot file
+     * @param cardStores creates the store for the collection, sized for the snapshot
+     * @return the restored model
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static TradingCardInventorySystemModel load(Path path, CardStore.Factory cardStores) throws IOException {
+        return read(ByteBuffer.wrap(Files.readAllBytes(path)), cardStores);
+    }
+
+    /**
+     * Reads the sequence number of the last journal record a snapshot includes.
+     *
+     * @param path the snapshot file
+     * @return the journal sequence number, or 0 if the snapshot predates the journal
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static long readJournalSequence(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            return readHeader(in.readInt(), in.readShort(), in);
+        } catch (EOFException e) {
+            throw new IOException("Corrupt inventory snapshot.", e);
+        }
+    }
+
+    /**
+     * Writes the model in snapshot format.
+     *
+     * @param model           the model to write
+     * @param out             the destination stream
+     * @param journalSequence sequence number of the last journal record applied to the model
+     * @throws IOException if writing fails
+     */
+    public static void write(TradingCardInventorySystemModel model, DataOutputStream out, long journalSequence)
+            throws IOException {
+        List<Card> collection = model.getCardCollection();
+        List<Binder> binders = model.getBinders();
+        List<Deck> decks = model.getDecks();
+
+        // Assign card ids: collection cards by position, then holder-only cards.
+        // Keyed by equality, since a card store may hand out a new object per lookup.
+        Map<Card, Integer> collectionIds = HashMap.newHashMap(collection.size());
+        for (int i = 0; i < collection.size(); i++) {
+            collectionIds.put(collection.get(i), i);
+        }
+
+        Map<CardKey, Integer> holderOnlyIds = new HashMap<>();
+        List<Card> holderOnlyCards = new ArrayList<>();
+        List<CardHolder> holders = new ArrayList<>(binders);
+        holders.addAll(decks);
+        for (CardHolder holder : holders) {
+            for (Card card : holder.getCards()) {
+                if (model.findCollectionCard(card) == null
+                        && holderOnlyIds.putIfAbsent(CardKey.of(card), collection.size() + holderOnlyCards.size()) == null) {
+                    holderOnlyCards.add(card);
+                }
+            }
+        }
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(journalSequence);
+        out.writeLong(model.getCollectorMoneyCents());
+
+        out.writeInt(collection.size());
+        out.writeInt(collection.size() + holderOnlyCards.size());
+        for (Card card : collection) {
+            writeCard(out, card);
+        }
+        for (Card card : holderOnlyCards) {
+            writeCard(out, card);
+        }
+
+        out.writeInt(binders.size());
+        for (Binder binder : binders) {
+            writeString(out, binder.getName());
+            out.writeByte(BinderType.of(binder).ordinal());
+
+            BigDecimal customPrice = (binder instanceof LuxuryBinder luxury) ? luxury.getCustomPrice() : null;
+            out.writeLong((customPrice != null) ? Money.toCents(customPrice) : NO_CUSTOM_PRICE);
+
+            writeCardIds(out, model, binder, collectionIds, holderOnlyIds);
+        }
+
+        out.writeInt(decks.size());
+        for (Deck deck : decks) {
+            writeString(out, deck.getName());
+            out.writeByte(DeckType.of(deck).ordinal());
+            writeCardIds(out, model, deck, collectionIds, holderOnlyIds);
+        }
+    }
+
+    /**
+     * Reads a model from a buffer holding a whole snapshot.
+     *
+     * @param buffer the snapshot bytes
+     * @return the restored model
+     * @throws IOException if the buffer is not a valid snapshot
+     */
+    public static TradingCardInventorySystemModel read(ByteBuffer buffer) throws IOException {
+        return read(buffer, HeapCardStore::new);
+    }
+
+    /**
+     * Reads a model from a buffer holding a whole snapshot into a card store
+     * of the caller's choice.
+     *
+     * @param buffer     the snapshot bytes
+     * @param cardStores creates the store for the collection, sized for the snapshot
+     * @return the restored model
+     * @throws IOException if the buffer is not a valid snapshot
+     */
+    public static TradingCardInventorySystemModel read(ByteBuffer buffer, CardStore.Factory cardStores)
+            throws IOException {
+        try {
+            int magic = buffer.getInt();
+            short version = buffer.getShort();
+            checkHeader(magic, version);
+            if (version >= FIRST_VERSION_WITH_JOURNAL) {
+                buffer.getLong(); // Journal sequence, see readJournalSequence
+            }
+
+            long collectorMoneyCents = buffer.getLong();
+            int collectionSize = buffer.getInt();
+            int cardCount = buffer.getInt();
+
+            TradingCardInventorySystemModel model = new TradingCardInventorySystemModel(cardStores.create(collectionSize));
+            model.restoreCollectorMoney(collectorMoneyCents);
+
+            Card[] cards = new Card[cardCount];
+            for (int i = 0; i < cardCount; i++) {
+                cards[i] = readCard(buffer);
+                if (i < collectionSize) {
+                    cards[i] = model.restoreCollectionCard(cards[i]);
+                }
+            }
+
+            int binderCount = buffer.getInt();
+            for (int i = 0; i < binderCount; i++) {
+                String name = readString(buffer);
+                BinderType type = BINDER_TYPES[buffer.get()];
+                long customPriceCents = buffer.getLong();
+
+                model.createBinder(name, type);
+                Binder binder = model.getBinder(name);
+                readCardIds(buffer, model, binder, cards);
+
+                if (customPriceCents != NO_CUSTOM_PRICE && binder instanceof LuxuryBinder luxury) {
+                    luxury.setCustomPrice(Money.toBigDecimal(customPriceCents));
+                }
+            }
+
+            int deckCount = buffer.getInt();
+            for (int i = 0; i < deckCount; i++) {
+                String name = readString(buffer);
+                DeckType type = DECK_TYPES[buffer.get()];
+
+                model.createDeck(name, type);
+                readCardIds(buffer, model, model.getDeck(name), cards);
+            }
+
+            return model;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt inventory snapshot.", e);
+        }
+    }
+
+    private static void checkHeader(int magic, short version) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException("Not an inventory snapshot.");
+        } else if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ".");
+        }
+    }
+
+    private static long readHeader(int magic, short version, DataInput in) throws IOException {
+        checkHeader(magic, version);
+
+        return (version >= FIRST_VERSION_WITH_JOURNAL) ? in.readLong() : 0;
+    }
+
+    private static void writeCard(DataOutputStream out, Card card) throws IOException {
+        writeString(out, card.getName());
+        out.writeByte(card.getRarity().ordinal());
+        out.writeByte(card.getVariant().ordinal());
+        out.writeLong(card.getValueCents());
+        out.writeInt(card.getCount());
+    }
+
+    private static Card readCard(ByteBuffer buffer) {
+        String name = readString(buffer);
+        CardRarity rarity = RARITIES[buffer.get()];
+        CardVariant variant = VARIANTS[buffer.get()];
+        long valueCents = buffer.getLong();
+        int count = buffer.getInt();
+
+        return Card.restore(name, rarity, variant, valueCents, count);
+    }
+
+    private static void writeCardIds(DataOutputStream out, TradingCardInventorySystemModel model, CardHolder holder,
+                                     Map<Card, Integer> collectionIds, Map<CardKey, Integer> holderOnlyIds)
+            throws IOException {
+        List<Card> cards = holder.getCards();
+
+        out.writeInt(cards.size());
+        for (Card card : cards) {
+            Card collectionCard = model.findCollectionCard(card);
+            out.writeInt((collectionCard != null) ? collectionIds.get(collectionCard) : holderOnlyIds.get(CardKey.of(card)));
+        }
+    }
+
+    private static void readCardIds(ByteBuffer buffer, TradingCardInventorySystemModel model, CardHolder holder,
+                                    Card[] cards) throws IOException {
+        int size = buffer.getInt();
+
+        for (int i = 0; i < size; i++) {
+            if (!model.restoreHolderCard(holder, cards[buffer.getInt()])) {
+                throw new IOException("Snapshot card does not fit in '" + holder.getName() + "'.");
+            }
+        }
+    }
+
+    /**
+     * Writes a string as its UTF-8 byte length followed by the bytes.
+     *
+     * @param out   the destination stream
+     * @param value the string to write
+     * @throws IOException if writing fails
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.
+     *
+     * @param buffer the source buffer
+     * @return the decoded string
+     */
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value;
+
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Durable home of an inventory: a snapshot plus a write-ahead journal of every
+ * change made since that snapshot, both kept in one data directory.
+ * <p>
+ * Opening the store loads the snapshot and replays the journal on top of it.
+ * Once the journal grows past a size threshold it is compacted: the model is
+ * written to a new snapshot that records the last journal sequence number it
+ * includes, and the journal is emptied. A crash between those two steps is
+ * harmless, since replay skips records the snapshot already contains.
+ */
+public class InventoryStore implements Closeable {
+    /** Default journal size after which it is folded into a new snapshot. */
+    public static final long DEFAULT_COMPACTION_BYTES = 16L << 20;
+
+    private static final String SNAPSHOT_FILE = "inventory.tcis";
+    private static final String JOURNAL_FILE = "journal.log";
+
+    private final Path snapshot;
+    private final TradingCardInventorySystemModel model;
+    private final InventoryJournal journal;
+    private final long compactionBytes;
+
+    private InventoryStore(Path snapshot, TradingCardInventorySystemModel model, InventoryJournal journal,
+                           long compactionBytes) {
+        this.snapshot = snapshot;
+        this.model = model;
+        this.journal = journal;
+        this.compactionBytes = compactionBytes;
+    }
+
+    /**
+     * Opens the inventory in a data directory, creating the directory if needed.
+     *
+     * @param directory the data directory
+     * @return the opened store
+     * @throws IOException if the snapshot or journal cannot be read
+     */
+    public static InventoryStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_COMPACTION_BYTES);
+    }
+
+    /**
+     * Opens the inventory in a data directory with a custom compaction threshold.
+     *
+     * @param directory       the data directory
+     * @param compactionBytes journal size after which it is compacted
+     * @return the opened store
+     * @throws IOException if the snapshot or journal cannot be read
+     */
+    public static InventoryStore open(Path directory, long compactionBytes) throws IOException {
+        return open(directory, compactionBytes, HeapCardStore::new);
+    }
+
+    /**
+     * Opens the inventory in a data directory, keeping the card collection in
+     * a store of the caller's choice, e.g. a {@link MappedCardStore}.
+     *
+     * @param directory       the data directory
+     * @param compactionBytes journal size after which it is compacted
+     * @param cardStores      creates the store for the card collection
+     * @return the opened store
+     * @throws IOException if the snapshot or journal cannot be read
+     */
+    public static InventoryStore open(Path directory, long compactionBytes, CardStore.Factory cardStores)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path journalPath = directory.resolve(JOURNAL_FILE);
+
+        TradingCardInventorySystemModel model;
+        long snapshotSequence = 0;
+        if (Files.exists(snapshot)) {
+            snapshotSequence = InventorySnapshot.readJournalSequence(snapshot);
+            model = InventorySnapshot.load(snapshot, cardStores);
+        } else {
+            model = new TradingCardInventorySystemModel(cardStores.create(16));
+        }
+
+        long lastSequence = InventoryJournal.replay(journalPath, model, snapshotSequence);
+        InventoryStore store = new InventoryStore(snapshot, model, new InventoryJournal(journalPath, lastSequence),
+                compactionBytes);
+
+        model.attachJournal(store.journal, compactionBytes, store::compact);
+        return store;
+    }
+
+    /**
+     * Returns the model kept by this store.
+     *
+     * @return the inventory model
+     */
+    public TradingCardInventorySystemModel getModel() {
+        return model;
+    }
+
+    /**
+     * Writes a snapshot of the model and empties the journal. Other threads
+     * wait until the snapshot is written, so it matches the journal exactly.
+     *
+     * @throws IOException if the snapshot or journal cannot be written
+     */
+    public void checkpoint() throws IOException {
+        Lock lock = model.exclusiveLock();
+
+        lock.lock();
+        try {
+            long sequence = journal.getLastSequence();
+
+            InventorySnapshot.save(model, snapshot, sequence);
+            journal.truncate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a final snapshot and closes the journal and card store.
+     *
+     * @throws IOException if the snapshot or journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        model.detachJournal();
+
+        try {
+            checkpoint();
+        } finally {
+            try {
+                journal.close();
+            } finally {
+                model.getCardStore().close();
+            }
+        }
+    }
+
+    private void compact() {
+        Lock lock = model.exclusiveLock();
+
+        lock.lock();
+        try {
+            // Several threads can cross the threshold at once; only the first compacts
+            if (journal.size() >= compactionBytes) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact the inventory journal.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -3,25 +3,26 @@ import java.math.BigDecimal;
  * A premium binder for high-value cards with customizable pricing.
  */
 public class LuxuryBinder extends SellableBinder {
-    private BigDecimal customPrice;
+    private static final int HANDLING_FEE_PERCENT = 110;
+    private static final long NO_CUSTOM_PRICE = -1;
+    private static final CardFilter ADMITS = CardFilter.rarity(CardRarity.RARE, CardRarity.LEGENDARY)
+            .and(CardFilter.variant(CardVariant.NORMAL).negate());
+    private volatile long customPriceCents;
     /**
      * Creates a new LuxuryBinder with the specified name.
      * @param name the name of the binder
      */
     public LuxuryBinder(String name) {
         super(name);
-        this.customPrice = null;
+        this.customPriceCents = NO_CUSTOM_PRICE;
     }
     /**
-     * Checks if a card qualifies for this luxury binder.
-     * @param card the card to check
-     * @return true if card is rare/legendary with special variant
+     * Accepts only cards that qualify for a luxury binder.
+     * @return a filter matching rare/legendary cards with a special variant
      */
     @Override
-    public boolean canAddCard(Card card) {
-        return (card.getRarity() == CardRarity.RARE ||
-                card.getRarity() == CardRarity.LEGENDARY)
-                && card.getVariant() != CardVariant.NORMAL;
+    public CardFilter getAdmissionFilter() {
+        return ADMITS;
     }
     /**
      * Sets a custom price for this binder.
@@ -32,29 +33,34 @@ public class LuxuryBinder extends SellableBinder {
         BigDecimal minPrice = calculateBaseValue();
 
         if (price.compareTo(minPrice) >= 0) {
-            this.customPrice = price;
+            this.customPriceCents = Money.toCents(price);
             return true;
         }
 
         return false;
     }
+    /**
+     * Returns the custom price set for this binder.
+     * @return the custom price, or null if none was set
+     */
+    public BigDecimal getCustomPrice() {
+        return (customPriceCents != NO_CUSTOM_PRICE) ? Money.toBigDecimal(customPriceCents) : null;
+    }
     /**
      * Calculates the base value of all cards in the binder.
      * @return sum of all card values
      */
     public BigDecimal calculateBaseValue() {
-        return getCards().stream()
-                .map(Card::getValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getCardsValue();
     }
 
     /**
      * Calculates the total value with 10% handling fee.
-     * @return total value including premium
+     * @return total value in cents including premium
      */
     @Override
-    public BigDecimal calculateValue() {
-        BigDecimal basePrice = (customPrice != null) ? customPrice : calculateBaseValue();
-        return basePrice.multiply(new BigDecimal("1.10")); // Add 10% handling fee
+    public long calculateValueCents() {
+        long basePrice = (customPriceCents != NO_CUSTOM_PRICE) ? customPriceCents : getCardsValueCents();
+        return Money.percent(basePrice, HANDLING_FEE_PERCENT); // Add 10% handling fee
     }
 }
\ No newline at end of file
@@ -1,9 +1,102 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+
 public class Main {
     public static void main(String[] args) {
+        long mainMillis = System.currentTimeMillis();
+        long mainNanos = System.nanoTime();
+        Path dataDirectory = Path.of(System.getProperty("tcis.data", "inventory"));
+
         TradingCardInventorySystemView view = new TradingCardInventorySystemView();
-        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        long viewNanos = System.nanoTime();
+        InventoryStore store = openStore(dataDirectory);
+        TradingCardInventorySystemModel model = (store != null) ? store.getModel() : new TradingCardInventorySystemModel();
+        startMetrics(model, false);
+        long inventoryNanos = System.nanoTime();
         TradingCardInventorySystemController controller = new TradingCardInventorySystemController(model, view);
 
+        // Checkpoint the inventory however the program exits (Exit button or closing the window)
+        if (store != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> closeStore(store, dataDirectory)));
+        }
+
         controller.startProgram();
+        long controllerNanos = System.nanoTime();
+
+        // Startup breakdown, for comparing time-to-first-frame between builds
+        if (Boolean.getBoolean("tcis.startupLog")) {
+            view.whenShown(() -> {
+                long shownNanos = System.nanoTime();
+                long jvmMillis = mainMillis - ManagementFactory.getRuntimeMXBean().getStartTime();
+
+                System.err.printf("startup: JVM %d ms, view %.0f ms, inventory %.0f ms, controller %.0f ms,"
+                                + " first frame %.0f ms; %.0f ms from launch to a visible window%n",
+                        jvmMillis, (viewNanos - mainNanos) / 1e6, (inventoryNanos - viewNanos) / 1e6,
+                        (controllerNanos - inventoryNanos) / 1e6, (shownNanos - controllerNanos) / 1e6,
+                        jvmMillis + (shownNanos - mainNanos) / 1e6);
+            });
+        }
+    }
+
+    /**
+     * Opens the saved inventory, replaying any changes journaled since its last snapshot.
+     *
+     * @param dataDirectory the inventory data directory
+     * @return the opened store, or null if the inventory could not be recovered
+     */
+    static InventoryStore openStore(Path dataDirectory) {
+        try {
+            if (Boolean.getBoolean("tcis.mappedCards")) {
+                // Keep the card collection in memory-mapped files, for inventories larger than the heap
+                return InventoryStore.open(dataDirectory, InventoryStore.DEFAULT_COMPACTION_BYTES,
+                        expectedCards -> MappedCardStore.create(dataDirectory.resolve("cards"), expectedCards));
+            }
+            if (Boolean.getBoolean("tcis.columnarCards")) {
+                // Keep the card collection in primitive columns, for faster scans of the whole collection
+                return InventoryStore.open(dataDirectory, InventoryStore.DEFAULT_COMPACTION_BYTES, ColumnarCardStore::new);
+            }
+            return InventoryStore.open(dataDirectory);
+        } catch (IOException e) {
+            System.err.println("Could not open " + dataDirectory + ", changes will not be saved: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records the model's operation metrics if {@code -Dtcis.metrics} is true,
+     * and logs them to standard error every {@code -Dtcis.metricsLog} seconds
+     * if that is set, which also turns recording on.
+     *
+     * @param model            the model to record
+     * @param enabledByDefault whether to record when {@code -Dtcis.metrics} is not set
+     */
+    static void startMetrics(TradingCardInventorySystemModel model, boolean enabledByDefault) {
+        long logSeconds = Long.getLong("tcis.metricsLog", 0);
+        boolean enabled = Boolean.parseBoolean(System.getProperty("tcis.metrics", String.valueOf(enabledByDefault)));
+
+        if (enabled || logSeconds > 0) {
+            InventoryMetrics metrics = new InventoryMetrics();
+            model.setMetrics(metrics);
+
+            if (logSeconds > 0) {
+                metrics.logEvery(Duration.ofSeconds(logSeconds), System.err::println);
+            }
+        }
+    }
+
+    /**
+     * Writes a final snapshot of the inventory and closes its journal.
+     *
+     * @param store         the store to close
+     * @param dataDirectory the inventory data directory
+     */
+    static void closeStore(InventoryStore store, Path dataDirectory) {
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.err.println("Could not save " + dataDirectory + ": " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
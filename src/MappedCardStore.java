@@ -0,0 +1,457 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Card store that keeps the collection in memory-mapped files instead of as
+ * {@link Card} objects, for inventories too large to hold comfortably on the heap.
+ * <p>
+ * Each card is a fixed-width record in the records file:
+ * <pre>
+ * long  value in cents
+ * long  insertion sequence
+ * int   name offset, int name length (UTF-8 bytes in the names file)
+ * int   count
+ * byte  rarity, byte variant, byte flags, byte padding
+ * </pre>
+ * Names are stored once per distinct spelling in a separate mapped names file.
+ * Count changes are written straight into the mapped record, so adjusting or
+ * selling a card never rewrites the file.
+ * <p>
+ * Cards handed out by the store are thin views of a record: their count is
+ * read from and written to the file. The only per-card heap state is the
+ * hash index and the collection order, a few ints per card.
+ * <p>
+ * A removed card's record is kept, flagged as removed, so views still held by
+ * binders or decks stay valid. When such a view is added back, as happens
+ * when a binder returns its last copy to the collection, its record is reused.
+ * Space left by removed cards is reclaimed when the store is rebuilt from a
+ * snapshot.
+ * <p>
+ * The indexes are guarded by a read-write lock. Counts are read and written
+ * with volatile access straight to the file, without the lock; a remapped
+ * buffer maps the same file, so a count written through an older mapping is
+ * not lost. Names never change once written, so they are read without the
+ * lock too.
+ */
+public class MappedCardStore implements CardStore {
+    private static final int RECORD_BYTES = 32;
+    private static final int VALUE = 0;
+    private static final int SEQUENCE = 8;
+    private static final int NAME_OFFSET = 16;
+    private static final int NAME_LENGTH = 20;
+    private static final int COUNT = 24;
+    private static final int RARITY = 28;
+    private static final int VARIANT = 29;
+    private static final int FLAGS = 30;
+    private static final byte LIVE = 1;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MIN_NAME_BYTES = 4096;
+    private static final CardRarity[] RARITIES = CardRarity.values();
+    private static final CardVariant[] VARIANTS = CardVariant.values();
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel recordsChannel;
+    private final FileChannel namesChannel;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile MappedByteBuffer records;
+    private volatile MappedByteBuffer names;
+    private int recordCount;
+    private int nameBytes;
+    private long nextSequence;
+
+    // Collection order, as record slots
+    private final CardOrder order;
+
+    // Open-addressing tables of live records; slots are stored plus one so 0 means empty
+    private int[] keySlots;
+    private int[] keyHashes;
+    private int[] nameSlots;
+    private int[] nameHashes;
+
+    private MappedCardStore(FileChannel recordsChannel, FileChannel namesChannel, int expectedCards) throws IOException {
+        this.recordsChannel = recordsChannel;
+        this.namesChannel = namesChannel;
+        this.records = recordsChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                (long) Math.max(expectedCards, MIN_CAPACITY) * RECORD_BYTES);
+        this.names = namesChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max((long) expectedCards * 16, MIN_NAME_BYTES));
+        this.order = new CardOrder(expectedCards);
+        allocateTables(CardIndex.capacityFor(expectedCards));
+    }
+
+    /**
+     * Creates an empty store in a directory, replacing any card files left
+     * there by an earlier run.
+     *
+     * @param directory     the directory for the card files
+     * @param expectedCards the expected number of cards
+     * @return the new store
+     * @throws IOException if the files cannot be created or mapped
+     */
+    public static MappedCardStore create(Path directory, int expectedCards) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel recordsChannel = open(directory.resolve("cards.dat"));
+
+        try {
+            return new MappedCardStore(recordsChannel, open(directory.resolve("names.dat")), expectedCards);
+        } catch (IOException e) {
+            recordsChannel.close();
+            throw e;
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return order.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card get(int index) {
+        lock.readLock().lock();
+        try {
+            return view(order.get(index));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card getOrNull(int index) {
+        lock.readLock().lock();
+        try {
+            return (index >= 0 && index < order.size()) ? view(order.get(index)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            order.forEach(slot -> action.accept(view(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long forEach(long cursor, int max, Consumer<Card> action) {
+        lock.readLock().lock();
+        try {
+            return order.forEach(cursor, max, slot -> action.accept(view(slot)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int slotOf(Card card) {
+        lock.readLock().lock();
+        try {
+            int i = findKeyIndex(card, CardIndex.keyHash(card));
+
+            return (i >= 0) ? keySlots[i] - 1 : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card cardInSlot(int slot) {
+        lock.readLock().lock();
+        try {
+            return view(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String nameInSlot(int slot) {
+        return readName(slot);
+    }
+
+    @Override
+    public Card find(Card card) {
+        lock.readLock().lock();
+        try {
+            int i = findKeyIndex(card, CardIndex.keyHash(card));
+
+            return (i >= 0) ? view(keySlots[i] - 1) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card findByName(String name) {
+        lock.readLock().lock();
+        try {
+            int hash = CardIndex.nameHash(name);
+            int mask = nameSlots.length - 1;
+            int found = -1;
+            long foundSequence = Long.MAX_VALUE;
+
+            for (int i = CardIndex.spread(hash) & mask; nameSlots[i] != 0; i = (i + 1) & mask) {
+                int slot = nameSlots[i] - 1;
+                long sequence = records.getLong(base(slot) + SEQUENCE);
+
+                if (nameHashes[i] == hash && sequence < foundSequence && readName(slot).equalsIgnoreCase(name)) {
+                    found = slot;
+                    foundSequence = sequence;
+                }
+            }
+
+            return (found >= 0) ? view(found) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Card add(Card card) {
+        lock.writeLock().lock();
+        try {
+            boolean returning = card instanceof StoredCard stored && stored.store == this && !isLive(stored.slot);
+            // A view returning to the collection keeps its record and count
+            int slot = returning ? ((StoredCard) card).slot : appendRecord(card);
+
+            long sequence = nextSequence++;
+            records.putLong(base(slot) + SEQUENCE, sequence);
+            records.put(base(slot) + FLAGS, LIVE);
+
+            if ((order.size() + 1) * 2 > keySlots.length) {
+                resizeTables(keySlots.length * 2);
+            }
+            CardIndex.insertSlot(keySlots, keyHashes, slot, CardIndex.keyHash(card));
+            CardIndex.insertSlot(nameSlots, nameHashes, slot, CardIndex.nameHash(card.getName()));
+            order.add(slot, sequence);
+
+            return returning ? card : view(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Card remove(Card card) {
+        lock.writeLock().lock();
+        try {
+            int hash = CardIndex.keyHash(card);
+            int i = findKeyIndex(card, hash);
+            if (i < 0) {
+                return null;
+            }
+
+            int slot = keySlots[i] - 1;
+            CardIndex.deleteSlot(keySlots, keyHashes, i);
+            CardIndex.deleteSlot(nameSlots, nameHashes,
+                    CardIndex.findSlot(nameSlots, CardIndex.nameHash(readName(slot)), slot));
+            records.put(base(slot) + FLAGS, (byte) 0);
+
+            order.remove(records.getLong(base(slot) + SEQUENCE));
+
+            return view(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the card files. Views handed out earlier must not be used afterwards.
+     *
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            recordsChannel.close();
+        } finally {
+            namesChannel.close();
+        }
+    }
+
+    private static int base(int slot) {
+        return slot * RECORD_BYTES;
+    }
+
+    private boolean isLive(int slot) {
+        return records.get(base(slot) + FLAGS) == LIVE;
+    }
+
+    private int getCount(int slot) {
+        return (int) INT.getVolatile(records, base(slot) + COUNT);
+    }
+
+    private void setCount(int slot, int count) {
+        INT.setVolatile(records, base(slot) + COUNT, count);
+    }
+
+    private Card view(int slot) {
+        int base = base(slot);
+
+        return new StoredCard(this, slot, readName(slot), RARITIES[records.get(base + RARITY)],
+                VARIANTS[records.get(base + VARIANT)], records.getLong(base + VALUE));
+    }
+
+    private String readName(int slot) {
+        int base = base(slot);
+        byte[] bytes = new byte[records.getInt(base + NAME_LENGTH)];
+
+        names.get(records.getInt(base + NAME_OFFSET), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int appendRecord(Card card) {
+        if ((recordCount + 1) * (long) RECORD_BYTES > records.capacity()) {
+            records = remap(recordsChannel, (long) records.capacity() * 2);
+        }
+
+        int slot = recordCount++;
+        int base = base(slot);
+        byte[] name = card.getName().getBytes(StandardCharsets.UTF_8);
+
+        records.putLong(base + VALUE, card.getValueCents());
+        records.putInt(base + NAME_OFFSET, storeName(card.getName(), name));
+        records.putInt(base + NAME_LENGTH, name.length);
+        records.putInt(base + COUNT, card.getCount());
+        records.put(base + RARITY, (byte) card.getRarity().ordinal());
+        records.put(base + VARIANT, (byte) card.getVariant().ordinal());
+        return slot;
+    }
+
+    /**
+     * Returns the offset of a name in the names file, appending it unless a
+     * live card already uses exactly the same spelling.
+     */
+    private int storeName(String name, byte[] bytes) {
+        int hash = CardIndex.nameHash(name);
+        int mask = nameSlots.length - 1;
+
+        for (int i = CardIndex.spread(hash) & mask; nameSlots[i] != 0; i = (i + 1) & mask) {
+            if (nameHashes[i] == hash && readName(nameSlots[i] - 1).equals(name)) {
+                return records.getInt(base(nameSlots[i] - 1) + NAME_OFFSET);
+            }
+        }
+
+        if ((long) nameBytes + bytes.length > names.capacity()) {
+            long capacity = Math.max((long) names.capacity() * 2, (long) nameBytes + bytes.length);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Card names file is full.");
+            }
+            names = remap(namesChannel, capacity);
+        }
+
+        int offset = nameBytes;
+        names.put(offset, bytes);
+        nameBytes += bytes.length;
+        return offset;
+    }
+
+    private static MappedByteBuffer remap(FileChannel channel, long capacity) {
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Card store file is full.");
+        }
+
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow the card store file.", e);
+        }
+    }
+
+    private int findKeyIndex(Card card, int hash) {
+        int mask = keySlots.length - 1;
+
+        for (int i = CardIndex.spread(hash) & mask; keySlots[i] != 0; i = (i + 1) & mask) {
+            if (keyHashes[i] == hash && matches(keySlots[i] - 1, card)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    // Same identity as Card.equals, comparing the cheap fields before decoding the name
+    private boolean matches(int slot, Card card) {
+        int base = base(slot);
+
+        return records.getLong(base + VALUE) == card.getValueCents()
+                && records.get(base + RARITY) == card.getRarity().ordinal()
+                && records.get(base + VARIANT) == card.getVariant().ordinal()
+                && readName(slot).equalsIgnoreCase(card.getName());
+    }
+
+    private void allocateTables(int capacity) {
+        keySlots = new int[capacity];
+        keyHashes = new int[capacity];
+        nameSlots = new int[capacity];
+        nameHashes = new int[capacity];
+    }
+
+    private void resizeTables(int capacity) {
+        int[] oldKeySlots = keySlots;
+        int[] oldKeyHashes = keyHashes;
+        int[] oldNameSlots = nameSlots;
+        int[] oldNameHashes = nameHashes;
+
+        allocateTables(capacity);
+
+        for (int i = 0; i < oldKeySlots.length; i++) {
+            if (oldKeySlots[i] != 0) {
+                CardIndex.insertSlot(keySlots, keyHashes, oldKeySlots[i] - 1, oldKeyHashes[i]);
+            }
+            if (oldNameSlots[i] != 0) {
+                CardIndex.insertSlot(nameSlots, nameHashes, oldNameSlots[i] - 1, oldNameHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * A card backed by a record in the store. Its count lives in the mapped
+     * file, so every view of the same record sees the same count.
+     */
+    private static final class StoredCard extends Card {
+        private final MappedCardStore store;
+        private final int slot;
+
+        private StoredCard(MappedCardStore store, int slot, String name, CardRarity rarity, CardVariant variant,
+                           long valueCents) {
+            super(name, rarity, variant, valueCents, 0);
+            this.store = store;
+            this.slot = slot;
+        }
+
+        @Override
+        public int getCount() {
+            return store.getCount(slot);
+        }
+
+        @Override
+        public void setCount(int count) {
+            store.setCount(slot, count);
+        }
+    }
+}
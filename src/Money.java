@@ -0,0 +1,109 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on amounts stored as a primitive {@code long}
+ * number of cents.
+ * <p>
+ * Card values, holder totals and the collector's money are kept in cents so
+ * that valuation and sales never allocate. {@link BigDecimal} is only used at
+ * the API and display edge, through {@link #toCents(BigDecimal)} and
+ * {@link #toBigDecimal(long)}. Every rounding step is {@link RoundingMode#HALF_UP}
+ * to two decimal places, matching {@code setScale(2, RoundingMode.HALF_UP)}.
+ */
+public final class Money {
+    /** Number of decimal places in a cents amount. */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to cents, rounding half up to two decimal places.
+     *
+     * @param amount the amount to convert
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts an amount in cents to a {@link BigDecimal} with a scale of two.
+     *
+     * @param cents the amount in cents
+     * @return the amount as a BigDecimal
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Multiplies an amount by the fraction {@code numerator / denominator} and
+     * rounds the exact result half up to cents.
+     * <p>
+     * Amounts with at most two decimal places take a pure {@code long} path;
+     * anything finer falls back to exact {@link BigDecimal} arithmetic so the
+     * result is identical either way.
+     *
+     * @param amount      the amount to multiply
+     * @param numerator   the multiplier numerator
+     * @param denominator the multiplier denominator (must be positive)
+     * @return the rounded product in cents
+     */
+    public static long multiplyToCents(BigDecimal amount, long numerator, long denominator) {
+        if (amount.scale() <= SCALE) {
+            return multiply(amount.movePointRight(SCALE).longValueExact(), numerator, denominator);
+        }
+
+        return amount.multiply(BigDecimal.valueOf(numerator))
+                .divide(BigDecimal.valueOf(denominator), SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+    }
+
+    /**
+     * Multiplies a cents amount by the fraction {@code numerator / denominator},
+     * rounding half up to whole cents.
+     *
+     * @param cents       the amount in cents
+     * @param numerator   the multiplier numerator
+     * @param denominator the multiplier denominator (must be positive)
+     * @return the rounded product in cents
+     * @throws ArithmeticException if the product overflows a long
+     */
+    public static long multiply(long cents, long numerator, long denominator) {
+        return divideHalfUp(Math.multiplyExact(cents, numerator), denominator);
+    }
+
+    /**
+     * Applies a percentage to a cents amount, rounding half up to whole cents.
+     * For example, {@code percent(1000, 110)} adds a 10% fee to $10.00.
+     *
+     * @param cents   the amount in cents
+     * @param percent the percentage to apply
+     * @return the rounded result in cents
+     */
+    public static long percent(long cents, int percent) {
+        return multiply(cents, percent, 100);
+    }
+
+    /**
+     * Divides two longs, rounding half away from zero like
+     * {@link RoundingMode#HALF_UP}.
+     *
+     * @param dividend the dividend
+     * @param divisor  the divisor (must be positive)
+     * @return the rounded quotient
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(dividend);
+        }
+
+        return quotient;
+    }
+}
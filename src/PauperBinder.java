@@ -1,26 +1,21 @@
-import java.math.BigDecimal;
 /** Sellable binder for common/uncommon cards only. */
 public class PauperBinder extends SellableBinder {
+    private static final CardFilter ADMITS = CardFilter.rarity(CardRarity.COMMON, CardRarity.UNCOMMON);
+
     public PauperBinder(String name) {
         super(name);
     }
     /**
-     * Adds card if it's common/uncommon.
-     * @param card the card to add
-     * @return true if added successfully
+     * Accepts only common/uncommon cards.
+     * @return a filter matching common and uncommon cards
      */
     @Override
-    public boolean addCard(Card card) {
-        if (card.getRarity() != CardRarity.COMMON && card.getRarity() != CardRarity.UNCOMMON) {
-            return false; // Fail silently (Controller will show error)
-        }
-        return super.addCard(card); // Parent handles capacity checks
+    public CardFilter getAdmissionFilter() {
+        return ADMITS;
     }
-    /** @return sum of all card values */
+    /** @return sum of all card values in cents */
     @Override
-    public BigDecimal calculateValue() {
-        return getCards().stream()
-                .map(Card::getValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public long calculateValueCents() {
+        return getCardsValueCents();
     }
 }
\ No newline at end of file
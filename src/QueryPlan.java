@@ -0,0 +1,243 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * How a {@link CardQuery} is answered: which index the cards are read from,
+ * and what is left to check, sort and cut afterwards.
+ * <p>
+ * Every index a query's conditions can use is a candidate access path: the
+ * name tree for a name prefix, the value tree for a value range or a value
+ * order, the rarity and variant bitmaps for a filter, a binder's or deck's own
+ * card list, and a scan of the whole collection in name order. The indexes
+ * count the cards each path would visit exactly, in O(log n), and the
+ * conditions are taken to be independent to estimate how many cards match. A
+ * path that already yields the cards in the query's order stops as soon as it
+ * has enough for the limit; any other path visits all its cards and sorts the
+ * matches. The path with the fewest cards to visit and sort is chosen.
+ * <p>
+ * Binder and deck membership is checked after the scan, under each card's lock
+ * in the model; checking it during the scan would hold the index while
+ * waiting for card locks that writers hold while waiting for the index. A
+ * query with membership conditions therefore never stops its scan early.
+ */
+final class QueryPlan {
+    /** The ways into the collection. */
+    enum Access {
+        HOLDER, NAME_PREFIX, VALUE_RANGE, BITMAP, FULL_SCAN
+    }
+
+    /**
+     * One access path with the number of cards it visits and its estimated cost.
+     */
+    private record Candidate(Access access, int rows, boolean inOrder, boolean stopsEarly, double cost) {
+    }
+
+    private final CardQuery query;
+    private final CollectionIndex index;
+    private final int size;
+    private final double expectedMatches;
+    private final List<Candidate> candidates;
+    private final Candidate chosen;
+
+    private QueryPlan(CardQuery query, CollectionIndex index) {
+        this.query = query;
+        this.index = index;
+        this.size = index.size();
+
+        List<Integer> indexedRows = new ArrayList<>();
+        int holderRows = 0;
+        int prefixRows = 0;
+        int valueRows = 0;
+        int filterRows = 0;
+
+        if (query.getHolder() != null) {
+            holderRows = Math.min(size, query.getHolder().getCardsCount());
+            indexedRows.add(holderRows);
+        }
+        if (!query.getNamePrefix().isEmpty()) {
+            prefixRows = index.countWithPrefix(query.getNamePrefix());
+            indexedRows.add(prefixRows);
+        }
+        if (query.hasValueRange() || query.getOrder() == CardQuery.Order.VALUE) {
+            valueRows = index.countInValueRange(query.getMinValueCents(), query.getMaxValueCents());
+            indexedRows.add(valueRows);
+        }
+        if (query.getFilter() != CardFilter.ALL) {
+            filterRows = index.count(query.getFilter());
+            indexedRows.add(filterRows);
+        }
+
+        double matches = size;
+        for (int rows : indexedRows) {
+            matches *= (size > 0) ? (double) rows / size : 0;
+        }
+        this.expectedMatches = matches;
+
+        this.candidates = new ArrayList<>();
+        if (query.getHolder() != null) {
+            candidates.add(candidate(Access.HOLDER, holderRows, false));
+        }
+        if (!query.getNamePrefix().isEmpty()) {
+            candidates.add(candidate(Access.NAME_PREFIX, prefixRows, query.getOrder() == CardQuery.Order.NAME));
+        }
+        if (query.hasValueRange() || query.getOrder() == CardQuery.Order.VALUE) {
+            candidates.add(candidate(Access.VALUE_RANGE, valueRows, query.getOrder() == CardQuery.Order.VALUE));
+        }
+        if (query.getFilter() != CardFilter.ALL) {
+            candidates.add(candidate(Access.BITMAP, filterRows, false));
+        }
+        candidates.add(candidate(Access.FULL_SCAN, size, query.getOrder() == CardQuery.Order.NAME));
+
+        // Stable, so ties go to the more specific path listed first
+        candidates.sort(Comparator.comparingDouble(Candidate::cost));
+        this.chosen = candidates.getFirst();
+    }
+
+    /**
+     * Plans a query against the collection's indexes.
+     *
+     * @param query the query
+     * @param index the collection's index
+     * @return the plan
+     */
+    static QueryPlan of(CardQuery query, CollectionIndex index) {
+        return new QueryPlan(query, index);
+    }
+
+    /**
+     * Runs the plan.
+     *
+     * @param holdings tests a card's binder and deck membership against the
+     *                 query, for queries that have such conditions
+     * @return the matching cards, ordered and limited as the query asks
+     */
+    List<Card> run(Predicate<Card> holdings) {
+        List<Card> matches = new ArrayList<>();
+        int limit = query.getLimit();
+        if (limit == 0) {
+            return matches;
+        }
+
+        Predicate<Card> visitor = card -> {
+            if (query.matchesCard(card)) {
+                matches.add(card);
+            }
+            return !chosen.stopsEarly() || matches.size() < limit;
+        };
+        boolean descending = chosen.inOrder() && query.isDescending();
+
+        switch (chosen.access()) {
+            case HOLDER -> {
+                Set<Card> seen = new HashSet<>();
+                for (Card held : query.getHolder().getCards()) {
+                    Card card = index.lookup(held);
+                    if (card != null && seen.add(card) && !visitor.test(card)) {
+                        break;
+                    }
+                }
+            }
+            case NAME_PREFIX -> index.scanByName(query.getNamePrefix(), descending, visitor);
+            case VALUE_RANGE -> index.scanByValue(query.getMinValueCents(), query.getMaxValueCents(), descending, visitor);
+            case BITMAP -> index.scan(query.getFilter(), visitor);
+            case FULL_SCAN -> index.scanByName("", descending, visitor);
+        }
+
+        if (query.hasHoldingConditions()) {
+            matches.removeIf(holdings.negate());
+        }
+        if (!chosen.inOrder() && query.comparator() != null) {
+            matches.sort(query.comparator());
+        }
+        return (matches.size() > limit) ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Describes the plan: the query, the chosen access path with the cards it
+     * visits, the steps after it, and every path considered with its cost.
+     *
+     * @return the description, one step per line
+     */
+    String explain() {
+        StringBuilder text = new StringBuilder();
+
+        text.append("query: ").append(query).append('\n');
+        text.append("access: ").append(describe(chosen.access()));
+        if (chosen.inOrder()) {
+            text.append(", in ").append(query.getOrder().name().toLowerCase()).append(" order")
+                    .append(query.isDescending() ? " descending" : "");
+        }
+        text.append('\n');
+        double visits = visits(chosen.rows(), chosen.stopsEarly());
+        text.append(String.format("  visits %s%,.0f of %,d cards, expects ~%,.0f matches%n",
+                (visits < chosen.rows()) ? "~" : "", visits, size, expectedMatches));
+
+        String unindexed = query.describeUnindexed();
+        if (!unindexed.isEmpty()) {
+            text.append("then: check ").append(unindexed).append(" on each card")
+                    .append(query.hasHoldingConditions() ? " (membership under card locks, after the scan)" : "")
+                    .append('\n');
+        }
+        if (!chosen.inOrder() && query.getOrder() != null) {
+            text.append("then: sort by ").append(query.getOrder().name().toLowerCase())
+                    .append(query.isDescending() ? " descending" : "").append('\n');
+        }
+        if (query.getLimit() < Integer.MAX_VALUE) {
+            text.append("then: keep the first ").append(query.getLimit())
+                    .append(chosen.stopsEarly() ? ", stopping the scan there" : "").append('\n');
+        }
+
+        text.append("considered:\n");
+        for (Candidate candidate : candidates) {
+            text.append(String.format("  %s %-12s rows %,11d  cost %,14.0f%n", (candidate == chosen) ? "*" : " ",
+                    candidate.access(), candidate.rows(), candidate.cost()));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    private Candidate candidate(Access access, int rows, boolean inOrder) {
+        boolean ordered = inOrder || query.getOrder() == null;
+        boolean stopsEarly = ordered && query.getLimit() < Integer.MAX_VALUE && !query.hasHoldingConditions();
+        double sorted = ordered ? 0 : Math.min(rows, expectedMatches);
+
+        return new Candidate(access, rows, inOrder, stopsEarly,
+                visits(rows, stopsEarly) + sorted * (Math.log(sorted + 1) / Math.log(2)));
+    }
+
+    /**
+     * Estimates the cards a path visits: all of them, or if it stops early,
+     * as many as it takes to find the limit at the expected rate of matches.
+     */
+    private double visits(int rows, boolean stopsEarly) {
+        if (!stopsEarly || expectedMatches <= 0) {
+            return rows;
+        }
+        return Math.min(rows, query.getLimit() * (double) rows / expectedMatches);
+    }
+
+    private String describe(Access access) {
+        return switch (access) {
+            case HOLDER -> "cards of '" + query.getHolder().getName() + "'";
+            case NAME_PREFIX -> "name index, names starting with '" + query.getNamePrefix() + "'";
+            case VALUE_RANGE -> "value index, "
+                    + (query.hasValueRange() ? valueRange() : "every value");
+            case BITMAP -> "rarity and variant bitmaps, " + query.getFilter().describe();
+            case FULL_SCAN -> "whole collection in name order";
+        };
+    }
+
+    private String valueRange() {
+        String min = (query.getMinValueCents() == Long.MIN_VALUE) ? "" : "$" + Money.toBigDecimal(query.getMinValueCents());
+        String max = (query.getMaxValueCents() == Long.MAX_VALUE) ? "" : "$" + Money.toBigDecimal(query.getMaxValueCents());
+
+        return "values " + (min.isEmpty() ? "up to " + max : max.isEmpty() ? "from " + min : min + " to " + max);
+    }
+}
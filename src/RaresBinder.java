@@ -1,8 +1,9 @@
-import java.math.BigDecimal;
 /**
  * Sellable binder for rare and legendary cards with 10% premium.
  */
 public class RaresBinder extends SellableBinder {
+    private static final int HANDLING_FEE_PERCENT = 110;
+    private static final CardFilter ADMITS = CardFilter.rarity(CardRarity.RARE, CardRarity.LEGENDARY);
     /**
      * Creates a new RaresBinder with given name.
      * @param name the binder name
@@ -11,26 +12,19 @@ public class RaresBinder extends SellableBinder {
         super(name);
     }
     /**
-     * Adds card if it's rare or legendary.
-     * @param card the card to add
-     * @return true if added successfully
+     * Accepts only rare or legendary cards.
+     * @return a filter matching rare and legendary cards
      */
     @Override
-    public boolean addCard(Card card) {
-        if (card.getRarity() != CardRarity.RARE && card.getRarity() != CardRarity.LEGENDARY) {
-            return false; // Fail silently (Controller will show error)
-        }
-        return super.addCard(card); // Parent handles capacity checks
+    public CardFilter getAdmissionFilter() {
+        return ADMITS;
     }
     /**
      * Calculates total value with 10% premium.
-     * @return total value including premium
+     * @return total value in cents including premium
      */
     @Override
-    public BigDecimal calculateValue() {
-        BigDecimal subtotal = getCards().stream()
-                .map(Card::getValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        return subtotal.multiply(new BigDecimal("1.10")); // 10% handling fee
+    public long calculateValueCents() {
+        return Money.percent(getCardsValueCents(), HANDLING_FEE_PERCENT); // 10% handling fee
     }
 }
\ No newline at end of file
@@ -8,5 +8,13 @@ public interface Sellable {
      * Calculates the monetary value of the object.
      * @return the calculated value
      */
-    BigDecimal calculateValue();
+    default BigDecimal calculateValue() {
+        return Money.toBigDecimal(calculateValueCents());
+    }
+
+    /**
+     * Calculates the monetary value of the object in cents.
+     * @return the calculated value in cents
+     */
+    long calculateValueCents();
 }
\ No newline at end of file
@@ -1,4 +1,3 @@
-import java.math.BigDecimal;
 /**
  * Abstract base class for sellable binders that implements the Sellable interface.
  * Provides common functionality for all sellable binder types.
@@ -12,10 +11,10 @@ public abstract class SellableBinder extends Binder implements Sellable {
         super(name);
     }
     /**
-     * Calculates the total value of the binder's contents.
+     * Calculates the total value of the binder's contents in cents.
      * Must be implemented by concrete subclasses.
-     * @return the calculated monetary value
+     * @return the calculated monetary value in cents
      */
     @Override
-    public abstract BigDecimal calculateValue();
+    public abstract long calculateValueCents();
 }
\ No newline at end of file
@@ -1,5 +1,3 @@
-import java.math.BigDecimal;
-
 /**
  * Sellable deck (can be sold for its card value)
  */
@@ -13,12 +11,10 @@ public class SellableDeck extends Deck implements Sellable{
     }
     /**
      * Calculates the total value of all cards in the deck.
-     * @return sum of all card values as BigDecimal
+     * @return sum of all card values in cents
      */
     @Override
-    public BigDecimal calculateValue() {
-        return getCards().stream()
-                .map(Card::getValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public long calculateValueCents() {
+        return getCardsValueCents();
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+/**
+ * Lets a long-running operation report how far it has got and notice when the
+ * user asked to stop it.
+ * <p>
+ * Cancellation is cooperative: the operation checks {@link #isCancelRequested()}
+ * at points where it can stop cleanly, e.g. between import batches, rather
+ * than being interrupted, since interrupting a thread that is writing the
+ * inventory journal would close the journal's channel.
+ */
+public interface TaskProgress {
+    /** Progress that is not reported anywhere and is never cancelled. */
+    TaskProgress NONE = new TaskProgress() {
+        @Override
+        public void update(long done, long total) {
+        }
+
+        @Override
+        public boolean isCancelRequested() {
+            return false;
+        }
+    };
+
+    /**
+     * Reports how much of the work is done.
+     *
+     * @param done  the amount done so far
+     * @param total the total amount, in the same unit
+     */
+    void update(long done, long total);
+
+    /**
+     * Returns whether the user asked to stop the operation.
+     *
+     * @return true if the operation should stop at the next safe point
+     */
+    boolean isCancelRequested();
+}
@@ -1,15 +1,40 @@
+import javax.swing.Timer;
 import javax.swing.event.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.function.Consumer;
 
 /**
      * Controller class for the Trading Card Inventory System.
      * Coordinates interactions between the model and the view.
+     * <p>
+     * Operations whose cost grows with the inventory (importing, valuing,
+     * selling and deleting holders) run as
+     * {@link BackgroundTask}s while the view shows a busy indicator that blocks
+     * other input, so the window keeps painting and only one such task runs at
+     * a time. Their results come back to the event dispatch thread, and the
+     * model's own change events keep the view's lists current meanwhile.
      */
 public class TradingCardInventorySystemController implements ActionListener, DocumentListener {
     private final TradingCardInventorySystemModel model;
+    private final InventoryActions actions;
     private final TradingCardInventorySystemView view;
+    private final Timer searchTimer;
+    private BackgroundTask<?> task;
+
+    // The most search results shown, and the pause in typing that runs a search
+    private static final int SEARCH_LIMIT = 200;
+    private static final int SEARCH_DELAY_MS = 150;
+
+    /**
+     * The price of a sellable binder and, for a luxury binder, the base value
+     * a custom price may not go below.
+     */
+    private record BinderValuation(BigDecimal price, BigDecimal baseValue) {
+    }
 
     /**
      * Constructs a controller for the inventory system.
@@ -19,7 +44,10 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
      */
     public TradingCardInventorySystemController(TradingCardInventorySystemModel model, TradingCardInventorySystemView view) {
         this.model = model;
+        this.actions = new InventoryActions(model);
         this.view = view;
+        this.searchTimer = new Timer(SEARCH_DELAY_MS, _ -> searchCards());
+        searchTimer.setRepeats(false);
 
         view.setActionListener(this);
         view.setDocumentListener(this);
@@ -33,7 +61,7 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
      * Supported action commands:
      * <ul>
      *   <li>Menu navigation commands ("Return to Main Menu", "Exit", etc.)</li>
-     *   <li>Card operations ("Add Card", "SELL_CARD", "CONFIRM_ADD_CARD")</li>
+     *   <li>Card operations ("Add Card", "Import Cards", "SELL_CARD", "CONFIRM_ADD_CARD")</li>
      *   <li>Binder operations ("Create a new Binder", "CREATE_BASIC_BINDER", etc.)</li>
      *   <li>Deck operations ("Create a new Deck", "CREATE_NORMAL_DECK", etc.)</li>
      *   <li>Collection operations ("Adjust Card Count", "Display Card", "Display Collection")</li>
@@ -46,6 +74,7 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
             case "Exit" -> System.exit(0);
 
             case "Add Card" -> view.displayAddCardMenu();
+            case "Import Cards" -> handleImportCards();
             case "SELL_CARD" -> handleSellCard();
             case "CONFIRM_ADD_CARD" -> {
                 try {
@@ -53,11 +82,10 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                     CardRarity rarity = view.getAddCardRarity();
                     CardVariant variant = view.getAddCardVariant();
                     BigDecimal value = new BigDecimal(view.getAddCardValue());
+                    String refusal = actions.checkNewCard(cardName, value);
 
-                    if (cardName.isEmpty()) {
-                        view.displayErrorMessage("Card name cannot be empty.");
-                    } else if (value.compareTo(BigDecimal.ZERO) <= 0) {
-                        view.displayErrorMessage("Card value must be greater than zero.");
+                    if (refusal != null) {
+                        view.displayErrorMessage(refusal);
                     } else {
                         Card existingCard = model.getCardFromCollection(cardName);
 
@@ -89,38 +117,33 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
             case "CREATE_RARES_BINDER" -> createBinder(BinderType.RARES);
             case "CREATE_LUXURY_BINDER" -> createBinder(BinderType.LUXURY);
             case "CREATE_COLLECTOR_BINDER" -> createBinder(BinderType.COLLECTOR);
-            case "Manage Binders" -> view.displayManageBindersMenu(model.getBinders());
+            case "Manage Binders" -> view.displayManageBindersMenu();
             case "Select Binder" -> {
-                int index = view.getSelectedBinderIndex();
+                Binder binder = view.getSelectedBinder();
 
-                if (index >= 0) {
-                    Binder binder = model.getBinder(index);
-
-                    view.updateBinderCardsList(binder.getCards());
+                if (binder != null) {
+                    view.updateBinderCardsList(binder);
                     view.displaySingleBinderMenu(binder.getName(), model.isSellableBinder(binder));
                 }
             }
-            case "Return to Binders" -> view.displayManageBindersMenu(model.getBinders());
+            case "Return to Binders" -> view.displayManageBindersMenu();
             case "ADD_CARD_TO_BINDER" -> {
                 Binder binder = model.getBinder(view.getCurrentBinderName());
 
-                if(model.getCardCollection().isEmpty()) {
+                if(!model.hasCards()) {
                     view.displayErrorMessage("No cards in collection to add");
                     return;
-                } else if(binder.getCardsCount() >= Binder.MAX_CARD_COUNT) {
-                    view.displayErrorMessage("Binder is at max capacity.");
+                } else if(model.countCards(binder.getAdmissionFilter()) == 0) {
+                    view.displayErrorMessage("No cards in collection fit this binder.");
+                    return;
+                } else if (refuse(actions.checkAddToHolder(binder))) {
                     return;
                 }
 
-                Card selectedCard = view.showCardSelectionDialog(model.getCardCollection());
+                Card selectedCard = view.showCardSelectionDialog();
 
                 if(selectedCard != null) {
-                    if(model.addCardToBinder(binder, selectedCard)) {
-                        view.updateBinderCardsList(binder.getCards());
-                        view.displayMessage("Card added to binder.");
-                    } else {
-                        view.displayErrorMessage("Cannot add card - invalid type or count.");
-                    }
+                    show(actions.addToHolder(binder, selectedCard));
                 }
             }
             case "REMOVE_CARD_FROM_BINDER" -> {
@@ -131,12 +154,10 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                     return;
                 }
                 Binder binder = model.getBinder(binderName);
-                int selectedIndex = view.getSelectedBinderCardIndex();
+                Card selectedCard = view.getSelectedBinderCard();
 
-                if (selectedIndex >= 0 && model.removeCardFromBinder(binder,
-                        binder.getCards().get(selectedIndex))) {
-                    view.updateBinderCardsList(binder.getCards());
-                    view.displayMessage("Card removed.");
+                if (selectedCard != null) {
+                    show(actions.removeFromHolder(binder, selectedCard));
                 }
             }
             case "TRADE_OR_SELL_BINDER" -> {
@@ -154,10 +175,11 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                 Binder binder = model.getBinder(binderName);
 
                 if (view.confirmAction("Delete binder and return cards to collection?")) {
-                    if (model.deleteBinder(binder)) {
-                        view.displayMessage("Binder deleted.");
-                        view.displayManageBindersMenu(model.getBinders());
-                    }
+                    runInBackground("Deleting binder...", false, _ -> actions.deleteHolder(binder), deleted -> {
+                        if (show(deleted)) {
+                            view.displayManageBindersMenu();
+                        }
+                    });
                 }
             }
             case "VIEW_BINDER_CARD" -> {
@@ -168,11 +190,9 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                     return;
                 }
 
-                int selectedIndex = view.getSelectedBinderCardIndex();
+                Card selectedCard = view.getSelectedBinderCard();
 
-                if (selectedIndex >= 0) {
-                    Binder binder = model.getBinder(view.getCurrentBinderName());
-                    Card selectedCard = binder.getCards().get(selectedIndex);
+                if (selectedCard != null) {
                     view.displayCardDetails(selectedCard);
                 } else {
                     view.displayErrorMessage("No card selected.");
@@ -182,38 +202,30 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
             case "Create a new Deck" -> view.displayCreateDeckMenu();
             case "CREATE_NORMAL_DECK" -> createDeck(DeckType.NORMAL);
             case "CREATE_SELLABLE_DECK" -> createDeck(DeckType.SELLABLE);
-            case "Manage Decks" -> view.displayManageDecksMenu(model.getDecks());
+            case "Manage Decks" -> view.displayManageDecksMenu();
             case "Select Deck" -> {
-                int index = view.getSelectedDeckIndex();
+                Deck deck = view.getSelectedDeck();
 
-                if (index >= 0) {
-                    Deck deck = model.getDeck(index);
-
-                    view.updateDeckCardsList(deck.getCards());
+                if (deck != null) {
+                    view.updateDeckCardsList(deck);
                     view.displaySingleDeckMenu(deck.getName(), model.isSellableDeck(deck));
                 }
             }
-            case "Return to Decks" -> view.displayManageDecksMenu(model.getDecks());
+            case "Return to Decks" -> view.displayManageDecksMenu();
             case "ADD_CARD_TO_DECK" -> {
                 Deck deck = model.getDeck(view.getCurrentDeckName());
 
-                if(model.getCardCollection().isEmpty()) {
+                if(!model.hasCards()) {
                     view.displayErrorMessage("No cards in collection to add.");
                     return;
-                } else if(deck.getCardsCount() >= Deck.MAX_CARD_COUNT) {
-                    view.displayErrorMessage("Deck is at max capacity.");
+                } else if (refuse(actions.checkAddToHolder(deck))) {
                     return;
                 }
 
-                Card selectedCard = view.showCardSelectionDialog(model.getCardCollection());
+                Card selectedCard = view.showCardSelectionDialog();
 
                 if (selectedCard != null) {
-                    if (model.addCardToDeck(deck, selectedCard)) {
-                        view.updateDeckCardsList(deck.getCards());
-                        view.displayMessage("Card added to deck.");
-                    } else {
-                        view.displayErrorMessage("Cannot add card - invalid type or count.");
-                    }
+                    show(actions.addToHolder(deck, selectedCard));
                 }
             }
             case "REMOVE_CARD_FROM_DECK" -> {
@@ -225,12 +237,10 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                 }
 
                 Deck deck = model.getDeck(deckName);
-                int selectedIndex = view.getSelectedDeckCardIndex();
+                Card selectedCard = view.getSelectedDeckCard();
 
-                if (selectedIndex >= 0 && model.removeCardFromDeck(deck,
-                       deck.getCards().get(selectedIndex))) {
-                    view.updateDeckCardsList(deck.getCards());
-                    view.displayMessage("Card removed.");
+                if (selectedCard != null) {
+                    show(actions.removeFromHolder(deck, selectedCard));
                 }
             }
             case "SELL_DECK" -> {
@@ -244,10 +254,11 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                 Deck deck = model.getDeck(view.getCurrentDeckName());
 
                 if (view.confirmAction("Delete deck and return cards to collection?")) {
-                    if (model.deleteDeck(deck)) {
-                        view.displayMessage("Deck deleted.");
-                        view.displayManageDecksMenu(model.getDecks());
-                    }
+                    runInBackground("Deleting deck...", false, _ -> actions.deleteHolder(deck), deleted -> {
+                        if (show(deleted)) {
+                            view.displayManageDecksMenu();
+                        }
+                    });
                 }
             }
             case "VIEW_DECK_CARD" -> {
@@ -258,53 +269,68 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                     return;
                 }
 
-                int selectedIndex = view.getSelectedDeckCardIndex();
-
-                if (selectedIndex >= 0) {
-                    Deck deck = model.getDeck(deckName);
-                    Card selectedCard = deck.getCards().get(selectedIndex);
+                Card selectedCard = view.getSelectedDeckCard();
 
+                if (selectedCard != null) {
                     view.displayCardDetails(selectedCard);
                 } else {
                     view.displayErrorMessage("No card selected.");
                 }
             }
 
-            case "Adjust Card Count" -> view.displayAdjustCardCountMenu(model.getCardCollection());
+            case "Adjust Card Count" -> view.displayAdjustCardCountMenu();
             case "CONFIRM_ADJUST_CARD_COUNT" -> {
                 try {
                     int cardCount = Integer.parseInt(view.getAdjustCardCountNumber());
-                    Card card = model.getCardFromCollection(view.getAdjustCardCountName());
+                    Card card = view.getAdjustCardCountCard();
 
-                    if(model.adjustCardCount(card, cardCount)) {
-                        view.displayMessage("Card count adjusted successfully!");
+                    if (card != null && show(actions.adjustCardCount(card, cardCount))) {
                         view.displayMainMenu(model.hasCards(), model.hasBinders(), model.hasDecks());
-                    } else {
-                        view.displayErrorMessage("Adjustment cannot set card count below zero.");
                     }
                 } catch(NumberFormatException e) {
                     view.displayErrorMessage("Invalid card count adjustment value.");
                 }
             }
 
-            case "Display Card" -> view.displayCardDetailsMenu(model.getCardCollection());
-            case "Display Collection" -> view.displayCollectionGUI(model.getCardCollection());
+            case "Display Card" -> view.displayCardDetailsMenu();
+            case "Display Collection" -> view.displayCollectionGUI();
         }
     }
 
     @Override
     public void insertUpdate(DocumentEvent de) {
-
+        documentChanged(de);
     }
 
     @Override
     public void removeUpdate(DocumentEvent de) {
-
+        documentChanged(de);
     }
 
     @Override
     public void changedUpdate(DocumentEvent de) {
+        documentChanged(de);
+    }
+    /**
+     * Schedules a card search when the search text changes. Each keystroke
+     * restarts the delay, so fast typing runs one search once it pauses rather
+     * than one per keystroke.
+     *
+     * @param de the document event
+     */
+    private void documentChanged(DocumentEvent de) {
+        if (view.isCardSearch(de.getDocument())) {
+            searchTimer.restart();
+        }
+    }
+    /**
+     * Searches the collection for the typed text, allowing one typo, and shows
+     * the results, or the whole collection again once the text is cleared.
+     */
+    private void searchCards() {
+        String query = view.getCardSearchText();
 
+        view.showCardSearchResults(query.isEmpty() ? null : model.searchCards(query, SEARCH_LIMIT, true));
     }
     /**
      * Creates a new binder of specified type after name validation.
@@ -314,10 +340,12 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
         String name = view.promptForBinderName();
 
         if (!name.isEmpty()) {
-            if (model.createBinder(name, type)) {
-                view.displayManageBindersMenu(model.getBinders());
+            InventoryActions.Outcome created = actions.createBinder(name, type);
+
+            if (created.done()) {
+                view.displayManageBindersMenu();
             } else {
-                view.displayErrorMessage("That binder already exists.");
+                view.displayErrorMessage(created.message());
             }
         }
     }
@@ -327,23 +355,27 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
      */
     private void handleSellBinder(Binder binder) {
         // Validate binder can be sold
-        if (!model.isSellableBinder(binder)) {
-            view.displayErrorMessage("This binder type cannot be sold.");
+        if (refuse(actions.checkSellHolder(binder))) {
             return;
         }
 
-        if (binder.getCards().isEmpty()) {
-            view.displayErrorMessage("Cannot sell empty binder.");
-            return;
-        }
-
-        // Calculate base price
-        BigDecimal price = ((SellableBinder) binder).calculateValue();
+        // Value the binder in the background, then ask about pricing
+        runInBackground("Valuing binder...", false, _ -> new BinderValuation(((SellableBinder) binder).calculateValue(),
+                (binder instanceof LuxuryBinder luxury) ? luxury.calculateBaseValue() : null),
+                valuation -> confirmSellBinder(binder, valuation));
+    }
+    /**
+     * Asks for a luxury binder's custom price and confirms the sale of a valued binder.
+     * @param binder the binder to sell
+     * @param valuation the binder's value
+     */
+    private void confirmSellBinder(Binder binder, BinderValuation valuation) {
+        BigDecimal price = valuation.price();
+        BigDecimal customPrice = null;
 
         // Handle luxury binder custom pricing
-        if (binder instanceof LuxuryBinder) {
-            LuxuryBinder luxury = (LuxuryBinder) binder;
-            BigDecimal baseValue = luxury.calculateBaseValue();
+        if (binder instanceof LuxuryBinder luxury) {
+            BigDecimal baseValue = valuation.baseValue();
 
             if (view.confirmAction("Set custom price? (Base value: $" + baseValue + ")")) {
                 String input = view.promptForCustomPrice(baseValue);
@@ -354,14 +386,11 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
                 }
 
                 try {
-                    BigDecimal customPrice = new BigDecimal(input);
-                    if (customPrice.compareTo(baseValue) >= 0) {
-                        luxury.setCustomPrice(customPrice);
-                        price = customPrice;
-                    } else {
-                        view.displayErrorMessage("Price must be at least $" + baseValue);
+                    customPrice = new BigDecimal(input);
+                    if (refuse(actions.checkCustomPrice(luxury, customPrice))) {
                         return;
                     }
+                    price = customPrice;
                 } catch (NumberFormatException e) {
                     view.displayErrorMessage("Invalid price format");
                     return;
@@ -369,16 +398,14 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
             }
         }
 
-        // Confirm final sale
+        // Confirm final sale; the model sets the custom price as part of it
+        BigDecimal salePrice = customPrice;
         if (view.confirmAction("Sell '" + binder.getName() + "' for $" + price + "?")) {
-            if (model.sellBinder(binder)) {
-                view.setCollectorMoneyLabel(model.getCollectorMoney());
-                view.displayMessage("Binder sold for $" + price);
-
-                view.displayManageBindersMenu(model.getBinders());
-            } else {
-                view.displayErrorMessage("Failed to complete sale");
-            }
+            runInBackground("Selling binder...", false, _ -> actions.sellHolder(binder, salePrice), sold -> {
+                if (show(sold)) {
+                    view.displayManageBindersMenu();
+                }
+            });
         }
     }
     /**
@@ -386,30 +413,22 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
      * @param binder the binder containing card to trade
      */
     private void handleTradeCard(Binder binder) {
-        int selectedIndex = view.getSelectedBinderCardIndex();
-        if (selectedIndex < 0) {
+        Card outgoingCard = view.getSelectedBinderCard();
+        if (outgoingCard == null) {
             view.displayErrorMessage("No card selected");
             return;
         }
 
-        Card outgoingCard = binder.getCards().get(selectedIndex);
         Card incomingCard = view.showTradeCardDialog();
 
         if (incomingCard != null) {
-            BigDecimal difference = incomingCard.getValue().subtract(outgoingCard.getValue()).abs();
+            String question = actions.tradeQuestion(incomingCard, outgoingCard);
 
-            if (difference.compareTo(new BigDecimal("1.00")) >= 0) {
-                if (!view.confirmAction("Value difference is $" + difference + ". Proceed?")) {
-                    return;
-                }
+            if (question != null && !view.confirmAction(question)) {
+                return;
             }
 
-            if (model.executeTrade(binder, incomingCard, outgoingCard)) {
-                view.updateBinderCardsList(binder.getCards());
-                view.displayMessage("Trade successful!");
-            } else {
-                view.displayErrorMessage("Trade failed. Check binder requirements.");
-            }
+            show(actions.trade(binder, incomingCard, outgoingCard));
         }
     }
     /**
@@ -420,10 +439,12 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
         String name = view.promptForDeckName();
 
         if (!name.isEmpty()) {
-            if (model.createDeck(name, type)) {
-                view.displayManageDecksMenu(model.getDecks());
+            InventoryActions.Outcome created = actions.createDeck(name, type);
+
+            if (created.done()) {
+                view.displayManageDecksMenu();
             } else {
-                view.displayErrorMessage("That deck already exists.");
+                view.displayErrorMessage(created.message());
             }
         }
     }
@@ -436,50 +457,98 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
      */
     private void handleSellDeck(Deck deck) {
         // Validate deck can be sold
-        if (!model.isSellableDeck(deck)) {
-            view.displayErrorMessage("This deck type cannot be sold.");
+        if (refuse(actions.checkSellHolder(deck))) {
             return;
         }
 
-        if (deck.getCards().isEmpty()) {
-            view.displayErrorMessage("Cannot sell empty deck.");
+        // Value the deck in the background, then confirm the sale
+        runInBackground("Valuing deck...", false, _ -> ((SellableDeck) deck).calculateValue(), price -> {
+            if (view.confirmAction("Sell '" + deck.getName() + "' for $" + price + "?")) {
+                runInBackground("Selling deck...", false, _ -> actions.sellHolder(deck, null), sold -> {
+                    if (show(sold)) {
+                        view.displayManageDecksMenu();
+                    }
+                });
+            }
+        });
+    }
+    /**
+     * Imports a CSV or JSON card list chosen by the user and reports the result.
+     */
+    private void handleImportCards() {
+        Path file = view.promptForImportFile();
+        if (file == null) {
             return;
         }
 
-        // Calculate base price
-        BigDecimal price = ((SellableDeck) deck).calculateValue();
-
-        // Confirm final sale
-        if (view.confirmAction("Sell '" + deck.getName() + "' for $" + price + "?")) {
-            if (model.sellDeck(deck)) {
-                view.setCollectorMoneyLabel(model.getCollectorMoney());
-                view.displayMessage("Deck sold for $" + price);
+        runInBackground("Importing " + file.getFileName() + "...", true,
+                progress -> new CardImporter(model).importFile(file, progress), report -> {
+                    view.displayMessage(report.summary());
+                    view.displayMainMenu(model.hasCards(), model.hasBinders(), model.hasDecks());
+                });
+    }
+    /**
+     * Runs an operation in the background while the view shows it as busy,
+     * then passes its result to an action on the event dispatch thread. If the
+     * operation fails, the error is shown instead.
+     * @param description what the operation is doing, shown to the user
+     * @param cancellable whether the user may cancel the operation
+     * @param work the operation
+     * @param then the action to run with the result
+     */
+    private <T> void runInBackground(String description, boolean cancellable, BackgroundTask.Work<T> work,
+                                     Consumer<T> then) {
+        if (task != null) {
+            view.displayErrorMessage("Please wait for the current task to finish.");
+            return;
+        }
 
-                view.displayManageDecksMenu(model.getDecks());
-            } else {
-                view.displayErrorMessage("Failed to complete sale");
+        BackgroundTask<T> started = new BackgroundTask<>(work, result -> {
+            finishBackgroundTask();
+            then.accept(result);
+        }, error -> {
+            finishBackgroundTask();
+            view.displayErrorMessage(switch (error) {
+                case IOException e -> "Stopped: " + e.getMessage();
+                case UncheckedIOException e -> "Stopped: " + e.getCause().getMessage();
+                default -> "Failed: " + error;
+            });
+            view.displayMainMenu(model.hasCards(), model.hasBinders(), model.hasDecks());
+        });
+
+        started.addPropertyChangeListener(pce -> {
+            if (pce.getPropertyName().equals("progress")) {
+                view.setBusyProgress((Integer) pce.getNewValue());
             }
-        }
+        });
+
+        task = started;
+        view.showBusy(description, cancellable ? started::requestCancel : null);
+        started.execute();
+    }
+    /**
+     * Clears the running background task and its busy indicator.
+     */
+    private void finishBackgroundTask() {
+        task = null;
+        view.hideBusy();
     }
     /**
      * Handles selling individual card with availability checks.
      */
     private void handleSellCard() {
-        List<Card> collection = model.getCardCollection();
-
-        if (collection.isEmpty()) {
+        if (!model.hasCards()) {
             view.displayErrorMessage("No cards in collection to sell.");
             return;
         }
 
-        Card selectedCard = view.showCardSelectionDialog(collection);
+        Card selectedCard = view.showCardSelectionDialog();
 
         if (selectedCard == null) {
             return;
         }
 
-        if (!model.isSellableCard(selectedCard)) {
-            view.displayErrorMessage("Cannot sell card - it's in a binder or deck.");
+        if (refuse(actions.checkSellCard(selectedCard))) {
             return;
         }
 
@@ -487,18 +556,39 @@ public class TradingCardInventorySystemController implements ActionListener, Doc
             return;
         }
 
-        if (model.sellCard(selectedCard)) {
-            view.setCollectorMoneyLabel(model.getCollectorMoney());
-
-            view.displayMessage("Card sold successfully!");
+        show(actions.sellCard(selectedCard));
+    }
+    /**
+     * Shows why an action cannot go ahead, if a check refused it.
+     * @param refusal the check's message, or null if it passed
+     * @return true if the action was refused
+     */
+    private boolean refuse(String refusal) {
+        if (refusal != null) {
+            view.displayErrorMessage(refusal);
+        }
+        return refusal != null;
+    }
+    /**
+     * Shows the message of an action's outcome, as an error if it was not done.
+     * @param outcome the outcome
+     * @return true if the action was done
+     */
+    private boolean show(InventoryActions.Outcome outcome) {
+        if (outcome.done()) {
+            view.displayMessage(outcome.message());
         } else {
-            view.displayErrorMessage("Failed to sell card.");
+            view.displayErrorMessage(outcome.message());
         }
+        return outcome.done();
     }
     /**
-     * Starts the main program and displays the menu system.
+     * Starts the main program and displays the menu system. The view is seeded
+     * with the inventory once and then follows the model's change events.
      */
     public void startProgram() {
+        view.showInventory(model);
+        model.addInventoryListener(view);
         view.displayMainMenu(model.hasCards(), model.hasBinders(), model.hasDecks());
     }
 }
\ No newline at end of file
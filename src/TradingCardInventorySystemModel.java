@@ -1,26 +1,123 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 /**
  * The model component of the Trading Card Inventory System. Manages the core
  * data structures and the logic for a trading card inventory, including
  * the card collection, binders, and decks.
+ * <p>
+ * The model is safe for concurrent use. Creating, deleting and selling
+ * binders and decks take an exclusive registry lock; every other operation
+ * shares it and locks only the stripes of the binder or deck and the cards it
+ * touches, so operations on different holders and cards run in parallel.
+ * Locks are always taken in the same order (registry, holder stripe, card
+ * stripes by ascending index), so multi-object operations such as
+ * {@link #executeTrade} are atomic without risk of deadlock. Journal records
+ * are appended while the locks are held, so the journal replays in the order
+ * the changes were made, and synced after they are released. Listeners hear
+ * of a change only once its record is appended, so they never see a change
+ * the journal does not have.
  */
 
 public class TradingCardInventorySystemModel {
-    private final ArrayList<Card> cardCollection;
+    private final CardStore cardStore;
+    private final CollectionIndex collectionIndex;
     private final Map<String, Binder> binders;
     private final Map<String, Deck> decks;
-    private BigDecimal collectorMoney;
+    private final List<Binder> binderOrder;
+    private final List<Deck> deckOrder;
+    private final CardHolderIndex cardHolderIndex;
+    private final AtomicLong collectorMoneyCents;
+    private final ReentrantReadWriteLock registryLock;
+    private final ReentrantLock[] holderStripes;
+    private final ReentrantLock[] cardStripes;
+    private final List<InventoryListener> listeners;
+    // Events of the change the current thread is making, held back until it is journaled
+    private final ThreadLocal<List<InventoryEvent>> pendingEvents;
+    private volatile InventoryJournal journal;
+    private volatile InventoryMetrics metrics;
+    private long journalCompactionBytes;
+    private Runnable journalCompaction;
+
+    private static final int LOCK_STRIPES = 64;
+    private static final long FAILED = -1;
 
     /**
      * Constructs a new TradingCardInventorySystemModel with empty card collection,
      * binders, and decks
      */
     public TradingCardInventorySystemModel() {
-        this.cardCollection = new ArrayList<>();
+        this(16);
+    }
+    /**
+     * Constructs an empty model sized to hold the given number of distinct
+     * cards without rehashing, e.g. before restoring a saved inventory.
+     *
+     * @param expectedCards the expected number of distinct cards
+     */
+    TradingCardInventorySystemModel(int expectedCards) {
+        this(new HeapCardStore(expectedCards));
+    }
+    /**
+     * Constructs an empty model whose card collection is kept in the given store.
+     *
+     * @param cardStore an empty card store
+     */
+    TradingCardInventorySystemModel(CardStore cardStore) {
+        this.cardStore = cardStore;
+        this.collectionIndex = new CollectionIndex(cardStore, 16);
         this.binders = new LinkedHashMap<>();
         this.decks = new LinkedHashMap<>();
-        this.collectorMoney = new BigDecimal("0.00");
+        this.binderOrder = new ArrayList<>();
+        this.deckOrder = new ArrayList<>();
+        this.cardHolderIndex = new CardHolderIndex();
+        this.collectorMoneyCents = new AtomicLong();
+        this.registryLock = new ReentrantReadWriteLock();
+        this.holderStripes = newStripes();
+        this.cardStripes = newStripes();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.pendingEvents = new ThreadLocal<>();
+    }
+    /**
+     * Registers a listener for every later change to the inventory.
+     *
+     * @param listener the listener to add
+     */
+    public void addInventoryListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeInventoryListener(InventoryListener listener) {
+        listeners.remove(listener);
+    }
+    /**
+     * Starts recording the count and latency of every later operation, or
+     * stops recording.
+     *
+     * @param metrics the metrics to record into, or null to stop
+     */
+    public void setMetrics(InventoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+    /**
+     * Returns the metrics operations are recorded into.
+     *
+     * @return the metrics, or null if none are recorded
+     */
+    public InventoryMetrics getMetrics() {
+        return metrics;
     }
     /**
      * Checks if card collection has any cards.
@@ -28,7 +125,7 @@ public class TradingCardInventorySystemModel {
      * @return true if card collection is not empty, false otherwise
      */
     public boolean hasCards() {
-        return !cardCollection.isEmpty();
+        return cardStore.size() > 0;
     }
     /**
      * Checks if any binders exist.
@@ -36,7 +133,9 @@ public class TradingCardInventorySystemModel {
      * @return true if there are binders, false otherwise
      */
     public boolean hasBinders() {
-        return !binders.isEmpty();
+        try (Guard _ = lockShared()) {
+            return !binders.isEmpty();
+        }
     }
     /**
      * Checks if any decks exist.
@@ -44,7 +143,9 @@ public class TradingCardInventorySystemModel {
      * @return true if there are decks, false otherwise
      */
     public boolean hasDecks() {
-        return !decks.isEmpty();
+        try (Guard _ = lockShared()) {
+            return !decks.isEmpty();
+        }
     }
 
     /**
@@ -56,24 +157,89 @@ public class TradingCardInventorySystemModel {
      * @param value The monetary value of the card.
      */
     public void addCardToCollection(String name, CardRarity rarity, CardVariant variant, BigDecimal value) {
-        Card card = new Card(name, rarity, variant, value, 1);
-
-        if(cardCollection.contains(card)) {
-            getCardFromCollection(card.getName()).setCount(card.getCount() + 1);
-        } else {
-            cardCollection.add(card);
-        }
+        addCardToCollection(new Card(name, rarity, variant, value, 1));
     }
     /**
-     * Adds a card object to the collection or increments its count.
+     * Adds a card object to the collection, or adds its count to the
+     * matching card if the collection already has it.
      *
      * @param card The card to add.
      */
     public void addCardToCollection(Card card) {
-        if(cardCollection.contains(card)) {
-            getCardFromCollection(card.getName()).setCount(card.getCount() + 1);
-        } else {
-            cardCollection.add(card);
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.ADD_CARD)) {
+            long sequence;
+
+            try (Guard _ = lockCards(card)) {
+                mergeIntoCollection(card);
+                sequence = append(InventoryJournal.Operation.ADD_CARD, out -> InventoryJournal.writeCard(out, card));
+            }
+
+            commit(sequence);
+        }
+    }
+    /**
+     * Adds many cards to the collection at once, as
+     * {@link #addCardToCollection(Card)} would one by one, but as a single
+     * change: other threads see either none or all of the batch, and it is
+     * journaled as one record.
+     *
+     * @param cards The cards to add.
+     */
+    public void addCardsToCollection(Collection<Card> cards) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.ADD_CARDS)) {
+            long sequence;
+
+            try (Guard _ = lockCards(cards.toArray(Card[]::new))) {
+                for (Card card : cards) {
+                    mergeIntoCollection(card);
+                }
+
+                sequence = append(InventoryJournal.Operation.ADD_CARDS, out -> {
+                    out.writeInt(cards.size());
+                    for (Card card : cards) {
+                        InventoryJournal.writeCard(out, card);
+                    }
+                });
+            }
+
+            commit(sequence);
+        }
+    }
+    /**
+     * Takes free copies of many cards out of the collection at once, all or
+     * nothing: if any card is missing or has fewer free copies than asked
+     * for, nothing changes. Cards are kept in the collection at a count of
+     * zero, as with {@link #adjustCardCount}. Equal cards given separately,
+     * e.g. with names in different case, count as one card.
+     *
+     * @param batch The number of copies to take of each card.
+     * @return true if every card was taken, false if nothing changed.
+     */
+    public boolean removeCardsFromCollection(Map<Card, Integer> batch) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.REMOVE_CARDS)) {
+            Map<Card, Integer> quantities = foldBatch(batch);
+            if (quantities == null) {
+                return false;
+            }
+
+            long sequence;
+
+            try (Guard _ = lockCards(quantities.keySet().toArray(Card[]::new))) {
+                List<Card> collectionCards = collectionCopies(quantities);
+                if (collectionCards == null) {
+                    return false;
+                }
+
+                int i = 0;
+                for (int quantity : quantities.values()) {
+                    Card collectionCard = collectionCards.get(i++);
+                    setCollectionCount(collectionCard, collectionCard.getCount() - quantity);
+                }
+
+                sequence = appendCards(InventoryJournal.Operation.REMOVE_CARDS_FROM_COLLECTION, null, quantities);
+            }
+
+            return commit(sequence);
         }
     }
     /**
@@ -84,14 +250,54 @@ public class TradingCardInventorySystemModel {
      * @return true if adjustment is successful, false otherwise.
      */
     public boolean adjustCardCount(Card card, int adjustment) {
-        int newCount = card.getCount() + adjustment;
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.ADJUST_CARD_COUNT)) {
+            long sequence = FAILED;
 
-        if (newCount >= 0) {
-            card.setCount(newCount);
-            return true;
+            try (Guard _ = lockCards(card)) {
+                int newCount = card.getCount() + adjustment;
+
+                if (newCount >= 0) {
+                    setCollectionCount(card, newCount);
+                    sequence = append(InventoryJournal.Operation.ADJUST_CARD_COUNT, out -> {
+                        InventoryJournal.writeCard(out, card);
+                        out.writeInt(adjustment);
+                    });
+                }
+            }
+
+            return commit(sequence);
         }
+    }
+    /**
+     * Sets the free count of a collection card, reading and changing it under
+     * the card's lock, so no change made meanwhile by another thread is lost.
+     *
+     * @param card The card to update.
+     * @param count The new count.
+     * @return true if the count was set, false if the count is negative or the
+     *         card is not in the collection.
+     */
+    public boolean setCardCount(Card card, int count) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.SET_CARD_COUNT)) {
+            long sequence = FAILED;
+
+            try (Guard _ = lockCards(card)) {
+                Card collectionCard = findCollectionCard(card);
+
+                if (count >= 0 && collectionCard != null) {
+                    int adjustment = count - collectionCard.getCount();
+
+                    setCollectionCount(collectionCard, count);
+                    // Journaled as the adjustment it came to, which replays to the same count
+                    sequence = append(InventoryJournal.Operation.ADJUST_CARD_COUNT, out -> {
+                        InventoryJournal.writeCard(out, collectionCard);
+                        out.writeInt(adjustment);
+                    });
+                }
+            }
 
-        return false;
+            return commit(sequence);
+        }
     }
     /**
      * Returns the list of all cards in the collection.
@@ -99,402 +305,1197 @@ public class TradingCardInventorySystemModel {
      * @return A list of cards.
      */
     public List<Card> getCardCollection() {
-        return new ArrayList<>(cardCollection);
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_COLLECTION)) {
+            List<Card> cards = new ArrayList<>(cardStore.size());
+
+            cardStore.forEach(cards::add);
+            return cards;
+        }
     }
     /**
-     * Retrieves a card by its index in the collection.
+     * Returns the number of distinct cards in the collection.
      *
-     * @param index The index of the card.
-     * @return The card if found, null otherwise.
+     * @return The collection size.
      */
-    public Card getCardFromCollection(int index) {
-        if(index >= 0 && index < cardCollection.size()) {
-            return cardCollection.get(index);
-        } else {
-            return null;
-        }
+    public int getCollectionSize() {
+        return cardStore.size();
     }
     /**
-     * Retrieves a card by name.
+     * Passes each card in the collection to an action, in collection order,
+     * without copying the collection. Changes to the collection wait until the
+     * walk is done, so the action must not change the model itself.
      *
-     * @param name The name of the card.
-     * @return The card if found, null otherwise.
+     * @param action The action to run for each card.
      */
-    public Card getCardFromCollection(String name){
-        for(Card card : cardCollection){
-            if(card.getName().equalsIgnoreCase(name)){
-                return card;
+    public void forEachCard(Consumer<Card> action) {
+        cardStore.forEach(action);
+    }
+    /**
+     * Passes the cards in the collection to an action in collection order, a
+     * chunk at a time. Each chunk is copied out of the collection at once and
+     * the action runs after that, so it may take its time, e.g. to write the
+     * cards out, without holding up changes to the collection. Cards added or
+     * removed meanwhile may or may not be seen, but every other card is seen
+     * exactly once.
+     *
+     * @param chunkSize The most cards in a chunk.
+     * @param action The action to run for each chunk, which must not keep the list.
+     */
+    public void forEachCardChunk(int chunkSize, Consumer<List<Card>> action) {
+        List<Card> chunk = new ArrayList<>(chunkSize);
+
+        for (long cursor = 0; cursor >= 0; chunk.clear()) {
+            cursor = cardStore.forEach(cursor, chunkSize, chunk::add);
+            if (!chunk.isEmpty()) {
+                action.accept(chunk);
             }
         }
-
-        return null;
     }
     /**
-     * Creates a new binder with the given name.
+     * Returns the total value of the collection, each card's value times its
+     * free count, summed in one pass over the card store.
      *
-     * @param name The name of the binder.
-     * @return true if the binder was created successfully, false otherwise.
+     * @return The collection's value.
      */
-    // Update createBinder to use subclass instances directly
-    public boolean createBinder(String name, BinderType type) {
-        if(binders.containsKey(name)) {
-            return false;
-        }
-
-        switch(type) {
-            case BinderType.BASIC -> binders.put(name, new NonCuratedBinder(name));
-            case BinderType.PAUPER -> binders.put(name, new PauperBinder(name));
-            case BinderType.RARES -> binders.put(name, new RaresBinder(name));
-            case BinderType.LUXURY -> binders.put(name, new LuxuryBinder(name));
-            case BinderType.COLLECTOR -> binders.put(name, new CollectorBinder(name));
+    public BigDecimal getCollectionValue() {
+        return Money.toBigDecimal(getCollectionValueCents());
+    }
+    /**
+     * Returns the total value of the collection in cents.
+     *
+     * @return The collection's value in cents.
+     */
+    public long getCollectionValueCents() {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_COLLECTION_VALUE)) {
+            return cardStore.totalValueCents();
         }
-
-        return true;
     }
     /**
-     * Retrieves a binder by index.
+     * Returns the total number of free copies of the cards in the collection.
      *
-     * @param index The index of the binder.
-     * @return The binder if found, null otherwise.
+     * @return The number of copies.
      */
-    public Binder getBinder(int index) {
-        if(index >= 0 && index < binders.size()) {
-            return binders.get(getBinderNames().get(index));
-        } else {
-            return null;
+    public long countCopies() {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.COUNT_COPIES)) {
+            return cardStore.totalCount();
         }
     }
     /**
-     * Retrieves a binder by name.
+     * Retrieves a card by its position in name order (ignoring case, with cards
+     * of the same name in the order they were added), without sorting.
      *
-     * @param name The name of the binder.
-     * @return The binder if found, null otherwise.
+     * @param index The position of the card in name order.
+     * @return The card if found, null otherwise.
      */
-    public Binder getBinder(String name) {
-        return binders.get(name);
+    public Card getCardInNameOrder(int index) {
+        return collectionIndex.get(index);
     }
     /**
-     * Returns the list of all binders in the system.
+     * Finds the position of a collection card in name order.
      *
-     * @return A list of binders.
+     * @param card The card to look for.
+     * @return The position, or -1 if the card is not in the collection.
      */
-    public List<Binder> getBinders() {
-        return new ArrayList<>(binders.values());
+    public int getNameOrderIndex(Card card) {
+        return collectionIndex.indexOf(card);
     }
     /**
-     * Returns a list of all binder names.
+     * Passes each card in the collection to an action in name order, without
+     * copying or sorting the collection. Changes to the collection wait until
+     * the walk is done, so the action must not change the model itself.
      *
-     * @return A list of binder names.
+     * @param action The action to run for each card.
      */
-    public List<String> getBinderNames() {
-        return new ArrayList<>(binders.keySet());
+    public void forEachCardInNameOrder(Consumer<Card> action) {
+        collectionIndex.forEach(action);
     }
     /**
-     * Gets total number of binders.
+     * Counts the collection cards matching a rarity and variant filter, without
+     * looking at any card.
      *
-     * @return The number of binders.
+     * @param filter The filter.
+     * @return The number of distinct matching cards.
      */
-    public int getBinderCount() {
-        return binders.size();
+    public int countCards(CardFilter filter) {
+        return collectionIndex.count(filter);
     }
     /**
-     * Deletes a binder and returns its cards to the collection
+     * Passes each collection card matching a rarity and variant filter to an
+     * action, visiting only the matching cards. Changes to the collection wait
+     * until the walk is done, so the action must not change the model itself.
      *
-     * @param binder The binder to delete.
-     * @return true if deletion was successful, false otherwise.
+     * @param filter The filter.
+     * @param action The action to run for each matching card.
      */
-    public boolean deleteBinder(Binder binder) {
-        List<Card> binderCards = new ArrayList<>(binder.getCards());
-
-        for(Card card : binderCards) {
-            removeCardFromBinder(binder, card);
-        }
-
-        return binders.remove(binder.getName()) != null;
+    public void forEachCard(CardFilter filter, Consumer<Card> action) {
+        collectionIndex.forEach(filter, action);
     }
     /**
-     * Adds a card to the specified binder if it is available in the collection.
+     * Returns the collection cards matching a rarity and variant filter.
      *
-     * @param binder The binder to add card to.
-     * @return true if card was added successfully, false otherwise.
+     * @param filter The filter.
+     * @return A list of the matching cards.
      */
-    public boolean addCardToBinder(Binder binder, Card card) {
-        // Existing count check
-        if (card.getCount() <= 0) {
-            return false;
-        }
+    public List<Card> getCards(CardFilter filter) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_CARDS_BY_FILTER)) {
+            List<Card> cards = new ArrayList<>();
 
-        // Delegate validation to binder subclass
-        if (!binder.addCard(card)) {
-            return false;
+            collectionIndex.forEach(filter, cards::add);
+            return cards;
         }
-
-        // Deduct from collection
-        cardCollection.get(cardCollection.indexOf(card)).setCount(
-                cardCollection.get(cardCollection.indexOf(card)).getCount() - 1);
-        return true;
     }
     /**
-     * Removes a card from the deck and returns it to the collection.
-     * Checks first if the collection has the card; if the collection does,
-     * then it increments the count of the card in the collection instead.
+     * Counts the collection cards whose value lies in a range, without looking
+     * at the cards in it.
      *
-     * @param binder The binder to remove the card from
-     * @param card The card to remove
-     * @return true if removal was successful, false otherwise
+     * @param min The lowest value, inclusive, or null for no lower bound.
+     * @param max The highest value, inclusive, or null for no upper bound.
+     * @return The number of distinct cards in the range.
      */
-    public boolean removeCardFromBinder(Binder binder, Card card) {
-        // First check if the binder actually contains the card
-        if (!binder.getCards().contains(card)) {
-            return false;
-        }
-
-        // Remove from binder
-        boolean removedFromBinder = binder.removeCard(card);
-        if (!removedFromBinder) {
-            return false;
-        }
-
-        // Add to collection or increment count
-        try {
-            if (cardCollection.contains(card)) {
-                int index = cardCollection.indexOf(card);
-                Card collectionCard = cardCollection.get(index);
-                collectionCard.setCount(collectionCard.getCount() + 1);
-            } else {
-                card.setCount(1);
-                cardCollection.add(card);
-            }
-            return true;
-        } catch (Exception e) {
-            // If any error occurs during collection update, return false
-            return false;
+    public int countCardsInValueRange(BigDecimal min, BigDecimal max) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.COUNT_CARDS_IN_VALUE_RANGE)) {
+            return collectionIndex.countInValueRange(lowCents(min), highCents(max));
         }
     }
     /**
-     * Executes a trade by swapping an outgoing card with an incoming card in the binder.
-     * The incoming card will also be added to the collection with a count of 0;
-     * essentially, the incoming card gets its own new "slot" in the collection.
+     * Returns the collection cards whose value lies in a range, from the least
+     * valuable up, visiting only the cards in the range.
      *
-     * @param binder The binder where the trade occurs.
-     * @param incoming The card to be added, assumed to be outside the binder and collection
-     * @param outgoing The card to be removed.
-     * @return true if the trade was successful, false otherwise.
+     * @param min The lowest value, inclusive, or null for no lower bound.
+     * @param max The highest value, inclusive, or null for no upper bound.
+     * @return A list of the cards in the range.
      */
-    public boolean executeTrade(Binder binder, Card incoming, Card outgoing) {
-        // Validate the trade can occur
-        if (!binder.containsCard(outgoing)) {
-            return false;
-        }
-
-        incoming.setCount(0);
-        addCardToCollection(incoming);
-
-        if (!binder.addCard(incoming)) {
-            return false;
-        }
+    public List<Card> getCardsInValueRange(BigDecimal min, BigDecimal max) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_CARDS_IN_VALUE_RANGE)) {
+            List<Card> cards = new ArrayList<>();
 
-        binder.removeCard(outgoing);
-
-        if (shouldRemoveFromCollection(outgoing)) {
-            cardCollection.remove(outgoing);
+            collectionIndex.forEachInValueRange(lowCents(min), highCents(max), cards::add);
+            return cards;
         }
-
-        return true;
     }
     /**
-     * Checks if a card can be safely removed from the main collection.
-     * A card can only be removed if it's not the last copy in the system.
+     * Returns the most valuable cards in the collection, most valuable first.
      *
-     * @param card the card to check for removal
-     * @return true if the card can be removed (no other copies exist),
-     *         false if copies exist in collection/binders/decks
+     * @param count The most cards to return.
+     * @return A list of up to that many cards.
      */
-    private boolean shouldRemoveFromCollection(Card card) {
-        if (cardCollection.contains(card) && cardCollection.get(cardCollection.indexOf(card)).getCount() > 1) {
-            return false;
-        }
+    public List<Card> getMostValuableCards(int count) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_CARDS_BY_VALUE)) {
+            List<Card> cards = new ArrayList<>();
 
-        for (Binder b : binders.values()) {
-            if (b.containsCard(card)) {
-                return false;
-            }
+            collectionIndex.forEachByValue(count, true, cards::add);
+            return cards;
         }
+    }
+    /**
+     * Returns the least valuable cards in the collection, least valuable first.
+     *
+     * @param count The most cards to return.
+     * @return A list of up to that many cards.
+     */
+    public List<Card> getLeastValuableCards(int count) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_CARDS_BY_VALUE)) {
+            List<Card> cards = new ArrayList<>();
 
-        for (Deck d : decks.values()) {
-            if (d.containsCard(card)) {
-                return false;
-            }
+            collectionIndex.forEachByValue(count, false, cards::add);
+            return cards;
         }
-
-        return true;
     }
-
-
     /**
-     * Creates a new deck with the given name.
+     * Finds the collection card at a percentile of value: the least valuable
+     * card that at least that share of the cards are worth no more than. The
+     * 50th percentile is the median card.
      *
-     * @param name The name of the deck.
-     * @return true if the deck was created successfully, false otherwise.
+     * @param percentile The percentile, from 0 to 100.
+     * @return The card, or null if the collection is empty.
+     * @throws IllegalArgumentException if the percentile is out of range.
      */
-    public boolean createDeck(String name, DeckType type) {
-        if(decks.containsKey(name)) {
-            return false;
+    public Card getCardAtValuePercentile(double percentile) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_CARD_AT_VALUE_PERCENTILE)) {
+            return collectionIndex.getAtValuePercentile(percentile);
         }
+    }
+    /**
+     * Finds collection cards by the start of their name, ignoring case, for
+     * search as you type. Cards whose names start with the query come first,
+     * in name order; with fuzzy matching they are followed by cards whose names
+     * start one typo (a missing, wrong or extra character) away from it.
+     *
+     * @param query The start of the names to find.
+     * @param limit The most cards to return.
+     * @param fuzzy Whether to include names one typo away.
+     * @return A list of up to that many cards.
+     */
+    public List<Card> searchCards(String query, int limit, boolean fuzzy) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.SEARCH_CARDS)) {
+            List<Card> cards = new ArrayList<>();
 
-        switch(type) {
-            case DeckType.NORMAL -> decks.put(name, new NormalDeck(name));
-            case DeckType.SELLABLE -> decks.put(name, new SellableDeck(name));
+            collectionIndex.search(query, limit, fuzzy, cards::add);
+            return cards;
         }
-
-        return true;
     }
     /**
-     * Retrieves a deck by index
+     * Answers a query about the collection cards, reading them through the
+     * index that {@link QueryPlan} judges cheapest. Each card is tested as it
+     * is when the query reaches it, so cards changed meanwhile may or may not
+     * be seen changed.
      *
-     * @param index The index of the deck.
-     * @return The deck if found, null otherwise.
+     * @param query The query.
+     * @return The matching cards, ordered and limited as the query asks.
      */
-    public Deck getDeck(int index) {
-        if(index >= 0 && index < decks.size()) {
-            return decks.get(getDeckNames().get(index));
-        } else {
-            return null;
+    public List<Card> queryCards(CardQuery query) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.QUERY_CARDS)) {
+            return QueryPlan.of(query, collectionIndex).run(card -> holdsAsQueried(query, card));
         }
     }
     /**
-     * Retrieves a deck by name.
+     * Answers a query about the collection cards and projects each result,
+     * e.g. to its name.
      *
-     * @param name The name of the deck.
-     * @return The binder if found, null otherwise.
+     * @param query The query.
+     * @param projection What to take from each card.
+     * @param <T> The type of the projections.
+     * @return The projections of the matching cards, in the query's order.
      */
-    public Deck getDeck(String name) {
-        return decks.get(name);
+    public <T> List<T> queryCards(CardQuery query, Function<? super Card, ? extends T> projection) {
+        List<Card> cards = queryCards(query);
+        List<T> results = new ArrayList<>(cards.size());
+
+        for (Card card : cards) {
+            results.add(projection.apply(card));
+        }
+        return results;
     }
     /**
-     * Returns the list of all decks in the system.
+     * Explains how a query would be answered: which index it would read,
+     * how many cards that visits, what is checked and sorted afterwards, and
+     * the estimated cost of every way it could have been answered.
      *
-     * @return A list of decks
+     * @param query The query.
+     * @return The plan, one step per line.
      */
-    public List<Deck> getDecks() {
-        return new ArrayList<>(decks.values());
+    public String explainQuery(CardQuery query) {
+        return QueryPlan.of(query, collectionIndex).explain();
     }
     /**
-     * Returns a list of all deck names
+     * Tests a card against a query's binder and deck membership conditions.
+     */
+    private boolean holdsAsQueried(CardQuery query, Card card) {
+        try (Guard _ = lockCards(card)) {
+            return (query.getInBinder() == null || cardHolderIndex.isHeldIn(card, Binder.class) == query.getInBinder())
+                    && (query.getInDeck() == null || cardHolderIndex.isHeldIn(card, Deck.class) == query.getInDeck())
+                    && (query.getHolder() == null || cardHolderIndex.getCopies(card, query.getHolder()) > 0);
+        }
+    }
+    // Value bounds in cents, with a missing bound open ended
+    private static long lowCents(BigDecimal min) {
+        return (min != null) ? Money.toCents(min) : Long.MIN_VALUE;
+    }
+    private static long highCents(BigDecimal max) {
+        return (max != null) ? Money.toCents(max) : Long.MAX_VALUE;
+    }
+    /**
+     * Retrieves a card by its index in the collection.
      *
-     * @return A list of deck names
+     * @param index The index of the card.
+     * @return The card if found, null otherwise.
      */
-    public List<String> getDeckNames() {
-        return new ArrayList<>(decks.keySet());
+    public Card getCardFromCollection(int index) {
+        return cardStore.getOrNull(index);
     }
     /**
-     * Gets the total number of decks.
+     * Retrieves a card by name.
      *
-     * @return The number of decks
+     * @param name The name of the card.
+     * @return The card if found, null otherwise.
      */
-    public int getDeckCount() {
-        return decks.size();
+    public Card getCardFromCollection(String name){
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_CARD)) {
+            return cardStore.findByName(name);
+        }
     }
     /**
-     * Checks if a card already exists in the deck.
+     * Retrieves the collection's copy of a card equal to the given card.
      *
-     * @param deck The deck to check.
-     * @param card The card to look for.
-     * @return true if the card is already in the deck, false otherwise.
+     * @param card The card to look up.
+     * @return The matching card in the collection, or null if there is none.
      */
-    public boolean isDeckCardDupe(Deck deck, Card card) {
-        return deck.getCards().contains(card);
+    public Card findCollectionCard(Card card) {
+        return cardStore.find(card);
     }
     /**
-     * Deletes a deck and returns its cards to the collection.
+     * Appends a card that is not yet in the collection and indexes it.
      *
-     * @param deck The deck to delete.
-     * @return true if deletion was successful, false otherwise.
+     * @param card The card to insert.
+     * @return The collection's copy of the card, which keeps its count.
      */
-    public boolean deleteDeck(Deck deck) {
-        List<Card> cardsInDeck = new ArrayList<>(deck.getCards());
+    private Card insertIntoCollection(Card card) {
+        Card collectionCard = cardStore.add(card);
+        collectionIndex.add(collectionCard);
 
-        for(Card card : cardsInDeck) {
-            removeCardFromDeck(deck, card);
+        if (!listeners.isEmpty()) {
+            fire(new InventoryEvent.CardAdded(collectionCard));
         }
+        return collectionCard;
+    }
+    /**
+     * Adds a card to the collection, or adds its count to the collection's
+     * copy if there already is one.
+     *
+     * @param card The card to merge.
+     */
+    private void mergeIntoCollection(Card card) {
+        Card collectionCard = findCollectionCard(card);
+
+        if(collectionCard != null) {
+            setCollectionCount(collectionCard, collectionCard.getCount() + card.getCount());
+        } else {
+            insertIntoCollection(card);
+        }
+    }
+    /**
+     * Removes a card from the collection and from its indexes.
+     *
+     * @param card The card to remove.
+     * @return true if the card was in the collection, false otherwise.
+     */
+    private boolean removeFromCollection(Card card) {
+        // The index reads the card from the store, so it goes first
+        if (!collectionIndex.remove(card)) {
+            return false;
+        }
+        Card removed = cardStore.remove(card);
+        // A copy still in a binder or deck may come back, so only a card nothing holds is released
+        if (!cardHolderIndex.isHeld(removed)) {
+            cardStore.release(removed);
+        }
+        fire(new InventoryEvent.CardRemoved(removed));
+        return true;
+    }
+    /**
+     * Sets the free count of a collection card and reports the change.
+     *
+     * @param card The collection's copy of the card.
+     * @param count The new count.
+     */
+    private void setCollectionCount(Card card, int count) {
+        card.setCount(count);
+
+        if (!listeners.isEmpty()) {
+            fire(new InventoryEvent.CountChanged(card, count));
+        }
+    }
+    /**
+     * Creates a new binder with the given name.
+     *
+     * @param name The name of the binder.
+     * @return true if the binder was created successfully, false otherwise.
+     */
+    // Update createBinder to use subclass instances directly
+    public boolean createBinder(String name, BinderType type) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.CREATE_HOLDER, InventoryMetrics.Target.of(type))) {
+            long sequence;
+
+            try (Guard _ = lockExclusive()) {
+                if(binders.containsKey(name)) {
+                    return false;
+                }
+
+                Binder binder = switch(type) {
+                    case BinderType.BASIC -> new NonCuratedBinder(name);
+                    case BinderType.PAUPER -> new PauperBinder(name);
+                    case BinderType.RARES -> new RaresBinder(name);
+                    case BinderType.LUXURY -> new LuxuryBinder(name);
+                    case BinderType.COLLECTOR -> new CollectorBinder(name);
+                };
+                binders.put(name, binder);
+                binderOrder.add(binder);
+                fire(new InventoryEvent.HolderCreated(binder));
+
+                sequence = append(InventoryJournal.Operation.CREATE_BINDER, out -> {
+                    InventorySnapshot.writeString(out, name);
+                    out.writeByte(type.ordinal());
+                });
+            }
+
+            return commit(sequence);
+        }
+    }
+    /**
+     * Retrieves a binder by index.
+     *
+     * @param index The index of the binder.
+     * @return The binder if found, null otherwise.
+     */
+    public Binder getBinder(int index) {
+        try (Guard _ = lockShared()) {
+            if(index >= 0 && index < binderOrder.size()) {
+                return binderOrder.get(index);
+            } else {
+                return null;
+            }
+        }
+    }
+    /**
+     * Retrieves a binder by name.
+     *
+     * @param name The name of the binder.
+     * @return The binder if found, null otherwise.
+     */
+    public Binder getBinder(String name) {
+        try (Guard _ = lockShared()) {
+            return binders.get(name);
+        }
+    }
+    /**
+     * Returns the list of all binders in the system.
+     *
+     * @return A list of binders.
+     */
+    public List<Binder> getBinders() {
+        try (Guard _ = lockShared()) {
+            return new ArrayList<>(binders.values());
+        }
+    }
+    /**
+     * Passes each binder to an action, in creation order, without copying.
+     * Creating and removing binders waits until the walk is done, so the
+     * action must not change the model itself.
+     *
+     * @param action The action to run for each binder.
+     */
+    public void forEachBinder(Consumer<Binder> action) {
+        try (Guard _ = lockShared()) {
+            binders.values().forEach(action);
+        }
+    }
+    /**
+     * Returns a list of all binder names.
+     *
+     * @return A list of binder names.
+     */
+    public List<String> getBinderNames() {
+        try (Guard _ = lockShared()) {
+            return new ArrayList<>(binders.keySet());
+        }
+    }
+    /**
+     * Gets total number of binders.
+     *
+     * @return The number of binders.
+     */
+    public int getBinderCount() {
+        try (Guard _ = lockShared()) {
+            return binders.size();
+        }
+    }
+    /**
+     * Deletes a binder and returns its cards to the collection
+     *
+     * @param binder The binder to delete.
+     * @return true if deletion was successful, false otherwise.
+     */
+    public boolean deleteBinder(Binder binder) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.DELETE_HOLDER, binder)) {
+            long sequence;
+
+            try (Guard _ = lockExclusive()) {
+                // A sold, deleted or replaced binder must not hand its cards back
+                if (!isRegistered(binder)) {
+                    return false;
+                }
+
+                List<Card> binderCards = new ArrayList<>(binder.getCards());
+
+                for(Card card : binderCards) {
+                    takeFromHolder(binder, card);
+                }
+
+                binders.remove(binder.getName(), binder);
+                binderOrder.remove(binder);
+                fire(new InventoryEvent.HolderDeleted(binder));
+
+                sequence = appendHolder(InventoryJournal.Operation.DELETE_BINDER, binder);
+            }
+
+            return commit(sequence);
+        }
+    }
+    /**
+     * Adds a card to the specified binder if it is available in the collection.
+     *
+     * @param binder The binder to add card to.
+     * @return true if card was added successfully, false otherwise.
+     */
+    public boolean addCardToBinder(Binder binder, Card card) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.ADD_CARD_TO_HOLDER, binder)) {
+            long sequence;
+
+            try (Guard _ = lockHolder(binder, card)) {
+                // Existing count check
+                if (card.getCount() <= 0 || !isRegistered(binder)) {
+                    return false;
+                }
+
+                Card collectionCard = findCollectionCard(card);
+                if (collectionCard == null) {
+                    return false;
+                }
+
+                // Delegate validation to binder subclass
+                if (!putInHolder(binder, card)) {
+                    return false;
+                }
+
+                // Deduct from collection
+                setCollectionCount(collectionCard, collectionCard.getCount() - 1);
+                sequence = appendHolderCard(InventoryJournal.Operation.ADD_CARD_TO_BINDER, binder, card);
+            }
+
+            return commit(sequence);
+        }
+    }
+    /**
+     * Removes a card from the deck and returns it to the collection.
+     * Checks first if the collection has the card; if the collection does,
+     * then it increments the count of the card in the collection instead.
+     *
+     * @param binder The binder to remove the card from
+     * @param card The card to remove
+     * @return true if removal was successful, false otherwise
+     */
+    public boolean removeCardFromBinder(Binder binder, Card card) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.REMOVE_CARD_FROM_HOLDER, binder)) {
+            long sequence;
+
+            try (Guard _ = lockHolder(binder, card)) {
+                if (!isRegistered(binder) || !takeFromHolder(binder, card)) {
+                    return false;
+                }
+
+                sequence = appendHolderCard(InventoryJournal.Operation.REMOVE_CARD_FROM_BINDER, binder, card);
+            }
+
+            return commit(sequence);
+        }
+    }
+    /**
+     * Moves copies of many cards from the collection into a binder at once,
+     * all or nothing. The whole batch is checked first: every card must be
+     * in the collection with enough free copies, be accepted by the binder's
+     * {@link Binder#canAddCard}, and fit within {@link Binder#MAX_CARD_COUNT}.
+     *
+     * @param binder     The binder to fill.
+     * @param quantities The number of copies to move of each card.
+     * @return true if every card was added, false if nothing changed.
+     */
+    public boolean addCardsToBinder(Binder binder, Map<Card, Integer> quantities) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.ADD_CARDS_TO_HOLDER, binder)) {
+            return addCardsToHolder(binder, quantities, Binder.MAX_CARD_COUNT, false,
+                    InventoryJournal.Operation.ADD_CARDS_TO_BINDER);
+        }
+    }
+    /**
+     * Moves copies of many cards from a binder back to the collection at
+     * once, all or nothing: the binder must hold at least the given number
+     * of copies of every card.
+     *
+     * @param binder     The binder to take the cards from.
+     * @param quantities The number of copies to return of each card.
+     * @return true if every card was returned, false if nothing changed.
+     */
+    public boolean removeCardsFromBinder(Binder binder, Map<Card, Integer> quantities) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.REMOVE_CARDS_FROM_HOLDER, binder)) {
+            return removeCardsFromHolder(binder, quantities, InventoryJournal.Operation.REMOVE_CARDS_FROM_BINDER);
+        }
+    }
+    /**
+     * Executes a trade by swapping an outgoing card with an incoming card in the binder.
+     * The incoming card will also be added to the collection with a count of 0;
+     * essentially, the incoming card gets its own new "slot" in the collection.
+     *
+     * @param binder The binder where the trade occurs.
+     * @param incoming The card to be added, assumed to be outside the binder and collection
+     * @param outgoing The card to be removed.
+     * @return true if the trade was successful, false otherwise.
+     */
+    public boolean executeTrade(Binder binder, Card incoming, Card outgoing) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.TRADE, binder)) {
+            long sequence;
+            boolean traded;
+
+            try (Guard _ = lockHolder(binder, incoming, outgoing)) {
+                // Validate the trade can occur
+                if (!isRegistered(binder) || !binder.containsCard(outgoing)) {
+                    return false;
+                }
+
+                incoming.setCount(0);
+                mergeIntoCollection(incoming);
+
+                Card tradedIn = findCollectionCard(incoming);
+                traded = putInHolder(binder, tradedIn);
+                if (traded) {
+                    takeOutOfHolder(binder, outgoing);
+
+                    if (shouldRemoveFromCollection(outgoing)) {
+                        removeFromCollection(outgoing);
+                    }
+                }
+
+                // Journaled even if the binder refused the card, since the collection has changed
+                sequence = append(InventoryJournal.Operation.EXECUTE_TRADE, out -> {
+                    InventorySnapshot.writeString(out, binder.getName());
+                    InventoryJournal.writeCard(out, incoming);
+                    InventoryJournal.writeCard(out, outgoing);
+                });
+            }
+
+            commit(sequence);
+            return traded;
+        }
+    }
+    /**
+     * Checks if a card can be safely removed from the main collection.
+     * A card can only be removed if it's not the last copy in the system.
+     *
+     * @param card the card to check for removal
+     * @return true if the card can be removed (no other copies exist),
+     *         false if copies exist in collection/binders/decks
+     */
+    private boolean shouldRemoveFromCollection(Card card) {
+        Card collectionCard = findCollectionCard(card);
+        if (collectionCard != null && collectionCard.getCount() > 1) {
+            return false;
+        }
+
+        return !cardHolderIndex.isHeld(card);
+    }
+    /**
+     * Returns every binder and deck that currently holds a copy of the card.
+     *
+     * @param card The card to look up.
+     * @return A list of the holders containing the card, empty if none do.
+     */
+    public List<CardHolder> getHoldersOfCard(Card card) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.GET_HOLDERS_OF_CARD)) {
+            try (Guard _ = lockCards(card)) {
+                return cardHolderIndex.getHolders(card);
+            }
+        }
+    }
+    /**
+     * Checks if any binder or deck holds a copy of the card.
+     *
+     * @param card The card to check.
+     * @return true if the card is in at least one binder or deck, false otherwise.
+     */
+    public boolean isCardInAnyHolder(Card card) {
+        try (Guard _ = lockCards(card)) {
+            return cardHolderIndex.isHeld(card);
+        }
+    }
+
+
+    /**
+     * Creates a new deck with the given name.
+     *
+     * @param name The name of the deck.
+     * @return true if the deck was created successfully, false otherwise.
+     */
+    public boolean createDeck(String name, DeckType type) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.CREATE_HOLDER, InventoryMetrics.Target.of(type))) {
+            long sequence;
+
+            try (Guard _ = lockExclusive()) {
+                if(decks.containsKey(name)) {
+                    return false;
+                }
+
+                Deck deck = switch(type) {
+                    case DeckType.NORMAL -> new NormalDeck(name);
+                    case DeckType.SELLABLE -> new SellableDeck(name);
+                };
+                decks.put(name, deck);
+                deckOrder.add(deck);
+                fire(new InventoryEvent.HolderCreated(deck));
+
+                sequence = append(InventoryJournal.Operation.CREATE_DECK, out -> {
+                    InventorySnapshot.writeString(out, name);
+                    out.writeByte(type.ordinal());
+                });
+            }
+
+            return commit(sequence);
+        }
+    }
+    /**
+     * Retrieves a deck by index
+     *
+     * @param index The index of the deck.
+     * @return The deck if found, null otherwise.
+     */
+    public Deck getDeck(int index) {
+        try (Guard _ = lockShared()) {
+            if(index >= 0 && index < deckOrder.size()) {
+                return deckOrder.get(index);
+            } else {
+                return null;
+            }
+        }
+    }
+    /**
+     * Retrieves a deck by name.
+     *
+     * @param name The name of the deck.
+     * @return The binder if found, null otherwise.
+     */
+    public Deck getDeck(String name) {
+        try (Guard _ = lockShared()) {
+            return decks.get(name);
+        }
+    }
+    /**
+     * Returns the list of all decks in the system.
+     *
+     * @return A list of decks
+     */
+    public List<Deck> getDecks() {
+        try (Guard _ = lockShared()) {
+            return new ArrayList<>(decks.values());
+        }
+    }
+    /**
+     * Passes each deck to an action, in creation order, without copying.
+     * Creating and removing decks waits until the walk is done, so the
+     * action must not change the model itself.
+     *
+     * @param action The action to run for each deck.
+     */
+    public void forEachDeck(Consumer<Deck> action) {
+        try (Guard _ = lockShared()) {
+            decks.values().forEach(action);
+        }
+    }
+    /**
+     * Returns a list of all deck names
+     *
+     * @return A list of deck names
+     */
+    public List<String> getDeckNames() {
+        try (Guard _ = lockShared()) {
+            return new ArrayList<>(decks.keySet());
+        }
+    }
+    /**
+     * Gets the total number of decks.
+     *
+     * @return The number of decks
+     */
+    public int getDeckCount() {
+        try (Guard _ = lockShared()) {
+            return decks.size();
+        }
+    }
+    /**
+     * Checks if a card already exists in the deck.
+     *
+     * @param deck The deck to check.
+     * @param card The card to look for.
+     * @return true if the card is already in the deck, false otherwise.
+     */
+    public boolean isDeckCardDupe(Deck deck, Card card) {
+        try (Guard _ = lockCards(card)) {
+            return cardHolderIndex.getCopies(card, deck) > 0;
+        }
+    }
+    /**
+     * Deletes a deck and returns its cards to the collection.
+     *
+     * @param deck The deck to delete.
+     * @return true if deletion was successful, false otherwise.
+     */
+    public boolean deleteDeck(Deck deck) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.DELETE_HOLDER, deck)) {
+            long sequence;
+
+            try (Guard _ = lockExclusive()) {
+                // A sold, deleted or replaced deck must not hand its cards back
+                if (!isRegistered(deck)) {
+                    return false;
+                }
+
+                List<Card> cardsInDeck = new ArrayList<>(deck.getCards());
+
+                for(Card card : cardsInDeck) {
+                    takeFromHolder(deck, card);
+                }
+
+                decks.remove(deck.getName(), deck);
+                deckOrder.remove(deck);
+                fire(new InventoryEvent.HolderDeleted(deck));
+
+                sequence = appendHolder(InventoryJournal.Operation.DELETE_DECK, deck);
+            }
+
+            return commit(sequence);
+        }
+    }
+    /**
+     * Adds a card to the specified deck if it is not already present
+     * and if it is available in the collection.
+     *
+     * @param deck The deck to add the card to.
+     * @param card The card to add.
+     * @return true if the card was added successfully, false otherwise.
+     */
+    public boolean addCardToDeck(Deck deck, Card card) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.ADD_CARD_TO_HOLDER, deck)) {
+            long sequence;
+
+            try (Guard _ = lockHolder(deck, card)) {
+                if(card.getCount() <= 0 || !isRegistered(deck)) {
+                    return false;
+                }
+
+                if(isDeckCardDupe(deck, card)) {
+                    return false;
+                }
+
+                Card collectionCard = findCollectionCard(card);
+                if(collectionCard == null || !putInHolder(deck, card)) {
+                    return false;
+                }
+
+                setCollectionCount(collectionCard, collectionCard.getCount() - 1);
+
+                sequence = appendHolderCard(InventoryJournal.Operation.ADD_CARD_TO_DECK, deck, card);
+            }
+
+            return commit(sequence);
+        }
+    }
+    /**
+     * Removes a card from the deck and returns it to the collection.
+     * Checks first if the collection has the card; if the collection does,
+     * then it increments the count of the card in the collection instead.
+     *
+     * @param deck The deck to remove the card from.
+     * @param card The card to remove.
+     * @return true if removal was successful, false otherwise
+     */
+    public boolean removeCardFromDeck(Deck deck, Card card) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.REMOVE_CARD_FROM_HOLDER, deck)) {
+            long sequence;
+
+            try (Guard _ = lockHolder(deck, card)) {
+                if (!isRegistered(deck) || !takeFromHolder(deck, card)) {
+                    return false;
+                }
+
+                sequence = appendHolderCard(InventoryJournal.Operation.REMOVE_CARD_FROM_DECK, deck, card);
+            }
 
-        return decks.remove(deck.getName()) != null;
+            return commit(sequence);
+        }
     }
     /**
-     * Adds a card to the specified deck if it is not already present
-     * and if it is available in the collection.
+     * Moves many cards from the collection into a deck at once, all or
+     * nothing. As with {@link #addCardToDeck}, a deck takes one copy of each
+     * card, so every quantity must be one, no card may already be in the
+     * deck, and the deck must not go over {@link Deck#MAX_CARD_COUNT}.
      *
-     * @param deck The deck to add the card to.
-     * @param card The card to add.
-     * @return true if the card was added successfully, false otherwise.
+     * @param deck       The deck to fill.
+     * @param quantities The number of copies to move of each card.
+     * @return true if every card was added, false if nothing changed.
      */
-    public boolean addCardToDeck(Deck deck, Card card) {
-        if(card.getCount() <= 0) {
+    public boolean addCardsToDeck(Deck deck, Map<Card, Integer> quantities) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.ADD_CARDS_TO_HOLDER, deck)) {
+            return addCardsToHolder(deck, quantities, Deck.MAX_CARD_COUNT, true,
+                    InventoryJournal.Operation.ADD_CARDS_TO_DECK);
+        }
+    }
+    /**
+     * Moves many cards from a deck back to the collection at once, all or nothing.
+     *
+     * @param deck       The deck to take the cards from.
+     * @param quantities The number of copies to return of each card.
+     * @return true if every card was returned, false if nothing changed.
+     */
+    public boolean removeCardsFromDeck(Deck deck, Map<Card, Integer> quantities) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.REMOVE_CARDS_FROM_HOLDER, deck)) {
+            return removeCardsFromHolder(deck, quantities, InventoryJournal.Operation.REMOVE_CARDS_FROM_DECK);
+        }
+    }
+    /**
+     * Validates a whole batch of cards for a binder or deck in one pass, then
+     * moves them from the collection, looking each distinct card up once.
+     *
+     * @param holder     The binder or deck to fill.
+     * @param batch      The number of copies to move of each card.
+     * @param capacity   The most cards the holder may hold.
+     * @param unique     Whether the holder takes at most one copy of a card.
+     * @param operation  The journal record for the batch.
+     * @return true if every card was added, false if nothing changed.
+     */
+    private boolean addCardsToHolder(CardHolder holder, Map<Card, Integer> batch, int capacity, boolean unique,
+                                     InventoryJournal.Operation operation) {
+        Map<Card, Integer> quantities = foldBatch(batch);
+        if (quantities == null) {
             return false;
         }
 
-        if(isDeckCardDupe(deck, card)) {
+        long sequence;
+
+        try (Guard _ = lockHolder(holder, quantities.keySet().toArray(Card[]::new))) {
+            if (!isRegistered(holder)) {
+                return false;
+            }
+
+            List<Card> collectionCards = collectionCopies(quantities);
+            if (collectionCards == null) {
+                return false;
+            }
+
+            long total = holder.getCardsCount();
+            int i = 0;
+            for (Map.Entry<Card, Integer> entry : quantities.entrySet()) {
+                Card collectionCard = collectionCards.get(i++);
+                int quantity = entry.getValue();
+                total += quantity;
+
+                if (total > capacity || !holder.canAddCard(collectionCard)
+                        || (unique && (quantity > 1 || cardHolderIndex.getCopies(collectionCard, holder) > 0))) {
+                    return false;
+                }
+            }
+
+            i = 0;
+            for (int quantity : quantities.values()) {
+                Card collectionCard = collectionCards.get(i++);
+
+                for (int copy = 0; copy < quantity; copy++) {
+                    holder.addCard(collectionCard);
+                    fire(new InventoryEvent.HolderCardAdded(holder, collectionCard));
+                }
+                cardHolderIndex.add(collectionCard, holder, quantity);
+                setCollectionCount(collectionCard, collectionCard.getCount() - quantity);
+            }
+
+            sequence = appendCards(operation, holder, quantities);
+        }
+
+        return commit(sequence);
+    }
+    /**
+     * Validates a whole batch of cards against a binder or deck, then returns
+     * them to the collection, looking each distinct card up once.
+     *
+     * @param holder     The binder or deck to take the cards from.
+     * @param batch      The number of copies to return of each card.
+     * @param operation  The journal record for the batch.
+     * @return true if every card was returned, false if nothing changed.
+     */
+    private boolean removeCardsFromHolder(CardHolder holder, Map<Card, Integer> batch,
+                                          InventoryJournal.Operation operation) {
+        Map<Card, Integer> quantities = foldBatch(batch);
+        if (quantities == null) {
             return false;
         }
 
-        getCardFromCollection(card.getName()).setCount
-                (getCardFromCollection(card.getName()).getCount() - 1);
-        deck.addCard(card);
+        long sequence;
 
-        return true;
+        try (Guard _ = lockHolder(holder, quantities.keySet().toArray(Card[]::new))) {
+            if (!isRegistered(holder)) {
+                return false;
+            }
+
+            for (Map.Entry<Card, Integer> entry : quantities.entrySet()) {
+                int quantity = entry.getValue();
+
+                if (quantity <= 0 || cardHolderIndex.getCopies(entry.getKey(), holder) < quantity) {
+                    return false;
+                }
+            }
+
+            for (Map.Entry<Card, Integer> entry : quantities.entrySet()) {
+                int quantity = entry.getValue();
+                Card held = null;
+
+                for (int copy = 0; copy < quantity; copy++) {
+                    held = holder.takeCard(entry.getKey());
+                    fire(new InventoryEvent.HolderCardRemoved(holder, held));
+                }
+                cardHolderIndex.remove(held, holder, quantity);
+                returnToCollection(held, quantity);
+            }
+
+            sequence = appendCards(operation, holder, quantities);
+        }
+
+        return commit(sequence);
     }
     /**
-     * Removes a card from the deck and returns it to the collection.
-     * Checks first if the collection has the card; if the collection does,
-     * then it increments the count of the card in the collection instead.
+     * Folds a batch so that each distinct card appears in it once. Cards are
+     * equal ignoring the case of their names but do not hash that way, so a
+     * batch map can hold the same card more than once; validating each entry
+     * on its own would then let the batch take more copies than there are.
      *
-     * @param deck The deck to remove the card from.
+     * @param batch The number of copies of each card, as given.
+     * @return The summed number of copies of each distinct card, keyed by the
+     *         card it first appeared as, in batch order, or null if any
+     *         quantity is below one or a sum overflows.
+     */
+    private static Map<Card, Integer> foldBatch(Map<Card, Integer> batch) {
+        Map<CardKey, Card> cards = HashMap.newHashMap(batch.size());
+        Map<Card, Integer> quantities = LinkedHashMap.newLinkedHashMap(batch.size());
+
+        for (Map.Entry<Card, Integer> entry : batch.entrySet()) {
+            int quantity = entry.getValue();
+            if (quantity <= 0) {
+                return null;
+            }
+
+            Card card = cards.computeIfAbsent(CardKey.of(entry.getKey()), _ -> entry.getKey());
+            long total = (long) quantities.getOrDefault(card, 0) + quantity;
+            if (total > Integer.MAX_VALUE) {
+                return null;
+            }
+            quantities.put(card, (int) total);
+        }
+        return quantities;
+    }
+    /**
+     * Looks up the collection's copy of every card in a batch and checks that
+     * it has enough free copies.
+     *
+     * @param quantities The number of copies wanted of each card.
+     * @return The collection's copies in the batch's order, or null if any
+     *         card is missing, short of copies, or has a quantity below one.
+     */
+    private List<Card> collectionCopies(Map<Card, Integer> quantities) {
+        List<Card> collectionCards = new ArrayList<>(quantities.size());
+
+        for (Map.Entry<Card, Integer> entry : quantities.entrySet()) {
+            Card collectionCard = findCollectionCard(entry.getKey());
+            int quantity = entry.getValue();
+
+            if (quantity <= 0 || collectionCard == null || collectionCard.getCount() < quantity) {
+                return null;
+            }
+            collectionCards.add(collectionCard);
+        }
+        return collectionCards;
+    }
+    /**
+     * Takes one copy of a card out of a binder or deck and returns it to the
+     * collection, without journaling the change.
+     *
+     * @param holder The binder or deck to remove the card from.
      * @param card The card to remove.
      * @return true if removal was successful, false otherwise
      */
-    public boolean removeCardFromDeck(Deck deck, Card card) {
-        // First check if the deck actually contains the card
-        if (!deck.getCards().contains(card)) {
+    private boolean takeFromHolder(CardHolder holder, Card card) {
+        // First check if the holder actually contains the card
+        if (!holder.containsCard(card)) {
             return false;
         }
 
-        // Remove from deck
-        boolean removedFromDeck = deck.removeCard(card);
-        if (!removedFromDeck) {
+        // Remove from holder
+        if (takeOutOfHolder(holder, card) == null) {
             return false;
         }
 
         // Add to collection or increment count
         try {
-            if (cardCollection.contains(card)) {
-                int index = cardCollection.indexOf(card);
-                Card collectionCard = cardCollection.get(index);
-
-                collectionCard.setCount(collectionCard.getCount() + 1);
-            } else {
-                card.setCount(1);
-                cardCollection.add(card);
-            }
+            returnToCollection(card);
             return true;
         } catch (Exception e) {
             // If any error occurs during collection update, return false
             return false;
         }
     }
+    /**
+     * Puts one copy of a card into a binder or deck, if the holder accepts it,
+     * and records it in the holder index.
+     *
+     * @param holder The binder or deck.
+     * @param card The card to put in.
+     * @return true if the holder accepted the card, false otherwise.
+     */
+    private boolean putInHolder(CardHolder holder, Card card) {
+        if (!holder.addCard(card)) {
+            return false;
+        }
+
+        cardHolderIndex.add(card, holder);
+        fire(new InventoryEvent.HolderCardAdded(holder, card));
+        return true;
+    }
+    /**
+     * Takes one copy of a card out of a binder or deck and out of the holder
+     * index, without returning it to the collection.
+     *
+     * @param holder The binder or deck.
+     * @param card The card to take out.
+     * @return The holder's own copy of the card, or null if it had none.
+     */
+    private Card takeOutOfHolder(CardHolder holder, Card card) {
+        Card held = holder.takeCard(card);
+
+        if (held != null) {
+            cardHolderIndex.remove(held, holder);
+            fire(new InventoryEvent.HolderCardRemoved(holder, held));
+        }
+        return held;
+    }
+    /**
+     * Returns one copy of a card taken out of a binder or deck to the collection.
+     * Increments the count of the collection's copy, or re-adds the card with
+     * a count of one if the collection no longer has it.
+     *
+     * @param card The card being returned.
+     */
+    private void returnToCollection(Card card) {
+        returnToCollection(card, 1);
+    }
+    /**
+     * Returns copies of a card taken out of a binder or deck to the collection.
+     *
+     * @param card The card being returned.
+     * @param copies The number of copies being returned.
+     */
+    private void returnToCollection(Card card, int copies) {
+        Card collectionCard = findCollectionCard(card);
+
+        if (collectionCard != null) {
+            setCollectionCount(collectionCard, collectionCard.getCount() + copies);
+        } else {
+            card.setCount(copies);
+            insertIntoCollection(card);
+        }
+    }
     /**
      * Gets the collector's current money (for future GUI use)
      * @return current money amount
      */
     public BigDecimal getCollectorMoney() {
-        return collectorMoney;
+        return Money.toBigDecimal(collectorMoneyCents.get());
+    }
+    /**
+     * Gets the collector's current money in cents
+     * @return current money amount in cents
+     */
+    public long getCollectorMoneyCents() {
+        return collectorMoneyCents.get();
     }
     /**
      * Adds money to collector's balance
-     * @param amount amount to add (must be positive)
+     * @param cents amount to add in cents (must be positive)
      */
-    private void addMoney(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) > 0) {
-            collectorMoney = collectorMoney.add(amount);
+    private void addMoney(long cents) {
+        if (cents > 0) {
+            fire(new InventoryEvent.MoneyChanged(collectorMoneyCents.accumulateAndGet(cents, Math::addExact)));
         }
     }
     /**
@@ -503,22 +1504,30 @@ public class TradingCardInventorySystemModel {
      * @return true if sale was successful
      */
     public boolean sellCard(Card card) {
-        if (cardCollection.contains(card)) {
-            Card collectionCard = cardCollection.get(cardCollection.indexOf(card));
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.SELL_CARD)) {
+            long sequence = FAILED;
 
-            if (collectionCard.getCount() > 0) {
-                addMoney(collectionCard.getValue()); // Add card value to collector's money
-                collectionCard.setCount(collectionCard.getCount() - 1);
+            try (Guard _ = lockCards(card)) {
+                Card collectionCard = findCollectionCard(card);
 
-                if (collectionCard.getCount() == 0) {
-                    cardCollection.remove(collectionCard);
-                }
+                if (collectionCard != null) {
+                    if (collectionCard.getCount() > 0) {
+                        addMoney(collectionCard.getValueCents()); // Add card value to collector's money
+                        setCollectionCount(collectionCard, collectionCard.getCount() - 1);
+                        fire(new InventoryEvent.CardSold(collectionCard, collectionCard.getValueCents()));
+
+                        if (collectionCard.getCount() == 0) {
+                            removeFromCollection(collectionCard);
+                        }
 
-                return true;
+                        sequence = append(InventoryJournal.Operation.SELL_CARD,
+                                out -> InventoryJournal.writeCard(out, collectionCard));
+                    }
+                }
             }
-        }
 
-        return false;
+            return commit(sequence);
+        }
     }
     /**
      * Checks if a card can be sold (has at least one copy).
@@ -543,16 +1552,50 @@ public class TradingCardInventorySystemModel {
      * @return true if sale was successful
      */
     public boolean sellBinder(Binder binder) {
-        if (!(binder instanceof SellableBinder)) {
-            return false;
-        }
+        return sellBinder(binder, null);
+    }
 
-        BigDecimal price = ((SellableBinder) binder).calculateValue();
-        collectorMoney = collectorMoney.add(price);
+    /**
+     * Sells a binder, a luxury binder at a custom price if one is given. The
+     * price is set under the same lock as the sale, so it is journaled with
+     * it and no other change to the binder comes between them.
+     *
+     * @param binder      the binder to sell
+     * @param customPrice the price for a luxury binder, or null to sell at its own
+     * @return true if sale was successful, false if the binder cannot be sold
+     *         or the custom price is refused
+     */
+    public boolean sellBinder(Binder binder, BigDecimal customPrice) {
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.SELL_HOLDER, binder)) {
+            long sequence;
 
-        binders.remove(binder.getName());
+            try (Guard _ = lockExclusive()) {
+                if (!(binder instanceof SellableBinder) || !isRegistered(binder)) {
+                    return false;
+                }
+                if (customPrice != null
+                        && !(binder instanceof LuxuryBinder luxury && luxury.setCustomPrice(customPrice))) {
+                    return false;
+                }
 
-        return true;
+                long price = ((SellableBinder) binder).calculateValueCents();
+                addMoney(price);
+
+                binders.remove(binder.getName());
+                binderOrder.remove(binder);
+                cardHolderIndex.removeHolder(binder);
+                fire(new InventoryEvent.HolderSold(binder, price));
+
+                // The custom price is part of the sale, so replay sells at the same price
+                BigDecimal soldAt = (binder instanceof LuxuryBinder luxury) ? luxury.getCustomPrice() : null;
+                sequence = append(InventoryJournal.Operation.SELL_BINDER, out -> {
+                    InventorySnapshot.writeString(out, binder.getName());
+                    out.writeLong((soldAt != null) ? Money.toCents(soldAt) : -1);
+                });
+            }
+
+            return commit(sequence);
+        }
     }
     /**
      * Sells a deck and updates the collector's money.
@@ -563,14 +1606,27 @@ public class TradingCardInventorySystemModel {
      * @throws ClassCastException if deck is not a SellableDeck
      */
     public boolean sellDeck(Deck deck) {
-        if (!deck.isSellable() || ((SellableDeck) deck).calculateValue().compareTo(BigDecimal.ZERO) <= 0) return false;
+        try (InventoryMetrics.Timing _ = time(InventoryMetrics.Operation.SELL_HOLDER, deck)) {
+            long sequence;
+
+            try (Guard _ = lockExclusive()) {
+                if (!deck.isSellable() || ((SellableDeck) deck).calculateValueCents() <= 0 || !isRegistered(deck)) {
+                    return false;
+                }
 
-        BigDecimal value = ((SellableDeck)deck).calculateValue();
-        collectorMoney = collectorMoney.add(value);
+                long value = ((SellableDeck)deck).calculateValueCents();
+                addMoney(value);
 
-        decks.remove(deck.getName());
+                decks.remove(deck.getName());
+                deckOrder.remove(deck);
+                cardHolderIndex.removeHolder(deck);
+                fire(new InventoryEvent.HolderSold(deck, value));
 
-        return true;
+                sequence = appendHolder(InventoryJournal.Operation.SELL_DECK, deck);
+            }
+
+            return commit(sequence);
+        }
     }
     /**
      * Checks if a deck can be sold.
@@ -582,4 +1638,316 @@ public class TradingCardInventorySystemModel {
     public boolean isSellableDeck(Deck deck) {
         return deck.isSellable() && !deck.getCards().isEmpty();
     }
+    /**
+     * Returns the store that keeps the card collection.
+     *
+     * @return the card store
+     */
+    CardStore getCardStore() {
+        return cardStore;
+    }
+    /**
+     * Attaches a write-ahead journal. From then on every successful mutation
+     * appends a record and waits for it to be durable before returning.
+     *
+     * @param journal          the journal to append to
+     * @param compactionBytes  journal size after which compaction runs
+     * @param compaction       compacts the journal, e.g. by taking a snapshot
+     */
+    void attachJournal(InventoryJournal journal, long compactionBytes, Runnable compaction) {
+        this.journal = journal;
+        this.journalCompactionBytes = compactionBytes;
+        this.journalCompaction = compaction;
+    }
+    /**
+     * Detaches the journal, if any.
+     */
+    void detachJournal() {
+        this.journal = null;
+        this.journalCompaction = null;
+    }
+    /**
+     * Appends a record for a completed mutation without waiting for it to be
+     * durable, then delivers the events the mutation held back.
+     *
+     * @param operation the kind of mutation
+     * @param body      writes the record payload
+     * @return the sequence number of the record, or 0 if no journal is attached
+     */
+    private long append(InventoryJournal.Operation operation, InventoryJournal.RecordBody body) {
+        InventoryJournal journal = this.journal;
+        long sequence = (journal != null) ? journal.append(operation, body) : 0;
+
+        List<InventoryEvent> pending = pendingEvents.get();
+        if (pending != null) {
+            for (InventoryEvent event : pending) {
+                deliver(event);
+            }
+            pending.clear();
+        }
+        return sequence;
+    }
+    /**
+     * Waits until the journal holds every record up to the given sequence
+     * number, then compacts the journal if it has grown past its threshold.
+     *
+     * @param sequence the last sequence number to wait for, or {@link #FAILED}
+     *                 if the operation made no change
+     * @return false if the operation failed, true otherwise
+     */
+    private boolean commit(long sequence) {
+        InventoryJournal journal = this.journal;
+
+        if (sequence == FAILED) {
+            return false;
+        } else if (journal == null || sequence == 0) {
+            return true;
+        }
+
+        try {
+            journal.commit(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the inventory journal.", e);
+        }
+
+        Runnable compaction = journalCompaction;
+        if (compaction != null && journal.size() >= journalCompactionBytes) {
+            compaction.run();
+        }
+
+        return true;
+    }
+    /**
+     * Starts timing an operation on the collection, if metrics are recorded.
+     */
+    private InventoryMetrics.Timing time(InventoryMetrics.Operation operation) {
+        return time(operation, InventoryMetrics.Target.COLLECTION);
+    }
+    /**
+     * Starts timing an operation on a binder or deck, if metrics are recorded.
+     */
+    private InventoryMetrics.Timing time(InventoryMetrics.Operation operation, CardHolder holder) {
+        InventoryMetrics metrics = this.metrics;
+
+        return (metrics != null) ? metrics.start(operation, InventoryMetrics.Target.of(holder))
+                : InventoryMetrics.Timing.NONE;
+    }
+    /**
+     * Starts timing an operation, if metrics are recorded.
+     */
+    private InventoryMetrics.Timing time(InventoryMetrics.Operation operation, InventoryMetrics.Target target) {
+        InventoryMetrics metrics = this.metrics;
+
+        return (metrics != null) ? metrics.start(operation, target) : InventoryMetrics.Timing.NONE;
+    }
+    /**
+     * Reports a change to the listeners. Under the model's locks the event is
+     * held back until the change is appended to the journal; changes made
+     * without the locks, i.e. while restoring, are reported at once.
+     */
+    private void fire(InventoryEvent event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        List<InventoryEvent> pending = pendingEvents.get();
+        if (pending != null) {
+            pending.add(event);
+        } else {
+            deliver(event);
+        }
+    }
+    /**
+     * Delivers an event to every listener. A failing listener is reported to
+     * the thread's uncaught exception handler rather than to the caller, since
+     * the change it describes has already been made.
+     */
+    private void deliver(InventoryEvent event) {
+        for (InventoryListener listener : listeners) {
+            try {
+                listener.inventoryChanged(event);
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+    /**
+     * Appends a record for a mutation of a whole binder or deck.
+     */
+    private long appendHolder(InventoryJournal.Operation operation, CardHolder holder) {
+        return append(operation, out -> InventorySnapshot.writeString(out, holder.getName()));
+    }
+    /**
+     * Appends a record for a card moving into or out of a binder or deck.
+     */
+    private long appendHolderCard(InventoryJournal.Operation operation, CardHolder holder, Card card) {
+        return append(operation, out -> {
+            InventorySnapshot.writeString(out, holder.getName());
+            InventoryJournal.writeCard(out, card);
+        });
+    }
+    /**
+     * Appends a record for a batch of cards, each with a quantity, optionally
+     * moving into or out of a binder or deck.
+     */
+    private long appendCards(InventoryJournal.Operation operation, CardHolder holder, Map<Card, Integer> quantities) {
+        return append(operation, out -> {
+            if (holder != null) {
+                InventorySnapshot.writeString(out, holder.getName());
+            }
+            out.writeInt(quantities.size());
+            for (Map.Entry<Card, Integer> entry : quantities.entrySet()) {
+                InventoryJournal.writeCard(out, entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        });
+    }
+    /**
+     * Returns the lock that excludes every other operation on the model,
+     * e.g. while a snapshot of it is written.
+     *
+     * @return the model's exclusive lock
+     */
+    Lock exclusiveLock() {
+        return registryLock.writeLock();
+    }
+    /**
+     * Checks that a binder or deck still belongs to the model, i.e. was not
+     * deleted or sold by another thread since the caller looked it up.
+     */
+    private boolean isRegistered(CardHolder holder) {
+        return binders.get(holder.getName()) == holder || decks.get(holder.getName()) == holder;
+    }
+    /**
+     * Locks the binder and deck registry for reading.
+     */
+    private Guard lockShared() {
+        return new Guard(registryLock.readLock());
+    }
+    /**
+     * Locks the whole model, for operations that create, delete or sell
+     * binders and decks.
+     */
+    private Guard lockExclusive() {
+        return new Guard(registryLock.writeLock());
+    }
+    /**
+     * Locks the registry for reading and the stripes of the given cards.
+     */
+    private Guard lockCards(Card... cards) {
+        return lock(null, cards);
+    }
+    /**
+     * Locks the registry for reading, the stripe of a binder or deck and the
+     * stripes of the given cards.
+     */
+    private Guard lockHolder(CardHolder holder, Card... cards) {
+        return lock(holder, cards);
+    }
+    /**
+     * Takes locks in the model's lock order: registry, holder stripe, then
+     * card stripes by ascending index. Cards that share a stripe lock it once.
+     */
+    private Guard lock(CardHolder holder, Card[] cards) {
+        int[] stripes = new int[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            stripes[i] = CardIndex.spread(CardIndex.keyHash(cards[i])) & (LOCK_STRIPES - 1);
+        }
+        Arrays.sort(stripes);
+
+        Lock[] locks = new Lock[cards.length + 2];
+        int count = 0;
+        locks[count++] = registryLock.readLock();
+        if (holder != null) {
+            locks[count++] = holderStripes[CardIndex.spread(System.identityHashCode(holder)) & (LOCK_STRIPES - 1)];
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                locks[count++] = cardStripes[stripes[i]];
+            }
+        }
+
+        return new Guard(Arrays.copyOf(locks, count));
+    }
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+    /**
+     * Appends a card to the collection while restoring a saved inventory.
+     * The card must not already be in the collection.
+     *
+     * @param card the card to restore
+     * @return the collection's copy of the card, to be shared with binders and decks
+     */
+    Card restoreCollectionCard(Card card) {
+        return insertIntoCollection(card);
+    }
+    /**
+     * Puts a card into a binder or deck while restoring a saved inventory,
+     * without touching collection counts.
+     *
+     * @param holder the binder or deck being restored
+     * @param card   the card it holds
+     * @return true if the holder accepted the card
+     */
+    boolean restoreHolderCard(CardHolder holder, Card card) {
+        return putInHolder(holder, card);
+    }
+    /**
+     * Sets the collector's money while restoring a saved inventory.
+     *
+     * @param cents the saved balance in cents
+     */
+    void restoreCollectorMoney(long cents) {
+        collectorMoneyCents.set(cents);
+        fire(new InventoryEvent.MoneyChanged(cents));
+    }
+
+    /**
+     * A set of held locks, released in reverse order by try-with-resources.
+     * While the outermost guard of a thread is held, the thread's events are
+     * held back for {@link #append}; any still pending when it closes belong
+     * to a change that was never journaled and are dropped.
+     */
+    private final class Guard implements AutoCloseable {
+        private final Lock[] locks;
+        private int held;
+        private boolean deferring;
+
+        Guard(Lock... locks) {
+            this.locks = locks;
+
+            try {
+                for (Lock lock : locks) {
+                    lock.lock();
+                    held++;
+                }
+            } catch (RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+
+            if (!listeners.isEmpty() && pendingEvents.get() == null) {
+                pendingEvents.set(new ArrayList<>());
+                deferring = true;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (deferring) {
+                pendingEvents.remove();
+                deferring = false;
+            }
+            while (held > 0) {
+                locks[--held].unlock();
+            }
+        }
+    }
 }
\ No newline at end of file
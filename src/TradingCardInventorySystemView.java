@@ -1,31 +1,51 @@
 import javax.swing.*;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.plaf.basic.ComboPopup;
 import java.awt.*;
 import java.awt.event.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * The view component of the Trading Card Inventory System.
  * Handles all user interface interactions, such as prompting inputs,
  * displaying menus and collections, and confirming actions.
+ * <p>
+ * The view is seeded once with {@link #showInventory} and then listens to the
+ * model, applying each {@link InventoryEvent} to its list models on the event
+ * dispatch thread, so menus show the current inventory without being rebuilt.
  */
-public class TradingCardInventorySystemView {
-    private final Scanner sc;
+public class TradingCardInventorySystemView implements InventoryListener {
+    // Sizes every card row, so Swing never measures the rows of a large collection one by one
+    private static final Card PROTOTYPE_CARD = new Card("Wwwwwwwwwwwwwwwwwwwwwwwwwwwwww", CardRarity.LEGENDARY,
+            CardVariant.NORMAL, new BigDecimal("99999.99"), 9999);
+
     private final JFrame mainFrame;
     private final JLabel menuTitle;
     private final JButton returnButton;
     private final JPanel contentPanel;
     private final CardLayout contentPanelLayout;
+    // Menus other than the main menu are built the first time they are shown
+    private final Set<String> builtPanels = new HashSet<>();
+    private ActionListener actionListener;
+    private DocumentListener documentListener;
+    private boolean windowOpened;
+    private Runnable shownAction;
 
     // Main Menu panel
     private final JPanel mainMenuPanel;
     private final JLabel collectorMoneyLabel;
     private final JButton addCardButton;
+    private final JButton importCardsButton;
     private final JButton manageBindersButton;
     private final JButton manageDecksButton;
     private final JButton adjustCardCountButton;
@@ -34,36 +54,39 @@ public class TradingCardInventorySystemView {
     private final JButton sellCardButton;
 
     // Add Card panel
-    private final JPanel addCardPanel;
-    private final JLabel nameFieldLabel;
-    private final JTextField nameField;
-    private final JLabel selectRarityLabel;
-    private final JPanel rarityButtonsPanel;
-    private final ButtonGroup rarityButtons;
-    private final JToggleButton commonButton;
-    private final JToggleButton uncommonButton;
-    private final JToggleButton rareButton;
-    private final JToggleButton legendaryButton;
-    private final JLabel selectVariantLabel;
-    private final JPanel variantButtonsPanel;
-    private final ButtonGroup variantButtons;
-    private final JToggleButton normalButton;
-    private final JToggleButton extendedArtButton;
-    private final JToggleButton fullArtButton;
-    private final JToggleButton altArtButton;
-    private final JLabel valueFieldLabel;
-    private final JTextField valueField;
-    private final JButton confirmAddCardButton;
+    private JPanel addCardPanel;
+    private JLabel nameFieldLabel;
+    private JTextField nameField;
+    private JLabel selectRarityLabel;
+    private JPanel rarityButtonsPanel;
+    private ButtonGroup rarityButtons;
+    private JToggleButton commonButton;
+    private JToggleButton uncommonButton;
+    private JToggleButton rareButton;
+    private JToggleButton legendaryButton;
+    private JLabel selectVariantLabel;
+    private JPanel variantButtonsPanel;
+    private ButtonGroup variantButtons;
+    private JToggleButton normalButton;
+    private JToggleButton extendedArtButton;
+    private JToggleButton fullArtButton;
+    private JToggleButton altArtButton;
+    private JLabel valueFieldLabel;
+    private JTextField valueField;
+    private JButton confirmAddCardButton;
 
     // Manage Binders Panel
     private JPanel manageBindersPanel;
-    private JList<String> bindersList;
+    private final DefaultListModel<Binder> binders = new DefaultListModel<>();
+    private JList<Binder> bindersList;
     private JButton selectBinderButton;
     private JButton createBinderButton;
 
     // Single Binder Panel
     private JPanel singleBinderPanel;
+    private final DefaultListModel<Card> binderCards = new DefaultListModel<>();
     private JList<Card> binderCardsList;
+    private Binder shownBinder;
     private JButton addCardToBinderButton;
     private JButton removeCardFromBinderButton;
     private JButton tradeOrSellButton;  // Text changes based on binder type
@@ -86,13 +109,16 @@ public class TradingCardInventorySystemView {
 
     // Manage Decks panel
     private JPanel manageDecksPanel;
-    private JList<String> decksList;
+    private final DefaultListModel<Deck> decks = new DefaultListModel<>();
+    private JList<Deck> decksList;
     private JButton selectDeckButton;
     private JButton createDeckButton;
 
     // Single Deck panel
     private JPanel singleDeckPanel;
+    private final DefaultListModel<Card> deckCards = new DefaultListModel<>();
     private JList<Card> deckCardsList;
+    private Deck shownDeck;
     private JButton addCardToDeckButton;
     private JButton removeCardFromDeckButton;
     private JButton sellDeckButton;
@@ -100,24 +126,41 @@ public class TradingCardInventorySystemView {
     private JButton viewDeckCardButton;
 
 
+    // The collection, read lazily by the Adjust Card Count list, the Display Card drop-down and the card selection dialog
+    private final CardListModel collection = new CardListModel();
+    // The collection in name order, for the Display Collection dialog
+    private final CardListModel collectionByName = new CardListModel(true);
+
+    // Card selection dialog; the list shows the collection until a search is typed
+    private final JTextField cardSearchField = new JTextField();
+    private final DefaultListModel<Card> cardSearchResults = new DefaultListModel<>();
+    private JList<Card> cardSelectionList;
+
     // Adjust Card Count panel
-    private final JList<String> adjustCardCountList;
-    private final JScrollPane adjustCardCountScrollPane;
-    private final JLabel adjustCardCountFieldLabel;
-    private final JTextField adjustCardCountField;
-    private final JButton adjustCardCountConfirmButton;
+    private JPanel adjustCardCountPanel;
+    private JList<Card> adjustCardCountList;
+    private JScrollPane adjustCardCountScrollPane;
+    private JLabel adjustCardCountFieldLabel;
+    private JTextField adjustCardCountField;
+    private JButton adjustCardCountConfirmButton;
 
     // Display Card panel
-    private final JPanel displayCardPanel;
+    private JPanel displayCardPanel;
     JComboBox<Card> cardsDropDown;
-    private final JTextArea displayCardTextArea;
+    private JTextArea displayCardTextArea;
+
+    // Busy overlay, covering the window while a background task runs
+    private final JPanel busyPane;
+    private final JLabel busyLabel;
+    private final JProgressBar busyProgressBar;
+    private final JButton busyCancelButton;
+    private Runnable busyCancel;
 
     /**
-     * Constructs the view and initializes the scanner.
+     * Constructs the view and shows its window with the main menu. The other
+     * menus are built when they are first displayed.
      */
     public TradingCardInventorySystemView() {
-        this.sc = new Scanner(System.in);
-
         mainFrame = new JFrame("Trading Card Inventory System");
         mainFrame.setLayout(new BorderLayout());
 
@@ -147,6 +190,7 @@ public class TradingCardInventorySystemView {
 
         // Main menu components
         addCardButton = new JButton("Add Card");
+        importCardsButton = new JButton("Import Cards");
         manageBindersButton = new JButton();
         manageDecksButton = new JButton();
         adjustCardCountButton = new JButton("Adjust Card Count");
@@ -154,7 +198,7 @@ public class TradingCardInventorySystemView {
         displayCollectionButton = new JButton("Display Collection");
         sellCardButton = new JButton("Sell Card");
         // Resize buttons
-        JButton[] buttons = {addCardButton, manageBindersButton, manageDecksButton,
+        JButton[] buttons = {addCardButton, importCardsButton, manageBindersButton, manageDecksButton,
                 adjustCardCountButton, displayCardButton, displayCollectionButton, sellCardButton};
         for (JButton button : buttons) {
             button.setPreferredSize(new Dimension(200, 50));
@@ -175,15 +219,236 @@ public class TradingCardInventorySystemView {
         gbc.gridheight = 1;
 
         mainMenuPanel.add(addCardButton, gbc);
+        mainMenuPanel.add(importCardsButton, gbc);
         mainMenuPanel.add(manageBindersButton, gbc);
         mainMenuPanel.add(manageDecksButton, gbc);
         mainMenuPanel.add(adjustCardCountButton, gbc);
         mainMenuPanel.add(displayCardButton, gbc);
         mainMenuPanel.add(displayCollectionButton, gbc);
         mainMenuPanel.add(sellCardButton, gbc);
+        sellCardButton.setActionCommand("SELL_CARD");
+
+
+        // The main menu is the first card, so it is what the window first shows
+        contentPanel.add(mainMenuPanel, "MAIN_MENU");
+        builtPanels.add("MAIN_MENU");
+
+        contentPanelLayout = (CardLayout) contentPanel.getLayout();
+
+
+        // Busy overlay: swallows input to the menus below it, except for its own Cancel button
+        busyLabel = new JLabel();
+        busyLabel.setFont(new Font("Tahoma", Font.BOLD, 16));
+        busyProgressBar = new JProgressBar(0, 100);
+        busyProgressBar.setPreferredSize(new Dimension(250, 24));
+        busyCancelButton = new JButton("Cancel");
+        busyCancelButton.addActionListener(_ -> {
+            if (busyCancel != null) {
+                busyCancel.run();
+                busyCancelButton.setEnabled(false);
+                busyLabel.setText(busyLabel.getText() + " (cancelling)");
+            }
+        });
+
+        busyPane = new JPanel(new GridBagLayout()) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                g.setColor(new Color(0, 0, 0, 64));
+                g.fillRect(0, 0, getWidth(), getHeight());
+                super.paintComponent(g);
+            }
+        };
+        busyPane.setOpaque(false);
+        busyPane.addMouseListener(new MouseAdapter() { });
+        busyPane.addMouseMotionListener(new MouseMotionAdapter() { });
+        busyPane.addKeyListener(new KeyAdapter() { });
+        busyPane.setFocusable(true);
+
+        GridBagConstraints busyGbc = new GridBagConstraints();
+        busyGbc.gridx = 0;
+        busyGbc.insets = new Insets(5, 0, 5, 0);
+        busyPane.add(busyLabel, busyGbc);
+        busyPane.add(busyProgressBar, busyGbc);
+        busyPane.add(busyCancelButton, busyGbc);
+        mainFrame.setGlassPane(busyPane);
+
+        // Initialize main GUI window
+        mainFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                windowOpened = true;
+                if (shownAction != null) {
+                    shownAction.run();
+                    shownAction = null;
+                }
+            }
+        });
+        mainFrame.setSize(540, 699);
+        mainFrame.setVisible(true);
+        mainFrame.setResizable(false);
+        mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    }
+
+    /**
+     * Sets the listener for every button. Menus that are not built yet are
+     * wired as they are built, so this must be called before any is displayed.
+     *
+     * @param al the listener
+     */
+    public void setActionListener(ActionListener al) {
+        actionListener = al;
+
+        // Return button and main menu buttons
+        listen(returnButton, addCardButton, importCardsButton, manageBindersButton, manageDecksButton,
+                adjustCardCountButton, displayCardButton, displayCollectionButton, sellCardButton);
+    }
+
+    /**
+     * Sets the listener for the text fields: the Add Card fields, once that
+     * menu is built, and the card selection search field.
+     *
+     * @param dl the listener
+     */
+    public void setDocumentListener(DocumentListener dl) {
+        documentListener = dl;
+
+        cardSearchField.getDocument().addDocumentListener(dl);
+    }
+
+    /**
+     * Runs an action on the event dispatch thread once the window has first
+     * opened, e.g. to time how long startup takes to put it on screen.
+     *
+     * @param action the action to run
+     */
+    public void whenShown(Runnable action) {
+        SwingUtilities.invokeLater(() -> {
+            if (windowOpened) {
+                action.run();
+            } else {
+                shownAction = action;
+            }
+        });
+    }
+
+    /**
+     * Shows a menu, building it first if this is the first time.
+     *
+     * @param name the menu's name in the content panel's card layout
+     */
+    private void showPanel(String name) {
+        if (builtPanels.add(name)) {
+            JPanel panel = switch (name) {
+                case "ADD_CARD" -> {
+                    initAddCardPanel();
+                    yield addCardPanel;
+                }
+                case "CREATE_BINDER" -> {
+                    initCreateBinderPanel();
+                    yield createBinderPanel;
+                }
+                case "MANAGE_BINDERS" -> {
+                    initManageBindersPanel();
+                    yield manageBindersPanel;
+                }
+                case "SINGLE_BINDER" -> {
+                    initSingleBinderPanel();
+                    yield singleBinderPanel;
+                }
+                case "CREATE_DECK" -> {
+                    initCreateDeckPanel();
+                    yield createDeckPanel;
+                }
+                case "MANAGE_DECKS" -> {
+                    initManageDecksPanel();
+                    yield manageDecksPanel;
+                }
+                case "SINGLE_DECK" -> {
+                    initSingleDeckPanel();
+                    yield singleDeckPanel;
+                }
+                case "ADJUST_CARD_COUNT" -> {
+                    initAdjustCardCountPanel();
+                    yield adjustCardCountPanel;
+                }
+                case "DISPLAY_CARD" -> {
+                    initDisplayCardPanel();
+                    yield displayCardPanel;
+                }
+                default -> throw new IllegalArgumentException("Unknown menu: " + name);
+            };
+            contentPanel.add(panel, name);
+        }
+
+        contentPanelLayout.show(contentPanel, name);
+    }
+
+    private void listen(AbstractButton... buttons) {
+        for (AbstractButton button : buttons) {
+            button.addActionListener(actionListener);
+        }
+    }
+
+    /**
+     * Checks whether a document is the card selection dialog's search field.
+     *
+     * @param document the document that changed
+     * @return true if it holds the card search text
+     */
+    public boolean isCardSearch(Document document) {
+        return document == cardSearchField.getDocument();
+    }
+
+    public String getCardSearchText() {
+        return cardSearchField.getText().trim();
+    }
 
+    /**
+     * Shows search results in the card selection dialog, if it is open, with the
+     * first result selected so that Enter picks it.
+     *
+     * @param cards the cards found, or null to show the whole collection again
+     */
+    public void showCardSearchResults(List<Card> cards) {
+        if (cardSelectionList == null) {
+            return;
+        }
+
+        if (cards == null) {
+            cardSelectionList.setModel(collection);
+            return;
+        }
+
+        cardSearchResults.clear();
+        cardSearchResults.addAll(cards);
+        cardSelectionList.setModel(cardSearchResults);
+        if (!cards.isEmpty()) {
+            cardSelectionList.setSelectedIndex(0);
+        }
+    }
+
+    // Take input for card to add to the collection
+    public String getAddCardName() {
+        return nameField.getText().trim();
+    }
+
+    public CardRarity getAddCardRarity() {
+        ButtonModel selected = rarityButtons.getSelection();
+
+        return CardRarity.valueOf(selected.getActionCommand());
+    }
+
+    public CardVariant getAddCardVariant() {
+        ButtonModel selected = variantButtons.getSelection();
+
+        return CardVariant.valueOf(selected.getActionCommand());
+    }
 
-        // Add Card menu components
+    public String getAddCardValue() {
+        return valueField.getText().trim();
+    }
+
+    private void initAddCardPanel() {
         nameFieldLabel = new JLabel("Name");
         nameFieldLabel.setFont(new Font("Tahoma", Font.BOLD, 16));
 //        JLabel nameWarningLabel = new JLabel("Invalid name.");
@@ -223,7 +488,6 @@ public class TradingCardInventorySystemView {
 
         selectVariantLabel = new JLabel("Select Variant");
         selectVariantLabel.setFont(new Font("Tahoma", Font.BOLD, 16));
-        sellCardButton.setActionCommand("SELL_CARD");
         normalButton = new JToggleButton("Normal");
         normalButton.setActionCommand("NORMAL");
         extendedArtButton = new JToggleButton("Extended-art");
@@ -260,7 +524,7 @@ public class TradingCardInventorySystemView {
         addCardPanel.setLayout(new GridBagLayout());
         addCardPanel.setBackground(Color.LIGHT_GRAY);
 
-        gbc = new GridBagConstraints();
+        GridBagConstraints gbc = new GridBagConstraints();
         gbc.gridy = 0;
         gbc.gridwidth = 1;
         gbc.gridheight = 1;
@@ -300,12 +564,33 @@ public class TradingCardInventorySystemView {
         gbc.insets = new Insets(0, 0, 0, 0);
         addCardPanel.add(confirmAddCardButton, gbc);
 
+        // Common and uncommon cards cannot have variants
+        ItemListener disableVariantsIfSelected = ie -> {
+            boolean selected = (ie.getStateChange() == ItemEvent.SELECTED);
+
+            if (selected) {
+                normalButton.setSelected(true);
+            }
+
+            extendedArtButton.setEnabled(!selected);
+            fullArtButton.setEnabled(!selected);
+            altArtButton.setEnabled(!selected);
+        };
+        commonButton.addItemListener(disableVariantsIfSelected);
+        uncommonButton.addItemListener(disableVariantsIfSelected);
+
+        listen(commonButton, uncommonButton, rareButton, legendaryButton, normalButton, extendedArtButton,
+                fullArtButton, altArtButton, confirmAddCardButton);
+        nameField.getDocument().addDocumentListener(documentListener);
+        valueField.getDocument().addDocumentListener(documentListener);
+    }
 
-        // Adjust Card Count menu components
-        adjustCardCountList = new JList<>();
+    private void initAdjustCardCountPanel() {
+        adjustCardCountList = new JList<>(collection);
         adjustCardCountList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        DefaultListCellRenderer dlcr = (DefaultListCellRenderer) adjustCardCountList.getCellRenderer();
-        dlcr.setHorizontalAlignment(SwingConstants.CENTER);
+        adjustCardCountList.setCellRenderer(renderer(SwingConstants.CENTER,
+                TradingCardInventorySystemView::copiesLabel));
+        adjustCardCountList.setPrototypeCellValue(PROTOTYPE_CARD);
 
         adjustCardCountScrollPane = new JScrollPane(adjustCardCountList);
         adjustCardCountScrollPane.setPreferredSize(new Dimension(250, 250));
@@ -318,8 +603,9 @@ public class TradingCardInventorySystemView {
         adjustCardCountConfirmButton.setActionCommand("CONFIRM_ADJUST_CARD_COUNT");
 
         // Panel for Adjust Card Count menu
-        JPanel adjustCardCountPanel = new JPanel(new GridBagLayout());
+        adjustCardCountPanel = new JPanel(new GridBagLayout());
         adjustCardCountPanel.setBackground(Color.LIGHT_GRAY);
+        GridBagConstraints gbc = new GridBagConstraints();
 
         gbc.insets = new Insets(0, 0, 50, 50);
         gbc.gridx = 0;
@@ -340,12 +626,18 @@ public class TradingCardInventorySystemView {
         gbc.gridy++;
         adjustCardCountPanel.add(adjustCardCountConfirmButton, gbc);
 
+        listen(adjustCardCountConfirmButton);
+    }
 
-        // Display Card menu components
+    private void initDisplayCardPanel() {
         JLabel cardsDropDownLabel = new JLabel("Select Card");
         cardsDropDownLabel.setFont(new Font("Tahoma", Font.BOLD, 24));
 
-        cardsDropDown = new JComboBox<>();
+        cardsDropDown = new JComboBox<>(collection);
+        cardsDropDown.setPrototypeDisplayValue(PROTOTYPE_CARD);
+        if (cardsDropDown.getAccessibleContext().getAccessibleChild(0) instanceof ComboPopup popup) {
+            popup.getList().setPrototypeCellValue(PROTOTYPE_CARD);
+        }
 
         displayCardTextArea = new JTextArea("""
                 Rarity:
@@ -366,6 +658,8 @@ public class TradingCardInventorySystemView {
         // Panel for Display Card menu
         displayCardPanel = new JPanel(new GridBagLayout());
         displayCardPanel.setBackground(Color.LIGHT_GRAY);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.gridx = 0;
 
         gbc.gridy = 0;
         gbc.insets = new Insets(0, 0, 10, 0);
@@ -379,162 +673,22 @@ public class TradingCardInventorySystemView {
         gbc.insets = new Insets(100, 0, 0, 0);
         displayCardPanel.add(displayCardTextArea, gbc);
 
-
-        // Initialize Binder Panels
-        initCreateBinderPanel();
-        initManageBindersPanel();
-        initSingleBinderPanel();
-
-        // Initialize Deck Panels
-        initCreateDeckPanel();
-        initManageDecksPanel();
-        initSingleDeckPanel();
-
-
-        // Add all menu panels to the main content panel
-        contentPanel.add(mainMenuPanel, "MAIN_MENU");
-        contentPanel.add(addCardPanel, "ADD_CARD");
-        contentPanel.add(createBinderPanel, "CREATE_BINDER");
-        contentPanel.add(manageBindersPanel, "MANAGE_BINDERS");
-        contentPanel.add(singleBinderPanel, "SINGLE_BINDER");
-        contentPanel.add(createDeckPanel, "CREATE_DECK");
-        contentPanel.add(manageDecksPanel, "MANAGE_DECKS");
-        contentPanel.add(singleDeckPanel, "SINGLE_DECK");
-        contentPanel.add(adjustCardCountPanel, "ADJUST_CARD_COUNT");
-        contentPanel.add(displayCardPanel, "DISPLAY_CARD");
-
-        contentPanelLayout = (CardLayout) contentPanel.getLayout();
-
-        // Initialize main GUI window
-        mainFrame.setSize(540, 699);
-        mainFrame.setVisible(true);
-        mainFrame.setResizable(false);
-        mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-    }
-
-    public void setActionListener(ActionListener al) {
-        returnButton.addActionListener(al);
-
-        // Main menu buttons
-        addCardButton.addActionListener(al);
-        manageBindersButton.addActionListener(al);
-        manageDecksButton.addActionListener(al);
-        adjustCardCountButton.addActionListener(al);
-        displayCardButton.addActionListener(al);
-        displayCollectionButton.addActionListener(al);
-        sellCardButton.addActionListener(al);
-
-        // Add Card menu buttons
-        // Common and uncommon cards cannot have variants
-        ItemListener disableVariantsIfSelected = ie -> {
-            boolean selected = (ie.getStateChange() == ItemEvent.SELECTED);
-
-            if (selected) {
-                normalButton.setSelected(true);
-            }
-
-            extendedArtButton.setEnabled(!selected);
-            fullArtButton.setEnabled(!selected);
-            altArtButton.setEnabled(!selected);
-        };
-
-        commonButton.addItemListener(disableVariantsIfSelected);
-        uncommonButton.addItemListener(disableVariantsIfSelected);
-        commonButton.addActionListener(al);
-        uncommonButton.addActionListener(al);
-        rareButton.addActionListener(al);
-        legendaryButton.addActionListener(al);
-        normalButton.addActionListener(al);
-        extendedArtButton.addActionListener(al);
-        fullArtButton.addActionListener(al);
-        altArtButton.addActionListener(al);
-        confirmAddCardButton.addActionListener(al);
-
-        // Create Binder buttons
-        basicBinderButton.addActionListener(al);
-        pauperBinderButton.addActionListener(al);
-        raresBinderButton.addActionListener(al);
-        luxuryBinderButton.addActionListener(al);
-        collectorBinderButton.addActionListener(al);
-
-        // Manage Binders buttons
-        selectBinderButton.addActionListener(al);
-        addCardToBinderButton.addActionListener(al);
-        removeCardFromBinderButton.addActionListener(al);
-        tradeOrSellButton.addActionListener(al);
-        deleteBinderButton.addActionListener(al);
-        viewBinderCardButton.addActionListener(al);
-        createBinderButton.addActionListener(al);
-
-
-        // Create Deck buttons
-        normalDeckButton.addActionListener(al);
-        sellableDeckButton.addActionListener(al);
-
-        // Manage Decks buttons
-        selectDeckButton.addActionListener(al);
-        addCardToDeckButton.addActionListener(al);
-        removeCardFromDeckButton.addActionListener(al);
-        sellDeckButton.addActionListener(al);
-        deleteDeckButton.addActionListener(al);
-        viewDeckCardButton.addActionListener(al);
-        createDeckButton.addActionListener(al);
-
-        // Adjust Card Count
-        adjustCardCountConfirmButton.addActionListener(al);
-
-        // Display Card
-        cardsDropDown.addActionListener(_ -> {
-            Card selected = (Card) cardsDropDown.getSelectedItem();
-
-            if (selected != null) {
-                displayCardTextArea.setText(
-                        "Rarity:  " + selected.getRarity().getName() +
-                                "\n\nVariant:  " + selected.getVariant().getName() +
-                                "\n\nValue:  $" + selected.getValue().toString() +
-                                "\n\nCount:  " + selected.getCount());
-            }
-        });
-
-        // Display Collection
-        displayCollectionButton.addActionListener(al);
-    }
-
-    public void setDocumentListener(DocumentListener dl) {
-        // Add Card menu text fields
-        nameField.getDocument().addDocumentListener(dl);
-        valueField.getDocument().addDocumentListener(dl);
-    }
-
-    // Take input for card to add to the collection
-    public String getAddCardName() {
-        return nameField.getText().trim();
-    }
-
-    public CardRarity getAddCardRarity() {
-        ButtonModel selected = rarityButtons.getSelection();
-
-        return CardRarity.valueOf(selected.getActionCommand());
-    }
-
-    public CardVariant getAddCardVariant() {
-        ButtonModel selected = variantButtons.getSelection();
-
-        return CardVariant.valueOf(selected.getActionCommand());
-    }
-
-    public String getAddCardValue() {
-        return valueField.getText().trim();
+        cardsDropDown.addActionListener(_ -> showSelectedCardDetails());
     }
 
     private void initManageBindersPanel() {
         manageBindersPanel = new JPanel(new BorderLayout());
 
         // Binders List
-        bindersList = new JList<>();
+        bindersList = new JList<>(binders);
         JScrollPane scrollPane = new JScrollPane(bindersList);
-        DefaultListCellRenderer dlcr = (DefaultListCellRenderer) bindersList.getCellRenderer();
-        dlcr.setHorizontalAlignment(SwingConstants.CENTER);
+        bindersList.setCellRenderer(renderer(SwingConstants.CENTER, binder -> binder.getName() + " - " + switch (binder) {
+            case PauperBinder _ -> "Pauper Binder";
+            case RaresBinder _ -> "Rares Binder";
+            case LuxuryBinder _ -> "Luxury Binder";
+            case CollectorBinder _ -> "Collector Binder";
+            default -> "Non-curated Binder";
+        }));
 
         // Button Panel (for select and create buttons)
         JPanel singleBinderButtonsPanel = new JPanel(new GridLayout(1, 2));
@@ -547,13 +701,15 @@ public class TradingCardInventorySystemView {
         manageBindersPanel.add(scrollPane, BorderLayout.CENTER);
         manageBindersPanel.add(singleBinderButtonsPanel, BorderLayout.SOUTH);
         bindersList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        listen(selectBinderButton, createBinderButton);
     }
 
     private void initSingleBinderPanel() {
         singleBinderPanel = new JPanel(new BorderLayout());
 
         // Cards in Binder List
-        binderCardsList = new JList<>();
+        binderCardsList = new JList<>(binderCards);
         JScrollPane scrollPane = new JScrollPane(binderCardsList);
 
         // Action Buttons
@@ -580,46 +736,33 @@ public class TradingCardInventorySystemView {
         singleBinderPanel.add(scrollPane, BorderLayout.CENTER);
         singleBinderPanel.add(singleBinderButtonsPanel, BorderLayout.EAST);
         binderCardsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        listen(viewBinderCardButton, addCardToBinderButton, removeCardFromBinderButton, tradeOrSellButton,
+                deleteBinderButton);
     }
 
-    public int getSelectedBinderIndex() {
-        return bindersList.getSelectedIndex();
+    public Binder getSelectedBinder() {
+        return (bindersList != null) ? bindersList.getSelectedValue() : null;
     }
 
-    public int getSelectedBinderCardIndex() {
-        return binderCardsList.getSelectedIndex();
+    public Card getSelectedBinderCard() {
+        return (binderCardsList != null) ? binderCardsList.getSelectedValue() : null;
     }
 
     public String getCurrentBinderName() {
         return menuTitle.getText().replace("Binder: ", "");
     }
 
-    public void displayManageBindersMenu(List<Binder> binders) {
-        List<String> binderListNames = new ArrayList<>();
-        for (Binder b : binders) {
-            if (b instanceof NonCuratedBinder) {
-                binderListNames.add(b.getName() + " - " + "Non-curated Binder");
-            } else if (b instanceof PauperBinder) {
-                binderListNames.add(b.getName() + " - " + "Pauper Binder");
-            } else if (b instanceof RaresBinder) {
-                binderListNames.add(b.getName() + " - " + "Rares Binder");
-            } else if (b instanceof LuxuryBinder) {
-                binderListNames.add(b.getName() + " - " + "Luxury Binder");
-            } else if (b instanceof CollectorBinder) {
-                binderListNames.add(b.getName() + " - " + "Collector Binder");
-            }
-        }
-
+    public void displayManageBindersMenu() {
         menuTitle.setText("Manage Binders");
-        bindersList.setListData(binderListNames.toArray(new String[0]));
-        contentPanelLayout.show(contentPanel, "MANAGE_BINDERS");
+        showPanel("MANAGE_BINDERS");
         returnButton.setText("Return to Main Menu");
     }
 
     public void displaySingleBinderMenu(String binderName, boolean isSellable) {
+        showPanel("SINGLE_BINDER");
         menuTitle.setText("Binder: " + binderName);
         tradeOrSellButton.setText(isSellable ? "Sell Binder" : "Trade Card");
-        contentPanelLayout.show(contentPanel, "SINGLE_BINDER");
         returnButton.setText("Return to Binders");
     }
 
@@ -666,15 +809,17 @@ public class TradingCardInventorySystemView {
 
         gbc.gridy++;
         createBinderPanel.add(collectorBinderButton, gbc);
+
+        listen(basicBinderButton, pauperBinderButton, raresBinderButton, luxuryBinderButton, collectorBinderButton);
     }
 
     public void displayCreateBinderMenu() {
         menuTitle.setText("Create a New Binder");
-        contentPanelLayout.show(contentPanel, "CREATE_BINDER");
+        showPanel("CREATE_BINDER");
         returnButton.setText("Return to Main Menu");
     }
 
-    public void initCreateDeckPanel() {
+    private void initCreateDeckPanel() {
         createDeckPanel = new JPanel(new GridBagLayout());
         createDeckPanel.setBackground(Color.LIGHT_GRAY);
         GridBagConstraints gbc = new GridBagConstraints();
@@ -683,9 +828,6 @@ public class TradingCardInventorySystemView {
         gbc.insets = new Insets(20, 0, 20, 0); // Spacing
         gbc.fill = GridBagConstraints.HORIZONTAL;
 
-        // Title
-        menuTitle.setText("Select Deck Type");
-
         // Buttons (matches main menu style)
         normalDeckButton = createMenuButton("1. Normal Deck");
         sellableDeckButton = createMenuButton("2. Sellable Deck");
@@ -699,16 +841,18 @@ public class TradingCardInventorySystemView {
         createDeckPanel.add(normalDeckButton, gbc);
         gbc.gridy++;
         createDeckPanel.add(sellableDeckButton, gbc);
+
+        listen(normalDeckButton, sellableDeckButton);
     }
 
     private void initManageDecksPanel() {
         manageDecksPanel = new JPanel(new BorderLayout());
 
         // Decks List
-        decksList = new JList<>();
+        decksList = new JList<>(decks);
         JScrollPane scrollPane = new JScrollPane(decksList);
-        DefaultListCellRenderer dlcr = (DefaultListCellRenderer) decksList.getCellRenderer();
-        dlcr.setHorizontalAlignment(SwingConstants.CENTER);
+        decksList.setCellRenderer(renderer(SwingConstants.CENTER,
+                deck -> deck.getName() + ((deck instanceof SellableDeck) ? " - Sellable Deck" : " - Normal Deck")));
 
         // Button Panel (for select and create buttons)
         JPanel singleBinderButtonsPanel = new JPanel(new GridLayout(1, 2));
@@ -720,13 +864,15 @@ public class TradingCardInventorySystemView {
         manageDecksPanel.add(scrollPane, BorderLayout.CENTER);
         manageDecksPanel.add(singleBinderButtonsPanel, BorderLayout.SOUTH);
         decksList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        listen(selectDeckButton, createDeckButton);
     }
 
-    public void initSingleDeckPanel() {
+    private void initSingleDeckPanel() {
         singleDeckPanel = new JPanel(new BorderLayout());
 
         // Cards in Deck List
-        deckCardsList = new JList<>();
+        deckCardsList = new JList<>(deckCards);
         JScrollPane scrollPane = new JScrollPane(deckCardsList);
 
         // Action Buttons
@@ -753,44 +899,35 @@ public class TradingCardInventorySystemView {
         singleDeckPanel.add(scrollPane, BorderLayout.CENTER);
         singleDeckPanel.add(singleDeckButtonsPanel, BorderLayout.EAST);
         deckCardsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        listen(viewDeckCardButton, addCardToDeckButton, removeCardFromDeckButton, sellDeckButton, deleteDeckButton);
     }
 
     public void displayCreateDeckMenu() {
         menuTitle.setText("Create a new Deck");
-        contentPanelLayout.show(contentPanel, "CREATE_DECK");
+        showPanel("CREATE_DECK");
         returnButton.setText("Return to Main Menu");
     }
 
-    public void displayManageDecksMenu(List<Deck> decks) {
-        List<String> deckListNames = new ArrayList<>();
-        for (Deck d : decks) {
-            if (d instanceof NormalDeck) {
-                deckListNames.add(d.getName() + " - Normal Deck");
-            } else if (d instanceof SellableDeck) {
-                deckListNames.add(d.getName() + " - Sellable Deck");
-            }
-        }
-
-        decksList.setListData(deckListNames.toArray(new String[0]));
-
+    public void displayManageDecksMenu() {
         menuTitle.setText("Manage Decks");
-        contentPanelLayout.show(contentPanel, "MANAGE_DECKS");
+        showPanel("MANAGE_DECKS");
         returnButton.setText("Return to Main Menu");
     }
 
     public void displaySingleDeckMenu(String deckName, boolean isSellable) {
+        showPanel("SINGLE_DECK");
         menuTitle.setText("Deck: " + deckName);
         sellDeckButton.setEnabled(isSellable);
-        contentPanelLayout.show(contentPanel, "SINGLE_DECK");
         returnButton.setText("Return to Decks");
     }
 
-    public int getSelectedDeckIndex() {
-        return decksList.getSelectedIndex();
+    public Deck getSelectedDeck() {
+        return (decksList != null) ? decksList.getSelectedValue() : null;
     }
 
-    public int getSelectedDeckCardIndex() {
-        return deckCardsList.getSelectedIndex();
+    public Card getSelectedDeckCard() {
+        return (deckCardsList != null) ? deckCardsList.getSelectedValue() : null;
     }
 
     public String getCurrentDeckName() {
@@ -798,44 +935,27 @@ public class TradingCardInventorySystemView {
     }
 
 
-    public void displayAdjustCardCountMenu(List<Card> cards) {
-        List<String> cardListNames = new ArrayList<>();
-        for (Card card : cards) {
-            if (card.getCount() == 1) {
-                cardListNames.add(card.getName() + " - " + card.getCount() + " copy");
-            } else {
-                cardListNames.add(card.getName() + " - " + card.getCount() + " copies");
-            }
+    public void displayAdjustCardCountMenu() {
+        showPanel("ADJUST_CARD_COUNT");
+        if (adjustCardCountList.isSelectionEmpty()) {
+            adjustCardCountList.setSelectedIndex(0);
         }
 
-        adjustCardCountList.setListData(cardListNames.toArray(new String[0]));
-        adjustCardCountList.setSelectedIndex(0);
-
         menuTitle.setText("Adjust Card Count");
-        contentPanelLayout.show(contentPanel, "ADJUST_CARD_COUNT");
         returnButton.setText("Return to Main Menu");
     }
 
-    public String getAdjustCardCountName() {
-        String cardNameInList = adjustCardCountList.getSelectedValue();
-        int idx = cardNameInList.lastIndexOf(" - ");
-
-        return cardNameInList.substring(0, idx);
+    public Card getAdjustCardCountCard() {
+        return (adjustCardCountList != null) ? adjustCardCountList.getSelectedValue() : null;
     }
 
     public String getAdjustCardCountNumber() {
         return adjustCardCountField.getText().trim();
     }
 
-    public void displayCardDetailsMenu(List<Card> cards) {
-        cardsDropDown.removeAllItems();
-
-        for (Card card : cards) {
-            cardsDropDown.addItem(card);
-        }
-
+    public void displayCardDetailsMenu() {
         menuTitle.setText("Display Card Details");
-        contentPanelLayout.show(contentPanel, "DISPLAY_CARD");
+        showPanel("DISPLAY_CARD");
         returnButton.setText("Return to Main Menu");
     }
 
@@ -903,25 +1023,78 @@ public class TradingCardInventorySystemView {
         JOptionPane.showMessageDialog(mainFrame, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
-    public Card showCardSelectionDialog(List<Card> cards) {
-        DefaultListModel<String> listModel = new DefaultListModel<>();
-        for (Card card : cards) {
-            listModel.addElement(card.getName() + " [" + card.getRarity() + "] - $" + card.getValue());
+    /**
+     * Asks the user to pick a CSV or JSON card list to import.
+     *
+     * @return the chosen file, or null if the user cancelled
+     */
+    public Path promptForImportFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Cards");
+        chooser.setFileFilter(new FileNameExtensionFilter("Card lists (CSV, JSON)", "csv", "json"));
+
+        if (chooser.showOpenDialog(mainFrame) == JFileChooser.APPROVE_OPTION) {
+            return chooser.getSelectedFile().toPath();
         }
+        return null;
+    }
 
-        JList<String> cardList = new JList<>(listModel);
+    /**
+     * Asks the user to pick a card from the collection, either by scrolling
+     * the whole collection or by typing the start of its name into the search
+     * field, whose changes reach the document listener.
+     *
+     * @return the chosen card, or null if the user cancelled
+     */
+    public Card showCardSelectionDialog() {
+        JList<Card> cardList = new JList<>(collection);
+        cardList.setCellRenderer(renderer(SwingConstants.LEADING,
+                card -> card.getName() + " [" + card.getRarity() + "] - $" + card.getValue()));
+        cardList.setPrototypeCellValue(PROTOTYPE_CARD);
         JScrollPane scrollPane = new JScrollPane(cardList);
 
-        int result = JOptionPane.showConfirmDialog(
-                mainFrame,
-                scrollPane,
-                "Select Card to Add",
-                JOptionPane.OK_CANCEL_OPTION,
-                JOptionPane.PLAIN_MESSAGE
-        );
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 5));
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchPanel.add(cardSearchField, BorderLayout.CENTER);
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.add(searchPanel, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
 
-        if (result == JOptionPane.OK_OPTION && !cardList.isSelectionEmpty()) {
-            return cards.get(cardList.getSelectedIndex());
+        cardSearchField.setText("");
+        cardSelectionList = cardList;
+        // Start in the search field once the dialog is showing, rather than on its OK button
+        cardSearchField.addAncestorListener(new AncestorListener() {
+            @Override
+            public void ancestorAdded(AncestorEvent event) {
+                cardSearchField.requestFocusInWindow();
+                cardSearchField.removeAncestorListener(this);
+            }
+
+            @Override
+            public void ancestorRemoved(AncestorEvent event) {
+            }
+
+            @Override
+            public void ancestorMoved(AncestorEvent event) {
+            }
+        });
+
+        int result;
+        try {
+            result = JOptionPane.showConfirmDialog(
+                    mainFrame,
+                    panel,
+                    "Select Card to Add",
+                    JOptionPane.OK_CANCEL_OPTION,
+                    JOptionPane.PLAIN_MESSAGE
+            );
+        } finally {
+            cardSelectionList = null;
+            cardSearchResults.clear();
+        }
+
+        if (result == JOptionPane.OK_OPTION) {
+            return cardList.getSelectedValue();
         }
         return null;
     }
@@ -967,23 +1140,19 @@ public class TradingCardInventorySystemView {
         return null;
     }
 
-    public void displayCollectionGUI(List<Card> cards) {
-        cards.sort(Comparator.comparing(Card::getName)); //sort cards alphabetically by name
-
+    /**
+     * Shows the collection in a dialog, sorted by name. The rows come straight
+     * from the model's name index, so nothing is sorted or copied.
+     */
+    public void displayCollectionGUI() {
         JPanel panel = new JPanel(new BorderLayout());
-        DefaultListModel<String> listModel = new DefaultListModel<>();
 
-        for (Card card : cards) {
-            if (card.getCount() == 1) {
-                listModel.addElement(card.getName() + " - " + card.getCount() + " copy");
-            } else {
-                listModel.addElement(card.getName() + " - " + card.getCount() + " copies");
-            }
-        }
-
-        JList<String> cardList = new JList<>(listModel);
+        // Rows are labelled when painted, so only the visible ones are formatted
+        JList<Card> cardList = new JList<>(collectionByName);
 
         cardList.setFont(new Font("Tahoma", Font.PLAIN, 16));
+        cardList.setCellRenderer(renderer(SwingConstants.LEADING, TradingCardInventorySystemView::copiesLabel));
+        cardList.setPrototypeCellValue(PROTOTYPE_CARD);
         cardList.setFixedCellHeight(24);
 
         JScrollPane scrollPane = new JScrollPane(cardList);
@@ -1011,12 +1180,185 @@ public class TradingCardInventorySystemView {
         );
     }
 
-    public void updateBinderCardsList(List<Card> cards) {
-        binderCardsList.setListData(cards.toArray(new Card[0]));
+    /**
+     * Shows the cards of a binder in the single binder menu and keeps them current.
+     *
+     * @param binder the binder to show
+     */
+    public void updateBinderCardsList(Binder binder) {
+        shownBinder = binder;
+        binderCards.clear();
+        binderCards.addAll(binder.getCards());
+    }
+
+    /**
+     * Shows the cards of a deck in the single deck menu and keeps them current.
+     *
+     * @param deck the deck to show
+     */
+    public void updateDeckCardsList(Deck deck) {
+        shownDeck = deck;
+        deckCards.clear();
+        deckCards.addAll(deck.getCards());
+    }
+
+    /**
+     * Covers the window with a busy indicator while a background task runs.
+     * The progress bar stays indeterminate until {@link #setBusyProgress} is
+     * first called.
+     *
+     * @param message what the task is doing
+     * @param cancel  asks the task to stop, or null if it cannot be cancelled
+     */
+    public void showBusy(String message, Runnable cancel) {
+        busyCancel = cancel;
+        busyLabel.setText(message);
+        busyProgressBar.setIndeterminate(true);
+        busyProgressBar.setStringPainted(false);
+        busyCancelButton.setVisible(cancel != null);
+        busyCancelButton.setEnabled(true);
+
+        busyPane.setVisible(true);
+        busyPane.requestFocusInWindow();
     }
 
-    public void updateDeckCardsList(List<Card> cards) {
-        deckCardsList.setListData(cards.toArray(new Card[0]));
+    /**
+     * Shows how far the running background task has got.
+     *
+     * @param percent the percentage done
+     */
+    public void setBusyProgress(int percent) {
+        busyProgressBar.setIndeterminate(false);
+        busyProgressBar.setStringPainted(true);
+        busyProgressBar.setValue(percent);
+    }
+
+    /**
+     * Removes the busy indicator.
+     */
+    public void hideBusy() {
+        busyCancel = null;
+        busyPane.setVisible(false);
+    }
+
+    /**
+     * Seeds every list with the current inventory. The collection is read from
+     * the model as rows are shown; later changes arrive as events through
+     * {@link #inventoryChanged}.
+     *
+     * @param model the inventory to show
+     */
+    public void showInventory(TradingCardInventorySystemModel model) {
+        collection.setModel(model);
+        collectionByName.setModel(model);
+        binders.clear();
+        binders.addAll(model.getBinders());
+        decks.clear();
+        decks.addAll(model.getDecks());
+        setCollectorMoneyLabel(model.getCollectorMoney());
+    }
+
+    /**
+     * Applies a change in the model to the lists that show it, on the event
+     * dispatch thread.
+     *
+     * @param event the change
+     */
+    @Override
+    public void inventoryChanged(InventoryEvent event) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            apply(event);
+        } else {
+            SwingUtilities.invokeLater(() -> apply(event));
+        }
+    }
+
+    private void apply(InventoryEvent event) {
+        switch (event) {
+            case InventoryEvent.CardAdded _ -> {
+                collection.cardAdded();
+                collectionByName.cardAdded();
+            }
+            case InventoryEvent.CardRemoved(Card card) -> {
+                collection.cardRemoved(card);
+                collectionByName.cardRemoved(card);
+            }
+            case InventoryEvent.CountChanged(Card card, int _) -> {
+                collection.cardsChanged();
+                collectionByName.cardsChanged();
+                if (cardsDropDown != null && card.equals(cardsDropDown.getSelectedItem())) {
+                    showSelectedCardDetails();
+                }
+            }
+            case InventoryEvent.HolderCreated(CardHolder holder) -> {
+                switch (holder) {
+                    case Binder binder -> binders.addElement(binder);
+                    case Deck deck -> decks.addElement(deck);
+                    default -> { }
+                }
+            }
+            case InventoryEvent.HolderDeleted(CardHolder holder) -> removeHolder(holder);
+            case InventoryEvent.HolderSold(CardHolder holder, long _) -> removeHolder(holder);
+            case InventoryEvent.HolderCardAdded(CardHolder holder, Card card) -> {
+                if (holder == shownBinder) {
+                    binderCards.addElement(card);
+                } else if (holder == shownDeck) {
+                    deckCards.addElement(card);
+                }
+            }
+            case InventoryEvent.HolderCardRemoved(CardHolder holder, Card card) -> {
+                if (holder == shownBinder) {
+                    binderCards.removeElement(card);
+                } else if (holder == shownDeck) {
+                    deckCards.removeElement(card);
+                }
+            }
+            case InventoryEvent.CardSold _ -> { }
+            case InventoryEvent.MoneyChanged(long cents) -> setCollectorMoneyLabel(Money.toBigDecimal(cents));
+        }
+    }
+
+    private void removeHolder(CardHolder holder) {
+        switch (holder) {
+            case Binder binder -> binders.removeElement(binder);
+            case Deck deck -> decks.removeElement(deck);
+            default -> { }
+        }
+
+        if (holder == shownBinder) {
+            shownBinder = null;
+            binderCards.clear();
+        } else if (holder == shownDeck) {
+            shownDeck = null;
+            deckCards.clear();
+        }
+    }
+
+    private void showSelectedCardDetails() {
+        Card selected = (Card) cardsDropDown.getSelectedItem();
+
+        if (selected != null) {
+            displayCardTextArea.setText(
+                    "Rarity:  " + selected.getRarity().getName() +
+                            "\n\nVariant:  " + selected.getVariant().getName() +
+                            "\n\nValue:  $" + selected.getValue().toString() +
+                            "\n\nCount:  " + selected.getCount());
+        }
+    }
+
+    private static String copiesLabel(Card card) {
+        return card.getName() + " - " + card.getCount() + (card.getCount() == 1 ? " copy" : " copies");
+    }
+
+    /**
+     * Creates a list cell renderer that labels each element when it is painted.
+     */
+    private static <T> ListCellRenderer<T> renderer(int alignment, Function<T, String> label) {
+        DefaultListCellRenderer cell = new DefaultListCellRenderer();
+        cell.setHorizontalAlignment(alignment);
+
+        return (list, value, index, isSelected, cellHasFocus) -> cell.getListCellRendererComponent(list,
+                (value == null) ? "" : label.apply(value), index, isSelected, cellHasFocus);
     }
 
     public int promptForCardAdjustmentGUI() {
@@ -1053,7 +1395,7 @@ public class TradingCardInventorySystemView {
      */
     public void displayMainMenu(boolean hasCards, boolean hasBinders, boolean hasDecks) {
         menuTitle.setText("Main Menu");
-        contentPanelLayout.show(contentPanel, "MAIN_MENU");
+        showPanel("MAIN_MENU");
         returnButton.setText("Exit");
 
         if (hasBinders) {
@@ -1083,7 +1425,7 @@ public class TradingCardInventorySystemView {
 
     public void displayAddCardMenu() {
         menuTitle.setText("Add Card");
-        contentPanelLayout.show(contentPanel, "ADD_CARD");
+        showPanel("ADD_CARD");
         returnButton.setText("Return to Main Menu");
     }
 }
\ No newline at end of file
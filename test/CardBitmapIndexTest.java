@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the answers of the rarity and variant bitmaps against testing every
+ * card with the filter, for random filters over slots that random adds and
+ * removals leave scattered, both on the bitmaps alone and through the
+ * model's filter queries.
+ */
+class CardBitmapIndexTest {
+    private static final CardRarity[] RARITIES = CardRarity.values();
+    private static final CardVariant[] VARIANTS = CardVariant.values();
+
+    @Test
+    void filtersMatchAScanOfEveryCard() {
+        CardBitmapIndex index = new CardBitmapIndex();
+        SplittableRandom random = new SplittableRandom(13);
+        Map<Integer, Card> slots = new HashMap<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            int slot = random.nextInt(700);
+            Card card = slots.remove(slot);
+
+            if (card != null) {
+                index.remove(slot, card);
+            } else {
+                card = new Card("C" + step, RARITIES[random.nextInt(RARITIES.length)],
+                        VARIANTS[random.nextInt(VARIANTS.length)], BigDecimal.ONE, 1);
+                index.add(slot, card);
+                slots.put(slot, card);
+            }
+
+            if (step % 250 == 0) {
+                for (int trial = 0; trial < 40; trial++) {
+                    assertSameAsScan(index, slots, randomFilter(random, 3));
+                }
+            }
+        }
+    }
+
+    @Test
+    void namedFiltersMatchAScanOfEveryCard() {
+        CardBitmapIndex index = new CardBitmapIndex();
+        Map<Integer, Card> slots = new HashMap<>();
+        int slot = 0;
+
+        for (CardRarity rarity : RARITIES) {
+            for (CardVariant variant : VARIANTS) {
+                Card card = new Card(rarity + " " + variant, rarity, variant, BigDecimal.ONE, 1);
+                index.add(slot, card);
+                slots.put(slot, card);
+                slot += 3;
+            }
+        }
+
+        // What the sellable binders admit, and the empty filters built from no rarities or variants
+        assertSameAsScan(index, slots, CardFilter.rarity(CardRarity.COMMON, CardRarity.UNCOMMON));
+        assertSameAsScan(index, slots, CardFilter.rarity(CardRarity.RARE, CardRarity.LEGENDARY));
+        assertSameAsScan(index, slots, CardFilter.rarity(CardRarity.RARE, CardRarity.LEGENDARY)
+                .and(new CardFilter.Variant(CardVariant.NORMAL).negate()));
+        assertSameAsScan(index, slots, CardFilter.ALL);
+        assertSameAsScan(index, slots, CardFilter.rarity());
+        assertSameAsScan(index, slots, CardFilter.variant());
+        assertEquals(0, index.count(CardFilter.variant()));
+    }
+
+    @Test
+    void modelFiltersMatchAScanOfTheCollection() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        SplittableRandom random = new SplittableRandom(17);
+
+        // Cards sold out of the collection free slots that later cards reuse
+        for (int i = 0; i < 600; i++) {
+            Card card = new Card("C" + random.nextInt(200), RARITIES[random.nextInt(RARITIES.length)],
+                    VARIANTS[random.nextInt(VARIANTS.length)], BigDecimal.valueOf(1 + random.nextInt(5)), 1);
+            Card existing = model.findCollectionCard(card);
+
+            if (existing != null && random.nextBoolean()) {
+                model.sellCard(existing);
+            } else {
+                model.addCardToCollection(card);
+            }
+        }
+
+        List<Card> collection = new ArrayList<>();
+        model.forEachCardInNameOrder(collection::add);
+        for (int trial = 0; trial < 200; trial++) {
+            CardFilter filter = randomFilter(random, 3);
+            List<Card> expected = collection.stream().filter(filter::test).toList();
+
+            assertEquals(new HashSet<>(expected), new HashSet<>(model.getCards(filter)), filter.describe());
+            assertEquals(expected.size(), model.getCards(filter).size(), filter.describe());
+            assertEquals(expected.size(), model.countCards(filter), filter.describe());
+        }
+    }
+
+    private static void assertSameAsScan(CardBitmapIndex index, Map<Integer, Card> slots, CardFilter filter) {
+        BitSet expected = new BitSet();
+        slots.forEach((slot, card) -> {
+            if (filter.test(card)) {
+                expected.set(slot);
+            }
+        });
+
+        assertEquals(expected, index.evaluate(filter), filter.describe());
+        assertEquals(expected.cardinality(), index.count(filter), filter.describe());
+    }
+
+    private static CardFilter randomFilter(SplittableRandom random, int depth) {
+        int kind = random.nextInt(depth > 0 ? 7 : 3);
+
+        return switch (kind) {
+            case 0 -> CardFilter.ALL;
+            case 1 -> new CardFilter.Rarity(RARITIES[random.nextInt(RARITIES.length)]);
+            case 2 -> new CardFilter.Variant(VARIANTS[random.nextInt(VARIANTS.length)]);
+            case 3 -> randomFilter(random, depth - 1).and(randomFilter(random, depth - 1));
+            case 4 -> randomFilter(random, depth - 1).and(randomFilter(random, depth - 1).negate());
+            case 5 -> randomFilter(random, depth - 1).or(randomFilter(random, depth - 1));
+            default -> randomFilter(random, depth - 1).negate();
+        };
+    }
+}
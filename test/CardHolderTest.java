@@ -0,0 +1,115 @@
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the running card value total a {@link CardHolder} keeps always
+ * matches both a full recount of its cards and a total worked out by the test
+ * itself, so a recount that went wrong the same way could not hide a mistake.
+ */
+class CardHolderTest {
+    @Test
+    void runningTotalMatchesRecountAfterAddsAndRemovals() {
+        CardHolder binder = new NonCuratedBinder("Binder");
+        Card bolt = new Card("Lightning Bolt", CardRarity.UNCOMMON, CardVariant.NORMAL, new BigDecimal("1.25"), 1);
+        Card dragon = new Card("Shivan Dragon", CardRarity.RARE, CardVariant.FULL_ART, new BigDecimal("3.10"), 1);
+        Card lotus = new Card("Black Lotus", CardRarity.LEGENDARY, CardVariant.ALT_ART, new BigDecimal("999.99"), 1);
+
+        assertTotals(binder, 0);
+        assertTrue(binder.addCard(bolt));
+        assertTrue(binder.addCard(bolt));
+        assertTrue(binder.addCard(dragon));
+        assertTrue(binder.addCard(lotus));
+        // Uncommons are always normal; full art doubles the dragon and alt art triples the lotus
+        assertTotals(binder, 125 + 125 + 620 + 299_997);
+
+        assertTrue(binder.removeCard(lotus));
+        assertTotals(binder, 125 + 125 + 620);
+
+        // Cards are equal ignoring the case of their names, so this takes out a copy of the bolt
+        Card shouted = new Card("LIGHTNING BOLT", CardRarity.UNCOMMON, CardVariant.NORMAL, new BigDecimal("1.25"), 1);
+        assertNotNull(binder.takeCard(shouted));
+        assertTotals(binder, 125 + 620);
+
+        assertFalse(binder.removeCard(lotus));
+        assertTrue(binder.removeCard(bolt));
+        assertTrue(binder.removeCard(dragon));
+        assertTotals(binder, 0);
+    }
+
+    @Test
+    void runningTotalMatchesRecountAfterRandomChanges() {
+        SplittableRandom random = new SplittableRandom(42);
+        CardRarity[] rarities = CardRarity.values();
+        CardVariant[] variants = CardVariant.values();
+        List<Card> cards = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            cards.add(new Card("Card " + i, rarities[random.nextInt(rarities.length)],
+                    variants[random.nextInt(variants.length)], BigDecimal.valueOf(random.nextInt(1, 100_000), 2), 1));
+        }
+
+        CardHolder deck = new NormalDeck("Deck");
+        long expected = 0;
+        for (int step = 0; step < 10_000; step++) {
+            Card card = cards.get(random.nextInt(cards.size()));
+
+            if (random.nextBoolean()) {
+                if (deck.addCard(card)) {
+                    expected += card.getValueCents();
+                }
+            } else if (deck.removeCard(card)) {
+                expected -= card.getValueCents();
+            }
+            assertEquals(expected, deck.getCardsValueCents(), "after step " + step);
+            assertEquals(expected, deck.recalculateCardsValueCents(), "after step " + step);
+        }
+        assertTotals(deck, expected);
+    }
+
+    @Test
+    void runningTotalMatchesRecountThroughTheModel() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        model.addCardToCollection("Counterspell", CardRarity.COMMON, CardVariant.EXTENDED_ART, new BigDecimal("0.75"));
+        model.addCardToCollection("Counterspell", CardRarity.COMMON, CardVariant.EXTENDED_ART, new BigDecimal("0.75"));
+        model.addCardToCollection("Serra Angel", CardRarity.RARE, CardVariant.NORMAL, new BigDecimal("2.40"));
+        model.createBinder("Trades", BinderType.BASIC);
+        Binder binder = model.getBinder("Trades");
+        Card counterspell = model.getCardFromCollection("Counterspell");
+        Card angel = model.getCardFromCollection("Serra Angel");
+
+        assertTrue(model.addCardToBinder(binder, counterspell));
+        assertTrue(model.addCardToBinder(binder, counterspell));
+        assertTrue(model.addCardToBinder(binder, angel));
+        // Commons are always normal, so the extended art counterspells count at face value
+        assertTotals(binder, 75 + 75 + 240);
+
+        Card incoming = new Card("Wrath of God", CardRarity.RARE, CardVariant.FULL_ART, new BigDecimal("7.00"), 1);
+        assertTrue(model.executeTrade(binder, incoming, angel));
+        assertTotals(binder, 75 + 75 + 1_400);
+
+        assertTrue(model.removeCardFromBinder(binder, counterspell));
+        assertTotals(binder, 75 + 1_400);
+    }
+
+    /**
+     * Checks the running total, the recount, and a sum of the card values the
+     * holder lists against the total the test expects.
+     */
+    private static void assertTotals(CardHolder holder, long expectedCents) {
+        BigDecimal listed = holder.getCards().stream().map(Card::getValue).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(expectedCents, holder.getCardsValueCents());
+        assertEquals(expectedCents, holder.recalculateCardsValueCents());
+        assertEquals(0, listed.compareTo(BigDecimal.valueOf(expectedCents, 2)), listed.toPlainString());
+        assertEquals(BigDecimal.valueOf(expectedCents, 2), holder.getCardsValue());
+    }
+}
@@ -0,0 +1,187 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Imports small CSV and JSON card lists and checks the cards they leave in
+ * the collection, the rows they reject and where a malformed file stops.
+ */
+class CardImporterTest {
+    @TempDir
+    Path directory;
+
+    /** Lists the collection as "name rarity variant value xcount", in collection order. */
+    private static List<String> collection(TradingCardInventorySystemModel model) {
+        List<String> cards = new ArrayList<>();
+
+        for (int i = 0; i < model.getCollectionSize(); i++) {
+            Card card = model.getCardFromCollection(i);
+            cards.add(card.getName() + " " + card.getRarity() + " " + card.getVariant() + " " + card.getValue()
+                    + " x" + card.getCount());
+        }
+        return cards;
+    }
+
+    private static ImportReport importCsv(TradingCardInventorySystemModel model, String text) throws IOException {
+        return new CardImporter(model).importCsv(new StringReader(text));
+    }
+
+    private static ImportReport importJson(TradingCardInventorySystemModel model, String text) throws IOException {
+        return new CardImporter(model).importJson(new StringReader(text));
+    }
+
+    @Test
+    void quotedCsvFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        ImportReport report = importCsv(model, """
+                "Bolt, the Quick",COMMON,,1.00,2
+                "Say ""Hi""\",Rare,Full-art,2.00,1
+                "Two
+                Lines",uncommon,normal,0.50,3
+                Bad,NOPE,,1,1
+                """);
+
+        assertEquals(List.of("Bolt, the Quick COMMON NORMAL 1.00 x2", "Two\nLines UNCOMMON NORMAL 0.50 x3",
+                "Say \"Hi\" RARE FULL_ART 4.00 x1").stream().sorted().toList(), collection(model).stream().sorted().toList());
+        assertEquals(4, report.rows());
+        assertEquals(3, report.importedRows());
+        assertEquals(1, report.rejectedRows());
+        // The quoted line break makes the bad row the fifth line of the file
+        assertEquals(List.of("Line 5: Unknown rarity 'NOPE'."), report.rejections());
+    }
+
+    @Test
+    void csvHeaderMayReorderAndLeaveOutColumns() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        ImportReport report = importCsv(model, """
+                Count , VALUE,name,Rarity
+                3,1.50,Elf,common
+
+                ,2.25,Imp,uncommon
+                """);
+
+        assertEquals(List.of("Elf COMMON NORMAL 1.50 x3", "Imp UNCOMMON NORMAL 2.25 x1"), collection(model));
+        assertEquals(2, report.rows());
+        assertEquals(0, report.rejectedRows());
+
+        // Without a value column there is nothing to price the cards with
+        IOException error = assertThrows(IOException.class, () -> importCsv(model, "name,rarity\nElf,common\n"));
+        assertEquals("CSV header must have name, rarity and value columns.", error.getMessage());
+    }
+
+    @Test
+    void byteOrderMarkIsSkippedBeforeTheHeader() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        Path csv = directory.resolve("cards.csv");
+        Path json = directory.resolve("cards.JSON");
+        Files.writeString(csv, "\uFEFFrarity,name,value\r\nrare,Dragon,5\r\n", StandardCharsets.UTF_8);
+        Files.writeString(json, "\uFEFF[{\"name\": \"Goblin\", \"rarity\": \"COMMON\", \"value\": 1}]",
+                StandardCharsets.UTF_8);
+
+        ImportReport csvReport = new CardImporter(model).importFile(csv);
+        ImportReport jsonReport = new CardImporter(model).importFile(json);
+
+        assertEquals(List.of("Dragon RARE NORMAL 5.00 x1", "Goblin COMMON NORMAL 1.00 x1"), collection(model));
+        assertEquals(1, csvReport.rows());
+        assertEquals(1, jsonReport.rows());
+    }
+
+    @Test
+    void jsonArrayAndOneObjectPerLineImportTheSame() throws IOException {
+        TradingCardInventorySystemModel array = new TradingCardInventorySystemModel();
+        TradingCardInventorySystemModel lines = new TradingCardInventorySystemModel();
+
+        ImportReport arrayReport = importJson(array, """
+                [
+                  {"name": "Bolt", "rarity": "common", "value": 1.5, "count": 2, "sets": ["A", {"b": "]"}]},
+                  {"NAME": "Quote \\"\\u0041\\"", "rarity": "Legendary", "variant": "Alt-art", "value": "2"},
+                  {"name": "Bad", "rarity": "rare", "value": null}
+                ]
+                """);
+        ImportReport linesReport = importJson(lines, """
+                {"name": "Bolt", "rarity": "common", "value": 1.5, "count": 2, "sets": ["A", {"b": "]"}]}
+                {"NAME": "Quote \\"\\u0041\\"", "rarity": "Legendary", "variant": "Alt-art", "value": "2"}
+                {"name": "Bad", "rarity": "rare", "value": null}
+                """);
+
+        assertEquals(List.of("Bolt COMMON NORMAL 1.50 x2", "Quote \"A\" LEGENDARY ALT_ART 6.00 x1"), collection(array));
+        assertEquals(collection(array), collection(lines));
+        assertEquals(List.of("Line 4: Missing value."), arrayReport.rejections());
+        assertEquals(List.of("Line 3: Missing value."), linesReport.rejections());
+        assertEquals(0, importJson(new TradingCardInventorySystemModel(), " [ ] ").rows());
+    }
+
+    @Test
+    void rowsForTheSameCardAreMerged() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        ImportReport report = importCsv(model, """
+                Bolt,common,,1,2
+                bolt,COMMON,normal,1.00,3
+                Bolt,common,,2,1
+                Bolt,common,full-art,1,1
+                """);
+
+        // Common cards are always normal, so only the value tells the last two rows apart
+        assertEquals(List.of("Bolt COMMON NORMAL 1.00 x6", "Bolt COMMON NORMAL 2.00 x1"), collection(model));
+        assertEquals(4, report.importedRows());
+        assertEquals(2, report.newCards());
+        assertEquals(1, report.batches());
+
+        // A card already in the collection gains the imported copies
+        importCsv(model, "Bolt,common,,1,4\n");
+        assertEquals(List.of("Bolt COMMON NORMAL 1.00 x10", "Bolt COMMON NORMAL 2.00 x1"), collection(model));
+    }
+
+    @Test
+    void countsThatOverflowAreRejected() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        ImportReport report = importCsv(model, """
+                Bolt,common,,1,2147483647
+                Bolt,common,,1,1
+                Elf,common,,1,2147483648
+                Imp,common,,1,-1
+                """);
+
+        assertEquals(List.of("Bolt COMMON NORMAL 1.00 x2147483647"), collection(model));
+        assertEquals(List.of("Line 2: integer overflow", "Line 3: Invalid count '2147483648'.",
+                "Line 4: Count cannot be negative."), report.rejections());
+    }
+
+    @Test
+    void unterminatedQuoteStopsTheImportAfterTheRowsRead() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        String text = """
+                Bolt,common,,1,1
+                Elf,common,,1,1
+                "Imp,common,,1,1
+                Orc,common,,1,1
+                """;
+
+        IOException error = assertThrows(IOException.class, () -> importCsv(model, text));
+
+        assertEquals("Unterminated quoted field starting on line 3.", error.getMessage());
+        assertEquals(List.of("Bolt COMMON NORMAL 1.00 x1", "Elf COMMON NORMAL 1.00 x1"), collection(model));
+
+        // Likewise for JSON that breaks off after a complete object
+        TradingCardInventorySystemModel json = new TradingCardInventorySystemModel();
+        assertThrows(IOException.class, () -> importJson(json, """
+                [{"name": "Bolt", "rarity": "common", "value": 1},
+                 {"name": "Elf", "rarity": "common\
+                """));
+        assertEquals(List.of("Bolt COMMON NORMAL 1.00 x1"), collection(json));
+    }
+}
@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks every card store against a plain list of the same cards: the same
+ * order, the same positions and the same lookups after random adds and
+ * removals, including cards that leave and come back.
+ */
+class CardStoreTest {
+    @TempDir
+    Path directory;
+
+    private CardStore open(String store) throws IOException {
+        return switch (store) {
+            case "heap" -> new HeapCardStore(4);
+            case "mapped" -> MappedCardStore.create(directory, 4);
+            case "columnar" -> new ColumnarCardStore(4);
+            default -> throw new IllegalArgumentException(store);
+        };
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "mapped", "columnar"})
+    void keepsInsertionOrderThroughAddsAndRemovals(String kind) throws IOException {
+        try (CardStore store = open(kind)) {
+            SplittableRandom random = new SplittableRandom(7);
+            List<Card> expected = new ArrayList<>();
+            List<Card> removed = new ArrayList<>();
+
+            for (int step = 0; step < 20_000; step++) {
+                int action = random.nextInt(10);
+
+                if (action < 5 || expected.isEmpty()) {
+                    Card card = new Card("Card " + step, CardRarity.COMMON, CardVariant.NORMAL, 100 + step, 1);
+                    expected.add(store.add(card));
+                } else if (action < 9) {
+                    Card card = expected.remove(random.nextInt(expected.size()));
+                    assertEquals(card, store.remove(card));
+                    assertNull(store.find(card));
+                    removed.add(card);
+                } else if (!removed.isEmpty()) {
+                    // A card returning to the collection goes to the end of the order
+                    Card card = removed.remove(random.nextInt(removed.size()));
+                    expected.add(store.add(card));
+                }
+
+                if (step % 1_000 == 0) {
+                    assertSameOrder(expected, store);
+                }
+            }
+            assertSameOrder(expected, store);
+
+            for (Card card : new ArrayList<>(expected)) {
+                assertEquals(card, store.remove(card));
+            }
+            assertEquals(0, store.size());
+            assertNull(store.getOrNull(0));
+        }
+    }
+
+    @Test
+    void columnarStoreReusesReleasedSlotsOnly() {
+        ColumnarCardStore store = new ColumnarCardStore(4);
+        Card held = store.add(new Card("Held", CardRarity.RARE, CardVariant.NORMAL, 300, 2));
+        Card sold = store.add(new Card("Sold", CardRarity.COMMON, CardVariant.NORMAL, 100, 1));
+        int heldSlot = store.slotOf(held);
+        int soldSlot = store.slotOf(sold);
+
+        // A removed card still held elsewhere keeps its slot and count, and comes back to it
+        Card removed = store.remove(held);
+        Card next = store.add(new Card("Next", CardRarity.COMMON, CardVariant.NORMAL, 50, 4));
+        assertNotEquals(heldSlot, store.slotOf(next));
+        assertEquals(2, removed.getCount());
+        store.add(removed);
+        assertEquals(heldSlot, store.slotOf(held));
+
+        // A released card's slot goes to the next new card, and the old view no longer reads it
+        Card released = store.remove(sold);
+        released.setCount(0);
+        store.release(released);
+        Card reused = store.add(new Card("Reused", CardRarity.UNCOMMON, CardVariant.ALT_ART, 700, 5));
+        assertEquals(soldSlot, store.slotOf(reused));
+        assertEquals(5, reused.getCount());
+        assertEquals(0, released.getCount());
+        released.setCount(9);
+        assertEquals(5, reused.getCount());
+
+        // Adding the released card back adds it as a new card
+        store.add(released);
+        assertNotEquals(soldSlot, store.slotOf(released));
+        assertEquals(9, store.find(released).getCount());
+        assertEquals(300L * 2 + 50 * 4 + 700 * 5 + 100 * 9, store.totalValueCents());
+        assertEquals(2 + 4 + 5 + 9, store.totalCount());
+    }
+
+    private static void assertSameOrder(List<Card> expected, CardStore store) {
+        assertEquals(expected.size(), store.size());
+
+        List<Card> walked = new ArrayList<>();
+        store.forEach(walked::add);
+        assertEquals(expected, walked);
+
+        List<Card> chunked = new ArrayList<>();
+        for (long cursor = 0; cursor >= 0; ) {
+            cursor = store.forEach(cursor, 7, chunked::add);
+        }
+        assertEquals(expected, chunked);
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), store.get(i));
+            assertEquals(expected.get(i), store.find(expected.get(i)));
+        }
+        assertNull(store.getOrNull(expected.size()));
+    }
+}
@@ -0,0 +1,231 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the collection index over every card store against plain sorted
+ * lists of the same cards, through random adds and removals that make the
+ * stores reuse or keep the slots the index is built on, and checks name
+ * search against a scan of every name.
+ */
+class CollectionIndexTest {
+    @TempDir
+    Path directory;
+
+    private CardStore open(String store) throws IOException {
+        return switch (store) {
+            case "heap" -> new HeapCardStore(4);
+            case "mapped" -> MappedCardStore.create(directory, 4);
+            case "columnar" -> new ColumnarCardStore(4);
+            default -> throw new IllegalArgumentException(store);
+        };
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "mapped", "columnar"})
+    void keepsNameAndValueOrderOverTheStoreSlots(String kind) throws IOException {
+        try (CardStore store = open(kind)) {
+            CollectionIndex index = new CollectionIndex(store, 4);
+            SplittableRandom random = new SplittableRandom(7);
+            List<Card> live = new ArrayList<>();
+            Map<Card, Long> sequences = new HashMap<>();
+            long sequence = 0;
+
+            for (int step = 0; step < 10_000; step++) {
+                if (live.isEmpty() || random.nextInt(3) > 0) {
+                    Card card = store.add(new Card("C" + random.nextInt(500) + "_" + step, CardRarity.COMMON,
+                            CardVariant.NORMAL, BigDecimal.valueOf(1 + random.nextInt(300), 2), 1));
+                    index.add(card);
+                    live.add(card);
+                    sequences.put(card, sequence++);
+                } else {
+                    // As the model does: out of the index first, while the store still has the card
+                    Card card = live.remove(random.nextInt(live.size()));
+                    assertTrue(index.remove(card));
+                    store.remove(card);
+                }
+
+                if (step % 997 == 0) {
+                    assertSameOrders(index, live, sequences, random);
+                }
+            }
+            assertSameOrders(index, live, sequences, random);
+        }
+    }
+
+    private static void assertSameOrders(CollectionIndex index, List<Card> live, Map<Card, Long> sequences,
+                                         SplittableRandom random) {
+        List<Card> byValue = new ArrayList<>(live);
+        byValue.sort(Comparator.comparingLong(Card::getValueCents).thenComparing(sequences::get));
+        List<Card> descending = new ArrayList<>(byValue);
+        Collections.reverse(descending);
+
+        for (int trial = 0; trial < 20; trial++) {
+            long low = random.nextInt(320) - 10;
+            long high = low + random.nextInt(100);
+            List<Card> inRange = byValue.stream()
+                    .filter(card -> card.getValueCents() >= low && card.getValueCents() <= high)
+                    .toList();
+
+            List<Card> walked = new ArrayList<>();
+            index.forEachInValueRange(low, high, walked::add);
+            assertEquals(inRange, walked);
+            assertEquals(inRange.size(), index.countInValueRange(low, high));
+
+            int count = random.nextInt(byValue.size() + 3);
+            List<Card> top = new ArrayList<>();
+            index.forEachByValue(count, true, top::add);
+            assertEquals(descending.subList(0, Math.min(count, descending.size())), top);
+
+            double percentile = random.nextDouble() * 100;
+            int rank = Math.clamp((int) Math.ceil(percentile / 100 * byValue.size()) - 1, 0, byValue.size() - 1);
+            assertEquals(byValue.get(rank), index.getAtValuePercentile(percentile));
+        }
+
+        List<Card> byName = new ArrayList<>(live);
+        byName.sort(Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(sequences::get));
+        List<Card> walked = new ArrayList<>();
+        index.forEach(walked::add);
+        assertEquals(byName, walked);
+
+        for (int i = 0; i < byName.size(); i += 37) {
+            assertEquals(byName.get(i), index.get(i));
+            assertEquals(i, index.indexOf(byName.get(i)));
+            assertEquals(byName.get(i), index.lookup(byName.get(i)));
+        }
+        assertEquals(live.size(), index.size());
+    }
+
+    @Test
+    void searchFindsNamesOneTypoAway() {
+        HeapCardStore store = new HeapCardStore(4);
+        CollectionIndex index = new CollectionIndex(store, 4);
+        for (String name : List.of("Dragon", "dragonfly", "Drake", "Goblin", "Grizzly", "Wagon")) {
+            index.add(store.add(new Card(name, CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1)));
+        }
+
+        assertEquals(List.of("Dragon", "dragonfly"), search(index, "DRAG", 10, false));
+        assertEquals(List.of("Dragon", "dragonfly"), search(index, "Drogon", 10, true));     // Substitution
+        assertEquals(List.of("Wagon", "Dragon", "dragonfly"), search(index, "Dagon", 10, true)); // Insertion, and W for D
+        assertEquals(List.of("Dragon", "dragonfly"), search(index, "Draagon", 10, true));    // Deletion
+        assertEquals(List.of("Drake", "Dragon", "dragonfly"), search(index, "drak", 10, true));
+        assertEquals(List.of("Drake", "Dragon"), search(index, "drak", 2, true));
+        assertEquals(List.of(), search(index, "Drogon", 10, false));
+        assertEquals(List.of("Dragon", "dragonfly", "Wagon"), search(index, "ragon", 10, true));
+        assertEquals(6, search(index, "", 10, true).size());
+        assertEquals(List.of(), search(index, "x", 0, true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "mapped", "columnar"})
+    void searchMatchesAScanOfEveryName(String kind) throws IOException {
+        try (CardStore store = open(kind)) {
+            CollectionIndex index = new CollectionIndex(store, 4);
+            SplittableRandom random = new SplittableRandom(11);
+            List<Card> byName = new ArrayList<>();
+
+            // Few letters in both cases, so that most queries have near matches
+            for (int i = 0; i < 1_000; i++) {
+                Card card = store.add(new Card(randomName(random, 1, 7), CardRarity.COMMON, CardVariant.NORMAL,
+                        BigDecimal.valueOf(i + 1, 2), 1));
+                index.add(card);
+                byName.add(card);
+            }
+            byName.sort(Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER));
+
+            for (int trial = 0; trial < 300; trial++) {
+                String query = randomName(random, 0, 5);
+                int limit = (trial % 5 == 0) ? Integer.MAX_VALUE : 1 + random.nextInt(30);
+                List<Card> exact = byName.stream().filter(card -> startsWithin(card.getName(), query, 0)).toList();
+                List<Card> near = byName.stream()
+                        .filter(card -> !startsWithin(card.getName(), query, 0) && startsWithin(card.getName(), query, 1))
+                        .toList();
+
+                List<Card> plain = new ArrayList<>();
+                index.search(query, limit, false, plain::add);
+                assertEquals(exact.subList(0, Math.min(limit, exact.size())), plain, query);
+
+                // Exact matches come first in name order, then near matches in any order, up to the limit
+                List<Card> fuzzy = new ArrayList<>();
+                index.search(query, limit, true, fuzzy::add);
+                assertEquals(Math.min(limit, exact.size() + near.size()), fuzzy.size(), query);
+                assertEquals(plain, fuzzy.subList(0, plain.size()), query);
+                for (Card card : fuzzy.subList(plain.size(), fuzzy.size())) {
+                    assertTrue(near.contains(card), query + " found " + card.getName());
+                }
+                assertEquals(fuzzy.size(), fuzzy.stream().distinct().count(), query);
+
+                // Case does not matter
+                List<Card> upper = new ArrayList<>();
+                index.search(query.toUpperCase(Locale.ROOT), limit, true, upper::add);
+                assertEquals(fuzzy, upper, query);
+            }
+        }
+    }
+
+    private static List<String> search(CollectionIndex index, String query, int limit, boolean fuzzy) {
+        List<String> names = new ArrayList<>();
+        index.search(query, limit, fuzzy, card -> names.add(card.getName()));
+        return names;
+    }
+
+    private static String randomName(SplittableRandom random, int shortest, int longest) {
+        StringBuilder name = new StringBuilder();
+        int length = random.nextInt(shortest, longest + 1);
+
+        for (int i = 0; i < length; i++) {
+            name.append("abcABC".charAt(random.nextInt(6)));
+        }
+        return name.toString();
+    }
+
+    /** Whether some start of the name is at most the given number of edits from the query, ignoring case. */
+    private static boolean startsWithin(String name, String query, int edits) {
+        String folded = name.toLowerCase(Locale.ROOT);
+        String target = query.toLowerCase(Locale.ROOT);
+
+        for (int length = 0; length <= folded.length(); length++) {
+            if (distance(folded.substring(0, length), target) <= edits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The Levenshtein distance: the fewest insertions, deletions and substitutions turning one string into the other. */
+    private static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + ((a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,85 @@
+import java.math.BigDecimal;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sample inventories for the persistence tests, and a description of
+ * everything a snapshot or journal has to bring back, so two models can be
+ * compared with one assertion.
+ */
+final class Inventories {
+    private Inventories() {
+    }
+
+    /**
+     * Fills a model with a binder of every type, both kinds of deck, a card
+     * held by a binder and a deck at once, a trade and some sales.
+     *
+     * @param model an empty model
+     */
+    static void fill(TradingCardInventorySystemModel model) {
+        model.addCardToCollection(new Card("Bolt", CardRarity.COMMON, CardVariant.NORMAL, new BigDecimal("0.25"), 4));
+        model.addCardToCollection(new Card("Elf", CardRarity.UNCOMMON, CardVariant.FULL_ART, new BigDecimal("1.10"), 2));
+        model.addCardToCollection(new Card("Dragon", CardRarity.RARE, CardVariant.ALT_ART, new BigDecimal("12.00"), 3));
+        model.addCardToCollection(new Card("Titan", CardRarity.LEGENDARY, CardVariant.EXTENDED_ART, new BigDecimal("40.05"), 2));
+        model.addCardToCollection(new Card("Sold", CardRarity.COMMON, CardVariant.NORMAL, new BigDecimal("2.00"), 1));
+
+        for (BinderType type : BinderType.values()) {
+            assertTrue(model.createBinder(type.name(), type));
+        }
+        assertTrue(model.createDeck("Normal", DeckType.NORMAL));
+        assertTrue(model.createDeck("Sellable", DeckType.SELLABLE));
+        assertTrue(model.createDeck("Sold deck", DeckType.SELLABLE));
+
+        // Bolt is in a binder and a deck at once
+        assertTrue(model.addCardToBinder(model.getBinder("BASIC"), model.getCardFromCollection("Bolt")));
+        assertTrue(model.addCardToDeck(model.getDeck("Normal"), model.getCardFromCollection("Bolt")));
+        assertTrue(model.addCardToBinder(model.getBinder("PAUPER"), model.getCardFromCollection("Elf")));
+        assertTrue(model.addCardToBinder(model.getBinder("RARES"), model.getCardFromCollection("Dragon")));
+        assertTrue(model.addCardToBinder(model.getBinder("LUXURY"), model.getCardFromCollection("Titan")));
+        assertTrue(model.addCardToBinder(model.getBinder("COLLECTOR"), model.getCardFromCollection("Dragon")));
+        assertTrue(model.addCardToDeck(model.getDeck("Sellable"), model.getCardFromCollection("Titan")));
+        assertTrue(model.addCardToDeck(model.getDeck("Sold deck"), model.getCardFromCollection("Elf")));
+
+        Binder pauper = model.getBinder("PAUPER");
+        assertTrue(model.executeTrade(pauper, new Card("Goblin", CardRarity.COMMON, CardVariant.NORMAL,
+                new BigDecimal("0.90"), 1), pauper.getCards().getFirst()));
+        assertTrue(model.sellDeck(model.getDeck("Sold deck")));
+        assertTrue(model.sellCard(model.getCardFromCollection("Sold")));
+        assertTrue(model.adjustCardCount(model.getCardFromCollection("Bolt"), 5));
+    }
+
+    /**
+     * Describes a model: its money, the collection in order with each card's
+     * holders, and every binder and deck with its cards.
+     *
+     * @param model the model
+     * @return the description
+     */
+    static String describe(TradingCardInventorySystemModel model) {
+        StringJoiner description = new StringJoiner("\n");
+
+        description.add("money " + model.getCollectorMoneyCents());
+        model.forEachCard(card -> {
+            StringJoiner holders = new StringJoiner(",", "[", "]");
+            model.getHoldersOfCard(card).forEach(holder -> holders.add(holder.getName()));
+            description.add("card " + card(card) + " " + holders);
+        });
+        model.forEachBinder(binder -> description.add("binder " + holder(binder)
+                + ((binder instanceof LuxuryBinder luxury) ? " price " + luxury.getCustomPrice() : "")));
+        model.forEachDeck(deck -> description.add("deck " + holder(deck)));
+        return description.toString();
+    }
+
+    private static String holder(CardHolder holder) {
+        StringJoiner cards = new StringJoiner(",", "[", "]");
+        holder.forEachCard(card -> cards.add(card(card)));
+        return holder.getName() + " " + holder.getClass().getSimpleName() + " " + cards;
+    }
+
+    private static String card(Card card) {
+        return card.getName() + "/" + card.getRarity() + "/" + card.getVariant() + "/" + card.getValueCents()
+                + "x" + card.getCount();
+    }
+}
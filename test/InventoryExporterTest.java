@@ -0,0 +1,308 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports inventories whose names need quoting or escaping, reads the CSV and
+ * JSON back with independent parsers, and checks that both say what the model
+ * holds.
+ */
+class InventoryExporterTest {
+    private static final String[] AWKWARD_NAMES = {"Comma, Card", "Say \"Hi\"", "Two\nLines", "Carriage\r\nReturn",
+            "Back\\slash", "Tab\there", "Bell\u0007", "Snow ☃ é", "Plain"};
+
+    @TempDir
+    Path directory;
+
+    private static TradingCardInventorySystemModel sample() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        Inventories.fill(model);
+
+        assertTrue(model.createBinder("Spares, \"best\"", BinderType.BASIC));
+        for (String name : AWKWARD_NAMES) {
+            model.addCardToCollection(new Card(name, CardRarity.RARE, CardVariant.FULL_ART, new BigDecimal("1.50"), 2));
+            assertTrue(model.addCardToBinder(model.getBinder("Spares, \"best\""), model.getCardFromCollection(name)));
+        }
+        return model;
+    }
+
+    /** What an export should say about a model, one entry per line, in export order. */
+    private static List<String> expected(TradingCardInventorySystemModel model) {
+        List<String> entries = new ArrayList<>();
+
+        entries.add("money " + model.getCollectorMoney().toPlainString());
+        model.forEachCardChunk(100, cards -> cards.forEach(card -> entries.add("card " + card(card) + " x" + card.getCount())));
+        for (CardHolder holder : model.getBinders()) {
+            addHolder(entries, "binder", holder);
+        }
+        for (CardHolder holder : model.getDecks()) {
+            addHolder(entries, "deck", holder);
+        }
+        return entries;
+    }
+
+    private static void addHolder(List<String> entries, String section, CardHolder holder) {
+        BigDecimal value = (holder instanceof Sellable sellable) ? sellable.calculateValue() : holder.getCardsValue();
+
+        entries.add(section + " " + holder.getName() + " " + holder.getClass().getSimpleName() + " "
+                + value.toPlainString() + " " + holder.getCards().size());
+        for (Card card : holder.getCards()) {
+            entries.add("held " + holder.getName() + " " + card(card));
+        }
+    }
+
+    private static String card(Card card) {
+        return card.getName() + "/" + card.getRarity() + "/" + card.getVariant() + "/" + card.getValue().toPlainString();
+    }
+
+    @Test
+    void csvExportReadsBackAsTheInventory() throws IOException {
+        TradingCardInventorySystemModel model = sample();
+        Path file = directory.resolve("inventory.csv");
+
+        new InventoryExporter(model).export(file);
+        List<List<String>> rows = parseCsv(Files.readString(file, StandardCharsets.UTF_8));
+
+        assertEquals(List.of("section", "holder", "type", "name", "rarity", "variant", "value", "count"), rows.getFirst());
+        List<String> entries = new ArrayList<>();
+        for (List<String> row : rows.subList(1, rows.size())) {
+            assertEquals(8, row.size(), row.toString());
+            entries.add(switch (row.get(0)) {
+                case "money" -> "money " + row.get(6);
+                case "card" -> "card " + row.get(3) + "/" + row.get(4) + "/" + row.get(5) + "/" + row.get(6)
+                        + " x" + row.get(7);
+                case "binder", "deck" -> row.get(0) + " " + row.get(1) + " " + row.get(2) + " " + row.get(6) + " "
+                        + row.get(7);
+                case "held" -> "held " + row.get(1) + " " + row.get(3) + "/" + row.get(4) + "/" + row.get(5) + "/"
+                        + row.get(6);
+                default -> throw new AssertionError("Unknown section " + row.get(0));
+            });
+        }
+
+        assertEquals(expected(model), entries);
+    }
+
+    @Test
+    void jsonExportReadsBackAsTheInventory() throws IOException {
+        TradingCardInventorySystemModel model = sample();
+        Path file = directory.resolve("inventory.JSON");
+
+        new InventoryExporter(model).export(file);
+        Map<?, ?> inventory = (Map<?, ?>) new JsonParser(Files.readString(file, StandardCharsets.UTF_8)).parse();
+
+        List<String> entries = new ArrayList<>();
+        entries.add("money " + inventory.get("collectorMoney"));
+        for (Object card : (List<?>) inventory.get("cards")) {
+            entries.add("card " + card((Map<?, ?>) card) + " x" + ((Map<?, ?>) card).get("count"));
+        }
+        for (String section : List.of("binder", "deck")) {
+            for (Object object : (List<?>) inventory.get(section + "s")) {
+                Map<?, ?> holder = (Map<?, ?>) object;
+                List<?> cards = (List<?>) holder.get("cards");
+
+                entries.add(section + " " + holder.get("name") + " " + holder.get("type") + " " + holder.get("value")
+                        + " " + cards.size());
+                for (Object card : cards) {
+                    entries.add("held " + holder.get("name") + " " + card((Map<?, ?>) card));
+                }
+            }
+        }
+
+        assertEquals(expected(model), entries);
+    }
+
+    @Test
+    void collectionLargerThanAChunkIsExportedWhole() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            cards.add(new Card("Card " + i, CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.valueOf(i + 1, 2), 1));
+        }
+        model.addCardsToCollection(cards);
+        Path file = directory.resolve("inventory.csv");
+
+        new InventoryExporter(model).export(file);
+
+        assertEquals(expected(model), parseCsv(Files.readString(file)).stream().skip(1)
+                .map(row -> row.get(0).equals("money") ? "money " + row.get(6)
+                        : "card " + row.get(3) + "/" + row.get(4) + "/" + row.get(5) + "/" + row.get(6) + " x" + row.get(7))
+                .toList());
+    }
+
+    private static String card(Map<?, ?> card) {
+        return card.get("name") + "/" + card.get("rarity") + "/" + card.get("variant") + "/" + card.get("value");
+    }
+
+    @Test
+    void jsonStringsEscapeQuotesBackslashesAndControlCharacters() {
+        assertEquals("\"Say \\\"Hi\\\"\"", InventoryExporter.json("Say \"Hi\""));
+        assertEquals("\"a\\\\b\"", InventoryExporter.json("a\\b"));
+        assertEquals("\"\\n\\r\\t\\u0007\\u001f\"", InventoryExporter.json("\n\r\t\u0007\u001f"));
+        assertEquals("\"/ ☃ é\"", InventoryExporter.json("/ ☃ é"));
+        assertEquals("\"\"", InventoryExporter.json(""));
+    }
+
+    @Test
+    void formatFollowsTheFileName() {
+        assertEquals(InventoryExporter.Format.JSON, InventoryExporter.Format.of(Path.of("out", "inventory.Json")));
+        assertEquals(InventoryExporter.Format.CSV, InventoryExporter.Format.of(Path.of("inventory.csv")));
+        assertEquals(InventoryExporter.Format.CSV, InventoryExporter.Format.of(Path.of("json")));
+    }
+
+    /** Splits RFC 4180 CSV into rows of fields. */
+    private static List<List<String>> parseCsv(String text) {
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                row.add(field.toString());
+                field.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+
+        assertTrue(!quoted && field.isEmpty() && row.isEmpty(), "CSV ends mid-row");
+        return rows;
+    }
+
+    /** Parses JSON into maps, lists, strings, and numbers kept as their text. */
+    private static final class JsonParser {
+        private final String text;
+        private int position;
+
+        JsonParser(String text) {
+            this.text = text;
+        }
+
+        Object parse() {
+            Object value = value();
+            skipWhitespace();
+            assertEquals(text.length(), position, "Text after the JSON value");
+            return value;
+        }
+
+        private Object value() {
+            skipWhitespace();
+            char c = text.charAt(position);
+
+            if (c == '{') {
+                Map<String, Object> object = new LinkedHashMap<>();
+                position++;
+                if (!consume('}')) {
+                    do {
+                        skipWhitespace();
+                        String key = string();
+                        skipWhitespace();
+                        assertTrue(consume(':'), "Expected ':' at " + position);
+                        object.put(key, value());
+                        skipWhitespace();
+                    } while (consume(','));
+                    assertTrue(consume('}'), "Expected '}' at " + position);
+                }
+                return object;
+            } else if (c == '[') {
+                List<Object> array = new ArrayList<>();
+                position++;
+                skipWhitespace();
+                if (!consume(']')) {
+                    do {
+                        array.add(value());
+                        skipWhitespace();
+                    } while (consume(','));
+                    assertTrue(consume(']'), "Expected ']' at " + position);
+                }
+                return array;
+            } else if (c == '"') {
+                return string();
+            }
+
+            int start = position;
+            while (position < text.length() && "-+.eE0123456789".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            assertTrue(position > start, "Expected a value at " + start);
+            return text.substring(start, position);
+        }
+
+        private String string() {
+            assertTrue(consume('"'), "Expected a string at " + position);
+            StringBuilder string = new StringBuilder();
+
+            while (true) {
+                char c = text.charAt(position++);
+
+                if (c == '"') {
+                    return string.toString();
+                } else if (c < 0x20) {
+                    throw new AssertionError("Unescaped control character at " + (position - 1));
+                } else if (c != '\\') {
+                    string.append(c);
+                    continue;
+                }
+
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> string.append(escaped);
+                    case 'n' -> string.append('\n');
+                    case 'r' -> string.append('\r');
+                    case 't' -> string.append('\t');
+                    case 'b' -> string.append('\b');
+                    case 'f' -> string.append('\f');
+                    case 'u' -> {
+                        string.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> throw new AssertionError("Invalid escape at " + (position - 1));
+                }
+            }
+        }
+
+        private boolean consume(char expected) {
+            if (position < text.length() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
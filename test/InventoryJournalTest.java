@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays journals written by a live model into fresh models, and checks
+ * that a crash's leftovers at the end of the file are cut off rather than
+ * applied, and that a record the model cannot apply is reported as corrupt.
+ */
+class InventoryJournalTest {
+    @TempDir
+    Path directory;
+
+    /** Runs the sample inventory against a model journaling to the given file. */
+    private static TradingCardInventorySystemModel journaled(Path path) throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        try (InventoryJournal journal = new InventoryJournal(path, 0)) {
+            model.attachJournal(journal, Long.MAX_VALUE, null);
+            Inventories.fill(model);
+            model.detachJournal();
+        }
+        return model;
+    }
+
+    @Test
+    void replayRebuildsTheModel() throws IOException {
+        Path path = directory.resolve("journal.log");
+        TradingCardInventorySystemModel model = journaled(path);
+
+        long length = Files.size(path);
+
+        TradingCardInventorySystemModel replayed = new TradingCardInventorySystemModel();
+        long lastSequence = InventoryJournal.replay(path, replayed, 0);
+
+        assertEquals(Inventories.describe(model), Inventories.describe(replayed));
+        assertEquals(length, Files.size(path));
+        assertTrue(lastSequence > 0);
+    }
+
+    @Test
+    void replaySkipsRecordsTheSnapshotHas() throws IOException {
+        Path path = directory.resolve("journal.log");
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        try (InventoryJournal journal = new InventoryJournal(path, 0)) {
+            model.attachJournal(journal, Long.MAX_VALUE, null);
+            model.addCardToCollection(new Card("Bolt", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1));
+            model.addCardToCollection(new Card("Elf", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1));
+            model.adjustCardCount(model.getCardFromCollection("Bolt"), 2);
+        }
+
+        // As if a snapshot taken after the first record had been loaded
+        TradingCardInventorySystemModel replayed = new TradingCardInventorySystemModel();
+        replayed.addCardToCollection(new Card("Bolt", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1));
+        assertEquals(3, InventoryJournal.replay(path, replayed, 1));
+        assertEquals(Inventories.describe(model), Inventories.describe(replayed));
+
+        // Nothing is applied when the snapshot has every record
+        TradingCardInventorySystemModel current = new TradingCardInventorySystemModel();
+        assertEquals(3, InventoryJournal.replay(path, current, 3));
+        assertEquals(0, current.getCollectionSize());
+    }
+
+    @Test
+    void tornTailIsCutOff() throws IOException {
+        Path path = directory.resolve("journal.log");
+        TradingCardInventorySystemModel model = journaled(path);
+        byte[] whole = Files.readAllBytes(path);
+
+        // A crash halfway through appending another record leaves part of its frame
+        TradingCardInventorySystemModel extra = new TradingCardInventorySystemModel();
+        Path extraPath = directory.resolve("extra.log");
+        try (InventoryJournal journal = new InventoryJournal(extraPath, 1_000)) {
+            extra.attachJournal(journal, Long.MAX_VALUE, null);
+            extra.addCardToCollection(new Card("Torn", CardRarity.RARE, CardVariant.NORMAL, BigDecimal.TEN, 1));
+        }
+        byte[] record = Files.readAllBytes(extraPath);
+        Files.write(path, concat(whole, Arrays.copyOf(record, record.length / 2)));
+
+        TradingCardInventorySystemModel replayed = new TradingCardInventorySystemModel();
+        InventoryJournal.replay(path, replayed, 0);
+
+        assertEquals(Inventories.describe(model), Inventories.describe(replayed));
+        assertEquals(whole.length, Files.size(path));
+    }
+
+    @Test
+    void recordWithABadChecksumIsCutOffWithEverythingAfterIt() throws IOException {
+        Path path = directory.resolve("journal.log");
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        try (InventoryJournal journal = new InventoryJournal(path, 0)) {
+            model.attachJournal(journal, Long.MAX_VALUE, null);
+            model.addCardToCollection(new Card("Bolt", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1));
+        }
+        long firstLength = Files.size(path);
+        try (InventoryJournal journal = new InventoryJournal(path, 1)) {
+            model.attachJournal(journal, Long.MAX_VALUE, null);
+            model.addCardToCollection(new Card("Elf", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1));
+            model.addCardToCollection(new Card("Imp", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1));
+        }
+
+        // Flip a byte in the second record's payload
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[(int) firstLength + 20] ^= 0x55;
+        Files.write(path, bytes);
+
+        TradingCardInventorySystemModel replayed = new TradingCardInventorySystemModel();
+        assertEquals(1, InventoryJournal.replay(path, replayed, 0));
+        assertEquals(1, replayed.getCollectionSize());
+        assertEquals(firstLength, Files.size(path));
+    }
+
+    @Test
+    void recordForAMissingHolderIsReportedAsCorrupt() throws IOException {
+        Path path = directory.resolve("journal.log");
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+
+        try (InventoryJournal journal = new InventoryJournal(path, 0)) {
+            model.attachJournal(journal, Long.MAX_VALUE, null);
+            model.createBinder("Binder", BinderType.BASIC);
+            model.addCardToCollection(new Card("Bolt", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1));
+            model.addCardToBinder(model.getBinder("Binder"), model.getCardFromCollection("Bolt"));
+        }
+
+        // A snapshot said to include the binder's creation, but without the binder
+        TradingCardInventorySystemModel replayed = new TradingCardInventorySystemModel();
+        IOException error = assertThrows(IOException.class, () -> InventoryJournal.replay(path, replayed, 1));
+
+        assertEquals("Corrupt journal record 3: No binder named 'Binder'.", error.getMessage());
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
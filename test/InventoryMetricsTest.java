@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the latency buckets cover every time without gaps or overlaps,
+ * each within a sixteenth of its times, and that the percentiles read from
+ * them are the top of the bucket holding the exact percentile.
+ */
+class InventoryMetricsTest {
+    private static final InventoryMetrics.Operation OPERATION = InventoryMetrics.Operation.ADD_CARD;
+    private static final InventoryMetrics.Target TARGET = InventoryMetrics.Target.COLLECTION;
+
+    private static InventoryMetrics.Summary summarise(long... nanos) {
+        InventoryMetrics metrics = new InventoryMetrics();
+
+        for (long time : nanos) {
+            metrics.record(OPERATION, TARGET, time);
+        }
+        return metrics.summaries().getFirst();
+    }
+
+    @Test
+    void bucketsCoverEveryTimeOnce() {
+        int last = InventoryMetrics.bucket(Long.MAX_VALUE);
+
+        for (int i = 0; i < last; i++) {
+            long lowest = InventoryMetrics.lowestInBucket(i);
+            long next = InventoryMetrics.lowestInBucket(i + 1);
+
+            assertEquals(i, InventoryMetrics.bucket(lowest), "lowest of bucket " + i);
+            assertEquals(i, InventoryMetrics.bucket(next - 1), "highest of bucket " + i);
+            assertEquals(i + 1, InventoryMetrics.bucket(next), "past bucket " + i);
+            assertTrue(next - lowest <= Math.max(1, lowest / 16), "width of bucket " + i);
+        }
+
+        // Every time below 16 ns has its own bucket, and each power of two above has 16
+        for (long nanos = 0; nanos < 16; nanos++) {
+            assertEquals(nanos, InventoryMetrics.bucket(nanos));
+        }
+        assertEquals(16, InventoryMetrics.bucket(16));
+        assertEquals(31, InventoryMetrics.bucket(31));
+        assertEquals(32, InventoryMetrics.bucket(32));
+        assertEquals(32, InventoryMetrics.bucket(33));
+        assertEquals(48, InventoryMetrics.bucket(64));
+        assertEquals(0, InventoryMetrics.bucket(-1));
+
+        // The last bucket starts at 31 * 2^36 ns and takes every longer time
+        assertEquals(31L << 36, InventoryMetrics.lowestInBucket(last));
+        assertEquals(1L << 41, InventoryMetrics.lowestInBucket(last + 1));
+        assertEquals(last, InventoryMetrics.bucket((1L << 41) - 1));
+        assertEquals(last, InventoryMetrics.bucket(1L << 41));
+    }
+
+    @Test
+    void percentilesOfTimesUnderSixteenNanosecondsAreExact() {
+        InventoryMetrics.Summary summary = summarise(10, 9, 8, 7, 6, 5, 4, 3, 2, 1);
+
+        assertEquals(10, summary.count());
+        assertEquals(55, summary.totalNanos());
+        assertEquals(5, summary.meanNanos());
+        assertEquals(5, summary.p50Nanos());
+        assertEquals(9, summary.p90Nanos());
+        assertEquals(10, summary.p99Nanos());
+        assertEquals(10, summary.maxNanos());
+    }
+
+    @Test
+    void percentilesAreTheTopOfTheirBucket() {
+        long[] times = new long[100];
+        Arrays.setAll(times, i -> i + 1);
+        InventoryMetrics.Summary summary = summarise(times);
+
+        // 50 is in [50, 51], 90 in [88, 91] and 99 in [96, 99]
+        assertEquals(51, summary.p50Nanos());
+        assertEquals(91, summary.p90Nanos());
+        assertEquals(99, summary.p99Nanos());
+        assertEquals(100, summary.maxNanos());
+
+        // No percentile is above the longest time, even when its bucket reaches higher
+        InventoryMetrics.Summary single = summarise(1_000);
+        assertEquals(1_000, single.p50Nanos());
+        assertEquals(1_000, single.p99Nanos());
+        assertEquals(1_000, single.maxNanos());
+    }
+
+    @Test
+    void timesPastTheLastBucketReportTheLongest() {
+        long hour = 3_600_000_000_000L;
+        InventoryMetrics.Summary summary = summarise(5, hour);
+
+        assertEquals(5, summary.p50Nanos());
+        assertEquals(hour, summary.p90Nanos());
+        assertEquals(hour, summary.p99Nanos());
+        assertEquals(hour, summary.maxNanos());
+    }
+
+    @Test
+    void percentilesAreWithinASixteenthOfTheExactOnes() {
+        SplittableRandom random = new SplittableRandom(23);
+
+        for (int trial = 0; trial < 200; trial++) {
+            long[] times = new long[1 + random.nextInt(500)];
+            for (int i = 0; i < times.length; i++) {
+                // Spread over many powers of two
+                times[i] = random.nextLong(1, 1L << random.nextInt(1, 40));
+            }
+            InventoryMetrics.Summary summary = summarise(times);
+            Arrays.sort(times);
+
+            assertWithinASixteenth(exact(times, 0.5), summary.p50Nanos(), summary.maxNanos());
+            assertWithinASixteenth(exact(times, 0.9), summary.p90Nanos(), summary.maxNanos());
+            assertWithinASixteenth(exact(times, 0.99), summary.p99Nanos(), summary.maxNanos());
+            assertEquals(times[times.length - 1], summary.maxNanos());
+        }
+    }
+
+    /** The time that a share of the sorted times are at most, by nearest rank. */
+    private static long exact(long[] sorted, double share) {
+        return sorted[(int) Math.max(1, Math.ceil(share * sorted.length)) - 1];
+    }
+
+    private static void assertWithinASixteenth(long exact, long estimate, long max) {
+        assertTrue(estimate >= exact, estimate + " below " + exact);
+        assertTrue(estimate <= exact + exact / 16, estimate + " too far above " + exact);
+        assertTrue(estimate <= max, estimate + " above the longest time " + max);
+    }
+}
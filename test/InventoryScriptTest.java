@@ -0,0 +1,189 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs scripts with malformed and refused commands and checks that each is
+ * reported once with its line number, that the commands around it still run,
+ * and that the failures are counted.
+ */
+class InventoryScriptTest {
+    @TempDir
+    Path directory;
+
+    private final TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    /**
+     * Runs a script and checks that the failures it returns and the totals
+     * line both count the failures reported.
+     */
+    private void run(String script, int commands) throws IOException {
+        int failures = new InventoryScript(model, new PrintStream(out, true, StandardCharsets.UTF_8))
+                .run(new StringReader(script), new PrintStream(errors, true, StandardCharsets.UTF_8));
+
+        List<String> lines = errors.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(failures().size(), failures, lines.toString());
+        assertTrue(lines.getLast().startsWith("Ran " + commands + " commands (" + failures + " failed) in "),
+                lines.getLast());
+    }
+
+    /** The reported failures, without the totals line. */
+    private List<String> failures() {
+        List<String> lines = errors.toString(StandardCharsets.UTF_8).lines().toList();
+        return lines.subList(0, lines.size() - 1);
+    }
+
+    @Test
+    void malformedCommandsAreReportedAndSkipped() throws IOException {
+        String script = """
+                # Comments and blank lines are not commands
+
+                add Bolt COMMON NORMAL 1.00 3
+                add Bolt COMMON
+                fly Bolt
+                binder
+                binder create
+                count Bolt many
+                add Spark COMMON NORMAL cheap
+                add Spark MYTHIC NORMAL 1.00
+                add Spark COMMON NORMAL 1.00 -2
+                add "Unclosed COMMON NORMAL 1.00
+                report extra
+                add Spark COMMON NORMAL 2.00
+                """;
+
+        run(script, 12);
+        assertEquals(List.of(
+                "line 4: Usage: add {card} {rarity} {variant} {value} [count]",
+                "line 5: Unknown command 'fly'.",
+                "line 6: Missing command after 'binder'.",
+                "line 7: Usage: binder create {name} [type]",
+                "line 8: Invalid adjustment 'many'.",
+                "line 9: Invalid value 'cheap'.",
+                "line 10: Unknown rarity 'MYTHIC'.",
+                "line 11: Count cannot be negative.",
+                "line 12: Unclosed quote.",
+                "line 13: Usage: report"), failures());
+
+        // The commands around the failures ran
+        assertEquals(3, model.getCardFromCollection("Bolt").getCount());
+        assertEquals(new BigDecimal("2.00"), model.getCardFromCollection("Spark").getValue());
+        assertEquals(2, model.getCollectionSize());
+    }
+
+    @Test
+    void unknownCardsAndHoldersAreReported() throws IOException {
+        String script = """
+                add Bolt COMMON NORMAL 1.00
+                binder create Spares
+                deck create Main SELLABLE
+                sell Ghost
+                count Ghost 1
+                binder add Attic Bolt
+                deck delete Sideboard
+                binder add Spares Ghost
+                binder remove Spares Bolt
+                binder create Attic MISC
+                deck trade Main Bolt Elf COMMON NORMAL 1.00
+                binder dump Spares
+                """;
+
+        run(script, 12);
+        assertEquals(List.of(
+                "line 4: No card named 'Ghost' in the collection.",
+                "line 5: No card named 'Ghost' in the collection.",
+                "line 6: No binder named 'Attic'.",
+                "line 7: No deck named 'Sideboard'.",
+                "line 8: No card named 'Ghost' in the collection.",
+                "line 9: 'Spares' holds no card named 'Bolt'.",
+                "line 10: Unknown type 'MISC'.",
+                "line 11: Only binders trade cards.",
+                "line 12: Unknown binder command 'dump'."), failures());
+        assertNull(model.getBinder("Attic"));
+        assertNotNull(model.getDeck("Main"));
+    }
+
+    @Test
+    void refusedCommandsGiveTheControllersMessages() throws IOException {
+        String script = """
+                add Bolt COMMON NORMAL 1.00
+                add Dragon RARE FULL_ART 10.00
+                binder create Commons PAUPER
+                binder create Commons
+                binder add Commons Dragon
+                binder add Commons Bolt
+                sell Bolt
+                count Dragon -5
+                binder create Vault LUXURY
+                binder sell Vault
+                binder add Vault Dragon
+                binder sell Vault 1.00
+                binder sell Vault 25.00
+                deck create Main
+                deck sell Main
+                binder sell Commons 5.00
+                binder sell Commons
+                binder sell Commons
+                """;
+
+        run(script, 18);
+        assertEquals(List.of(
+                "line 4: That binder already exists.",
+                "line 5: Cannot add card - invalid type or count.",
+                "line 7: Cannot sell card - it's in a binder or deck.",
+                "line 8: Adjustment cannot set card count below zero.",
+                "line 10: Cannot sell empty binder.",
+                "line 12: Price must be at least $20.00",
+                "line 15: This deck type cannot be sold.",
+                "line 16: Only luxury binders take a custom price.",
+                "line 18: No binder named 'Commons'."), failures());
+        assertNull(model.getBinder("Vault"));
+        assertNull(model.getBinder("Commons"));
+    }
+
+    @Test
+    void quotedWordsKeepSpacesAndQuotes() throws IOException {
+        String script = """
+                add "Say ""Hi""\" COMMON NORMAL 1.00 2
+                binder create "My Spares"
+                binder add "My Spares" "say ""hi""\"
+                report
+                """;
+
+        run(script, 4);
+        assertEquals(List.of(), failures());
+        assertEquals(1, model.getBinder("My Spares").getCardsCount());
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("binder 'My Spares' (NonCuratedBinder) 1 cards, worth $1.00"),
+                out.toString(StandardCharsets.UTF_8));
+
+        assertEquals(List.of("add", "a b", "", "\"", "c\"d"), InventoryScript.words("add \"a b\"  \"\" \"\"\"\" \"c\"\"d\""));
+        assertEquals(List.of(), InventoryScript.words("   "));
+        assertThrows(IllegalArgumentException.class, () -> InventoryScript.words("add \"a\"\""));
+    }
+
+    @Test
+    void unreadableImportIsReportedAndTheScriptCarriesOn() throws IOException {
+        String script = "import " + directory.resolve("missing.csv") + "\nadd Bolt COMMON NORMAL 1.00\n";
+
+        run(script, 2);
+        assertEquals(1, failures().size());
+        assertTrue(failures().getFirst().startsWith("line 1: Stopped: "), failures().getFirst());
+        assertNotNull(model.getCardFromCollection("Bolt"));
+    }
+}
@@ -0,0 +1,236 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the HTTP server on a free local port and checks the status and JSON
+ * body of each endpoint, for requests that succeed and for each way one can
+ * fail: a malformed request, an unknown name, a refused operation, a wrong
+ * method and an unexpected exception.
+ */
+class InventoryServerTest {
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private InventoryServer server;
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.close();
+        }
+        client.close();
+    }
+
+    private TradingCardInventorySystemModel serve(TradingCardInventorySystemModel model) throws IOException {
+        server = new InventoryServer(model, 0);
+        server.start();
+        return model;
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, (body != null) ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private void assertResponse(int status, String json, HttpResponse<String> response) {
+        assertEquals(status, response.statusCode(), response.body());
+        assertEquals(json + "\n", response.body());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+    }
+
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    @Test
+    void cardsAreAddedReadCountedAndSold() throws IOException, InterruptedException {
+        TradingCardInventorySystemModel model = serve(new TradingCardInventorySystemModel());
+
+        assertResponse(200, "{\"collectorMoney\":0.00}", send("GET", "/money", null));
+        assertResponse(201, "{\"name\":\"Fire + Ice\",\"rarity\":\"RARE\",\"variant\":\"FULL_ART\",\"value\":4.00,\"count\":2}",
+                send("POST", "/cards", "{\"name\": \"Fire + Ice\", \"rarity\": \"rare\", \"variant\": \"Full-art\","
+                        + " \"value\": 2, \"count\": 2}"));
+
+        String path = "/cards/" + encode("fire + ice");
+        assertResponse(200, "{\"name\":\"Fire + Ice\",\"rarity\":\"RARE\",\"variant\":\"FULL_ART\",\"value\":4.00,\"count\":2}",
+                send("GET", path, null));
+        assertResponse(200, "{\"name\":\"Fire + Ice\",\"rarity\":\"RARE\",\"variant\":\"FULL_ART\",\"value\":4.00,\"count\":5}",
+                send("PUT", path, "{\"count\": 5}"));
+        assertResponse(200, "{\"collectorMoney\":4.00}", send("POST", path + "/sell", null));
+        assertEquals(4, model.getCardFromCollection("Fire + Ice").getCount());
+
+        assertResponse(200, "{\"name\":\"Fire + Ice\",\"rarity\":\"RARE\",\"variant\":\"FULL_ART\",\"value\":4.00,\"count\":0}",
+                send("DELETE", path, null));
+        assertResponse(409, "{\"error\":\"No free copy of 'Fire + Ice' to sell.\"}", send("POST", path + "/sell", null));
+    }
+
+    @Test
+    void badCardRequestsAreRefusedWithTheirStatus() throws IOException, InterruptedException {
+        serve(new TradingCardInventorySystemModel());
+        send("POST", "/cards", "{\"name\": \"Bolt\", \"rarity\": \"common\", \"value\": 1}");
+
+        assertResponse(400, "{\"error\":\"Unknown rarity 'shiny'.\"}",
+                send("POST", "/cards", "{\"name\": \"Bolt\", \"rarity\": \"shiny\", \"value\": 1}"));
+        assertResponse(400, "{\"error\":\"Missing value.\"}", send("POST", "/cards", "{\"name\": \"Bolt\", \"rarity\": \"common\"}"));
+        assertResponse(400, "{\"error\":\"Value '1E+30' is too large.\"}",
+                send("POST", "/cards", "{\"name\": \"Bolt\", \"rarity\": \"common\", \"value\": 1E+30}"));
+        assertResponse(400, "{\"error\":\"Expected ',' or '}' on line 1 of the JSON input.\"}",
+                send("POST", "/cards", "{\"name\": \"Bolt\" \"rarity\": \"common\"}"));
+        assertResponse(400, "{\"error\":\"Count cannot be negative.\"}", send("PUT", "/cards/Bolt", "{\"count\": -1}"));
+        assertResponse(400, "{\"error\":\"Invalid count 'many'.\"}", send("PUT", "/cards/Bolt", "{\"count\": \"many\"}"));
+        assertResponse(404, "{\"error\":\"No card named 'Nope' in the collection.\"}", send("GET", "/cards/Nope", null));
+        assertResponse(405, "{\"error\":\"Method not allowed.\"}", send("PATCH", "/cards/Bolt", null));
+        assertResponse(405, "{\"error\":\"Method not allowed.\"}", send("DELETE", "/cards", null));
+        assertResponse(405, "{\"error\":\"Method not allowed.\"}", send("GET", "/cards/Bolt/sell", null));
+        assertResponse(404, "{\"error\":\"No such resource.\"}", send("POST", "/cards/Bolt/buy", null));
+        assertResponse(404, "{\"error\":\"No such resource.\"}", send("GET", "/", null));
+        assertResponse(404, "{\"error\":\"No such resource.\"}", send("GET", "/nothing", null));
+        assertResponse(404, "{\"error\":\"Metrics are not being recorded.\"}", send("GET", "/metrics", null));
+    }
+
+    @Test
+    void bindersAndDecksFollowTheModelsRules() throws IOException, InterruptedException {
+        TradingCardInventorySystemModel model = serve(new TradingCardInventorySystemModel());
+        send("POST", "/cards", "{\"name\": \"Dragon\", \"rarity\": \"rare\", \"variant\": \"alt-art\", \"value\": 5, \"count\": 3}");
+        send("POST", "/cards", "{\"name\": \"Goblin\", \"rarity\": \"common\", \"value\": 1}");
+
+        assertResponse(201, "{\"name\":\"Cheap, fast\",\"type\":\"PauperBinder\",\"value\":0.00,\"count\":0}",
+                send("POST", "/binders", "{\"name\": \"Cheap, fast\", \"type\": \"pauper\"}"));
+        assertResponse(409, "{\"error\":\"'Cheap, fast' already exists.\"}",
+                send("POST", "/binders", "{\"name\": \"Cheap, fast\"}"));
+        assertResponse(400, "{\"error\":\"Unknown type 'gold'.\"}", send("POST", "/binders", "{\"name\": \"B\", \"type\": \"gold\"}"));
+        assertResponse(400, "{\"error\":\"Missing name.\"}", send("POST", "/decks", "{}"));
+
+        String pauper = "/binders/" + encode("Cheap, fast");
+        assertResponse(409, "{\"error\":\"'Cheap, fast' cannot take 'Dragon'.\"}",
+                send("POST", pauper + "/cards", "{\"name\": \"Dragon\"}"));
+        assertResponse(200, "{\"name\":\"Cheap, fast\",\"type\":\"PauperBinder\",\"value\":1.00,\"cards\":["
+                        + "{\"name\":\"Goblin\",\"rarity\":\"COMMON\",\"variant\":\"NORMAL\",\"value\":1.00,\"count\":0}]}",
+                send("POST", pauper + "/cards", "{\"name\": \"Goblin\"}"));
+        assertResponse(404, "{\"error\":\"'Cheap, fast' holds no card named 'Dragon'.\"}",
+                send("DELETE", pauper + "/cards/Dragon", null));
+        assertResponse(404, "{\"error\":\"No binder named 'Missing'.\"}", send("GET", "/binders/Missing", null));
+        assertResponse(404, "{\"error\":\"No deck named 'Missing'.\"}", send("POST", "/decks/Missing", null));
+
+        // Basic binders cannot be sold, and only luxury binders take a price
+        send("POST", "/binders", "{\"name\": \"Basic\"}");
+        assertResponse(409, "{\"error\":\"'Basic' cannot be sold.\"}", send("POST", "/binders/Basic/sell", "{}"));
+        assertResponse(400, "{\"error\":\"Only luxury binders take a custom price.\"}",
+                send("POST", pauper + "/sell", "{\"price\": 10}"));
+
+        send("POST", "/binders", "{\"name\": \"Lux\", \"type\": \"luxury\"}");
+        send("POST", "/binders/Lux/cards", "{\"name\": \"Dragon\"}");
+        assertResponse(409, "{\"error\":\"Price must be at least 15.00.\"}", send("POST", "/binders/Lux/sell", "{\"price\": 14.99}"));
+        HttpResponse<String> sold = send("POST", "/binders/Lux/sell", "{\"price\": 20}");
+        assertResponse(200, "{\"collectorMoney\":" + model.getCollectorMoney() + "}", sold);
+        assertTrue(model.getCollectorMoney().compareTo(new BigDecimal("20")) >= 0);
+        assertNull(model.getBinder("Lux"));
+
+        // Trading is for binders only
+        send("POST", "/decks", "{\"name\": \"Deck\"}");
+        assertResponse(404, "{\"error\":\"No such resource.\"}", send("POST", "/decks/Deck/trade", "{}"));
+        assertResponse(200, "{\"name\":\"Cheap, fast\",\"type\":\"PauperBinder\",\"value\":0.50,\"cards\":["
+                        + "{\"name\":\"Elf\",\"rarity\":\"UNCOMMON\",\"variant\":\"NORMAL\",\"value\":0.50,\"count\":0}]}",
+                send("POST", pauper + "/trade", "{\"outgoing\": \"goblin\", \"name\": \"Elf\", \"rarity\": \"uncommon\","
+                        + " \"value\": 0.5}"));
+
+        assertResponse(200, "{\"name\":\"Deck\",\"type\":\"NormalDeck\",\"value\":0.00,\"count\":0}",
+                send("DELETE", "/decks/Deck", null));
+        assertResponse(404, "{\"error\":\"No deck named 'Deck'.\"}", send("DELETE", "/decks/Deck", null));
+    }
+
+    @Test
+    void cardListAnswersQueriesAndExplainsThem() throws IOException, InterruptedException {
+        TradingCardInventorySystemModel model = serve(new TradingCardInventorySystemModel());
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            cards.add(new Card("Card " + i, (i % 10 == 0) ? CardRarity.RARE : CardRarity.COMMON, CardVariant.NORMAL,
+                    BigDecimal.valueOf(i + 1, 2), 1));
+        }
+        model.addCardsToCollection(cards);
+
+        // The whole collection streams out, one card per line
+        HttpResponse<String> all = send("GET", "/cards", null);
+        assertEquals(200, all.statusCode());
+        assertEquals(5_000, all.body().lines().count());
+        assertTrue(all.body().startsWith("[{\"name\":"));
+        assertTrue(all.body().endsWith("}]\n"));
+
+        assertEquals("[{\"name\":\"Card 4990\",\"rarity\":\"RARE\",\"variant\":\"NORMAL\",\"value\":49.91,\"count\":1},\n"
+                        + "{\"name\":\"Card 4980\",\"rarity\":\"RARE\",\"variant\":\"NORMAL\",\"value\":49.81,\"count\":1}]\n",
+                send("GET", "/cards?rarity=rare,legendary&sort=-value&limit=2", null).body());
+        assertEquals("[]\n", send("GET", "/cards?rarity=!common,rare", null).body());
+
+        HttpResponse<String> plan = send("GET", "/cards?rarity=rare&limit=3&explain", null);
+        assertEquals(200, plan.statusCode());
+        assertTrue(plan.body().startsWith("{\"plan\":\"query: rarity RARE; limit 3\\naccess: "), plan.body());
+
+        assertResponse(400, "{\"error\":\"Unknown parameter 'colour'.\"}", send("GET", "/cards?colour=red", null));
+        assertResponse(400, "{\"error\":\"Invalid inBinder 'yes'.\"}", send("GET", "/cards?inBinder=yes", null));
+        assertResponse(400, "{\"error\":\"Invalid limit 'x'.\"}", send("GET", "/cards?limit=x", null));
+        assertResponse(400, "{\"error\":\"Limit cannot be negative.\"}", send("GET", "/cards?limit=-1", null));
+        assertResponse(400, "{\"error\":\"Unknown sort 'colour'.\"}", send("GET", "/cards?sort=colour", null));
+    }
+
+    @Test
+    void metricsAreServedAsText() throws IOException, InterruptedException {
+        TradingCardInventorySystemModel model = serve(new TradingCardInventorySystemModel());
+        model.setMetrics(new InventoryMetrics());
+        send("POST", "/cards", "{\"name\": \"Bolt\", \"rarity\": \"common\", \"value\": 1}");
+
+        HttpResponse<String> metrics = send("GET", "/metrics", null);
+        assertEquals(200, metrics.statusCode());
+        assertEquals("text/plain; version=0.0.4; charset=utf-8", metrics.headers().firstValue("Content-Type").orElse(null));
+        assertTrue(metrics.body().contains("tcis_operation_seconds_count{operation=\"add_card\",target=\"collection\"} 1\n"),
+                metrics.body());
+        assertResponse(405, "{\"error\":\"Method not allowed.\"}", send("POST", "/metrics", null));
+    }
+
+    @Test
+    void unexpectedExceptionsAnswer500AndAreReported() throws IOException, InterruptedException {
+        List<Throwable> reported = new ArrayList<>();
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((_, e) -> {
+            synchronized (reported) {
+                reported.add(e);
+            }
+        });
+
+        try {
+            serve(new TradingCardInventorySystemModel() {
+                @Override
+                public BigDecimal getCollectorMoney() {
+                    throw new IllegalStateException("Broken");
+                }
+            });
+
+            // The message of an unexpected exception stays on the server
+            assertResponse(500, "{\"error\":\"Internal error.\"}", send("GET", "/money", null));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+
+        synchronized (reported) {
+            assertEquals(1, reported.size());
+            assertInstanceOf(IllegalStateException.class, reported.getFirst());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saves inventories and loads them back, and checks that files from another
+ * version, of another kind or cut short are refused.
+ */
+class InventorySnapshotTest {
+    // Magic, version, then the journal sequence from version 2 on
+    private static final int VERSION_OFFSET = Integer.BYTES;
+    private static final int SEQUENCE_OFFSET = VERSION_OFFSET + Short.BYTES;
+
+    @TempDir
+    Path directory;
+
+    private static TradingCardInventorySystemModel sample() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        Inventories.fill(model);
+
+        LuxuryBinder luxury = (LuxuryBinder) model.getBinder("LUXURY");
+        assertTrue(luxury.setCustomPrice(luxury.calculateBaseValue().add(new BigDecimal("5.55"))));
+
+        // A card only a holder has: one copy moved into a binder, and the last free copy sold
+        model.addCardToCollection(new Card("Lone", CardRarity.RARE, CardVariant.NORMAL, new BigDecimal("3.00"), 2));
+        assertTrue(model.addCardToBinder(model.getBinder("RARES"), model.getCardFromCollection("Lone")));
+        assertTrue(model.sellCard(model.getCardFromCollection("Lone")));
+        assertNull(model.getCardFromCollection("Lone"));
+        return model;
+    }
+
+    @Test
+    void savedInventoryLoadsBackTheSame() throws IOException {
+        TradingCardInventorySystemModel model = sample();
+        Path path = directory.resolve("inventory.tcis");
+
+        InventorySnapshot.save(model, path, 42);
+        TradingCardInventorySystemModel loaded = InventorySnapshot.load(path);
+
+        assertEquals(Inventories.describe(model), Inventories.describe(loaded));
+        assertEquals(42, InventorySnapshot.readJournalSequence(path));
+
+        // A card in the collection and in holders is one object again
+        Card bolt = loaded.getCardFromCollection("Bolt");
+        assertSame(bolt, loaded.getBinder("BASIC").getCards().getFirst());
+        assertSame(bolt, loaded.getDeck("Normal").getCards().getFirst());
+        assertEquals(model.getHoldersOfCard(model.getCardFromCollection("Bolt")).size(),
+                loaded.getHoldersOfCard(bolt).size());
+    }
+
+    @Test
+    void savedInventoryLoadsIntoAnyCardStore() throws IOException {
+        TradingCardInventorySystemModel model = sample();
+        Path path = directory.resolve("inventory.tcis");
+
+        InventorySnapshot.save(model, path);
+        TradingCardInventorySystemModel loaded = InventorySnapshot.load(path, ColumnarCardStore::new);
+
+        assertEquals(Inventories.describe(model), Inventories.describe(loaded));
+        assertEquals(0, InventorySnapshot.readJournalSequence(path));
+        loaded.getCardStore().close();
+    }
+
+    @Test
+    void versionOneSnapshotLoadsWithoutAJournalSequence() throws IOException {
+        TradingCardInventorySystemModel model = sample();
+        Path path = directory.resolve("inventory.tcis");
+        InventorySnapshot.save(model, path, 42);
+
+        // Version 1 is version 2 without the journal sequence
+        byte[] current = Files.readAllBytes(path);
+        byte[] old = new byte[current.length - Long.BYTES];
+        System.arraycopy(current, 0, old, 0, SEQUENCE_OFFSET);
+        System.arraycopy(current, SEQUENCE_OFFSET + Long.BYTES, old, SEQUENCE_OFFSET, old.length - SEQUENCE_OFFSET);
+        ByteBuffer.wrap(old).putShort(VERSION_OFFSET, (short) 1);
+        Files.write(path, old);
+
+        assertEquals(0, InventorySnapshot.readJournalSequence(path));
+        assertEquals(Inventories.describe(model), Inventories.describe(InventorySnapshot.load(path)));
+    }
+
+    @Test
+    void unknownVersionOrKindIsRefused() throws IOException {
+        Path path = directory.resolve("inventory.tcis");
+        InventorySnapshot.save(sample(), path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        ByteBuffer.wrap(bytes).putShort(VERSION_OFFSET, (short) 3);
+        Files.write(path, bytes);
+        assertEquals("Unsupported snapshot version 3.",
+                assertThrows(IOException.class, () -> InventorySnapshot.load(path)).getMessage());
+        assertThrows(IOException.class, () -> InventorySnapshot.readJournalSequence(path));
+
+        ByteBuffer.wrap(bytes).putShort(VERSION_OFFSET, (short) 2).putInt(0, 0x12345678);
+        Files.write(path, bytes);
+        assertEquals("Not an inventory snapshot.",
+                assertThrows(IOException.class, () -> InventorySnapshot.load(path)).getMessage());
+    }
+
+    @Test
+    void truncatedSnapshotIsRefused() throws IOException {
+        Path path = directory.resolve("inventory.tcis");
+        InventorySnapshot.save(sample(), path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(path, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> InventorySnapshot.load(path), "cut to " + length + " bytes");
+            if (length < SEQUENCE_OFFSET + Long.BYTES) {
+                assertThrows(IOException.class, () -> InventorySnapshot.readJournalSequence(path));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens inventories as a crash or a clean shutdown leaves them, and checks
+ * that the snapshot plus journal bring back the same inventory, and that a
+ * journal past its threshold is folded into the snapshot.
+ */
+class InventoryStoreTest {
+    @TempDir
+    Path directory;
+
+    /** Copies a data directory while its store is open, as a crash would leave it. */
+    private Path crashCopy(Path data, String name) throws IOException {
+        Path copy = directory.resolve(name);
+        Files.createDirectories(copy);
+        try (Stream<Path> files = Files.list(data)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, copy.resolve(file.getFileName()));
+            }
+        }
+        return copy;
+    }
+
+    @Test
+    void reopeningAfterACrashReplaysTheJournal() throws IOException {
+        Path data = directory.resolve("data");
+
+        try (InventoryStore store = InventoryStore.open(data)) {
+            TradingCardInventorySystemModel model = store.getModel();
+            Inventories.fill(model);
+            String expected = Inventories.describe(model);
+
+            // Everything so far is in the journal only
+            assertFalse(Files.exists(data.resolve("inventory.tcis")));
+            try (InventoryStore reopened = InventoryStore.open(crashCopy(data, "crash"))) {
+                assertEquals(expected, Inventories.describe(reopened.getModel()));
+            }
+
+            // After a checkpoint, a crash leaves a snapshot plus the records since
+            store.checkpoint();
+            assertTrue(model.adjustCardCount(model.getCardFromCollection("Dragon"), 4));
+            try (InventoryStore reopened = InventoryStore.open(crashCopy(data, "crash after checkpoint"))) {
+                assertEquals(Inventories.describe(model), Inventories.describe(reopened.getModel()));
+            }
+        }
+    }
+
+    @Test
+    void closingFoldsTheJournalIntoTheSnapshot() throws IOException {
+        Path data = directory.resolve("data");
+        String expected;
+
+        try (InventoryStore store = InventoryStore.open(data)) {
+            Inventories.fill(store.getModel());
+            expected = Inventories.describe(store.getModel());
+        }
+
+        assertEquals(0, Files.size(data.resolve("journal.log")));
+        try (InventoryStore store = InventoryStore.open(data)) {
+            assertEquals(expected, Inventories.describe(store.getModel()));
+        }
+    }
+
+    @Test
+    void journalPastTheThresholdIsCompacted() throws IOException {
+        Path data = directory.resolve("data");
+        long threshold = 4_096;
+
+        try (InventoryStore store = InventoryStore.open(data, threshold)) {
+            TradingCardInventorySystemModel model = store.getModel();
+            Path journal = data.resolve("journal.log");
+            boolean compacted = false;
+
+            for (int i = 0; i < 500; i++) {
+                long before = Files.size(journal);
+                model.addCardToCollection(new Card("Card " + i, CardRarity.COMMON, CardVariant.NORMAL,
+                        BigDecimal.valueOf(i + 1, 2), 1));
+                compacted |= Files.size(journal) < before;
+
+                assertTrue(Files.size(journal) < threshold);
+            }
+            assertTrue(compacted);
+            assertTrue(Files.exists(data.resolve("inventory.tcis")));
+
+            try (InventoryStore reopened = InventoryStore.open(crashCopy(data, "crash"), threshold)) {
+                assertEquals(Inventories.describe(model), Inventories.describe(reopened.getModel()));
+                assertEquals(500, reopened.getModel().getCollectionSize());
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the long cents arithmetic against the {@link BigDecimal} formulas
+ * it replaced: every amount rounds half up to cents exactly as
+ * {@code setScale(2, RoundingMode.HALF_UP)} did, half-cent ties and negative
+ * amounts included, and amounts that do not fit in a long are refused
+ * rather than wrapped.
+ */
+class MoneyTest {
+    /** The card value formula before values were kept in cents. */
+    private static BigDecimal oldCardValue(BigDecimal value, CardVariant variant) {
+        return switch (variant) {
+            case EXTENDED_ART -> value.add(value.multiply(new BigDecimal("0.50"))).setScale(2, RoundingMode.HALF_UP);
+            case FULL_ART -> value.add(value).setScale(2, RoundingMode.HALF_UP);
+            case ALT_ART -> value.add(value.multiply(new BigDecimal("2.00"))).setScale(2, RoundingMode.HALF_UP);
+            case NORMAL -> value.setScale(2, RoundingMode.HALF_UP);
+        };
+    }
+
+    private static BigDecimal oldRounding(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.005", "0.015", "0.025", "1.235", "2.345", "0.0049999", "0.00500001", "-0.005",
+            "-2.345", "-0.0049", "7", "12.3", "99999999.995", "0.000001", "1E+3", "123456789012345.675"})
+    void toCentsRoundsLikeSetScale(String text) {
+        BigDecimal amount = new BigDecimal(text);
+
+        assertEquals(oldRounding(amount), Money.toBigDecimal(Money.toCents(amount)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.01", "0.03", "0.005", "0.015", "0.003", "0.0025", "1.115", "3.333", "0.001",
+            "10.125", "0.0001", "1.99", "2.5", "40.05"})
+    void variantMultipliersMatchTheOldFormula(String text) {
+        BigDecimal value = new BigDecimal(text);
+
+        for (CardVariant variant : CardVariant.values()) {
+            Card card = new Card("Card", CardRarity.RARE, variant, value, 1);
+            assertEquals(oldCardValue(value, variant), card.getValue(), variant + " of " + text);
+        }
+    }
+
+    @Test
+    void randomAmountsMatchTheOldFormula() {
+        SplittableRandom random = new SplittableRandom(3);
+
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextLong(1, 10_000_000), random.nextInt(0, 7));
+            CardVariant variant = CardVariant.values()[random.nextInt(CardVariant.values().length)];
+
+            assertEquals(oldCardValue(value, variant), new Card("Card", CardRarity.LEGENDARY, variant, value, 1)
+                    .getValue(), variant + " of " + value);
+            assertEquals(oldRounding(value), Money.toBigDecimal(Money.toCents(value)));
+            assertEquals(oldRounding(value.negate()), Money.toBigDecimal(Money.toCents(value.negate())));
+        }
+    }
+
+    @Test
+    void feesRoundHalfAwayFromZero() {
+        SplittableRandom random = new SplittableRandom(5);
+
+        // 5 cents plus 10% is 5.5 cents, a tie
+        assertEquals(6, Money.percent(5, 110));
+        assertEquals(-6, Money.percent(-5, 110));
+        assertEquals(2, Money.multiply(3, 1, 2));
+        assertEquals(-2, Money.multiply(-3, 1, 2));
+
+        for (int i = 0; i < 100_000; i++) {
+            long cents = random.nextLong(-1_000_000_000L, 1_000_000_000L);
+            BigDecimal amount = Money.toBigDecimal(cents);
+
+            assertEquals(oldRounding(amount.multiply(new BigDecimal("1.10"))),
+                    Money.toBigDecimal(Money.percent(cents, 110)));
+            assertEquals(oldRounding(amount.multiply(BigDecimal.valueOf(3)).divide(BigDecimal.valueOf(2))),
+                    Money.toBigDecimal(Money.multiply(cents, 3, 2)));
+        }
+    }
+
+    @Test
+    void amountsThatDoNotFitInALongAreRefused() {
+        assertThrows(ArithmeticException.class, () -> Money.toCents(new BigDecimal("1E+17")));
+        assertThrows(ArithmeticException.class, () -> Money.toCents(new BigDecimal("-1E+17")));
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3, 1));
+        assertThrows(ArithmeticException.class, () -> Money.percent(Long.MIN_VALUE / 100, 110));
+        assertThrows(ArithmeticException.class, () -> Money.multiplyToCents(new BigDecimal("5E+16"), 3, 1));
+        assertThrows(ArithmeticException.class, () -> Money.multiplyToCents(new BigDecimal("5E+16").add(
+                new BigDecimal("0.001")), 3, 1));
+
+        // The largest whole-cent amount still converts both ways
+        BigDecimal largest = Money.toBigDecimal(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, Money.toCents(largest));
+    }
+
+    @Test
+    void cardsRefuseValuesThatAreNotPositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Card("Card", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ZERO, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Card("Card", CardRarity.COMMON, CardVariant.NORMAL, new BigDecimal("-0.01"), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Card("Card", CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, -1));
+    }
+}
@@ -0,0 +1,199 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which index the planner reads for each shape of query, what
+ * {@link TradingCardInventorySystemModel#explainQuery} says about it, and that
+ * whatever the plan, the answer is the one a scan of every card gives.
+ */
+class QueryPlanTest {
+    private static final int COMMONS = 2_000;
+    private static final int LEGENDARIES = 10;
+
+    private TradingCardInventorySystemModel model;
+
+    /**
+     * Two thousand commons named Card0000 on, worth a cent more each, and ten
+     * full-art legendaries named Zed0 on, worth $200 and up. No two cards share
+     * a name or a value, so every order is total.
+     */
+    @BeforeEach
+    void fill() {
+        model = new TradingCardInventorySystemModel();
+        List<Card> cards = new ArrayList<>();
+
+        for (int i = 0; i < COMMONS; i++) {
+            cards.add(new Card(String.format("Card%04d", i), CardRarity.COMMON, CardVariant.NORMAL,
+                    BigDecimal.valueOf(i + 1, 2), 1 + i % 7));
+        }
+        for (int i = 0; i < LEGENDARIES; i++) {
+            cards.add(new Card("Zed" + i, CardRarity.LEGENDARY, CardVariant.FULL_ART, BigDecimal.valueOf(100 + i), 2));
+        }
+        model.addCardsToCollection(cards);
+
+        assertTrue(model.createBinder("Few", BinderType.BASIC));
+        assertTrue(model.createDeck("Deck", DeckType.NORMAL));
+        for (String name : List.of("Card0005", "Card0010", "Zed1")) {
+            assertTrue(model.addCardToBinder(model.getBinder("Few"), model.getCardFromCollection(name)));
+        }
+        assertTrue(model.addCardToDeck(model.getDeck("Deck"), model.getCardFromCollection("Card0100")));
+    }
+
+    /** The chosen access path, the line after the query in the explanation. */
+    private String access(CardQuery query) {
+        return model.explainQuery(query).lines().skip(1).findFirst().orElseThrow();
+    }
+
+    @Test
+    void plannerReadsTheNarrowestIndex() {
+        assertEquals("access: whole collection in name order", access(CardQuery.all()));
+        assertEquals("access: name index, names starting with 'Zed'", access(CardQuery.all().nameStartsWith("Zed")));
+        assertEquals("access: value index, values from $210.00",
+                access(CardQuery.all().valueAtLeast(new BigDecimal("210"))));
+        assertEquals("access: value index, values $1.00 to $1.20",
+                access(CardQuery.all().valueAtLeast(BigDecimal.ONE).valueAtMost(new BigDecimal("1.20"))));
+        assertEquals("access: rarity and variant bitmaps, rarity LEGENDARY",
+                access(CardQuery.all().rarity(CardRarity.LEGENDARY)));
+        assertEquals("access: cards of 'Few'", access(CardQuery.all().inHolder(model.getBinder("Few"))));
+
+        // Of two indexed conditions, the one with fewer cards is read and the other checked
+        assertEquals("access: rarity and variant bitmaps, rarity LEGENDARY",
+                access(CardQuery.all().nameStartsWith("Card00").rarity(CardRarity.LEGENDARY)));
+        assertEquals("access: name index, names starting with 'Card000'",
+                access(CardQuery.all().nameStartsWith("Card000").rarity(CardRarity.COMMON)));
+    }
+
+    @Test
+    void plannerPrefersAnIndexInTheQueryOrderForSmallLimits() {
+        // The value index yields the most valuable cards first, so it stops after five
+        assertEquals("access: value index, every value, in value order descending",
+                access(CardQuery.all().orderBy(CardQuery.Order.VALUE, true).limit(5)));
+
+        // Nearly every card is common: walking names beats reading the bitmap and sorting
+        assertEquals("access: whole collection in name order, in name order",
+                access(CardQuery.all().rarity(CardRarity.COMMON).orderBy(CardQuery.Order.NAME, false).limit(10)));
+
+        // Only ten legendaries: reading them and sorting beats walking names until ten turn up
+        assertEquals("access: rarity and variant bitmaps, rarity LEGENDARY",
+                access(CardQuery.all().rarity(CardRarity.LEGENDARY).orderBy(CardQuery.Order.NAME, false).limit(10)));
+    }
+
+    @Test
+    void explainListsTheStepsAfterTheIndex() {
+        String sorted = model.explainQuery(CardQuery.all().rarity(CardRarity.LEGENDARY).countAtLeast(2)
+                .orderBy(CardQuery.Order.VALUE, true).limit(3));
+
+        assertTrue(sorted.startsWith("query: rarity LEGENDARY, count >= 2; order by value descending; limit 3\n"), sorted);
+        assertTrue(sorted.contains("  visits 10 of 2,010 cards"), sorted);
+        assertTrue(sorted.contains("then: check count >= 2 on each card\n"), sorted);
+        assertTrue(sorted.contains("then: sort by value descending\n"), sorted);
+        assertTrue(sorted.contains("then: keep the first 3\n"), sorted);
+        assertTrue(sorted.contains("\n  * BITMAP "), sorted);
+        assertTrue(sorted.contains("\n    VALUE_RANGE "), sorted);
+        assertTrue(sorted.contains("\n    FULL_SCAN "), sorted);
+
+        String early = model.explainQuery(CardQuery.all().orderBy(CardQuery.Order.NAME, false).limit(4));
+        assertTrue(early.contains("  visits ~4 of 2,010 cards"), early);
+        assertTrue(early.contains("then: keep the first 4, stopping the scan there\n"), early);
+        assertFalse(early.contains("then: sort"), early);
+
+        // Membership is checked after the scan, so the scan cannot stop at the limit
+        String held = model.explainQuery(CardQuery.all().inBinder(true).orderBy(CardQuery.Order.NAME, false).limit(1));
+        assertTrue(held.contains("then: check in a binder on each card (membership under card locks, after the scan)\n"),
+                held);
+        assertTrue(held.contains("then: keep the first 1\n"), held);
+        assertTrue(held.contains("  visits 2,010 of 2,010 cards"), held);
+    }
+
+    @Test
+    void everyPlanAnswersLikeAScan() {
+        SplittableRandom random = new SplittableRandom(19);
+        List<Card> collection = new ArrayList<>();
+        model.forEachCardInNameOrder(collection::add);
+
+        for (int trial = 0; trial < 500; trial++) {
+            CardQuery query = CardQuery.all();
+            List<Predicate<Card>> conditions = new ArrayList<>();
+
+            if (random.nextInt(3) == 0) {
+                String prefix = random.nextBoolean() ? "card0" + random.nextInt(20) : "Z";
+                query = query.nameStartsWith(prefix);
+                conditions.add(card -> card.getName().toLowerCase().startsWith(prefix.toLowerCase()));
+            }
+            if (random.nextInt(3) == 0) {
+                long low = random.nextLong(0, 25_000);
+                long high = low + random.nextLong(0, 3_000);
+                query = query.valueAtLeast(BigDecimal.valueOf(low, 2)).valueAtMost(BigDecimal.valueOf(high, 2));
+                conditions.add(card -> card.getValueCents() >= low && card.getValueCents() <= high);
+            }
+            if (random.nextInt(3) == 0) {
+                CardRarity rarity = random.nextBoolean() ? CardRarity.LEGENDARY : CardRarity.COMMON;
+                query = query.rarity(rarity);
+                conditions.add(card -> card.getRarity() == rarity);
+            }
+            if (random.nextInt(4) == 0) {
+                int min = random.nextInt(8);
+                query = query.countAtLeast(min);
+                conditions.add(card -> card.getCount() >= min);
+            }
+            if (random.nextInt(5) == 0) {
+                boolean held = random.nextBoolean();
+                query = query.inBinder(held);
+                conditions.add(card -> model.getHoldersOfCard(card).stream()
+                        .anyMatch(holder -> holder instanceof Binder) == held);
+            }
+            if (random.nextInt(6) == 0) {
+                CardHolder holder = random.nextBoolean() ? model.getBinder("Few") : model.getDeck("Deck");
+                query = query.inHolder(holder);
+                conditions.add(card -> model.getHoldersOfCard(card).contains(holder));
+            }
+
+            Comparator<Card> order = null;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    boolean descending = random.nextBoolean();
+                    query = query.orderBy(CardQuery.Order.NAME, descending);
+                    order = Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER);
+                    order = descending ? order.reversed() : order;
+                }
+                case 1 -> {
+                    boolean descending = random.nextBoolean();
+                    query = query.orderBy(CardQuery.Order.VALUE, descending);
+                    order = Comparator.comparingLong(Card::getValueCents);
+                    order = descending ? order.reversed() : order;
+                }
+                default -> {
+                }
+            }
+            int limit = random.nextBoolean() ? Integer.MAX_VALUE : random.nextInt(0, 30);
+            query = query.limit(limit);
+
+            List<Card> expected = collection.stream().filter(card -> conditions.stream().allMatch(c -> c.test(card)))
+                    .sorted((order != null) ? order : (a, b) -> 0)
+                    .toList();
+            List<Card> answer = model.queryCards(query);
+            String explanation = model.explainQuery(query);
+
+            if (order != null) {
+                assertEquals(expected.subList(0, Math.min(limit, expected.size())), answer, explanation);
+            } else {
+                // Without an order any cards that match will do
+                assertEquals(Math.min(limit, expected.size()), answer.size(), explanation);
+                assertTrue(new HashSet<>(expected).containsAll(answer), explanation);
+                assertEquals(answer.size(), new HashSet<>(answer).size(), explanation);
+            }
+        }
+    }
+}
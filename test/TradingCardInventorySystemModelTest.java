@@ -0,0 +1,179 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TradingCardInventorySystemModelTest {
+    @TempDir
+    Path directory;
+
+    private static Card bolt(String name) {
+        return new Card(name, CardRarity.COMMON, CardVariant.NORMAL, BigDecimal.ONE, 1);
+    }
+
+    /** The same card twice, under names that are equal ignoring case but hash apart. */
+    private static Map<Card, Integer> twoBolts() {
+        Map<Card, Integer> batch = new LinkedHashMap<>();
+        batch.put(bolt("bolt"), 1);
+        batch.put(bolt("BOLT"), 1);
+        return batch;
+    }
+
+    @Test
+    void batchOfEqualCardsCannotTakeMoreCopiesThanThereAre() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        model.addCardToCollection(bolt("Bolt"));
+
+        assertFalse(model.removeCardsFromCollection(twoBolts()));
+        assertEquals(1, model.getCardFromCollection("Bolt").getCount());
+    }
+
+    @Test
+    void batchOfEqualCardsCannotPutTwoCopiesInADeck() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        model.addCardToCollection(bolt("Bolt"));
+        model.addCardToCollection(bolt("Bolt"));
+        model.createDeck("Deck", DeckType.NORMAL);
+
+        assertFalse(model.addCardsToDeck(model.getDeck("Deck"), twoBolts()));
+        assertEquals(0, model.getDeck("Deck").getCardsCount());
+        assertEquals(2, model.getCardFromCollection("Bolt").getCount());
+    }
+
+    @Test
+    void batchOfEqualCardsMovesTheSummedQuantity() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        model.addCardToCollection(bolt("Bolt"));
+        model.addCardToCollection(bolt("Bolt"));
+        model.createBinder("Binder", BinderType.BASIC);
+        Binder binder = model.getBinder("Binder");
+
+        assertTrue(model.addCardsToBinder(binder, twoBolts()));
+        assertEquals(2, binder.getCardsCount());
+        assertEquals(0, model.getCardFromCollection("Bolt").getCount());
+
+        Map<Card, Integer> three = twoBolts();
+        three.put(bolt("bOLT"), 1);
+        assertFalse(model.removeCardsFromBinder(binder, three));
+        assertEquals(2, binder.getCardsCount());
+
+        assertTrue(model.removeCardsFromBinder(binder, twoBolts()));
+        assertEquals(0, binder.getCardsCount());
+        assertEquals(2, model.getCardFromCollection("Bolt").getCount());
+    }
+
+    @Test
+    void listenersHearOfChangesOnlyOnceTheyAreJournaled() throws IOException {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        List<Long> journaledAtEvent = new ArrayList<>();
+
+        try (InventoryJournal journal = new InventoryJournal(directory.resolve("journal"), 0)) {
+            model.attachJournal(journal, Long.MAX_VALUE, null);
+            model.addInventoryListener(_ -> journaledAtEvent.add(journal.getLastSequence()));
+
+            model.addCardToCollection(bolt("Bolt"));
+            model.createBinder("Binder", BinderType.BASIC);
+            model.addCardToBinder(model.getBinder("Binder"), model.getCardFromCollection("Bolt"));
+            model.executeTrade(model.getBinder("Binder"), bolt("Shock"), model.getCardFromCollection("Bolt"));
+
+            // CardAdded; HolderCreated; HolderCardAdded, CountChanged; CardAdded, HolderCardAdded, ...
+            assertEquals(List.of(1L, 2L, 3L, 3L), journaledAtEvent.subList(0, 4));
+            for (long sequence : journaledAtEvent.subList(4, journaledAtEvent.size())) {
+                assertEquals(4L, sequence);
+            }
+        }
+    }
+
+    @Test
+    void failedChangesReportNothing() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        model.addCardToCollection(bolt("Bolt"));
+        List<InventoryEvent> events = new ArrayList<>();
+        model.addInventoryListener(events::add);
+
+        assertFalse(model.removeCardsFromCollection(twoBolts()));
+        assertFalse(model.adjustCardCount(model.getCardFromCollection("Bolt"), -2));
+        assertTrue(events.isEmpty());
+
+        assertTrue(model.adjustCardCount(model.getCardFromCollection("Bolt"), 1));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void luxuryBinderSellsAtACustomPriceOnlyIfItIsAccepted() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        model.addCardToCollection(new Card("Dragon", CardRarity.RARE, CardVariant.ALT_ART, new BigDecimal("50.00"), 1));
+        model.createBinder("Vault", BinderType.LUXURY);
+        LuxuryBinder binder = (LuxuryBinder) model.getBinder("Vault");
+        assertTrue(model.addCardToBinder(binder, model.getCardFromCollection("Dragon")));
+        BigDecimal money = model.getCollectorMoney();
+        BigDecimal baseValue = binder.calculateBaseValue();
+
+        // A price below the cards' value is refused without touching the binder
+        assertFalse(model.sellBinder(binder, baseValue.subtract(BigDecimal.ONE)));
+        assertNull(binder.getCustomPrice());
+        assertEquals(binder, model.getBinder("Vault"));
+
+        // An accepted price is sold at with the handling fee
+        BigDecimal customPrice = baseValue.add(BigDecimal.TEN);
+        assertTrue(model.sellBinder(binder, customPrice));
+        assertEquals(0, customPrice.compareTo(binder.getCustomPrice()));
+        assertEquals(0, money.add(customPrice.multiply(new BigDecimal("1.1"))).compareTo(model.getCollectorMoney()));
+        assertNull(model.getBinder("Vault"));
+    }
+
+    @Test
+    void staleBinderOrDeckCannotBeDeleted() {
+        TradingCardInventorySystemModel model = new TradingCardInventorySystemModel();
+        model.addCardToCollection(bolt("Bolt"));
+        model.addCardToCollection(bolt("Bolt"));
+        model.createBinder("B", BinderType.PAUPER);
+        model.createDeck("D", DeckType.SELLABLE);
+        Binder soldBinder = model.getBinder("B");
+        Deck soldDeck = model.getDeck("D");
+        assertTrue(model.addCardToBinder(soldBinder, model.getCardFromCollection("Bolt")));
+        assertTrue(model.addCardToDeck(soldDeck, model.getCardFromCollection("Bolt")));
+        assertTrue(model.sellBinder(soldBinder));
+        assertTrue(model.sellDeck(soldDeck));
+        BigDecimal money = model.getCollectorMoney();
+
+        // Sold holders do not hand their cards back
+        assertFalse(model.deleteBinder(soldBinder));
+        assertFalse(model.deleteDeck(soldDeck));
+        assertEquals(0, model.getCardFromCollection("Bolt").getCount());
+        assertEquals(money, model.getCollectorMoney());
+
+        // Nor does a stale handle delete the holder that took its name
+        model.addCardToCollection(bolt("Bolt"));
+        model.createBinder("B", BinderType.BASIC);
+        model.createDeck("D", DeckType.NORMAL);
+        Binder binder = model.getBinder("B");
+        Deck deck = model.getDeck("D");
+        assertTrue(model.addCardToBinder(binder, model.getCardFromCollection("Bolt")));
+
+        assertFalse(model.deleteBinder(soldBinder));
+        assertFalse(model.deleteDeck(soldDeck));
+        assertEquals(binder, model.getBinder("B"));
+        assertEquals(List.of(binder), model.getBinders());
+        assertEquals(deck, model.getDeck("D"));
+        assertEquals(List.of(deck), model.getDecks());
+        assertEquals(1, binder.getCardsCount());
+        assertEquals(0, model.getCardFromCollection("Bolt").getCount());
+
+        // A holder deleted once cannot be deleted again
+        assertTrue(model.deleteBinder(binder));
+        assertFalse(model.deleteBinder(binder));
+        assertEquals(1, model.getCardFromCollection("Bolt").getCount());
+    }
+}